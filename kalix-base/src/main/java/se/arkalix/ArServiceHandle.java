@@ -2,6 +2,7 @@ package se.arkalix;
 
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
 
 /**
  * Represents an Arrowhead Framework (AHF) service that is already provided
@@ -27,6 +28,25 @@ public interface ArServiceHandle {
     @ThreadSafe
     void dismiss();
 
+    /**
+     * Causes represented service to be dismissed, making it unavailable to
+     * remote AHF systems, and then waits for any requests it is still
+     * handling to complete.
+     * <p>
+     * How long to wait before giving up on requests still being handled is
+     * determined by the {@link ArSystem} providing the service. Calling this
+     * method after the service has been dismissed returns a future that is
+     * completed when its requests have been handled.
+     *
+     * @return Future completed when no more requests are being handled by
+     * the service.
+     */
+    @ThreadSafe
+    default Future<?> dismissGracefully() {
+        dismiss();
+        return Future.done();
+    }
+
     /**
      * @return {@code true} only if this service has been dismissed, either by
      * a call to {@link #dismiss()} or by its {@link ArSystem} being shut
@@ -4,6 +4,9 @@ import se.arkalix.description.SystemDescription;
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.description.SystemIdentityDescription;
 import se.arkalix.internal.DefaultSystem;
+import se.arkalix.net.TlsSettings;
+import se.arkalix.net.WireLogging;
+import se.arkalix.net.http.service.HttpServerSettings;
 import se.arkalix.plugin.Plugin;
 import se.arkalix.plugin.PluginFacade;
 import se.arkalix.query.ServiceQuery;
@@ -100,6 +103,37 @@ public interface ArSystem extends SystemIdentityDescription {
     @ThreadSafe
     TrustStore trustStore();
 
+    /**
+     * Gets the {@link WireLogging wire logging} configuration this system has
+     * been {@link Builder#wireLogging(WireLogging) configured} to use.
+     * <p>
+     * The returned object may be modified at runtime to enable or disable
+     * logging of the raw traffic of the connections of this system.
+     *
+     * @return Wire logging configuration of this system.
+     */
+    @ThreadSafe
+    WireLogging wireLogging();
+
+    /**
+     * Gets the {@link HttpServerSettings HTTP server settings} this system
+     * has been {@link Builder#httpServerSettings(HttpServerSettings)
+     * configured} to use.
+     *
+     * @return HTTP server settings of this system.
+     */
+    @ThreadSafe
+    HttpServerSettings httpServerSettings();
+
+    /**
+     * Gets the {@link TlsSettings TLS settings} this system has been {@link
+     * Builder#tlsSettings(TlsSettings) configured} to use.
+     *
+     * @return TLS settings of this system.
+     */
+    @ThreadSafe
+    TlsSettings tlsSettings();
+
     /**
      * Gets description of this system as a {@link se.arkalix service provider}.
      *
@@ -181,6 +215,10 @@ public interface ArSystem extends SystemIdentityDescription {
     /**
      * Initiates system shutdown, causing all of its services to be dismissed.
      * <p>
+     * Services are {@link ArServiceHandle#dismissGracefully() dismissed
+     * gracefully}, which means that requests they are handling are allowed
+     * to complete before the returned future is completed.
+     * <p>
      * System shutdown is irreversible, meaning that the system cannot be used
      * to provide more services after this method has been invoked.
      * <p>
@@ -391,6 +429,54 @@ public interface ArSystem extends SystemIdentityDescription {
             return this;
         }
 
+        /**
+         * Sets {@link WireLogging wire logging} configuration to be used by
+         * this system, both for connections accepted by its services and for
+         * connections it establishes to consume other services. If not
+         * provided, a configuration with wire logging disabled for all
+         * connections will be used.
+         * <p>
+         * After system instance creation, the configuration will be
+         * available via the {@link ArSystem#wireLogging()} method.
+         *
+         * @param wireLogging Desired wire logging configuration.
+         * @return This builder.
+         */
+        public Builder wireLogging(final WireLogging wireLogging) {
+            inner.wireLogging(wireLogging);
+            return this;
+        }
+
+        /**
+         * Sets {@link HttpServerSettings settings} to be used by the HTTP
+         * server this system creates when its first {@link
+         * se.arkalix.net.http.service.HttpService HttpService} is provided.
+         * If not provided, {@link HttpServerSettings#defaults() default
+         * settings} will be used.
+         *
+         * @param httpServerSettings Desired HTTP server settings.
+         * @return This builder.
+         */
+        public Builder httpServerSettings(final HttpServerSettings httpServerSettings) {
+            inner.httpServerSettings(httpServerSettings);
+            return this;
+        }
+
+        /**
+         * Sets {@link TlsSettings TLS settings} to be used by the servers
+         * this system creates and by the connections it establishes to
+         * consume other services, unless in {@link #insecure() insecure
+         * mode}. If not provided, {@link TlsSettings#defaults() default
+         * settings} will be used.
+         *
+         * @param tlsSettings Desired TLS settings.
+         * @return This builder.
+         */
+        public Builder tlsSettings(final TlsSettings tlsSettings) {
+            inner.tlsSettings(tlsSettings);
+            return this;
+        }
+
         /**
          * Sets {@link ArServiceDescriptionCache service cache} to be used by
          * this system for storing information about remote services of
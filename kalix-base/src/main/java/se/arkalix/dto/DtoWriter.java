@@ -36,4 +36,68 @@ public interface DtoWriter {
      *                                       the encoding of this writer.
      */
     <T extends DtoWritable> void writeMany(final List<T> values, final BinaryWriter target) throws DtoWriteException;
+
+    /**
+     * Writes whatever must precede the first element of a sequence of
+     * values written incrementally via {@link #writeManyElement(int,
+     * DtoWritable, BinaryWriter)}.
+     * <p>
+     * Writing a sequence incrementally is useful when all of its elements are
+     * not available at once, or when the sequence is too large to be encoded
+     * into a single buffer. The output of calling this method, then {@link
+     * #writeManyElement(int, DtoWritable, BinaryWriter)} once per element,
+     * and finally {@link #writeManyEnd(BinaryWriter)}, must be equivalent to
+     * that of calling {@link #writeMany(List, BinaryWriter)} with the same
+     * elements.
+     *
+     * @param target Receiver of encoded sequence beginning.
+     * @throws DtoWriteException             If writing to {@code target} fails.
+     * @throws NullPointerException          If {@code target} is {@code null}.
+     * @throws UnsupportedOperationException If this writer does not support
+     *                                       incremental writing.
+     */
+    default void writeManyBegin(final BinaryWriter target) throws DtoWriteException {
+        throw new UnsupportedOperationException("Incremental writing not supported by " + getClass());
+    }
+
+    /**
+     * Attempts to encode {@code value} as element {@code index} of a sequence
+     * of values being written incrementally, and write it to {@code target}.
+     *
+     * @param index  Position of {@code value} in its sequence, counting from
+     *               0.
+     * @param value  Object to encode and write to {@code target}.
+     * @param target Receiver of encoded form of {@code value}.
+     * @throws DtoWriteException             If writing to {@code target} fails.
+     * @throws NullPointerException          If {@code value} or {@code target}
+     *                                       is {@code null}.
+     * @throws UnsupportedOperationException If this writer does not support
+     *                                       incremental writing, or if the DTO
+     *                                       interface type of {@code value}
+     *                                       does not support the encoding of
+     *                                       this writer.
+     * @see #writeManyBegin(BinaryWriter)
+     */
+    default <T extends DtoWritable> void writeManyElement(
+        final int index,
+        final T value,
+        final BinaryWriter target
+    ) throws DtoWriteException {
+        throw new UnsupportedOperationException("Incremental writing not supported by " + getClass());
+    }
+
+    /**
+     * Writes whatever must follow the last element of a sequence of values
+     * written incrementally.
+     *
+     * @param target Receiver of encoded sequence end.
+     * @throws DtoWriteException             If writing to {@code target} fails.
+     * @throws NullPointerException          If {@code target} is {@code null}.
+     * @throws UnsupportedOperationException If this writer does not support
+     *                                       incremental writing.
+     * @see #writeManyBegin(BinaryWriter)
+     */
+    default void writeManyEnd(final BinaryWriter target) throws DtoWriteException {
+        throw new UnsupportedOperationException("Incremental writing not supported by " + getClass());
+    }
 }
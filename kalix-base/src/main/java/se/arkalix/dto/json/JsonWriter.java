@@ -51,6 +51,31 @@ public class JsonWriter implements DtoWriter {
         target.write((byte) ']');
     }
 
+    @Override
+    public void writeManyBegin(final BinaryWriter target) {
+        target.write((byte) '[');
+    }
+
+    @Override
+    public <U extends DtoWritable> void writeManyElement(
+        final int index,
+        final U value,
+        final BinaryWriter target
+    ) throws DtoWriteException {
+        if (!(value instanceof JsonWritable)) {
+            throw jsonNotSupportedBy(value.getClass());
+        }
+        if (index != 0) {
+            target.write((byte) ',');
+        }
+        ((JsonWritable) value).writeJson(target);
+    }
+
+    @Override
+    public void writeManyEnd(final BinaryWriter target) {
+        target.write((byte) ']');
+    }
+
     private static RuntimeException jsonNotSupportedBy(final Class<?> class_) {
         return new UnsupportedOperationException("\"" + class_ + "\" does " +
             "not implement JsonWritable; if the class was produced by the " +
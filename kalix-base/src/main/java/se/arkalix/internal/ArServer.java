@@ -47,7 +47,8 @@ public interface ArServer {
     /**
      * Shuts server down, making it impossible to start it again.
      * <p>
-     * All services owned by this server are removed.
+     * All services owned by this server are {@link
+     * ArServiceHandle#dismissGracefully() gracefully dismissed}.
      *
      * @return Future completed when shutting down is complete.
      */
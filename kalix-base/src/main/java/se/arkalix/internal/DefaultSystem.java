@@ -9,6 +9,9 @@ import se.arkalix.ArSystem;
 import se.arkalix.description.SystemDescription;
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.internal.plugin.PluginNotifier;
+import se.arkalix.net.TlsSettings;
+import se.arkalix.net.WireLogging;
+import se.arkalix.net.http.service.HttpServerSettings;
 import se.arkalix.plugin.Plugin;
 import se.arkalix.plugin.PluginFacade;
 import se.arkalix.query.ServiceQuery;
@@ -34,6 +37,9 @@ public class DefaultSystem implements ArSystem {
     private final boolean isSecure;
     private final OwnedIdentity identity;
     private final TrustStore trustStore;
+    private final WireLogging wireLogging;
+    private final HttpServerSettings httpServerSettings;
+    private final TlsSettings tlsSettings;
     private final Scheduler scheduler;
     private final SchedulerShutdownListener schedulerShutdownListener;
     private final PluginNotifier pluginNotifier;
@@ -87,6 +93,10 @@ public class DefaultSystem implements ArSystem {
             ? identity.publicKey()
             : null, localSocketAddress);
 
+        wireLogging = Objects.requireNonNullElseGet(builder.wireLogging, WireLogging::new);
+        httpServerSettings = Objects.requireNonNullElseGet(builder.httpServerSettings, HttpServerSettings::defaults);
+        tlsSettings = Objects.requireNonNullElseGet(builder.tlsSettings, TlsSettings::defaults);
+
         consumedServices = Objects.requireNonNullElseGet(builder.serviceCache,
             ArServiceDescriptionCache::withDefaultEntryLifetimeLimit);
 
@@ -142,6 +152,21 @@ public class DefaultSystem implements ArSystem {
         return trustStore;
     }
 
+    @Override
+    public WireLogging wireLogging() {
+        return wireLogging;
+    }
+
+    @Override
+    public HttpServerSettings httpServerSettings() {
+        return httpServerSettings;
+    }
+
+    @Override
+    public TlsSettings tlsSettings() {
+        return tlsSettings;
+    }
+
     @Override
     public SystemDescription description() {
         return description;
@@ -305,6 +330,9 @@ public class DefaultSystem implements ArSystem {
         private boolean isSecure = true;
         private Collection<Plugin> plugins;
         private ArServiceDescriptionCache serviceCache;
+        private WireLogging wireLogging;
+        private HttpServerSettings httpServerSettings;
+        private TlsSettings tlsSettings;
 
         public void name(final String name) {
             this.name = name;
@@ -365,6 +393,18 @@ public class DefaultSystem implements ArSystem {
             this.serviceCache = serviceCache;
         }
 
+        public void wireLogging(final WireLogging wireLogging) {
+            this.wireLogging = wireLogging;
+        }
+
+        public void httpServerSettings(final HttpServerSettings httpServerSettings) {
+            this.httpServerSettings = httpServerSettings;
+        }
+
+        public void tlsSettings(final TlsSettings tlsSettings) {
+            this.tlsSettings = tlsSettings;
+        }
+
         public void plugins(final Collection<Plugin> plugins) {
             this.plugins = plugins;
         }
@@ -10,6 +10,7 @@ import se.arkalix.util.annotation.Internal;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -25,6 +26,7 @@ public class DefaultServiceDescription implements ServiceDescription {
     private final Map<String, String> metadata;
     private final int version;
     private final Map<InterfaceDescriptor, String> interfaceTokens;
+    private final int hashCode;
 
     private DefaultServiceDescription(final Builder builder) {
         name = Objects.requireNonNull(builder.name, "Expected name");
@@ -45,13 +47,14 @@ public class DefaultServiceDescription implements ServiceDescription {
         security = Objects.requireNonNull(builder.security, "Expected security");
         metadata = builder.metadata == null
             ? Collections.emptyMap()
-            : Collections.unmodifiableMap(builder.metadata);
+            : Collections.unmodifiableMap(new HashMap<>(builder.metadata));
         version = builder.version;
-        interfaceTokens = Collections.unmodifiableMap(
-            Objects.requireNonNull(builder.interfaceTokens, "Expected interfaceTokens"));
+        interfaceTokens = Collections.unmodifiableMap(new HashMap<>(
+            Objects.requireNonNull(builder.interfaceTokens, "Expected interfaceTokens")));
         if (interfaceTokens.size() == 0) {
             throw new IllegalArgumentException("At least one supported interface must be specified");
         }
+        hashCode = Objects.hash(name, provider, uri, receivedAt, expiresAt, security, metadata, version, interfaceTokens);
     }
 
     @Override
@@ -134,7 +137,8 @@ public class DefaultServiceDescription implements ServiceDescription {
         if (this == other) { return true; }
         if (other == null || getClass() != other.getClass()) { return false; }
         final ServiceDescription that = (ServiceDescription) other;
-        return version == that.version() &&
+        return hashCode == that.hashCode() &&
+            version == that.version() &&
             name.equals(that.name()) &&
             provider.equals(that.provider()) &&
             uri.equals(that.uri()) &&
@@ -147,7 +151,7 @@ public class DefaultServiceDescription implements ServiceDescription {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, provider, uri, receivedAt, expiresAt, security, metadata, version, interfaceTokens);
+        return hashCode;
     }
 
     @Override
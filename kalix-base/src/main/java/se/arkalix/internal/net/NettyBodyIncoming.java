@@ -9,15 +9,21 @@ import se.arkalix.util.Result;
 import se.arkalix.util.concurrent.Future;
 import se.arkalix.util.concurrent.FutureProgress;
 
-import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
+import static java.nio.file.StandardOpenOption.*;
+
 public abstract class NettyBodyIncoming<V> implements FutureProgress<V> {
     private final int expectedLength;
 
@@ -26,6 +32,7 @@ public abstract class NettyBodyIncoming<V> implements FutureProgress<V> {
     private Consumer<Result<V>> consumer = null;
     private Result<V> pendingResult = null;
     private Listener listener = null;
+    private Consumer<Boolean> backlogListener = null;
 
     private boolean isCancelled = false;
     private boolean isCompleted = false;
@@ -75,6 +82,24 @@ public abstract class NettyBodyIncoming<V> implements FutureProgress<V> {
 
     public abstract void finish();
 
+    /**
+     * Registers function called with {@code true} when content starts being
+     * appended faster than it can be consumed, and with {@code false} when
+     * consumption has caught up again. Each call with {@code true} is
+     * followed by one with {@code false}, unless appending never ends.
+     *
+     * @param listener Function to call when backlog state changes.
+     */
+    public void onBacklogChanged(final Consumer<Boolean> listener) {
+        backlogListener = listener;
+    }
+
+    protected void notifyBacklogChanged(final boolean isBacklogged) {
+        if (backlogListener != null) {
+            backlogListener.accept(isBacklogged);
+        }
+    }
+
     public boolean isCancelled() {
         return isCancelled;
     }
@@ -224,46 +249,138 @@ public abstract class NettyBodyIncoming<V> implements FutureProgress<V> {
         }
     }
 
+    /**
+     * Writes received body content to a file as it arrives.
+     * <p>
+     * Writes are performed without blocking the thread appending content. If
+     * content is appended faster than it can be written, the body is
+     * reported as being backlogged until writing has caught up.
+     */
     static class To extends NettyBodyIncoming<Path> {
-        private final Path path;
-        private final FileOutputStream stream;
+        /**
+         * The number of appended bytes that may wait for being written before
+         * the body is reported as backlogged.
+         */
+        private static final int BACKLOG_LENGTH_THRESHOLD = 256 * 1024;
 
-        public To(final Path path, final boolean append, final int expectedLength) {
+        private final Path path;
+        private final Executor executor;
+        private final AsynchronousFileChannel file;
+
+        private long position = 0;
+        private long backlogLength = 0;
+        private boolean isBacklogged = false;
+        private boolean isClosed = false;
+        private boolean isFailed = false;
+        private boolean isFinishing = false;
+
+        /**
+         * @param path           Path to file to write body to.
+         * @param append         Whether to append to the file, if it exists,
+         *                       rather than to truncate it.
+         * @param expectedLength Expected body length, in bytes.
+         * @param executor       Executor of the thread appending content, via
+         *                       which completed writes are reported.
+         */
+        public To(final Path path, final boolean append, final int expectedLength, final Executor executor) {
             super(expectedLength);
-            FileOutputStream stream;
+            this.path = path;
+            this.executor = Objects.requireNonNull(executor, "Expected executor");
+            AsynchronousFileChannel file;
             try {
-                stream = new FileOutputStream(path.toFile(), append);
+                file = append
+                    ? AsynchronousFileChannel.open(path, WRITE, CREATE)
+                    : AsynchronousFileChannel.open(path, WRITE, CREATE, TRUNCATE_EXISTING);
+                if (append) {
+                    position = file.size();
+                }
             }
             catch (final Throwable throwable) {
-                abort(throwable);
-                stream = null;
+                file = null;
+                isFailed = true;
+                complete(Result.failure(throwable));
             }
-            this.path = path;
-            this.stream = stream;
+            this.file = file;
+        }
+
+        @Override
+        public void abort(final Throwable throwable) {
+            if (isFailed) {
+                return;
+            }
+            isFailed = true;
+            if (isBacklogged) {
+                isBacklogged = false;
+                notifyBacklogChanged(false);
+            }
+            super.abort(throwable);
+            closeIfFailedAndIdle();
         }
 
         @Override
         public void append(final ByteBuf buffer) {
-            if (stream == null) {
+            final var length = buffer.readableBytes();
+            if (isFailed || length == 0) {
                 return;
             }
+            final var position = this.position;
+            this.position += length;
+            backlogLength += length;
+            if (!isBacklogged && backlogLength > BACKLOG_LENGTH_THRESHOLD) {
+                isBacklogged = true;
+                notifyBacklogChanged(true);
+            }
+            buffer.retain();
+            write(buffer, buffer.nioBuffer(), position, length);
+        }
+
+        private void write(final ByteBuf buffer, final ByteBuffer source, final long position, final int length) {
             try {
-                final var length = buffer.readableBytes();
-                buffer.readBytes(stream, length);
+                file.write(source, position, null, new CompletionHandler<>() {
+                    @Override
+                    public void completed(final Integer count, final Object attachment) {
+                        if (source.hasRemaining()) {
+                            write(buffer, source, position + count, length);
+                        }
+                        else {
+                            executor.execute(() -> onWritten(buffer, length, null));
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Throwable throwable, final Object attachment) {
+                        executor.execute(() -> onWritten(buffer, length, throwable));
+                    }
+                });
             }
             catch (final Throwable throwable) {
-                abort(throwable);
+                executor.execute(() -> onWritten(buffer, length, throwable));
             }
         }
 
-        @Override
-        public void finish() {
-            if (stream == null) {
+        private void onWritten(final ByteBuf buffer, final int length, final Throwable fault) {
+            buffer.release();
+            backlogLength -= length;
+            if (fault != null) {
+                abort(fault);
+                return;
+            }
+            if (isBacklogged && backlogLength <= BACKLOG_LENGTH_THRESHOLD / 2) {
+                isBacklogged = false;
+                notifyBacklogChanged(false);
+            }
+            if (isFinishing && backlogLength == 0) {
+                closeAndComplete();
                 return;
             }
+            closeIfFailedAndIdle();
+        }
+
+        private void closeAndComplete() {
             Result<Path> result;
             try {
-                stream.close();
+                isClosed = true;
+                file.close();
                 result = Result.success(path);
             }
             catch (final Throwable throwable) {
@@ -271,5 +388,28 @@ public abstract class NettyBodyIncoming<V> implements FutureProgress<V> {
             }
             complete(result);
         }
+
+        private void closeIfFailedAndIdle() {
+            if (isFailed && !isClosed && backlogLength == 0 && file != null) {
+                isClosed = true;
+                try {
+                    file.close();
+                }
+                catch (final Throwable ignored) {
+                    // Already failed.
+                }
+            }
+        }
+
+        @Override
+        public void finish() {
+            if (isFailed) {
+                return;
+            }
+            isFinishing = true;
+            if (backlogLength == 0) {
+                closeAndComplete();
+            }
+        }
     }
 }
@@ -1,8 +1,11 @@
 package se.arkalix.internal.net;
 
-import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedNioFile;
 import se.arkalix.descriptor.EncodingDescriptor;
 import se.arkalix.dto.DtoWritable;
 import se.arkalix.dto.DtoWriteException;
@@ -12,22 +15,58 @@ import se.arkalix.net.MessageEncodingUnsupported;
 import se.arkalix.net.MessageOutgoing;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Flow;
 
 public class NettyBodyOutgoing {
+    private static final int CHUNK_SIZE = 8192;
+
     private final Object content;
     private final long length;
 
-    @SuppressWarnings("unchecked")
     public static NettyBodyOutgoing from(
         final MessageOutgoing<?> message,
-        final ByteBufAllocator alloc,
+        final Channel channel,
         final EncodingDescriptor defaultEncoding
     ) throws DtoWriteException, IOException {
+        return from(message, channel, defaultEncoding, true);
+    }
+
+    /**
+     * Converts the body of given {@code message} into an object that can be
+     * written to a Netty channel.
+     * <p>
+     * If {@code isFileRegionSupported} is {@code false}, file bodies are
+     * converted into {@link ChunkedNioFile ChunkedNioFiles} rather than into
+     * {@link io.netty.channel.FileRegion FileRegions}, which means that the
+     * channel they are written to must contain a {@link
+     * io.netty.handler.stream.ChunkedWriteHandler ChunkedWriteHandler}.
+     * <p>
+     * Buffer bodies are used as-is, which means that they are released when
+     * written.
+     * <p>
+     * Streamed bodies, which are provided either by a {@link Flow.Publisher}
+     * or an {@link Iterator}, are always converted into {@link ChunkedInput
+     * ChunkedInputs} of unknown length, which means that their lengths are
+     * reported as being -1 and that their channels must also contain a
+     * {@code ChunkedWriteHandler}.
+     */
+    @SuppressWarnings("unchecked")
+    public static NettyBodyOutgoing from(
+        final MessageOutgoing<?> message,
+        final Channel channel,
+        final EncodingDescriptor defaultEncoding,
+        final boolean isFileRegionSupported
+    ) throws DtoWriteException, IOException {
+
+        final var alloc = channel.alloc();
 
         final var body = message.body().orElse(null);
 
@@ -38,11 +77,15 @@ public class NettyBodyOutgoing {
             length = 0;
             content = Unpooled.EMPTY_BUFFER;
         }
+        else if (body instanceof ByteBuf) {
+            length = ((ByteBuf) body).readableBytes();
+            content = body;
+        }
         else if (body instanceof byte[]) {
             length = ((byte[]) body).length;
             content = Unpooled.wrappedBuffer((byte[]) body);
         }
-        else if (body instanceof DtoWritable || body instanceof List) {
+        else if (body instanceof DtoWritable || body instanceof List || body instanceof Iterator) {
             final var encoding = message.encoding().orElse(defaultEncoding);
             if (encoding == null) {
                 throw new MessageEncodingUnspecified(message);
@@ -50,6 +93,11 @@ public class NettyBodyOutgoing {
             final var dtoEncoding = encoding.asDto()
                 .orElseThrow(() -> new MessageEncodingUnsupported(message, encoding));
 
+            if (body instanceof Iterator) {
+                return new NettyBodyOutgoing(new NettyDtoChunkedInput(dtoEncoding.writer(),
+                    (Iterator<? extends DtoWritable>) body), -1);
+            }
+
             final var buffer = alloc.buffer();
             final var bufferWriter = new ByteBufWriter(buffer);
             final var writer = dtoEncoding.writer();
@@ -63,10 +111,14 @@ public class NettyBodyOutgoing {
             content = buffer;
         }
         else if (body instanceof Path) {
-            final var path = (Path) body;
-            final var file = new RandomAccessFile(path.toFile(), "r");
-            length = file.length();
-            content = new DefaultFileRegion(file.getChannel(), 0, length);
+            final var file = FileChannel.open((Path) body, StandardOpenOption.READ);
+            try {
+                return fromFile(file, 0, file.size(), isFileRegionSupported);
+            }
+            catch (final Throwable throwable) {
+                file.close();
+                throw throwable;
+            }
         }
         else if (body instanceof String) {
             final var string = ((String) body);
@@ -78,6 +130,10 @@ public class NettyBodyOutgoing {
             length = buffer.readableBytes();
             content = buffer;
         }
+        else if (body instanceof Flow.Publisher) {
+            length = -1;
+            content = new NettyPublisherChunkedInput((Flow.Publisher<ByteBuffer>) body, channel);
+        }
         else {
             throw new InternalError("Invalid outgoing body: " + body);
         }
@@ -85,6 +141,39 @@ public class NettyBodyOutgoing {
         return new NettyBodyOutgoing(content, length);
     }
 
+    /**
+     * Converts the given range of {@code file} into an object that can be
+     * written to a Netty channel.
+     * <p>
+     * If {@code isFileRegionSupported} is {@code true}, the file is sent
+     * without being copied into user space, if supported by the operating
+     * system. That is not possible if the channel it is written to encrypts
+     * or otherwise transforms the file, in which case {@code
+     * isFileRegionSupported} must be {@code false}. The file is then read in
+     * chunks by a {@link io.netty.handler.stream.ChunkedWriteHandler
+     * ChunkedWriteHandler}, which must be part of the pipeline of the channel.
+     * <p>
+     * In either case, the file is closed after having been written.
+     *
+     * @param file                  Open file.
+     * @param offset                Offset of first byte in file to write.
+     * @param length                Number of bytes to write.
+     * @param isFileRegionSupported Whether or not the channel the file is
+     *                              written to supports file regions.
+     * @return Outgoing file body.
+     */
+    public static NettyBodyOutgoing fromFile(
+        final FileChannel file,
+        final long offset,
+        final long length,
+        final boolean isFileRegionSupported
+    ) throws IOException {
+        final var content = isFileRegionSupported
+            ? new DefaultFileRegion(file, offset, length)
+            : new ChunkedNioFile(file, offset, length, CHUNK_SIZE);
+        return new NettyBodyOutgoing(content, length);
+    }
+
     public NettyBodyOutgoing(final Object content, final long length) {
         this.content = Objects.requireNonNull(content);
         this.length = length;
@@ -0,0 +1,98 @@
+package se.arkalix.internal.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import se.arkalix.dto.DtoWritable;
+import se.arkalix.dto.DtoWriter;
+import se.arkalix.internal.dto.binary.ByteBufWriter;
+import se.arkalix.util.annotation.Internal;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A {@link ChunkedInput} that encodes the elements of an {@link Iterator} as
+ * a sequence of data transfer objects, one chunk at a time.
+ * <p>
+ * Elements are taken from the iterator only when a chunk is read, which
+ * means that only a few elements need to be held in memory at any one time.
+ * As chunks are read by the thread writing them to their channel, the
+ * iterator must never block.
+ */
+@Internal
+public class NettyDtoChunkedInput implements ChunkedInput<ByteBuf> {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final DtoWriter writer;
+    private final Iterator<? extends DtoWritable> iterator;
+
+    private int index = 0;
+    private long progress = 0;
+    private boolean isEndOfInput = false;
+
+    /**
+     * Creates new DTO chunked input.
+     *
+     * @param writer   Writer to use for encoding elements.
+     * @param iterator Iterator providing elements to encode.
+     */
+    public NettyDtoChunkedInput(final DtoWriter writer, final Iterator<? extends DtoWritable> iterator) {
+        this.writer = Objects.requireNonNull(writer, "Expected writer");
+        this.iterator = Objects.requireNonNull(iterator, "Expected iterator");
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return isEndOfInput;
+    }
+
+    @Override
+    public void close() {
+        isEndOfInput = true;
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(final ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(final ByteBufAllocator allocator) throws Exception {
+        if (isEndOfInput) {
+            return null;
+        }
+        final var buffer = allocator.buffer(CHUNK_SIZE);
+        try {
+            final var target = new ByteBufWriter(buffer);
+            if (index == 0) {
+                writer.writeManyBegin(target);
+            }
+            while (buffer.readableBytes() < CHUNK_SIZE && iterator.hasNext()) {
+                writer.writeManyElement(index++, iterator.next(), target);
+            }
+            if (!iterator.hasNext()) {
+                writer.writeManyEnd(target);
+                isEndOfInput = true;
+            }
+        }
+        catch (final Throwable throwable) {
+            buffer.release();
+            throw throwable;
+        }
+        progress += buffer.readableBytes();
+        return buffer;
+    }
+
+    @Override
+    public long length() {
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return progress;
+    }
+}
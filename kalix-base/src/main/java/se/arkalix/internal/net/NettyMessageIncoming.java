@@ -10,26 +10,43 @@ import se.arkalix.util.concurrent.FutureProgress;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 @Internal
 public abstract class NettyMessageIncoming implements MessageIncoming {
+    /**
+     * The number of body bytes that may be held while waiting for the body to
+     * be requested before {@link #pauseReading()} is called.
+     */
+    private static final int PENDING_LENGTH_PAUSE_THRESHOLD = 64 * 1024;
+
     private final ByteBufAllocator alloc;
+    private final Executor executor;
     private final int expectedBodyLength;
 
     private NettyBodyIncoming<?> futureBody;
 
+    private ArrayDeque<ByteBufHolder> pendingContent = null;
+    private int pendingLength = 0;
+    private Throwable pendingFault = null;
+
     private boolean isAborted = false;
     private boolean isRequested = false;
     private boolean isFinished = false;
+    private boolean isPendingFinish = false;
+    private boolean isPaused = false;
 
     protected NettyMessageIncoming(
         final ByteBufAllocator alloc,
+        final Executor executor,
         final int expectedBodyLength
     ) {
         this.alloc = Objects.requireNonNull(alloc);
+        this.executor = Objects.requireNonNull(executor);
         this.expectedBodyLength = expectedBodyLength;
     }
 
@@ -44,25 +61,117 @@ public abstract class NettyMessageIncoming implements MessageIncoming {
         return true;
     }
 
+    /**
+     * Makes body of this message, requested or not, fail with given cause.
+     * Any body content not yet requested is released.
+     *
+     * @param throwable Cause of failure.
+     */
+    public void reject(final Throwable throwable) {
+        Objects.requireNonNull(throwable);
+        if (isAborted || isFinished) {
+            return;
+        }
+        if (isRequested) {
+            isAborted = true;
+            futureBody.abort(throwable);
+        }
+        else {
+            pendingFault = throwable;
+            releasePendingContent();
+        }
+        resume();
+    }
+
+    /**
+     * Releases any body content not yet requested and prevents the body from
+     * being requested, unless it already has been.
+     */
+    public void discard() {
+        if (isRequested) {
+            return;
+        }
+        isFinished = true;
+        releasePendingContent();
+        resume();
+    }
+
     public void append(final ByteBufHolder byteBufHolder) {
-        if (isAborted || isFinished || !isRequested) {
+        if (isAborted || isFinished) {
+            return;
+        }
+        if (!isRequested) {
+            // Content received before the body is requested is held until
+            // it is, which may take a while if the request is handled
+            // asynchronously. Reading is paused if too much is held.
+            if (pendingFault != null) {
+                return;
+            }
+            if (pendingContent == null) {
+                pendingContent = new ArrayDeque<>();
+            }
+            pendingContent.add(byteBufHolder.retain());
+            pendingLength += byteBufHolder.content().readableBytes();
+            if (!isPaused && pendingLength >= PENDING_LENGTH_PAUSE_THRESHOLD) {
+                isPaused = true;
+                pauseReading();
+            }
             return;
         }
         if (futureBody.isCancelled()) {
             return;
         }
-        // TODO: Ensure body size does not exceed some configured limit.
         futureBody.append(byteBufHolder);
     }
 
     public void finish() {
-        if (isAborted || isFinished || !isRequested) {
+        if (isAborted || isFinished) {
+            return;
+        }
+        if (!isRequested) {
+            isPendingFinish = true;
             return;
         }
         isFinished = true;
         futureBody.finish();
     }
 
+    /**
+     * Called when this message holds too much body content that has not
+     * yet been requested, or when its requested body is consuming content
+     * slower than it is received. Reading more content should be paused
+     * until {@link #resumeReading()} has been called as many times as this
+     * method.
+     */
+    protected void pauseReading() {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when reading of body content may continue after having been
+     * {@link #pauseReading() paused}.
+     */
+    protected void resumeReading() {
+        // Does nothing by default.
+    }
+
+    private void resume() {
+        if (isPaused) {
+            isPaused = false;
+            resumeReading();
+        }
+    }
+
+    private void releasePendingContent() {
+        if (pendingContent != null) {
+            for (final var content : pendingContent) {
+                content.release();
+            }
+            pendingContent = null;
+            pendingLength = 0;
+        }
+    }
+
     @Override
     public <R extends DtoReadable> FutureProgress<R> bodyAs(final DtoEncoding encoding, final Class<R> class_) {
         return request(() -> new NettyBodyIncoming.As<>(alloc, expectedBodyLength, class_, encoding));
@@ -93,7 +202,7 @@ public abstract class NettyMessageIncoming implements MessageIncoming {
 
     @Override
     public FutureProgress<Path> bodyTo(final Path path, final boolean append) {
-        return request(() -> new NettyBodyIncoming.To(path, append, expectedBodyLength));
+        return request(() -> new NettyBodyIncoming.To(path, append, expectedBodyLength, executor));
     }
 
     private <V> FutureProgress<V> request(final Supplier<NettyBodyIncoming<V>> supplier) {
@@ -114,6 +223,41 @@ public abstract class NettyMessageIncoming implements MessageIncoming {
 
         final var futureBody = supplier.get();
         this.futureBody = futureBody;
+
+        // Requested bodies consuming content slower than it is received
+        // make reading pause until they have caught up.
+        futureBody.onBacklogChanged(isBacklogged -> {
+            if (isBacklogged) {
+                pauseReading();
+            }
+            else {
+                resumeReading();
+            }
+        });
+
+        if (pendingFault != null) {
+            isAborted = true;
+            futureBody.abort(pendingFault);
+            pendingFault = null;
+        }
+        else {
+            if (pendingContent != null) {
+                for (final var content : pendingContent) {
+                    if (!futureBody.isCancelled()) {
+                        futureBody.append(content);
+                    }
+                    content.release();
+                }
+                pendingContent = null;
+                pendingLength = 0;
+            }
+            if (isPendingFinish) {
+                isFinished = true;
+                futureBody.finish();
+            }
+        }
+        resume();
+
         return futureBody;
     }
 
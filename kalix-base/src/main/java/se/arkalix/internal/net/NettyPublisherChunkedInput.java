@@ -0,0 +1,178 @@
+package se.arkalix.internal.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import se.arkalix.util.annotation.Internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link ChunkedInput} that reads its chunks from a {@link Flow.Publisher}.
+ * <p>
+ * Buffers are only requested from the publisher as the {@link
+ * ChunkedWriteHandler} of the channel they are written to reads them, which
+ * it only does while that channel is writable. If no buffer is available when
+ * a chunk is read, the handler suspends the transfer until the publisher
+ * provides another buffer, completes or fails.
+ * <p>
+ * All buffers available when a chunk is read are combined into that chunk,
+ * and the transfer is resumed at most once per event loop task, which means
+ * that buffers published in quick succession are written and flushed
+ * together.
+ */
+@Internal
+public class NettyPublisherChunkedInput implements ChunkedInput<ByteBuf>, Flow.Subscriber<ByteBuffer> {
+    private static final int PREFETCH = 4;
+
+    private final Flow.Publisher<ByteBuffer> publisher;
+    private final Channel channel;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isResumeScheduled = new AtomicBoolean(false);
+
+    private boolean isSubscribed = false;
+    private long progress = 0;
+
+    private volatile Flow.Subscription subscription = null;
+    private volatile boolean isComplete = false;
+    private volatile boolean isClosed = false;
+    private volatile Throwable fault = null;
+
+    /**
+     * Creates new publisher chunked input.
+     *
+     * @param publisher Publisher of buffers to read chunks from. Published
+     *                  buffers must not be modified after being published.
+     * @param channel   Channel the created input is to be written to.
+     */
+    public NettyPublisherChunkedInput(final Flow.Publisher<ByteBuffer> publisher, final Channel channel) {
+        this.publisher = Objects.requireNonNull(publisher, "Expected publisher");
+        this.channel = Objects.requireNonNull(channel, "Expected channel");
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return isComplete && buffers.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        buffers.clear();
+        final var subscription = this.subscription;
+        if (subscription != null && !isComplete) {
+            subscription.cancel();
+        }
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(final ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(final ByteBufAllocator allocator) throws Exception {
+        if (!isSubscribed) {
+            isSubscribed = true;
+            publisher.subscribe(this);
+        }
+        final var fault = this.fault;
+        if (fault != null) {
+            if (fault instanceof Exception) {
+                throw (Exception) fault;
+            }
+            throw new IOException("Response body publisher failed", fault);
+        }
+        final var buffer = buffers.poll();
+        if (buffer == null) {
+            return null;
+        }
+        var count = 1;
+        var length = (long) buffer.remaining();
+        ByteBuf chunk = Unpooled.wrappedBuffer(buffer);
+        var next = buffers.poll();
+        if (next != null) {
+            final var composite = allocator.compositeBuffer(PREFETCH);
+            composite.addComponent(true, chunk);
+            do {
+                count += 1;
+                length += next.remaining();
+                composite.addComponent(true, Unpooled.wrappedBuffer(next));
+            }
+            while ((next = buffers.poll()) != null);
+            chunk = composite;
+        }
+        if (!isComplete) {
+            subscription.request(count);
+        }
+        progress += length;
+        return chunk;
+    }
+
+    @Override
+    public long length() {
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return progress;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (this.subscription != null || isClosed) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(PREFETCH);
+    }
+
+    @Override
+    public void onNext(final ByteBuffer item) {
+        if (isClosed) {
+            return;
+        }
+        buffers.add(Objects.requireNonNull(item, "Expected item"));
+        resumeTransfer();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        fault = Objects.requireNonNull(throwable, "Expected throwable");
+        resumeTransfer();
+    }
+
+    @Override
+    public void onComplete() {
+        isComplete = true;
+        resumeTransfer();
+    }
+
+    private void resumeTransfer() {
+        // Always scheduled, as the publisher may call this subscriber while
+        // the chunked write handler is reading from it.
+        if (!isResumeScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        channel.eventLoop().execute(() -> {
+            isResumeScheduled.set(false);
+            final var handler = channel.pipeline().get(ChunkedWriteHandler.class);
+            if (handler != null) {
+                handler.resumeTransfer();
+            }
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package se.arkalix.internal.net;
+
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.arkalix.net.TlsSettings;
+import se.arkalix.util.annotation.Internal;
+
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Various helpers for applying {@link TlsSettings TLS settings} to Netty
+ * SSL contexts.
+ */
+@Internal
+public class NettyTlsSettings {
+    private static final Logger logger = LoggerFactory.getLogger(NettyTlsSettings.class);
+
+    private static final AtomicBoolean isUnavailabilityLogged = new AtomicBoolean(false);
+
+    private NettyTlsSettings() {}
+
+    /**
+     * Configures given {@code builder} to use the TLS implementation, cipher
+     * suites and session cache properties of given {@code settings}.
+     *
+     * @param builder  SSL context builder to configure.
+     * @param settings TLS settings to apply.
+     * @return Given {@code builder}.
+     */
+    public static SslContextBuilder apply(final SslContextBuilder builder, final TlsSettings settings) {
+        Objects.requireNonNull(builder, "Expected builder");
+        Objects.requireNonNull(settings, "Expected settings");
+
+        builder.sslProvider(providerOf(settings));
+
+        final var cipherSuites = settings.cipherSuites();
+        if (!cipherSuites.isEmpty()) {
+            builder.ciphers(cipherSuites, SupportedCipherSuiteFilter.INSTANCE);
+        }
+
+        final var sessionCacheSize = settings.sessionCacheSize();
+        if (sessionCacheSize > 0) {
+            builder.sessionCacheSize(sessionCacheSize);
+        }
+
+        final var sessionTimeout = settings.sessionTimeout().getSeconds();
+        if (sessionTimeout > 0) {
+            builder.sessionTimeout(sessionTimeout);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Makes given server {@code context} issue session tickets, if it uses
+     * the OpenSSL implementation and given {@code settings} enable session
+     * tickets. The ticket keys are generated randomly, which means that they
+     * are only known to the given {@code context}.
+     *
+     * @param context  Server SSL context.
+     * @param settings TLS settings to apply.
+     */
+    public static void applySessionTickets(final SslContext context, final TlsSettings settings) {
+        Objects.requireNonNull(context, "Expected context");
+        Objects.requireNonNull(settings, "Expected settings");
+
+        if (!settings.isSessionTicketsEnabled() || !(context.sessionContext() instanceof OpenSslSessionContext)) {
+            return;
+        }
+        final var random = new SecureRandom();
+        final var name = new byte[OpenSslSessionTicketKey.NAME_SIZE];
+        final var hmacKey = new byte[OpenSslSessionTicketKey.HMAC_KEY_SIZE];
+        final var aesKey = new byte[OpenSslSessionTicketKey.AES_KEY_SIZE];
+        random.nextBytes(name);
+        random.nextBytes(hmacKey);
+        random.nextBytes(aesKey);
+        ((OpenSslSessionContext) context.sessionContext())
+            .setTicketKeys(new OpenSslSessionTicketKey(name, hmacKey, aesKey));
+    }
+
+    private static SslProvider providerOf(final TlsSettings settings) {
+        if (settings.provider() != TlsSettings.Provider.OPENSSL) {
+            return SslProvider.JDK;
+        }
+        if (OpenSsl.isAvailable()) {
+            return SslProvider.OPENSSL;
+        }
+        if (isUnavailabilityLogged.compareAndSet(false, true) && logger.isWarnEnabled()) {
+            logger.warn("The OpenSSL TLS implementation is not available; " +
+                "using the JDK TLS implementation instead", OpenSsl.unavailabilityCause());
+        }
+        return SslProvider.JDK;
+    }
+}
@@ -0,0 +1,52 @@
+package se.arkalix.internal.net;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.logging.LogLevel;
+import io.netty.handler.logging.LoggingHandler;
+import se.arkalix.net.WireLogging;
+import se.arkalix.util.annotation.Internal;
+
+/**
+ * Various helpers for adding and removing {@link WireLogging wire logging}
+ * handlers to and from Netty channel pipelines.
+ */
+@Internal
+public class NettyWireLogging {
+    private static final String HANDLER_NAME = "wire-logging";
+
+    private NettyWireLogging() {}
+
+    /**
+     * Adds or removes wire logging handler to or from given {@code pipeline}.
+     * <p>
+     * Added handlers are placed right before the handler of the given codec
+     * class, which means that the traffic they log is never encrypted.
+     *
+     * @param pipeline   Pipeline to update.
+     * @param codecClass Class of pipeline codec handler.
+     * @param isEnabled  Whether or not wire logging is to be enabled.
+     */
+    public static void update(
+        final ChannelPipeline pipeline,
+        final Class<? extends ChannelHandler> codecClass,
+        final boolean isEnabled
+    ) {
+        final var handler = pipeline.get(HANDLER_NAME);
+        if (isEnabled) {
+            if (handler == null) {
+                final var codecContext = pipeline.context(codecClass);
+                final var loggingHandler = new LoggingHandler(WireLogging.class, LogLevel.INFO);
+                if (codecContext != null) {
+                    pipeline.addBefore(codecContext.name(), HANDLER_NAME, loggingHandler);
+                }
+                else {
+                    pipeline.addLast(HANDLER_NAME, loggingHandler);
+                }
+            }
+        }
+        else if (handler != null) {
+            pipeline.remove(HANDLER_NAME);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package se.arkalix.internal.net.http;
+
+import se.arkalix.util.annotation.Internal;
+
+import java.util.Optional;
+
+/**
+ * A single range of bytes, requested via an HTTP "range" header.
+ * <p>
+ * Only single byte ranges are supported. Requests for multiple ranges, which
+ * would have to be answered with "multipart/byteranges" bodies, are ignored,
+ * just as are headers that are syntactically invalid, which RFC 7233
+ * explicitly permits.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7233">RFC 7233</a>
+ */
+@Internal
+public final class HttpByteRange {
+    private static final HttpByteRange UNSATISFIABLE = new HttpByteRange(-1, 0);
+
+    private final long offset;
+    private final long length;
+
+    private HttpByteRange(final long offset, final long length) {
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Parses given "range" header value, assuming that the resource it refers
+     * to has the given {@code size}.
+     *
+     * @param range Value of "range" header, or {@code null}.
+     * @param size  Size of ranged resource, in bytes.
+     * @return Parsed range, if {@code range} is valid and refers to exactly
+     * one range. The returned range is not {@link #isSatisfiable()
+     * satisfiable} if it is positioned outside the ranged resource.
+     * @see <a href="https://tools.ietf.org/html/rfc7233#section-2.1">RFC 7233, Section 2.1</a>
+     */
+    public static Optional<HttpByteRange> parse(final String range, final long size) {
+        if (range == null || !range.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return Optional.empty();
+        }
+        String spec = null;
+        for (final var element : range.substring(6).split(",")) {
+            final var element0 = element.trim();
+            if (element0.isEmpty()) {
+                continue;
+            }
+            if (spec != null) {
+                return Optional.empty();
+            }
+            spec = element0;
+        }
+        if (spec == null) {
+            return Optional.empty();
+        }
+
+        final var dash = spec.indexOf('-');
+        if (dash == -1) {
+            return Optional.empty();
+        }
+        final var firstDigits = spec.substring(0, dash).trim();
+        final var lastDigits = spec.substring(dash + 1).trim();
+        final var first = parseDigits(firstDigits);
+        final var last = parseDigits(lastDigits);
+        if ((first == -1 && !firstDigits.isEmpty()) || (last == -1 && !lastDigits.isEmpty())) {
+            return Optional.empty();
+        }
+
+        if (first == -1) {
+            if (last == -1) {
+                return Optional.empty();
+            }
+            if (last == 0 || size == 0) {
+                return Optional.of(UNSATISFIABLE);
+            }
+            final var offset = Math.max(0, size - last);
+            return Optional.of(new HttpByteRange(offset, size - offset));
+        }
+        if (last != -1 && last < first) {
+            return Optional.empty();
+        }
+        if (first >= size) {
+            return Optional.of(UNSATISFIABLE);
+        }
+        final var end = last == -1 ? size - 1 : Math.min(last, size - 1);
+        return Optional.of(new HttpByteRange(first, end - first + 1));
+    }
+
+    private static long parseDigits(final String digits) {
+        final var length = digits.length();
+        if (length == 0 || length > 18) {
+            return -1;
+        }
+        var value = 0L;
+        for (var i = 0; i < length; ++i) {
+            final var c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return Whether or not this range can be served.
+     */
+    public boolean isSatisfiable() {
+        return offset >= 0;
+    }
+
+    /**
+     * @return Offset of first byte in range.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return Number of bytes in range.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Creates "content-range" header value describing this range.
+     *
+     * @param size Size of ranged resource, in bytes.
+     * @return New "content-range" header value.
+     * @see <a href="https://tools.ietf.org/html/rfc7233#section-4.2">RFC 7233, Section 4.2</a>
+     */
+    public String toContentRange(final long size) {
+        if (!isSatisfiable()) {
+            return "bytes */" + size;
+        }
+        return "bytes " + offset + "-" + (offset + length - 1) + "/" + size;
+    }
+}
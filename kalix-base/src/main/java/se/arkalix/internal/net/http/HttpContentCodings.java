@@ -0,0 +1,208 @@
+package se.arkalix.internal.net.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import se.arkalix.util.annotation.Internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Various utility methods related to HTTP content codings, such as
+ * {@code gzip} and {@code deflate}, used to compress message bodies.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2">RFC 7231, Section 3.1.2</a>
+ */
+@Internal
+public class HttpContentCodings {
+    /**
+     * Content coding names, in order of preference.
+     */
+    private static final String[] CODINGS = new String[]{"gzip", "deflate"};
+
+    private static final byte[] GZIP_HEADER = new byte[]{
+        0x1f, (byte) 0x8b, // Magic number.
+        Deflater.DEFLATED, // Compression method.
+        0, // Flags.
+        0, 0, 0, 0, // Modification time.
+        0, // Extra flags.
+        (byte) 0xff, // Operating system (unknown).
+    };
+
+    private HttpContentCodings() {}
+
+    /**
+     * Determines what supported content coding, if any, is most preferred by
+     * the given "accept-encoding" header value.
+     * <p>
+     * Only {@code gzip} and {@code deflate} are supported, with the former
+     * being selected if both are equally preferred. A wildcard ({@code *})
+     * matches both codings unless they are explicitly given weights.
+     *
+     * @param acceptEncoding Value of "accept-encoding" header, or {@code
+     *                       null}.
+     * @return Name of most preferred supported content coding, if any.
+     * @see <a href="https://tools.ietf.org/html/rfc7231#section-5.3.4">RFC 7231, Section 5.3.4</a>
+     */
+    public static Optional<String> negotiate(final String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Optional.empty();
+        }
+
+        final var weights = new float[CODINGS.length];
+        Arrays.fill(weights, -1f);
+        var wildcardWeight = -1f;
+
+        for (final var element : acceptEncoding.split(",")) {
+            final var parts = element.split(";");
+            final var coding = parts[0].trim();
+            var weight = 1f;
+            for (var i = 1; i < parts.length; ++i) {
+                final var parameter = parts[i].trim();
+                if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') &&
+                    parameter.charAt(1) == '=')
+                {
+                    try {
+                        weight = Float.parseFloat(parameter.substring(2));
+                    }
+                    catch (final NumberFormatException exception) {
+                        weight = 0f;
+                    }
+                }
+            }
+            if (coding.equals("*")) {
+                wildcardWeight = weight;
+                continue;
+            }
+            for (var i = 0; i < CODINGS.length; ++i) {
+                if (CODINGS[i].equalsIgnoreCase(coding) || (i == 0 && coding.equalsIgnoreCase("x-gzip"))) {
+                    weights[i] = Math.max(weights[i], weight);
+                }
+            }
+        }
+
+        String best = null;
+        var bestWeight = 0f;
+        for (var i = 0; i < CODINGS.length; ++i) {
+            final var weight = weights[i] >= 0f ? weights[i] : wildcardWeight;
+            if (weight > bestWeight) {
+                best = CODINGS[i];
+                bestWeight = weight;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Determines whether given "content-type" matches any of the given media
+     * types. Any parameters of the content type, such as {@code charset}, are
+     * ignored. A media type with the subtype {@code *}, such as {@code
+     * text/*}, matches all content types with the same type.
+     *
+     * @param contentType Value of "content-type" header, or {@code null}.
+     * @param mediaTypes  List of lowercase media types without parameters.
+     * @return {@code true} only if {@code contentType} matches.
+     */
+    public static boolean isMatchingAny(final String contentType, final List<String> mediaTypes) {
+        if (contentType == null) {
+            return false;
+        }
+        var end = contentType.indexOf(';');
+        if (end == -1) {
+            end = contentType.length();
+        }
+        while (end > 0 && contentType.charAt(end - 1) == ' ') {
+            end -= 1;
+        }
+        final var slash = contentType.indexOf('/');
+        if (slash <= 0 || slash >= end) {
+            return false;
+        }
+        for (final var mediaType : mediaTypes) {
+            if (mediaType.endsWith("/*")) {
+                if (mediaType.length() - 1 == slash + 1 &&
+                    contentType.regionMatches(true, 0, mediaType, 0, slash + 1))
+                {
+                    return true;
+                }
+            }
+            else if (mediaType.length() == end && contentType.regionMatches(true, 0, mediaType, 0, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds "accept-encoding" to given "vary" header value, unless it already
+     * contains that header name or is {@code *}.
+     *
+     * @param vary Value of "vary" header, or {@code null}.
+     * @return "vary" header value containing "accept-encoding".
+     * @see <a href="https://tools.ietf.org/html/rfc7231#section-7.1.4">RFC 7231, Section 7.1.4</a>
+     */
+    public static String varyByAcceptEncoding(final String vary) {
+        if (vary == null || vary.isBlank()) {
+            return "accept-encoding";
+        }
+        for (final var element : vary.split(",")) {
+            final var element0 = element.trim();
+            if (element0.equals("*") || element0.equalsIgnoreCase("accept-encoding")) {
+                return vary;
+            }
+        }
+        return vary + ", accept-encoding";
+    }
+
+    /**
+     * Compresses the readable bytes of {@code buffer} using the named content
+     * coding into a new buffer allocated by {@code alloc}. The given buffer
+     * is released.
+     *
+     * @param buffer Buffer to compress.
+     * @param coding Name of content coding, as returned by {@link
+     *               #negotiate(String)}.
+     * @param alloc  Allocator to use for allocating compressed buffer.
+     * @return New buffer containing compressed bytes.
+     */
+    public static ByteBuf encode(final ByteBuf buffer, final String coding, final ByteBufAllocator alloc) {
+        final var isGzip = coding.equals("gzip");
+        if (!isGzip && !coding.equals("deflate")) {
+            throw new IllegalArgumentException("Unsupported content coding: " + coding);
+        }
+        final var length = buffer.readableBytes();
+        final var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, isGzip);
+        final var output = alloc.buffer(Math.max(64, length / 2));
+        try {
+            if (isGzip) {
+                output.writeBytes(GZIP_HEADER);
+            }
+            deflater.setInput(buffer.nioBuffer());
+            deflater.finish();
+            while (!deflater.finished()) {
+                output.ensureWritable(Math.max(64, length / 8));
+                final var writerIndex = output.writerIndex();
+                final var n = deflater.deflate(output.nioBuffer(writerIndex, output.writableBytes()));
+                output.writerIndex(writerIndex + n);
+            }
+            if (isGzip) {
+                final var crc = new CRC32();
+                crc.update(buffer.nioBuffer());
+                output.writeIntLE((int) crc.getValue());
+                output.writeIntLE(length);
+            }
+            return output;
+        }
+        catch (final Throwable throwable) {
+            output.release();
+            throw throwable;
+        }
+        finally {
+            deflater.end();
+            buffer.release();
+        }
+    }
+}
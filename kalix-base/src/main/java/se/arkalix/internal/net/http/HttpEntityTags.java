@@ -0,0 +1,110 @@
+package se.arkalix.internal.net.http;
+
+import se.arkalix.util.annotation.Internal;
+
+/**
+ * Various utility methods related to HTTP entity tags, which are used to
+ * determine whether or not previously received representations of resources
+ * are still current.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3">RFC 7232, Section 2.3</a>
+ */
+@Internal
+public class HttpEntityTags {
+    private HttpEntityTags() {}
+
+    /**
+     * Creates weak entity tag from the size and modification time of some
+     * resource, such as a file.
+     *
+     * @param size               Size of resource, in bytes.
+     * @param lastModifiedMillis Time resource was last modified, in
+     *                           milliseconds since the UNIX epoch.
+     * @return New weak entity tag.
+     */
+    public static String weakOf(final long size, final long lastModifiedMillis) {
+        return "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModifiedMillis) + "\"";
+    }
+
+    /**
+     * Creates strong entity tag from the size and a checksum of the exact
+     * bytes of some resource, such as an encoded response body.
+     *
+     * @param size     Size of resource, in bytes.
+     * @param checksum Checksum calculated from the bytes of the resource.
+     * @return New strong entity tag.
+     */
+    public static String strongOf(final long size, final long checksum) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(checksum) + "\"";
+    }
+
+    /**
+     * Turns given entity tag into a weak tag, unless it is weak already.
+     * <p>
+     * A strong tag identifies the exact bytes of a representation, which is
+     * why it may not be used for a representation that has been transformed,
+     * such as by being compressed.
+     *
+     * @param tag Entity tag to make weak.
+     * @return Weak entity tag.
+     * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3.3">RFC 7232, Section 2.3.3</a>
+     */
+    public static String weakOf(final String tag) {
+        return isWeak(tag) ? tag : "W/" + tag;
+    }
+
+    /**
+     * Determines whether or not given "if-none-match" header value contains
+     * a tag that is weakly equal to {@code tag}, or is a wildcard.
+     *
+     * @param ifNoneMatch Value of "if-none-match" header, or {@code null}.
+     * @param tag         Entity tag to look for.
+     * @return {@code true} only if {@code ifNoneMatch} matches {@code tag}.
+     * @see <a href="https://tools.ietf.org/html/rfc7232#section-3.2">RFC 7232, Section 3.2</a>
+     */
+    public static boolean isWeaklyMatchingAny(final String ifNoneMatch, final String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        final var opaqueTag = opaqueTagOf(tag);
+        for (final var element : ifNoneMatch.split(",")) {
+            final var element0 = element.trim();
+            if (element0.equals("*") || opaqueTagOf(element0).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether or not {@code a} and {@code b} are strongly equal,
+     * which requires that they are identical and that neither of them is
+     * weak.
+     *
+     * @param a First entity tag, or {@code null}.
+     * @param b Second entity tag, or {@code null}.
+     * @return {@code true} only if {@code a} and {@code b} are strongly
+     * equal.
+     * @see <a href="https://tools.ietf.org/html/rfc7232#section-2.3.2">RFC 7232, Section 2.3.2</a>
+     */
+    public static boolean isStronglyMatching(final String a, final String b) {
+        return a != null && b != null && !isWeak(a) && a.equals(b);
+    }
+
+    /**
+     * @param value Some header value.
+     * @return Whether or not {@code value} appears to be an entity tag, as
+     * opposed to, for example, a date.
+     */
+    public static boolean isTag(final String value) {
+        return value.startsWith("\"") || isWeak(value);
+    }
+
+    private static boolean isWeak(final String tag) {
+        return tag.startsWith("W/");
+    }
+
+    private static String opaqueTagOf(final String tag) {
+        return isWeak(tag) ? tag.substring(2) : tag;
+    }
+}
@@ -1,18 +1,26 @@
 package se.arkalix.internal.net.http;
 
+import io.netty.util.AsciiString;
 import se.arkalix.descriptor.EncodingDescriptor;
 import se.arkalix.dto.DtoEncoding;
 import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Various utility methods related to HTTP and Media/MIME Types.
  */
 @Internal
 public class HttpMediaTypes {
+    private static final int MAX_CACHED_MEDIA_TYPES = 64;
+    private static final Map<EncodingDescriptor, AsciiString> cachedMediaTypes = new ConcurrentHashMap<>();
+
     private HttpMediaTypes() {}
 
     /**
@@ -370,4 +378,162 @@ public class HttpMediaTypes {
         }
         return "application/" + encoding.name().toLowerCase();
     }
+
+    /**
+     * Converts given {@code encoding} to a media type, suitable for being
+     * used as an HTTP "content-type" header value.
+     * <p>
+     * The returned string is interned, which means that the same instance is
+     * returned every time the same encoding is given, unless more encodings
+     * have been converted by this method than can be kept in memory.
+     *
+     * @param encoding Encoding descriptor to convert.
+     * @return Media type string.
+     */
+    @ThreadSafe
+    public static AsciiString toMediaTypeAsciiString(final EncodingDescriptor encoding) {
+        var mediaType = cachedMediaTypes.get(encoding);
+        if (mediaType == null) {
+            mediaType = AsciiString.cached(toMediaType(encoding));
+            if (cachedMediaTypes.size() < MAX_CACHED_MEDIA_TYPES) {
+                final var existing = cachedMediaTypes.putIfAbsent(encoding, mediaType);
+                if (existing != null) {
+                    mediaType = existing;
+                }
+            }
+        }
+        return mediaType;
+    }
+
+    /**
+     * The outcome of a successful media type negotiation, consisting of an
+     * {@link EncodingDescriptor encoding} and the "content-type" header value
+     * to use when sending messages encoded with that encoding.
+     */
+    public static final class Negotiation {
+        private final EncodingDescriptor encoding;
+        private final AsciiString contentType;
+
+        private Negotiation(final EncodingDescriptor encoding) {
+            this.encoding = encoding;
+            this.contentType = toMediaTypeAsciiString(encoding);
+        }
+
+        /**
+         * @return Negotiated encoding.
+         */
+        public EncodingDescriptor encoding() {
+            return encoding;
+        }
+
+        /**
+         * @return Interned media type of negotiated encoding.
+         */
+        public AsciiString contentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Remembers what {@link Negotiation negotiations} were performed for
+     * given "accept" and "content-type" header values, such that only the
+     * first of every repeated negotiation requires any header values to be
+     * parsed. Every cache is associated with a fixed list of candidate
+     * encodings, which typically are those supported by a particular service.
+     * <p>
+     * The number of header values remembered by each cache is bounded. When
+     * the bound is reached, new values are negotiated without being cached,
+     * which prevents the cache from being replaced by the values of unusual
+     * or malicious requests.
+     */
+    public static final class NegotiationCache {
+        private final List<EncodingDescriptor> encodings;
+        private final List<Optional<Negotiation>> negotiations;
+        private final int maxEntries;
+        private final Map<String, Optional<Negotiation>> acceptHeaderCache = new ConcurrentHashMap<>();
+        private final Map<String, Optional<Negotiation>> contentTypeCache = new ConcurrentHashMap<>();
+
+        /**
+         * Creates new negotiation cache.
+         *
+         * @param encodings  Candidate encodings, in order of preference.
+         * @param maxEntries Maximum number of "accept" header values and
+         *                   maximum number of "content-type" header values
+         *                   to remember.
+         */
+        public NegotiationCache(final List<EncodingDescriptor> encodings, final int maxEntries) {
+            Objects.requireNonNull(encodings, "Expected encodings");
+            if (encodings.size() == 0) {
+                throw new IllegalArgumentException("Expected encodings.size() > 0");
+            }
+            if (maxEntries < 0) {
+                throw new IllegalArgumentException("Expected maxEntries >= 0");
+            }
+            this.encodings = List.copyOf(encodings);
+            this.negotiations = this.encodings.stream()
+                .map(encoding -> Optional.of(new Negotiation(encoding)))
+                .collect(Collectors.toUnmodifiableList());
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * @return Negotiation for the first and most preferred candidate
+         * encoding.
+         */
+        public Negotiation defaultNegotiation() {
+            return negotiations.get(0).orElseThrow();
+        }
+
+        /**
+         * Looks up or performs negotiation of given {@code acceptHeaders}.
+         *
+         * @param acceptHeaders HTTP "accept" header values.
+         * @return Negotiation, if any candidate encoding is compatible.
+         * @see HttpMediaTypes#findEncodingCompatibleWithAcceptHeaders(List, List)
+         */
+        @ThreadSafe
+        public Optional<Negotiation> findCompatibleWithAcceptHeaders(final List<String> acceptHeaders) {
+            if (acceptHeaders == null || acceptHeaders.size() == 0) {
+                return Optional.empty();
+            }
+            final var key = acceptHeaders.size() == 1
+                ? acceptHeaders.get(0)
+                : String.join(",", acceptHeaders);
+            var negotiation = acceptHeaderCache.get(key);
+            if (negotiation == null) {
+                negotiation = toNegotiation(findEncodingCompatibleWithAcceptHeaders(encodings, acceptHeaders));
+                if (acceptHeaderCache.size() < maxEntries) {
+                    acceptHeaderCache.putIfAbsent(key, negotiation);
+                }
+            }
+            return negotiation;
+        }
+
+        /**
+         * Looks up or performs negotiation of given {@code contentType}.
+         *
+         * @param contentType HTTP "content-type" header value.
+         * @return Negotiation, if any candidate encoding is compatible.
+         * @see HttpMediaTypes#findEncodingCompatibleWithContentType(List, String)
+         */
+        @ThreadSafe
+        public Optional<Negotiation> findCompatibleWithContentType(final String contentType) {
+            if (contentType == null) {
+                return Optional.empty();
+            }
+            var negotiation = contentTypeCache.get(contentType);
+            if (negotiation == null) {
+                negotiation = toNegotiation(findEncodingCompatibleWithContentType(encodings, contentType));
+                if (contentTypeCache.size() < maxEntries) {
+                    contentTypeCache.putIfAbsent(contentType, negotiation);
+                }
+            }
+            return negotiation;
+        }
+
+        private Optional<Negotiation> toNegotiation(final Optional<EncodingDescriptor> encoding) {
+            return encoding
+                .flatMap(encoding0 -> negotiations.get(encodings.indexOf(encoding0)));
+        }
+    }
 }
@@ -2,6 +2,8 @@ package se.arkalix.internal.net.http;
 
 import se.arkalix.util.annotation.Internal;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Various helper functions for managing URL paths.
  */
@@ -55,6 +57,61 @@ public class HttpPaths {
         return ch >= '0' && ch <= '9' || ch >= 'A' && ch <= 'F' || ch >= 'a' && ch <= 'f';
     }
 
+    /**
+     * Extracts and percent-decodes the path of given request target, which
+     * is everything up to its first question mark ({@code ?}) or number sign
+     * ({@code #}), if any.
+     * <p>
+     * Percent encodings are decoded as UTF-8, while plus signs ({@code +})
+     * are left as they are. If the path contains no percent encodings, no
+     * new string is created unless a query or fragment must be removed.
+     *
+     * @param target Request target, such as "/a/b?c=d".
+     * @return Decoded path.
+     * @throws IllegalArgumentException If the path contains an invalid
+     *                                  percent encoding.
+     * @see <a href="https://tools.ietf.org/html/rfc7230#section-5.3">RFC 7230, Section 5.3</a>
+     */
+    public static String decodePathOf(final String target) {
+        var p1 = 0;
+        var hasPercentEncodings = false;
+        final var length = target.length();
+        for (; p1 < length; ++p1) {
+            final var c = target.charAt(p1);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            if (c == '%') {
+                hasPercentEncodings = true;
+            }
+        }
+        if (!hasPercentEncodings) {
+            return p1 == length ? target : target.substring(0, p1);
+        }
+        final var builder = new StringBuilder(p1);
+        final var bytes = new byte[p1 / 3];
+        for (var p0 = 0; p0 < p1; ) {
+            final var c = target.charAt(p0);
+            if (c != '%') {
+                builder.append(c);
+                p0 += 1;
+                continue;
+            }
+            var n = 0;
+            do {
+                if (p0 + 2 >= p1 || !isHex(target.charAt(p0 + 1)) || !isHex(target.charAt(p0 + 2))) {
+                    throw new IllegalArgumentException("Invalid percent " +
+                        "encoding at index " + p0 + " of \"" + target + "\"");
+                }
+                bytes[n++] = (byte) Integer.parseInt(target, p0 + 1, p0 + 3, 16);
+                p0 += 3;
+            }
+            while (p0 < p1 && target.charAt(p0) == '%');
+            builder.append(new String(bytes, 0, n, StandardCharsets.UTF_8));
+        }
+        return builder.toString();
+    }
+
     /**
      * Tests whether given string {@code path} is a valid RFC 3986 path, as
      * well as not including any percent encodings.
@@ -5,9 +5,12 @@ import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import se.arkalix.ArSystem;
+import se.arkalix.internal.net.NettyTlsSettings;
 import se.arkalix.internal.security.identity.X509Certificates;
 import se.arkalix.internal.util.concurrent.FutureCompletion;
 import se.arkalix.internal.util.concurrent.NettyScheduler;
+import se.arkalix.net.TlsSettings;
+import se.arkalix.net.WireLogging;
 import se.arkalix.net.http.client.HttpClient;
 import se.arkalix.net.http.client.HttpClientConnection;
 import se.arkalix.security.SecurityException;
@@ -39,6 +42,8 @@ public class NettyHttpClient implements HttpClient {
     private final Bootstrap bootstrap;
     private final InetSocketAddress localSocketAddress;
     private final SslContext sslContext;
+    private final WireLogging wireLogging;
+    private final int maxDecompressedBodySize;
 
     public NettyHttpClient(final Builder builder) {
         final var scheduler = (NettyScheduler) Schedulers.fixed();
@@ -46,9 +51,15 @@ public class NettyHttpClient implements HttpClient {
             .group(scheduler.eventLoopGroup())
             .channel(scheduler.socketChannelClass());
         localSocketAddress = builder.localSocketAddress;
+        wireLogging = Objects.requireNonNullElseGet(builder.wireLogging, WireLogging::new);
+        if (builder.maxDecompressedBodySize < 0) {
+            throw new IllegalArgumentException("Expected maxDecompressedBodySize >= 0");
+        }
+        maxDecompressedBodySize = builder.maxDecompressedBodySize;
 
         if (builder.isSecure) {
-            final var sslContextBuilder = SslContextBuilder.forClient()
+            final var tlsSettings = Objects.requireNonNullElseGet(builder.tlsSettings, TlsSettings::defaults);
+            final var sslContextBuilder = NettyTlsSettings.apply(SslContextBuilder.forClient(), tlsSettings)
                 .trustManager(builder.trustedCertificates != null && builder.trustedCertificates.length > 0
                     ? X509Certificates.castOrThrow(builder.trustedCertificates, (index, certificate) ->
                     new IllegalArgumentException("Certificate at index " +
@@ -90,6 +101,9 @@ public class NettyHttpClient implements HttpClient {
             if (builder.trustedCertificates != null) {
                 throw new IllegalArgumentException("HTTP client using secure transport; trust store not expected");
             }
+            if (builder.tlsSettings != null) {
+                throw new IllegalArgumentException("HTTP client using secure transport; TLS settings not expected");
+            }
             sslContext = null;
         }
     }
@@ -105,12 +119,14 @@ public class NettyHttpClient implements HttpClient {
         if (system.isSecure()) {
             builder.identity(system.identity());
             builder.trustStore(system.trustStore());
+            builder.tlsSettings(system.tlsSettings());
         }
         else {
             builder.insecure();
         }
 
         builder.localSocketAddress(new InetSocketAddress(system.address(), 0));
+        builder.wireLogging(system.wireLogging());
         client = builder.build();
 
         cache.put(system, client);
@@ -127,6 +143,11 @@ public class NettyHttpClient implements HttpClient {
         return Optional.ofNullable(localSocketAddress);
     }
 
+    @Override
+    public WireLogging wireLogging() {
+        return wireLogging;
+    }
+
     @ThreadSafe
     public synchronized static NettyHttpClient insecure() {
         if (http == null) {
@@ -153,7 +174,8 @@ public class NettyHttpClient implements HttpClient {
 
         final var futureConnection = new FutureCompletion<HttpClientConnection>();
         return adapt(bootstrap.clone()
-            .handler(new NettyHttpClientConnectionInitializer(futureConnection, sslContext))
+            .handler(new NettyHttpClientConnectionInitializer(futureConnection, sslContext, wireLogging,
+                maxDecompressedBodySize, remoteSocketAddress))
             .connect(remoteSocketAddress, localSocketAddress != null
                 ? localSocketAddress
                 : this.localSocketAddress))
@@ -165,6 +187,9 @@ public class NettyHttpClient implements HttpClient {
         private Certificate[] certificateChain;
         private PrivateKey privateKey;
         private Certificate[] trustedCertificates;
+        private WireLogging wireLogging;
+        private TlsSettings tlsSettings;
+        private int maxDecompressedBodySize = 16 * 1024 * 1024;
         private boolean isSecure = true;
 
         public final void localSocketAddress(final InetSocketAddress socketAddress) {
@@ -188,6 +213,18 @@ public class NettyHttpClient implements HttpClient {
             this.trustedCertificates = trustedCertificates;
         }
 
+        public final void wireLogging(final WireLogging wireLogging) {
+            this.wireLogging = wireLogging;
+        }
+
+        public final void tlsSettings(final TlsSettings tlsSettings) {
+            this.tlsSettings = tlsSettings;
+        }
+
+        public final void maxDecompressedBodySize(final int maxDecompressedBodySize) {
+            this.maxDecompressedBodySize = maxDecompressedBodySize;
+        }
+
         public final void insecure() {
             this.isSecure = false;
         }
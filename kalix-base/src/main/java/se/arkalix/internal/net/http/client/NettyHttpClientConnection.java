@@ -2,6 +2,7 @@ package se.arkalix.internal.net.http.client;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleState;
@@ -10,10 +11,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.arkalix.internal.net.NettyBodyOutgoing;
 import se.arkalix.internal.net.NettySimpleChannelInboundHandler;
+import se.arkalix.internal.net.NettyWireLogging;
 import se.arkalix.internal.net.http.HttpMediaTypes;
 import se.arkalix.internal.net.http.NettyHttpConverters;
 import se.arkalix.internal.util.concurrent.FutureCompletion;
 import se.arkalix.internal.util.concurrent.FutureCompletionUnsafe;
+import se.arkalix.net.WireLogging;
 import se.arkalix.net.http.*;
 import se.arkalix.net.http.client.HttpClientConnection;
 import se.arkalix.net.http.client.HttpClientConnectionException;
@@ -37,6 +40,7 @@ import java.util.Objects;
 import java.util.Queue;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.*;
+import static io.netty.handler.codec.http.HttpHeaderValues.GZIP_DEFLATE;
 import static io.netty.handler.codec.http.HttpHeaderValues.TEXT_PLAIN;
 import static se.arkalix.internal.net.http.NettyHttpConverters.convert;
 import static se.arkalix.internal.util.concurrent.NettyFutures.adapt;
@@ -50,6 +54,7 @@ public class NettyHttpClientConnection
 
     private final Queue<FutureRequestResponse> requestResponseQueue = new LinkedList<>();
     private final SslHandler sslHandler;
+    private final WireLogging wireLogging;
 
     private Channel channel = null;
     private SSLSession sslSession = null;
@@ -58,18 +63,23 @@ public class NettyHttpClientConnection
     private NettyHttpClientResponse incomingResponse = null;
 
     private boolean isClosing = false;
+    private boolean isWireLogging = false;
+    private int readPauseCount = 0;
 
     public NettyHttpClientConnection(
         final FutureCompletion<HttpClientConnection> futureConnection,
-        final SslHandler sslHandler
+        final SslHandler sslHandler,
+        final WireLogging wireLogging
     ) {
         this.futureConnection = Objects.requireNonNull(futureConnection, "Expected futureConnection");
         this.sslHandler = sslHandler;
+        this.wireLogging = Objects.requireNonNull(wireLogging, "Expected wireLogging");
     }
 
     @Override
     public void channelActive(final ChannelHandlerContext ctx) throws Exception {
         channel = ctx.channel();
+        isWireLogging = wireLogging.isEnabledFor((InetSocketAddress) channel.remoteAddress());
         if (futureConnection != null) {
             if (futureConnection.isCancelled()) {
                 futureConnection = null;
@@ -145,7 +155,7 @@ public class NettyHttpClientConnection
             }
             return;
         }
-        incomingResponse = new NettyHttpClientResponse(ctx.alloc(), this, futureRequestResponse.request(), response);
+        incomingResponse = new NettyHttpClientResponse(ctx.alloc(), ctx.executor(), this, futureRequestResponse.request(), response);
         futureRequestResponse.complete(Result.success(incomingResponse));
     }
 
@@ -158,6 +168,7 @@ public class NettyHttpClientConnection
         if (content instanceof LastHttpContent) {
             incomingResponse.headers().unwrap().add(((LastHttpContent) content).trailingHeaders());
             incomingResponse.finish();
+            incomingResponse.discard();
             incomingResponse = null;
             if (isClosing && requestResponseQueue.isEmpty()) {
                 ctx.close();
@@ -178,9 +189,20 @@ public class NettyHttpClientConnection
             futureConnection = null;
             return;
         }
-        if (incomingResponse != null && incomingResponse.tryAbort(cause)) {
-            incomingResponse = null;
-            return;
+        if (incomingResponse != null) {
+            if (cause instanceof TooLongFrameException) {
+                // Thrown by the decompressor of the pipeline, which also
+                // closes the connection.
+                incomingResponse.reject(new HttpOutgoingRequestException(incomingResponse.request(),
+                    cause.getMessage()));
+                incomingResponse = null;
+                return;
+            }
+            if (incomingResponse.tryAbort(cause)) {
+                incomingResponse = null;
+                return;
+            }
+            incomingResponse.discard();
         }
         if (requestResponseQueue.size() > 0) {
             requestResponseQueue.remove().complete(Result.failure(cause));
@@ -206,7 +228,7 @@ public class NettyHttpClientConnection
                 return;
             }
             if (incomingResponse != null) {
-                incomingResponse.tryAbort(new HttpOutgoingRequestException(incomingResponse.request(), "Incoming response body timed out"));
+                incomingResponse.reject(new HttpOutgoingRequestException(incomingResponse.request(), "Incoming response body timed out"));
                 incomingResponse = null;
                 return;
             }
@@ -221,6 +243,28 @@ public class NettyHttpClientConnection
         }
     }
 
+    /**
+     * Stops reading from the channel of this connection until {@link
+     * #resumeReading()} has been called as many times as this method.
+     */
+    void pauseReading() {
+        if (readPauseCount++ == 0) {
+            channel.config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * Resumes reading from the channel of this connection, unless reading
+     * remains paused for other reasons.
+     *
+     * @see #pauseReading()
+     */
+    void resumeReading() {
+        if (readPauseCount > 0 && --readPauseCount == 0) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
     @Override
     public Certificate[] remoteCertificateChain() {
         if (sslHandler == null) {
@@ -316,6 +360,12 @@ public class NettyHttpClientConnection
 
             HttpUtil.setKeepAlive(nettyHeaders, nettyVersion, !close);
 
+            // Compressed response bodies are decompressed transparently by
+            // the HttpContentDecompressor of the connection pipeline.
+            if (!nettyHeaders.contains(ACCEPT_ENCODING)) {
+                nettyHeaders.set(ACCEPT_ENCODING, GZIP_DEFLATE);
+            }
+
             if (!nettyHeaders.contains(CONTENT_TYPE)) {
                 final var encoding = request.encoding().orElse(null);
                 if (encoding == null) {
@@ -325,11 +375,16 @@ public class NettyHttpClientConnection
                         .toLowerCase());
                 }
                 else {
-                    nettyHeaders.set(CONTENT_TYPE, HttpMediaTypes.toMediaType(encoding));
+                    nettyHeaders.set(CONTENT_TYPE, HttpMediaTypes.toMediaTypeAsciiString(encoding));
                 }
             }
 
-            final var body = NettyBodyOutgoing.from(request, channel.alloc(), null);
+            final var body = NettyBodyOutgoing.from(request, channel, null, sslHandler == null);
+
+            if (wireLogging.isEnabledFor(host) != isWireLogging) {
+                isWireLogging = !isWireLogging;
+                NettyWireLogging.update(channel.pipeline(), HttpClientCodec.class, isWireLogging);
+            }
 
             if (!nettyHeaders.contains(CONTENT_LENGTH)) {
                 nettyHeaders.set(CONTENT_LENGTH, Long.toString(body.length()));
@@ -3,14 +3,17 @@ package se.arkalix.internal.net.http.client;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
-import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import se.arkalix.internal.net.NettyWireLogging;
 import se.arkalix.internal.util.concurrent.FutureCompletion;
+import se.arkalix.net.WireLogging;
 import se.arkalix.net.http.client.HttpClientConnection;
 import se.arkalix.util.annotation.Internal;
 
+import java.net.InetSocketAddress;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -18,13 +21,22 @@ import java.util.concurrent.TimeUnit;
 public class NettyHttpClientConnectionInitializer extends ChannelInitializer<SocketChannel> {
     private final FutureCompletion<HttpClientConnection> futureConnection;
     private final SslContext sslContext;
+    private final WireLogging wireLogging;
+    private final int maxDecompressedBodySize;
+    private final InetSocketAddress remoteSocketAddress;
 
     public NettyHttpClientConnectionInitializer(
         final FutureCompletion<HttpClientConnection> futureConnection,
-        final SslContext sslContext
+        final SslContext sslContext,
+        final WireLogging wireLogging,
+        final int maxDecompressedBodySize,
+        final InetSocketAddress remoteSocketAddress
     ) {
         this.futureConnection = Objects.requireNonNull(futureConnection, "Expected futureConnection");
         this.sslContext = sslContext;
+        this.wireLogging = Objects.requireNonNull(wireLogging, "Expected wireLogging");
+        this.maxDecompressedBodySize = maxDecompressedBodySize;
+        this.remoteSocketAddress = remoteSocketAddress;
     }
 
     @Override
@@ -37,16 +49,27 @@ public class NettyHttpClientConnectionInitializer extends ChannelInitializer<Soc
 
         SslHandler sslHandler = null;
         if (sslContext != null) {
-            sslHandler = sslContext.newHandler(channel.alloc());
+            // Providing the remote host and port makes it possible for the
+            // TLS implementation to resume a previously established session.
+            sslHandler = remoteSocketAddress != null
+                ? sslContext.newHandler(channel.alloc(), remoteSocketAddress.getHostString(), remoteSocketAddress.getPort())
+                : sslContext.newHandler(channel.alloc());
             pipeline.addLast(sslHandler);
         }
 
         pipeline
-            .addLast(new LoggingHandler())
             .addLast(new IdleStateHandler(30, 120, 0, TimeUnit.SECONDS))
 
             .addLast(new HttpClientCodec())
 
-            .addLast(new NettyHttpClientConnection(futureConnection, sslHandler));
+            .addLast(new NettyHttpContentDecompressor(maxDecompressedBodySize))
+
+            .addLast(new ChunkedWriteHandler())
+
+            .addLast(new NettyHttpClientConnection(futureConnection, sslHandler, wireLogging));
+
+        if (wireLogging.isEnabledFor(remoteSocketAddress)) {
+            NettyWireLogging.update(pipeline, HttpClientCodec.class, true);
+        }
     }
 }
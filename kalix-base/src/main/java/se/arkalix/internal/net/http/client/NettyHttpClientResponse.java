@@ -13,13 +13,14 @@ import se.arkalix.net.http.client.HttpClientResponse;
 import se.arkalix.util.annotation.Internal;
 
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static se.arkalix.internal.net.http.NettyHttpConverters.convert;
 
 @Internal
 public class NettyHttpClientResponse extends NettyMessageIncoming implements HttpClientResponse {
-    private final HttpClientConnection connection;
+    private final NettyHttpClientConnection connection;
     private final HttpClientRequest request;
     private final HttpResponse inner;
 
@@ -29,11 +30,12 @@ public class NettyHttpClientResponse extends NettyMessageIncoming implements Htt
 
     public NettyHttpClientResponse(
         final ByteBufAllocator alloc,
-        final HttpClientConnection connection,
+        final Executor executor,
+        final NettyHttpClientConnection connection,
         final HttpClientRequest request,
         final HttpResponse inner
     ) {
-        super(alloc, Objects.requireNonNull(inner, "Expected inner")
+        super(alloc, executor, Objects.requireNonNull(inner, "Expected inner")
             .headers().getInt(CONTENT_LENGTH, 0));
         this.connection = Objects.requireNonNull(connection, "Expected connection");
         this.request = Objects.requireNonNull(request, "Expected request");
@@ -75,6 +77,16 @@ public class NettyHttpClientResponse extends NettyMessageIncoming implements Htt
         return version;
     }
 
+    @Override
+    protected void pauseReading() {
+        connection.pauseReading();
+    }
+
+    @Override
+    protected void resumeReading() {
+        connection.resumeReading();
+    }
+
     @Override
     public HttpClientConnection connection() {
         return connection;
@@ -0,0 +1,81 @@
+package se.arkalix.internal.net.http.client;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.util.ReferenceCountUtil;
+import se.arkalix.util.annotation.Internal;
+
+import java.util.List;
+
+/**
+ * A {@link HttpContentDecompressor} that refuses to decompress response
+ * bodies beyond a given size, which prevents small compressed bodies from
+ * being inflated into arbitrarily large amounts of memory.
+ * <p>
+ * Bodies that are not compressed are passed on without being measured.
+ */
+@Internal
+public class NettyHttpContentDecompressor extends HttpContentDecompressor {
+    private final long maxBodySize;
+
+    private boolean isDecompressing = false;
+    private boolean isDiscarding = false;
+    private long bodyLength = 0;
+
+    /**
+     * @param maxBodySize Maximum size of decompressed bodies, in bytes.
+     */
+    public NettyHttpContentDecompressor(final long maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Expected maxBodySize >= 0");
+        }
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final HttpObject msg, final List<Object> out)
+        throws Exception
+    {
+        if (msg instanceof HttpResponse) {
+            isDecompressing = false;
+            isDiscarding = false;
+            bodyLength = 0;
+        }
+        else if (isDiscarding) {
+            return;
+        }
+        final var offset = out.size();
+        super.decode(ctx, msg, out);
+        if (!isDecompressing) {
+            return;
+        }
+        for (var i = offset; i < out.size(); ++i) {
+            final var object = out.get(i);
+            if (object instanceof HttpContent) {
+                bodyLength += ((HttpContent) object).content().readableBytes();
+            }
+        }
+        if (bodyLength > maxBodySize) {
+            for (var i = offset; i < out.size(); ++i) {
+                ReferenceCountUtil.release(out.get(i));
+            }
+            out.subList(offset, out.size()).clear();
+            isDiscarding = true;
+            ctx.close();
+            throw new TooLongFrameException("Decompressed response body " +
+                "is larger than " + maxBodySize + " bytes");
+        }
+    }
+
+    @Override
+    protected EmbeddedChannel newContentDecoder(final String contentEncoding) throws Exception {
+        final var decoder = super.newContentDecoder(contentEncoding);
+        isDecompressing = decoder != null;
+        return decoder;
+    }
+}
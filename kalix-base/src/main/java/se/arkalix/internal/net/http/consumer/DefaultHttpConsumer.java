@@ -96,7 +96,11 @@ public class DefaultHttpConsumer implements HttpConsumer {
             .flatMap(connection -> {
                 final SystemIdentity identity;
                 if (isSecure()) {
-                    identity = new SystemIdentity(connection.remoteCertificateChain());
+                    // Invalid chains are given to the constructor only to
+                    // make it throw an exception describing what is wrong.
+                    final var chain = connection.remoteCertificateChain();
+                    identity = SystemIdentity.tryFrom(chain)
+                        .orElseGet(() -> new SystemIdentity(chain));
                     if (!Objects.equals(identity.publicKey(), service.provider().publicKey())) {
                         return connection.close()
                             .fail(new HttpConsumerConnectionException("" +
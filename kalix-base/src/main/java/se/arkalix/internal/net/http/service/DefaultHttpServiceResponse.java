@@ -1,5 +1,9 @@
 package se.arkalix.internal.net.http.service;
 
+import io.netty.buffer.ByteBuf;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.dto.DtoEncoding;
+import se.arkalix.dto.DtoWritable;
 import se.arkalix.internal.net.DefaultMessageOutgoing;
 import se.arkalix.net.http.HttpHeaders;
 import se.arkalix.net.http.HttpStatus;
@@ -7,7 +11,12 @@ import se.arkalix.net.http.HttpVersion;
 import se.arkalix.net.http.service.HttpServiceResponse;
 import se.arkalix.util.annotation.Internal;
 
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 @Internal
 public class DefaultHttpServiceResponse
@@ -15,15 +24,52 @@ public class DefaultHttpServiceResponse
     implements HttpServiceResponse
 {
     private final HttpHeaders headers = new HttpHeaders();
+    private final EncodingDescriptor negotiatedEncoding;
 
     private HttpStatus status = null;
     private HttpVersion version = null;
+    private Consumer<ByteBuf> encodedBodyListener = null;
+
+    public DefaultHttpServiceResponse() {
+        this(null);
+    }
+
+    /**
+     * Creates new HTTP service response.
+     *
+     * @param negotiatedEncoding Encoding negotiated with the requester,
+     *                           which is used for any DTO body unless the
+     *                           response explicitly specifies another.
+     */
+    public DefaultHttpServiceResponse(final EncodingDescriptor negotiatedEncoding) {
+        this.negotiatedEncoding = negotiatedEncoding;
+    }
 
     @Override
     protected HttpServiceResponse self() {
         return this;
     }
 
+    /**
+     * Sets body to given buffer, which is written as-is and then released.
+     *
+     * @param buffer Buffer containing encoded response body.
+     * @return This response.
+     */
+    public HttpServiceResponse body(final ByteBuf buffer) {
+        return bodyUnsafe(null, Objects.requireNonNull(buffer, "Expected buffer"));
+    }
+
+    @Override
+    public HttpServiceResponse body(final Flow.Publisher<ByteBuffer> publisher) {
+        return bodyUnsafe(null, Objects.requireNonNull(publisher, "Expected publisher"));
+    }
+
+    @Override
+    public HttpServiceResponse body(final DtoEncoding encoding, final Iterator<? extends DtoWritable> iterator) {
+        return bodyUnsafe(encoding, Objects.requireNonNull(iterator, "Expected iterator"));
+    }
+
     @Override
     public HttpServiceResponse header(final CharSequence name, final CharSequence value) {
         headers.set(name, value);
@@ -62,4 +108,36 @@ public class DefaultHttpServiceResponse
         this.version = version;
         return this;
     }
+
+    /**
+     * @return Encoding negotiated with the requester, if known.
+     */
+    public Optional<EncodingDescriptor> negotiatedEncoding() {
+        return Optional.ofNullable(negotiatedEncoding);
+    }
+
+    /**
+     * Sets function to call with the body of this response after it has been
+     * encoded, but before it is sent. The function may modify the headers of
+     * this response, but not its status or body. It is only called if the
+     * encoded body is held in a single buffer, which excludes file and
+     * streamed bodies.
+     *
+     * @param listener Function to call with encoded body, which must not
+     *                 modify or release it.
+     */
+    public void onEncodedBody(final Consumer<ByteBuf> listener) {
+        encodedBodyListener = listener;
+    }
+
+    /**
+     * Calls function set via {@link #onEncodedBody(Consumer)}, if any.
+     *
+     * @param body Encoded response body.
+     */
+    public void notifyEncodedBody(final ByteBuf body) {
+        if (encodedBodyListener != null) {
+            encodedBodyListener.accept(body);
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.security.access.AccessPolicy;
+import se.arkalix.util.annotation.Internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the authorization decisions made for the consumer of a single
+ * connection.
+ * <p>
+ * The identity of a consumer cannot change during the lifetime of its
+ * connection, which is why the decisions of {@link
+ * AccessPolicy#isIdentityCacheable() identity-cacheable} access policies can
+ * be remembered for as long as the connection is open, one decision per
+ * service. Services are told apart by identity, which means that a service
+ * being dismissed and then provided anew is never given a remembered
+ * decision. Decisions made for services that are being dismissed are
+ * forgotten the next time a decision is remembered.
+ * <p>
+ * All HTTP/2 streams of the same connection share the same cache. As those
+ * streams are handled by the same event loop as their connection, instances
+ * of this class are not thread-safe and must only be used by that event loop.
+ */
+@Internal
+public class HttpAuthorizationCache {
+    private final Map<HttpServerService, Boolean> decisions = new IdentityHashMap<>();
+
+    /**
+     * Gets remembered authorization decision for given {@code service}, if
+     * any.
+     *
+     * @param service Service being consumed.
+     * @return {@code true} or {@code false} if a decision is remembered, or
+     * {@code null} otherwise.
+     */
+    public Boolean get(final HttpServerService service) {
+        Objects.requireNonNull(service, "Expected service");
+        if (service.isDraining()) {
+            return null;
+        }
+        return decisions.get(service);
+    }
+
+    /**
+     * Remembers authorization decision for given {@code service}, if its
+     * access policy is identity-cacheable.
+     *
+     * @param service      Service being consumed.
+     * @param isAuthorized Whether or not consumer is authorized to consume
+     *                     {@code service}.
+     */
+    public void put(final HttpServerService service, final boolean isAuthorized) {
+        Objects.requireNonNull(service, "Expected service");
+        if (!service.accessPolicy().isIdentityCacheable()) {
+            return;
+        }
+        decisions.keySet().removeIf(HttpServerService::isDraining);
+        if (!service.isDraining()) {
+            decisions.put(service, isAuthorized);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.util.*;
+
+/**
+ * An immutable radix tree mapping {@link se.arkalix.net.http.service.HttpService#basePath(String)
+ * base paths} to the values, typically services, associated with them.
+ * <p>
+ * A base path matches a request path only if the request path is equal to it
+ * or continues with a forward slash ({@code /}) right after it, which means
+ * that {@code /foo} matches {@code /foo} and {@code /foo/bar}, but not {@code
+ * /foobar}. The root path {@code /} matches any path that is not matched by
+ * any other base path.
+ * <p>
+ * As trees cannot be modified after being created, new trees must be created
+ * whenever the set of base paths changes. Looking up a path neither locks nor
+ * allocates any memory.
+ *
+ * @param <V> Type of value associated with each base path.
+ */
+@Internal
+public class HttpBasePathTree<V> {
+    private static final HttpBasePathTree<?> EMPTY = new HttpBasePathTree<>(
+        new Node<>(new char[0], new String[0], null, null), Optional.empty());
+
+    private final Node<V> root;
+    private final Optional<V> rootValue;
+
+    private HttpBasePathTree(final Node<V> root, final Optional<V> rootValue) {
+        this.root = root;
+        this.rootValue = rootValue;
+    }
+
+    /**
+     * @param <V> Type of value associated with each base path.
+     * @return Tree not containing any base paths.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> HttpBasePathTree<V> empty() {
+        return (HttpBasePathTree<V>) EMPTY;
+    }
+
+    /**
+     * Creates new tree from given map of base paths.
+     *
+     * @param entries Map of base paths, each of which must start with a
+     *                forward slash, and must not end with one unless being
+     *                the root path {@code /}.
+     * @param <V>     Type of value associated with each base path.
+     * @return New tree.
+     */
+    public static <V> HttpBasePathTree<V> of(final Map<String, V> entries) {
+        Objects.requireNonNull(entries, "Expected entries");
+        if (entries.isEmpty()) {
+            return empty();
+        }
+        final var keys = new ArrayList<String>(entries.size());
+        var rootValue = Optional.<V>empty();
+        for (final var entry : entries.entrySet()) {
+            final var key = entry.getKey();
+            if (key.equals("/")) {
+                rootValue = Optional.of(entry.getValue());
+            }
+            else {
+                keys.add(key);
+            }
+        }
+        keys.sort(Comparator.naturalOrder());
+        return new HttpBasePathTree<>(build(keys, entries, 0, keys.size(), 0), rootValue);
+    }
+
+    private static <V> Node<V> build(
+        final List<String> keys,
+        final Map<String, V> entries,
+        int from,
+        final int to,
+        final int depth
+    ) {
+        // Keys are sorted, which means that a key ending at the current depth
+        // can only be the first one in the range.
+        Optional<V> value = null;
+        if (from < to && keys.get(from).length() == depth) {
+            value = Optional.of(entries.get(keys.get(from)));
+            from += 1;
+        }
+
+        final var firsts = new ArrayList<Character>();
+        final var labels = new ArrayList<String>();
+        final var children = new ArrayList<Node<V>>();
+
+        while (from < to) {
+            final var first = keys.get(from).charAt(depth);
+            var end = from + 1;
+            while (end < to && keys.get(end).charAt(depth) == first) {
+                end += 1;
+            }
+
+            // As keys are sorted, the longest common prefix of a group of keys
+            // is the common prefix of its first and last keys.
+            final var a = keys.get(from);
+            final var b = keys.get(end - 1);
+            var lcp = depth + 1;
+            while (lcp < a.length() && lcp < b.length() && a.charAt(lcp) == b.charAt(lcp)) {
+                lcp += 1;
+            }
+
+            firsts.add(first);
+            labels.add(a.substring(depth, lcp));
+            children.add(build(keys, entries, from, end, lcp));
+
+            from = end;
+        }
+
+        final var firstsArray = new char[firsts.size()];
+        for (var i = 0; i < firstsArray.length; ++i) {
+            firstsArray[i] = firsts.get(i);
+        }
+        @SuppressWarnings("unchecked") final var childrenArray = (Node<V>[]) children.toArray(new Node<?>[0]);
+        return new Node<>(firstsArray, labels.toArray(new String[0]), childrenArray, value);
+    }
+
+    /**
+     * Finds the value associated with the longest base path matching given
+     * request path.
+     *
+     * @param path Path of incoming HTTP request.
+     * @return Value associated with matching base path, if any.
+     */
+    @ThreadSafe
+    public Optional<V> getByPath(final String path) {
+        final var p1 = path.length();
+        var result = rootValue;
+        var node = root;
+        var p0 = 0;
+        while (true) {
+            if (node.value != null && (p0 == p1 || path.charAt(p0) == '/')) {
+                result = node.value;
+            }
+            if (p0 == p1) {
+                return result;
+            }
+            final var index = Arrays.binarySearch(node.firsts, path.charAt(p0));
+            if (index < 0) {
+                return result;
+            }
+            final var label = node.labels[index];
+            if (!path.startsWith(label, p0)) {
+                return result;
+            }
+            p0 += label.length();
+            node = node.children[index];
+        }
+    }
+
+    private static class Node<V> {
+        private final char[] firsts;
+        private final String[] labels;
+        private final Node<V>[] children;
+        private final Optional<V> value;
+
+        private Node(final char[] firsts, final String[] labels, final Node<V>[] children, final Optional<V> value) {
+            this.firsts = firsts;
+            this.labels = labels;
+            this.children = children;
+            this.value = value;
+        }
+    }
+}
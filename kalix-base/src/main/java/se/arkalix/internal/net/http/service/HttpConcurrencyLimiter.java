@@ -0,0 +1,211 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of requests a service may handle at the same time.
+ * <p>
+ * The limit is either fixed or adaptive. An adaptive limit is adjusted once
+ * per sampling window in a manner similar to the TCP Vegas congestion
+ * avoidance algorithm. Each window lasts for as long as the average latency
+ * of the requests handled during the previous window, but at least one
+ * millisecond. The number of queued requests is estimated by comparing the
+ * average latency of each window to the lowest latency observed recently. If
+ * the estimate is large, the limit is decreased multiplicatively. If it is
+ * small and the current limit is being used, the limit is increased
+ * additively.
+ * <p>
+ * Releasing a request only adds its latency to the current window. Only the
+ * thread releasing the first request after a window has ended adjusts the
+ * limit, which means that releasing threads never wait for each other.
+ * <p>
+ * A part of the capacity of each limiter can be reserved, in which case only
+ * requests explicitly said to be reserved may be admitted when the number of
+ * requests being handled comes within the reserved capacity of the limit.
+ */
+@Internal
+public class HttpConcurrencyLimiter {
+    private static final int INITIAL_ADAPTIVE_LIMIT = 20;
+    private static final double QUEUE_SIZE_INCREASE_THRESHOLD = 3.0;
+    private static final double QUEUE_SIZE_DECREASE_THRESHOLD = 6.0;
+    private static final double DECREASE_RATIO = 0.9;
+    private static final int MIN_LATENCY_SAMPLE_WINDOW = 1000;
+    private static final long MIN_WINDOW_NANOS = 1_000_000;
+
+    // Values of `windowEndsAt` that are not times.
+    private static final long WINDOW_NOT_STARTED = Long.MIN_VALUE;
+    private static final long WINDOW_BEING_CLOSED = Long.MAX_VALUE;
+
+    private final int maxLimit;
+    private final int minLimit;
+    private final int reserved;
+    private final boolean isAdaptive;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    private volatile int limit;
+
+    // Samples of the current window.
+    private final LongAdder windowLatencySum = new LongAdder();
+    private final LongAdder windowSampleCount = new LongAdder();
+    private final AtomicLong windowMinLatency = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger(0);
+    private final AtomicLong windowEndsAt = new AtomicLong(WINDOW_NOT_STARTED);
+
+    // Adaptive limit state, only accessed by the thread closing a window.
+    private double adaptiveLimit;
+    private long minLatency = Long.MAX_VALUE;
+    private int sampleCount = 0;
+
+    /**
+     * Creates new concurrency limiter.
+     *
+     * @param maxLimit   Fixed limit, or maximum adaptive limit.
+     * @param reserved   Number of requests reserved for reserved requests.
+     * @param isAdaptive Whether or not limit is to be adaptive.
+     */
+    public HttpConcurrencyLimiter(final int maxLimit, final int reserved, final boolean isAdaptive) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("Expected maxLimit > 0");
+        }
+        if (reserved < 0 || reserved >= maxLimit) {
+            throw new IllegalArgumentException("Expected 0 <= reserved < maxLimit");
+        }
+        this.maxLimit = maxLimit;
+        this.minLimit = reserved + 1;
+        this.reserved = reserved;
+        this.isAdaptive = isAdaptive;
+
+        if (isAdaptive) {
+            adaptiveLimit = Math.max(minLimit, Math.min(maxLimit, INITIAL_ADAPTIVE_LIMIT));
+            limit = (int) adaptiveLimit;
+        }
+        else {
+            limit = maxLimit;
+        }
+    }
+
+    /**
+     * @return Current concurrency limit.
+     */
+    @ThreadSafe
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * @return Number of requests currently being handled.
+     */
+    @ThreadSafe
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Attempts to admit one more request, which must be {@link #release(long)
+     * released} after being handled if admitted.
+     *
+     * @param isReserved Whether or not the request may use reserved capacity.
+     * @return {@code true} only if the request was admitted.
+     */
+    @ThreadSafe
+    public boolean tryAcquire(final boolean isReserved) {
+        final var limit = isReserved ? this.limit : this.limit - reserved;
+        while (true) {
+            final var inFlight0 = inFlight.get();
+            if (inFlight0 >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(inFlight0, inFlight0 + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a request previously admitted via {@link
+     * #tryAcquire(boolean)}.
+     *
+     * @param latencyNanos Time, in nanoseconds, from when the request was
+     *                     admitted to when it finished being handled.
+     */
+    @ThreadSafe
+    public void release(final long latencyNanos) {
+        final var inFlight0 = inFlight.getAndDecrement();
+        if (isAdaptive) {
+            update(Math.max(latencyNanos, 1), inFlight0, System.nanoTime());
+        }
+    }
+
+    void update(final long latency, final int inFlight, final long now) {
+        if (latency < windowMinLatency.get()) {
+            windowMinLatency.accumulateAndGet(latency, Math::min);
+        }
+        if (inFlight > windowMaxInFlight.get()) {
+            windowMaxInFlight.accumulateAndGet(inFlight, Math::max);
+        }
+        windowLatencySum.add(latency);
+        windowSampleCount.increment();
+
+        final var endsAt = windowEndsAt.get();
+        if (endsAt == WINDOW_NOT_STARTED) {
+            windowEndsAt.compareAndSet(WINDOW_NOT_STARTED, now + MIN_WINDOW_NANOS);
+            return;
+        }
+        if (endsAt == WINDOW_BEING_CLOSED || now - endsAt < 0) {
+            return;
+        }
+        if (windowEndsAt.compareAndSet(endsAt, WINDOW_BEING_CLOSED)) {
+            final var windowNanos = closeWindow();
+            windowEndsAt.set(now + Math.max(windowNanos, MIN_WINDOW_NANOS));
+        }
+    }
+
+    /**
+     * Adjusts the adaptive limit using the samples of the window that just
+     * ended, and then starts a new window. Samples added while this happens
+     * may end up in either window, which is of no consequence.
+     *
+     * @return Average latency of the window that ended.
+     */
+    private long closeWindow() {
+        final var count = windowSampleCount.sumThenReset();
+        final var latencySum = windowLatencySum.sumThenReset();
+        final var windowMinLatency = this.windowMinLatency.getAndSet(Long.MAX_VALUE);
+        final var windowMaxInFlight = this.windowMaxInFlight.getAndSet(0);
+        if (count == 0) {
+            return 0;
+        }
+        final var latency = Math.max(latencySum / count, 1);
+
+        sampleCount += count;
+        if (sampleCount >= MIN_LATENCY_SAMPLE_WINDOW) {
+            // Forget old minimum, in case the latency of the service has
+            // permanently changed.
+            sampleCount = 0;
+            minLatency = Math.min(windowMinLatency, latency);
+        }
+        else if (windowMinLatency < minLatency) {
+            minLatency = windowMinLatency;
+        }
+
+        final var queueSize = adaptiveLimit * (1.0 - (double) minLatency / latency);
+        final double adaptiveLimit;
+        if (queueSize > QUEUE_SIZE_DECREASE_THRESHOLD) {
+            adaptiveLimit = this.adaptiveLimit * DECREASE_RATIO;
+        }
+        else if (queueSize < QUEUE_SIZE_INCREASE_THRESHOLD && windowMaxInFlight * 2 >= this.adaptiveLimit) {
+            adaptiveLimit = this.adaptiveLimit + 1.0;
+        }
+        else {
+            return latency;
+        }
+        this.adaptiveLimit = Math.max(minLimit, Math.min(maxLimit, adaptiveLimit));
+        limit = (int) this.adaptiveLimit;
+        return latency;
+    }
+}
@@ -0,0 +1,100 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.net.http.service.HttpServerSentEvent;
+import se.arkalix.util.annotation.Internal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * A publisher of the "text/event-stream" encodings of the {@link
+ * HttpServerSentEvent events} published by another publisher.
+ * <p>
+ * Each subscriber is given its own subscription to the source publisher,
+ * which means that every event requested by a subscriber is requested from
+ * the source publisher, and that the source publisher is subscribed to as
+ * many times as this publisher is.
+ *
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html#event-stream-interpretation">HTML Living Standard, Section 9.2.6</a>
+ */
+@Internal
+public class HttpEventStreamPublisher implements Flow.Publisher<ByteBuffer> {
+    private final Flow.Publisher<? extends HttpServerSentEvent> source;
+
+    /**
+     * Creates new event stream publisher.
+     *
+     * @param source Publisher of events to encode.
+     */
+    public HttpEventStreamPublisher(final Flow.Publisher<? extends HttpServerSentEvent> source) {
+        this.source = Objects.requireNonNull(source, "Expected source");
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "Expected subscriber");
+        source.subscribe(new Flow.Subscriber<HttpServerSentEvent>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(final HttpServerSentEvent item) {
+                subscriber.onNext(encode(item));
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+    }
+
+    /**
+     * Encodes given event as a "text/event-stream" event, including the empty
+     * line terminating it.
+     *
+     * @param event Event to encode.
+     * @return Buffer containing UTF-8 encoded event.
+     */
+    public static ByteBuffer encode(final HttpServerSentEvent event) {
+        Objects.requireNonNull(event, "Expected event");
+        final var builder = new StringBuilder();
+        event.comment().ifPresent(comment -> appendLines(builder, "", comment));
+        event.retry().ifPresent(retry -> builder.append("retry: ").append(retry.toMillis()).append('\n'));
+        event.id().ifPresent(id -> builder.append("id: ").append(id).append('\n'));
+        event.name().ifPresent(name -> builder.append("event: ").append(name).append('\n'));
+        event.data().ifPresent(data -> appendLines(builder, "data", data));
+        builder.append('\n');
+        return StandardCharsets.UTF_8.encode(builder.toString());
+    }
+
+    private static void appendLines(final StringBuilder builder, final String field, final String value) {
+        // CRLF, CR and LF all terminate lines, which is why each line must
+        // be sent as a separate field.
+        var p0 = 0;
+        final var p1 = value.length();
+        while (true) {
+            var p = p0;
+            while (p < p1 && value.charAt(p) != '\n' && value.charAt(p) != '\r') {
+                p += 1;
+            }
+            builder.append(field).append(": ").append(value, p0, p).append('\n');
+            if (p == p1) {
+                break;
+            }
+            if (value.charAt(p) == '\r' && p + 1 < p1 && value.charAt(p + 1) == '\n') {
+                p += 1;
+            }
+            p0 = p + 1;
+        }
+    }
+}
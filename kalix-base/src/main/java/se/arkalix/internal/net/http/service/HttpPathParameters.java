@@ -0,0 +1,79 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.util.annotation.Internal;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list of path parameters, each represented by a start and an
+ * end offset into the request path they were collected from.
+ * <p>
+ * Parameters are only turned into strings when first accessed, which means
+ * that no strings are created for parameters never used by the handler of a
+ * matching route, filter or catcher.
+ */
+@Internal
+public final class HttpPathParameters extends AbstractList<String> implements RandomAccess {
+    private final String path;
+    private final int[] boundaries;
+    private final int size;
+
+    private String[] values;
+
+    private HttpPathParameters(final String path, final int[] boundaries, final int size) {
+        this.path = path;
+        this.boundaries = boundaries;
+        this.size = size;
+    }
+
+    /**
+     * Creates new list of path parameters.
+     * <p>
+     * The given {@code boundaries} array must not be modified after being
+     * provided to this method.
+     *
+     * @param path       Path to collect parameters from.
+     * @param boundaries Array of start and end offsets into {@code path}, in
+     *                   pairs, such that the first parameter is found between
+     *                   offsets 0 and 1, the second between 2 and 3, and so
+     *                   on.
+     * @param size       Number of parameters in {@code boundaries}.
+     * @return New list of path parameters.
+     */
+    public static List<String> of(final String path, final int[] boundaries, final int size) {
+        Objects.requireNonNull(path, "Expected path");
+        Objects.requireNonNull(boundaries, "Expected boundaries");
+        if (size < 0 || size * 2 > boundaries.length) {
+            throw new IndexOutOfBoundsException("Expected 0 <= size <= boundaries.length / 2");
+        }
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        return new HttpPathParameters(path, boundaries, size);
+    }
+
+    @Override
+    public String get(final int index) {
+        Objects.checkIndex(index, size);
+        var values = this.values;
+        if (values == null) {
+            values = new String[size];
+            this.values = values;
+        }
+        var value = values[index];
+        if (value == null) {
+            value = path.substring(boundaries[index * 2], boundaries[index * 2 + 1]);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,263 @@
+package se.arkalix.internal.net.http.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import se.arkalix.internal.net.http.HttpEntityTags;
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * A bounded collection of encoded HTTP response bodies and headers.
+ * <p>
+ * The sum of the sizes of all stored bodies is never allowed to exceed a
+ * given maximum size. If storing a new entry would make it do so, the least
+ * recently used entries are evicted until the new entry fits. Entries may
+ * also be given a maximum age, after which they are no longer returned.
+ * <p>
+ * Bodies are copied into buffers that are never released, which means that
+ * evicted entries may remain in use for as long as needed by any response
+ * being sent with them, after which they are simply garbage collected.
+ */
+@Internal
+public class HttpResponseCacheStore {
+    private final long maxSize;
+    private final long maxAgeNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size = 0;
+    private long generation = 0;
+
+    /**
+     * Creates new HTTP response cache store.
+     *
+     * @param maxSize     Maximum sum of the sizes of all stored bodies, in
+     *                    bytes.
+     * @param maxAgeNanos Maximum age of stored entries, in nanoseconds, or 0
+     *                    if entries are never to expire.
+     */
+    public HttpResponseCacheStore(final long maxSize, final long maxAgeNanos) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Expected maxSize > 0");
+        }
+        if (maxAgeNanos < 0) {
+            throw new IllegalArgumentException("Expected maxAgeNanos >= 0");
+        }
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    /**
+     * @return Sum of the sizes of all stored bodies, in bytes.
+     */
+    @ThreadSafe
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return Number of stored entries.
+     */
+    @ThreadSafe
+    public synchronized int count() {
+        return entries.size();
+    }
+
+    /**
+     * Gets current generation of this store, which must be provided when
+     * {@link #put(String, String, ByteBuf, HttpHeaders, long, long) putting}
+     * entries into it. The generation is changed every time entries are
+     * invalidated, which prevents entries created from resources that were
+     * invalidated while those entries were being created from being stored.
+     *
+     * @return Current store generation.
+     */
+    @ThreadSafe
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Gets entry associated with given key, if any and not expired.
+     *
+     * @param key Key of entry.
+     * @param now Current time, in nanoseconds, as given by {@link
+     *            System#nanoTime()}.
+     * @return Entry associated with {@code key}, or {@code null}.
+     */
+    @ThreadSafe
+    public synchronized Entry get(final String key, final long now) {
+        final var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (maxAgeNanos > 0 && now - entry.createdAt >= maxAgeNanos) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Copies given {@code body} and {@code headers} into new entry and
+     * associates it with given {@code key}, replacing any existing entry
+     * with the same key.
+     * <p>
+     * Hop-by-hop and length headers are not copied. If {@code headers}
+     * contain no entity tag, a strong tag is calculated from the contents of
+     * {@code body}. The entry is not stored if {@code generation} is not the
+     * current generation of this store, or if {@code body} is larger than the
+     * maximum size of this store. Its entity tag is returned either way.
+     *
+     * @param key        Key to associate entry with.
+     * @param path       Path of resource represented by entry.
+     * @param body       Encoded response body to copy. Its reader index is
+     *                   not changed.
+     * @param headers    Response headers to copy.
+     * @param generation Generation of this store at the time the creation of
+     *                   the entry started.
+     * @param now        Current time, in nanoseconds, as given by {@link
+     *                   System#nanoTime()}.
+     * @return Entity tag of entry.
+     */
+    @ThreadSafe
+    public String put(
+        final String key,
+        final String path,
+        final ByteBuf body,
+        final HttpHeaders headers,
+        final long generation,
+        final long now)
+    {
+        Objects.requireNonNull(key, "Expected key");
+        Objects.requireNonNull(path, "Expected path");
+        Objects.requireNonNull(body, "Expected body");
+        Objects.requireNonNull(headers, "Expected headers");
+
+        final var length = body.readableBytes();
+        var tag = headers.get(ETAG);
+        if (tag == null) {
+            final var checksum = new CRC32C();
+            checksum.update(body.nioBuffer());
+            tag = HttpEntityTags.strongOf(length, checksum.getValue());
+        }
+        if (length > maxSize) {
+            return tag;
+        }
+
+        final var headers0 = new DefaultHttpHeaders(false)
+            .set(headers)
+            .remove(CONNECTION)
+            .remove(CONTENT_LENGTH)
+            .remove(TRANSFER_ENCODING)
+            .set(ETAG, tag);
+
+        final var body0 = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(body));
+        final var entry = new Entry(path, body0, headers0, tag, now);
+
+        synchronized (this) {
+            if (generation != this.generation) {
+                return tag;
+            }
+            remove(key);
+            final var iterator = entries.values().iterator();
+            while (size + length > maxSize && iterator.hasNext()) {
+                size -= iterator.next().body.readableBytes();
+                iterator.remove();
+            }
+            entries.put(key, entry);
+            size += length;
+        }
+        return tag;
+    }
+
+    /**
+     * Removes all entries representing the resource at given path.
+     *
+     * @param path Path of resource to invalidate.
+     */
+    @ThreadSafe
+    public synchronized void invalidate(final String path) {
+        Objects.requireNonNull(path, "Expected path");
+        generation += 1;
+        final var iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            if (entry.path.equals(path)) {
+                size -= entry.body.readableBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    @ThreadSafe
+    public synchronized void invalidateAll() {
+        generation += 1;
+        entries.clear();
+        size = 0;
+    }
+
+    private void remove(final String key) {
+        final var entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.body.readableBytes();
+        }
+    }
+
+    /**
+     * A stored HTTP response.
+     */
+    public static class Entry {
+        private final String path;
+        private final ByteBuf body;
+        private final HttpHeaders headers;
+        private final String tag;
+        private final long createdAt;
+
+        private Entry(
+            final String path,
+            final ByteBuf body,
+            final HttpHeaders headers,
+            final String tag,
+            final long createdAt)
+        {
+            this.path = path;
+            this.body = body;
+            this.headers = headers;
+            this.tag = tag;
+            this.createdAt = createdAt;
+        }
+
+        /**
+         * @return New buffer sharing the stored body of this entry, but with
+         * its own reader and writer indexes. Releasing it has no effect.
+         */
+        public ByteBuf body() {
+            return body.duplicate();
+        }
+
+        /**
+         * @return Stored response headers, which must not be modified.
+         */
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        /**
+         * @return Entity tag of stored response.
+         */
+        public String tag() {
+            return tag;
+        }
+    }
+}
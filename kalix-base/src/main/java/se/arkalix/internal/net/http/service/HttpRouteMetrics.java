@@ -0,0 +1,291 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Request counters and a latency histogram associated with a single route.
+ * <p>
+ * Latencies are recorded in microseconds into log-linear buckets, in the
+ * style of HdrHistogram. Every power of two is divided into {@link
+ * #SUB_BUCKET_COUNT} linear sub-buckets, which means that latencies are
+ * reported with a relative error of at most 12.5 %. Latencies larger than
+ * about 19 hours are recorded as being of that length.
+ * <p>
+ * Each recording thread is assigned one of a fixed number of stripes, each
+ * of which holds its own counters, which means that the event loop threads
+ * recording latencies rarely, if ever, contend for the same cache lines.
+ * Stripes are only summed up when a {@link #snapshot() snapshot} is taken.
+ */
+@Internal
+public class HttpRouteMetrics {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    /**
+     * Number of latency buckets.
+     */
+    public static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private static final int STATUS_CLASS_OFFSET = BUCKET_COUNT;
+    private static final int ERROR_OFFSET = STATUS_CLASS_OFFSET + 5;
+    private static final int SUM_OFFSET = ERROR_OFFSET + 1;
+    private static final int MAX_OFFSET = SUM_OFFSET + 1;
+
+    // Trailing padding keeps the counters of adjacent stripes from sharing
+    // cache lines.
+    private static final int STRIPE_LENGTH = MAX_OFFSET + 1 + 8;
+
+    private static final int STRIPE_COUNT;
+
+    static {
+        final var processors = Runtime.getRuntime().availableProcessors();
+        STRIPE_COUNT = Math.min(Integer.highestOneBit(Math.max(processors * 2 - 1, 1)), 16);
+    }
+
+    private final String service;
+    private final String method;
+    private final String pattern;
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+    /**
+     * Creates new set of route metrics.
+     *
+     * @param service Name of service owning route.
+     * @param method  Route method, or {@code null} if any method is matched.
+     * @param pattern Route path pattern, or {@code null} if any path is
+     *                matched.
+     */
+    public HttpRouteMetrics(final String service, final String method, final String pattern) {
+        this.service = Objects.requireNonNull(service, "Expected service");
+        this.method = method;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @return Name of service owning route.
+     */
+    public String service() {
+        return service;
+    }
+
+    /**
+     * @return Route method, or {@code null} if any method is matched.
+     */
+    public String method() {
+        return method;
+    }
+
+    /**
+     * @return Route path pattern, or {@code null} if any path is matched.
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Records the outcome of one handled request.
+     *
+     * @param status       Status code of response.
+     * @param isError      Whether or not the request caused an exception not
+     *                     handled by any catcher.
+     * @param latencyNanos Time, in nanoseconds, it took to handle the
+     *                     request.
+     */
+    @ThreadSafe
+    public void record(final int status, final boolean isError, final long latencyNanos) {
+        final var stripe = stripe();
+        final var latencyMicros = Math.min(Math.max(latencyNanos / 1000L, 0L), MAX_VALUE);
+        stripe.getAndIncrement(indexOf(latencyMicros));
+        final var statusClass = status / 100;
+        if (statusClass >= 1 && statusClass <= 5) {
+            stripe.getAndIncrement(STATUS_CLASS_OFFSET + statusClass - 1);
+        }
+        if (isError) {
+            stripe.getAndIncrement(ERROR_OFFSET);
+        }
+        stripe.getAndAdd(SUM_OFFSET, latencyMicros);
+        while (true) {
+            final var max = stripe.get(MAX_OFFSET);
+            if (latencyMicros <= max || stripe.compareAndSet(MAX_OFFSET, max, latencyMicros)) {
+                break;
+            }
+        }
+    }
+
+    private AtomicLongArray stripe() {
+        final var index = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+        var stripe = stripes.get(index);
+        if (stripe == null) {
+            stripe = new AtomicLongArray(STRIPE_LENGTH);
+            if (!stripes.compareAndSet(index, null, stripe)) {
+                stripe = stripes.get(index);
+            }
+        }
+        return stripe;
+    }
+
+    /**
+     * Sums up the counters of all stripes. As stripes may be updated while
+     * being read, the counters of the snapshot are not necessarily consistent
+     * with each other.
+     *
+     * @return Snapshot of current metrics.
+     */
+    @ThreadSafe
+    public Snapshot snapshot() {
+        final var buckets = new long[BUCKET_COUNT];
+        final var statusClasses = new long[5];
+        long errors = 0, sum = 0, max = 0;
+        for (var i = 0; i < STRIPE_COUNT; ++i) {
+            final var stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+            for (var j = 0; j < BUCKET_COUNT; ++j) {
+                buckets[j] += stripe.get(j);
+            }
+            for (var j = 0; j < 5; ++j) {
+                statusClasses[j] += stripe.get(STATUS_CLASS_OFFSET + j);
+            }
+            errors += stripe.get(ERROR_OFFSET);
+            sum += stripe.get(SUM_OFFSET);
+            max = Math.max(max, stripe.get(MAX_OFFSET));
+        }
+        return new Snapshot(buckets, statusClasses, errors, sum, max);
+    }
+
+    /**
+     * Determines index of the bucket the given value is counted in.
+     *
+     * @param value Non-negative value.
+     * @return Bucket index.
+     */
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Determines the largest value counted in the bucket with given index.
+     *
+     * @param index Bucket index.
+     * @return Largest value of bucket.
+     */
+    static long highestValueOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final var shift = index / SUB_BUCKET_COUNT - 1;
+        final var subBucket = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * A summary of the requests handled by a route at a certain point in
+     * time.
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long[] statusClasses;
+        private final long errors;
+        private final long sum;
+        private final long max;
+        private final long count;
+
+        Snapshot(
+            final long[] buckets,
+            final long[] statusClasses,
+            final long errors,
+            final long sum,
+            final long max)
+        {
+            this.buckets = buckets;
+            this.statusClasses = statusClasses;
+            this.errors = errors;
+            this.sum = sum;
+            this.max = max;
+
+            var count = 0L;
+            for (final var bucket : buckets) {
+                count += bucket;
+            }
+            this.count = count;
+        }
+
+        /**
+         * @return Number of handled requests.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @param statusClass Status class, which is 1 for informational
+         *                    responses, 2 for successful responses, and so
+         *                    on, up to and including 5.
+         * @return Number of responses with status codes of given class.
+         */
+        public long countOf(final int statusClass) {
+            if (statusClass < 1 || statusClass > 5) {
+                throw new IllegalArgumentException("Expected 1 <= statusClass <= 5");
+            }
+            return statusClasses[statusClass - 1];
+        }
+
+        /**
+         * @return Number of requests causing exceptions not handled by any
+         * catcher.
+         */
+        public long errors() {
+            return errors;
+        }
+
+        /**
+         * @return Sum of all recorded latencies, in microseconds.
+         */
+        public long sumMicros() {
+            return sum;
+        }
+
+        /**
+         * @return Largest recorded latency, in microseconds.
+         */
+        public long maxMicros() {
+            return max;
+        }
+
+        /**
+         * Gets latency at given percentile, which is no smaller than the
+         * actual latency at that percentile and at most 12.5 % larger.
+         *
+         * @param percentile Percentile, between 0.0 and 100.0.
+         * @return Latency, in microseconds, or 0 if nothing was recorded.
+         */
+        public long percentileMicros(final double percentile) {
+            if (percentile < 0.0 || percentile > 100.0) {
+                throw new IllegalArgumentException("Expected 0.0 <= percentile <= 100.0");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            final var rank = Math.max((long) Math.ceil(percentile / 100.0 * count), 1L);
+            var total = 0L;
+            for (var i = 0; i < buckets.length; ++i) {
+                total += buckets[i];
+                if (total >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.net.http.service.HttpPattern;
+import se.arkalix.net.http.service.HttpRoute;
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the {@link HttpRouteMetrics} of all routes whose metrics are
+ * collected by the same {@link se.arkalix.net.http.service.HttpServiceMetrics
+ * HttpServiceMetrics} object.
+ */
+@Internal
+public class HttpRouteMetricsRegistry {
+    private final List<HttpRouteMetrics> routes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets route metrics associated with given service name and route,
+     * creating and registering them with this registry if not already
+     * registered. Metrics are kept for as long as this registry exists, which
+     * means that a service being dismissed and then provided again continues
+     * to update the same metrics.
+     *
+     * @param service Name of service owning route.
+     * @param route   Route to collect metrics for.
+     * @return Route metrics.
+     */
+    @ThreadSafe
+    public synchronized HttpRouteMetrics register(final String service, final HttpRoute route) {
+        Objects.requireNonNull(service, "Expected service");
+        Objects.requireNonNull(route, "Expected route");
+        final var method = route.method().map(Object::toString).orElse(null);
+        final var pattern = route.pattern().map(HttpPattern::text).orElse(null);
+        for (final var metrics : routes) {
+            if (metrics.service().equals(service) &&
+                Objects.equals(metrics.method(), method) &&
+                Objects.equals(metrics.pattern(), pattern))
+            {
+                return metrics;
+            }
+        }
+        final var metrics = new HttpRouteMetrics(service, method, pattern);
+        routes.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * @return Unmodifiable list of all registered route metrics, in the order
+     * they were registered.
+     */
+    @ThreadSafe
+    public List<HttpRouteMetrics> routes() {
+        return Collections.unmodifiableList(routes);
+    }
+}
@@ -5,7 +5,7 @@ import se.arkalix.util.Result;
 import se.arkalix.util.annotation.Internal;
 import se.arkalix.util.concurrent.Future;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A sequence of {@link HttpFilter}s, a {@link HttpRoute} and
@@ -40,74 +40,119 @@ public class HttpRouteSequence {
     }
 
     /**
-     * Offers this route sequence the opportunity to handle given request.
+     * @return Route of this route sequence.
+     */
+    public HttpRoute route() {
+        return route;
+    }
+
+    /**
+     * Makes this route sequence handle given request, which must already have
+     * been determined to match the route of this sequence.
+     * <p>
+     * Filters, the route and catchers are invoked one after the other in a
+     * loop for as long as they return {@link Future}s that are completed
+     * already. Only when a {@code Future} that is not yet completed is
+     * returned is the remainder of the sequence scheduled as a continuation
+     * of that {@code Future}.
      *
-     * @param task Incoming HTTP request route task.
-     * @return Future completed with {@code true} only if given request was
-     * handled.
+     * @param task           Incoming HTTP request route task.
+     * @param pathParameters Path parameters collected while matching the
+     *                       route of this sequence.
+     * @return Future completed when handling is complete.
      */
-    public Future<Boolean> tryHandle(final HttpRouteTask task) {
-        final var pathParameters = new ArrayList<String>(route.pattern().map(HttpPattern::nParameters).orElse(0));
-        if (!route.match(task, pathParameters)) {
-            return Future.success(false);
-        }
-        return tryFilters(task, 0)
-            .flatMap(isHandled -> {
-                if (isHandled) {
-                    return Future.success(true);
-                }
-                final var response = task.response();
-                return route
-                    .handle(task.request().cloneAndSet(pathParameters), response)
-                    .mapResult(result -> {
-                        if (result.isFailure()) {
-                            return Result.failure(result.fault());
-                        }
-                        if (response.status().isEmpty()) {
-                            return Result.failure(new IllegalStateException("" +
-                                "HTTP route " +
-                                route.method()
-                                    .map(Object::toString)
-                                    .orElse("<?>") +
-                                ' ' +
-                                task.basePath().orElse("") +
-                                route.pattern()
-                                    .map(Object::toString)
-                                    .orElse("") +
-                                " never set a status code; a status " +
-                                " must be set"));
-                        }
-                        return Result.success(true);
-                    });
-            })
-            .flatMapCatch(Throwable.class, throwable -> tryCatchers(throwable, task, 0));
+    public Future<?> handle(final HttpRouteTask task, final List<String> pathParameters) {
+        return handleFrom(task, pathParameters, 0);
     }
 
-    private Future<Boolean> tryFilters(final HttpRouteTask task, final int index) {
-        if (index >= filters.length) {
-            return Future.success(false);
+    private Future<Void> handleFrom(final HttpRouteTask task, final List<String> pathParameters, final int index) {
+        for (var i = index; i < filters.length; ++i) {
+            final var future = filters[i].tryHandle(task);
+            final var result = future.resultIfCompleted();
+            if (result == null) {
+                final var i0 = i;
+                // The continuation is not guarded by the catchers, as it
+                // already passes any failures to them itself.
+                return future.flatMapResult(result0 -> {
+                    if (result0.isFailure()) {
+                        return tryCatchers(result0.fault(), task, 0);
+                    }
+                    return result0.value()
+                        ? Future.done()
+                        : handleFrom(task, pathParameters, i0 + 1);
+                });
+            }
+            if (result.isFailure()) {
+                return tryCatchers(result.fault(), task, 0);
+            }
+            if (result.value()) {
+                return Future.done();
+            }
+        }
+
+        final var response = task.response();
+        final Future<?> future;
+        try {
+            future = route.handle(task.request().cloneAndSet(pathParameters), response);
+        }
+        catch (final Throwable throwable) {
+            return tryCatchers(throwable, task, 0);
+        }
+        final var result = future.resultIfCompleted();
+        if (result == null) {
+            return future
+                .<Void>mapResult(result0 -> {
+                    if (result0.isFailure()) {
+                        return Result.failure(result0.fault());
+                    }
+                    if (response.status().isEmpty()) {
+                        return Result.failure(noStatusException(task));
+                    }
+                    return Result.done();
+                })
+                .flatMapCatch(Throwable.class, throwable -> tryCatchers(throwable, task, 0));
+        }
+        if (result.isFailure()) {
+            return tryCatchers(result.fault(), task, 0);
         }
-        final var filter = filters[index];
-        return filter.tryHandle(task)
-            .flatMap(isHandled -> {
-                if (isHandled) {
-                    return Future.success(true);
-                }
-                return tryFilters(task, index + 1);
-            });
+        if (response.status().isEmpty()) {
+            return tryCatchers(noStatusException(task), task, 0);
+        }
+        return Future.done();
+    }
+
+    private IllegalStateException noStatusException(final HttpRouteTask task) {
+        return new IllegalStateException("" +
+            "HTTP route " +
+            route.method()
+                .map(Object::toString)
+                .orElse("<?>") +
+            ' ' +
+            task.basePath().orElse("") +
+            route.pattern()
+                .map(Object::toString)
+                .orElse("") +
+            " never set a status code; a status " +
+            " must be set");
     }
 
-    private Future<Boolean> tryCatchers(final Throwable throwable, final HttpRouteTask task, final int index) {
-        if (index >= catchers.length) {
-            return Future.failure(throwable);
+    private Future<Void> tryCatchers(final Throwable throwable, final HttpRouteTask task, final int index) {
+        for (var i = index; i < catchers.length; ++i) {
+            final var future = catchers[i].tryHandle(throwable, task);
+            final var result = future.resultIfCompleted();
+            if (result == null) {
+                final var i0 = i;
+                return future.flatMap(isHandled -> isHandled
+                    ? Future.done()
+                    : tryCatchers(throwable, task, i0 + 1));
+            }
+            if (result.isFailure()) {
+                return Future.failure(result.fault());
+            }
+            if (result.value()) {
+                return Future.done();
+            }
         }
-        final var catcher = catchers[index];
-        return catcher.tryHandle(throwable, task)
-            .flatMap(isHandled -> {
-                if (isHandled) {
-                    return Future.success(true);
-                }
-                return tryCatchers(throwable, task, index + 1);
-            });
+        return Future.failure(throwable);
     }
 }
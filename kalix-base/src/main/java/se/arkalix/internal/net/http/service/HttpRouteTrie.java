@@ -0,0 +1,400 @@
+package se.arkalix.internal.net.http.service;
+
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.service.HttpPattern;
+import se.arkalix.util.annotation.Internal;
+
+import java.util.*;
+
+/**
+ * A compiled set of {@link HttpRouteSequence}s, organized as a trie of path
+ * segments in order for incoming request paths to be resolved in a single
+ * pass, rather than by matching every {@link HttpPattern} in sequence.
+ * <p>
+ * The trie has one edge per literal pattern segment, one parameter edge per
+ * node for path parameter segments ({@code #}) and keeps track of prefix
+ * patterns ({@code >}) at the nodes where their prefixes end. Every route
+ * sequence is assigned the position it has in the array provided to the
+ * constructor, and whenever multiple route sequences match a given request,
+ * the one with the lowest such position is selected. As long as that array is
+ * sorted using {@link HttpRoutables#compare(se.arkalix.net.http.service.HttpRoutable,
+ * se.arkalix.net.http.service.HttpRoutable) HttpRoutables.compare()}, the same
+ * route sequence is selected as if each route would have been tried in order.
+ */
+@Internal
+public class HttpRouteTrie {
+    private final HttpRouteSequence[] sequences;
+    private final Node root;
+    private final int[] wildcards;
+    private final int maxParameters;
+
+    /**
+     * Creates new trie from given array of route sequences.
+     *
+     * @param sequences Route sequences, sorted in order of precedence.
+     */
+    public HttpRouteTrie(final HttpRouteSequence[] sequences) {
+        this.sequences = Objects.requireNonNull(sequences, "Expected sequences");
+
+        final var root = new NodeBuilder();
+        final var wildcards = new ArrayList<Integer>(0);
+        var maxParameters = 0;
+
+        for (var i = 0; i < sequences.length; ++i) {
+            final var pattern = sequences[i].route().pattern();
+            if (pattern.isEmpty()) {
+                wildcards.add(i);
+                continue;
+            }
+
+            var text = pattern.get().text();
+            final var isPrefix = text.charAt(text.length() - 1) == '>';
+            if (isPrefix) {
+                text = text.substring(0, text.length() - 1);
+            }
+
+            var node = root;
+            var nParameters = 0;
+            if (text.length() > 1) {
+                final var end = isPrefix ? text.length() - 1 : text.length();
+                for (final var segment : text.substring(1, end).split("/", -1)) {
+                    if (segment.equals("#")) {
+                        node = node.parameter();
+                        nParameters += 1;
+                    }
+                    else {
+                        node = node.literal(segment);
+                    }
+                }
+            }
+            if (isPrefix) {
+                node.prefixes.add(i);
+                nParameters += 1;
+            }
+            else {
+                node.terminals.add(i);
+            }
+            if (nParameters > maxParameters) {
+                maxParameters = nParameters;
+            }
+        }
+
+        this.root = root.build();
+        this.wildcards = toArray(wildcards);
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * Resolves the route sequence with the highest precedence that matches
+     * the given method and path.
+     * <p>
+     * The path is matched from the given offset in the same way as {@link
+     * HttpPattern#match(String, int)} would match it. Path parameters are
+     * recorded as offsets into {@code path}, which are only turned into
+     * strings if accessed via {@link Match#pathParameters()}. Apart from the
+     * state of the lookup itself, nothing is allocated unless the lookup
+     * yields a match.
+     *
+     * @param method Method of incoming HTTP request.
+     * @param path   Path of incoming HTTP request.
+     * @param offset Offset, from beginning of path, from which to start
+     *               matching.
+     * @return Matching route sequence and path parameters, if any.
+     */
+    public Optional<Match> match(final HttpMethod method, final String path, final int offset) {
+        var p1 = path.length();
+        if (p1 > 1 && path.charAt(p1 - 1) == '/') {
+            p1 -= 1;
+        }
+        if (p1 - offset == 1 && path.charAt(offset) == '/') {
+            p1 = offset;
+        }
+
+        final var search = new Search(method, path, p1, maxParameters);
+        for (final var index : wildcards) {
+            if (isMethodMatching(index, method)) {
+                search.best = index;
+                break;
+            }
+        }
+        if (offset == p1 || path.charAt(offset) == '/') {
+            search.visit(root, offset, 0);
+        }
+        if (search.best == Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        final var pathParameters = search.bestParameterCount > 0
+            ? HttpPathParameters.of(path, search.bestParameters, search.bestParameterCount / 2)
+            : Collections.<String>emptyList();
+        return Optional.of(new Match(sequences[search.best], search.best, pathParameters));
+    }
+
+    private boolean isMethodMatching(final int index, final HttpMethod method) {
+        final var method0 = sequences[index].route().method();
+        return method0.isEmpty() || method0.get().equals(method);
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final var array = new int[list.size()];
+        for (var i = 0; i < array.length; ++i) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private static int hash(final CharSequence string, final int start, final int end) {
+        var h = 0;
+        for (var i = start; i < end; ++i) {
+            h = 31 * h + string.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A route sequence matching some request, as well as any path parameters
+     * collected from the path of that request.
+     */
+    public static class Match {
+        private final HttpRouteSequence sequence;
+        private final int index;
+        private final List<String> pathParameters;
+
+        private Match(final HttpRouteSequence sequence, final int index, final List<String> pathParameters) {
+            this.sequence = sequence;
+            this.index = index;
+            this.pathParameters = pathParameters;
+        }
+
+        /**
+         * @return Matching route sequence.
+         */
+        public HttpRouteSequence sequence() {
+            return sequence;
+        }
+
+        /**
+         * @return Position of matching route sequence in the array provided
+         * when the trie was created.
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return Unmodifiable list of path parameters.
+         */
+        public List<String> pathParameters() {
+            return pathParameters;
+        }
+    }
+
+    /**
+     * State of an ongoing trie lookup.
+     */
+    private class Search {
+        private final HttpMethod method;
+        private final String path;
+        private final int p1;
+        private final int maxParameters;
+
+        private int[] parameters = null;
+        private int[] bestParameters = null;
+
+        private int best = Integer.MAX_VALUE;
+        private int bestParameterCount = 0;
+
+        private Search(final HttpMethod method, final String path, final int p1, final int maxParameters) {
+            this.method = method;
+            this.path = path;
+            this.p1 = p1;
+            this.maxParameters = maxParameters;
+        }
+
+        // Parameter offset arrays are allocated only when first needed, as
+        // most lookups either fail or match routes without parameters.
+        private int[] parameters() {
+            if (parameters == null) {
+                parameters = new int[maxParameters * 2];
+            }
+            return parameters;
+        }
+
+        /*
+         * p0 is either equal to p1 or refers to the '/' preceding the next
+         * path segment. nParameters is the number of path parameter offsets
+         * currently stored in the parameters array.
+         */
+        private void visit(final Node node, final int p0, final int nParameters) {
+            if (node.minIndex >= best) {
+                return;
+            }
+            if (p0 == p1) {
+                consider(node.terminals, nParameters);
+                if (node == root) {
+                    consider(node.prefixes, nParameters);
+                }
+                return;
+            }
+            if (node.prefixes.length > 0) {
+                if (p1 - p0 == 1) {
+                    consider(node.prefixes, nParameters);
+                }
+                else {
+                    // Like HttpPattern, include any trailing '/' in prefix.
+                    final var parameters = parameters();
+                    parameters[nParameters] = p0;
+                    parameters[nParameters + 1] = path.length();
+                    consider(node.prefixes, nParameters + 2);
+                }
+            }
+
+            final var s0 = p0 + 1;
+            var s1 = s0;
+            while (s1 < p1 && path.charAt(s1) != '/') {
+                s1 += 1;
+            }
+
+            final var literal = node.findLiteral(path, s0, s1);
+            if (literal != null) {
+                visit(literal, s1, nParameters);
+            }
+            if (node.parameter != null) {
+                final var parameters = parameters();
+                parameters[nParameters] = s0;
+                parameters[nParameters + 1] = s1;
+                visit(node.parameter, s1, nParameters + 2);
+            }
+        }
+
+        private void consider(final int[] indexes, final int nParameters) {
+            for (final var index : indexes) {
+                if (index >= best) {
+                    return;
+                }
+                if (isMethodMatching(index, method)) {
+                    best = index;
+                    bestParameterCount = nParameters;
+                    if (nParameters > 0) {
+                        if (bestParameters == null) {
+                            bestParameters = new int[maxParameters * 2];
+                        }
+                        System.arraycopy(parameters, 0, bestParameters, 0, nParameters);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class Node {
+        private final String[] literalKeys;
+        private final Node[] literalNodes;
+        private final Node parameter;
+        private final int[] terminals;
+        private final int[] prefixes;
+        private final int minIndex;
+
+        private Node(
+            final String[] literalKeys,
+            final Node[] literalNodes,
+            final Node parameter,
+            final int[] terminals,
+            final int[] prefixes,
+            final int minIndex
+        ) {
+            this.literalKeys = literalKeys;
+            this.literalNodes = literalNodes;
+            this.parameter = parameter;
+            this.terminals = terminals;
+            this.prefixes = prefixes;
+            this.minIndex = minIndex;
+        }
+
+        private Node findLiteral(final String path, final int start, final int end) {
+            final var keys = literalKeys;
+            if (keys.length == 0) {
+                return null;
+            }
+            final var length = end - start;
+            final var mask = keys.length - 1;
+            var i = hash(path, start, end) & mask;
+            while (true) {
+                final var key = keys[i];
+                if (key == null) {
+                    return null;
+                }
+                if (key.length() == length && key.regionMatches(0, path, start, length)) {
+                    return literalNodes[i];
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+
+    private static class NodeBuilder {
+        private final Map<String, NodeBuilder> literals = new HashMap<>();
+        private final List<Integer> terminals = new ArrayList<>(0);
+        private final List<Integer> prefixes = new ArrayList<>(0);
+        private NodeBuilder parameter = null;
+
+        private NodeBuilder literal(final String segment) {
+            return literals.computeIfAbsent(segment, ignored -> new NodeBuilder());
+        }
+
+        private NodeBuilder parameter() {
+            if (parameter == null) {
+                parameter = new NodeBuilder();
+            }
+            return parameter;
+        }
+
+        private Node build() {
+            var minIndex = Integer.MAX_VALUE;
+
+            final String[] literalKeys;
+            final Node[] literalNodes;
+            if (literals.isEmpty()) {
+                literalKeys = new String[0];
+                literalNodes = new Node[0];
+            }
+            else {
+                // Open addressing table, kept at most half full.
+                final var capacity = Integer.highestOneBit(literals.size() * 2 - 1) << 1;
+                final var mask = capacity - 1;
+                literalKeys = new String[capacity];
+                literalNodes = new Node[capacity];
+                for (final var entry : literals.entrySet()) {
+                    final var key = entry.getKey();
+                    final var node = entry.getValue().build();
+                    var i = hash(key, 0, key.length()) & mask;
+                    while (literalKeys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    literalKeys[i] = key;
+                    literalNodes[i] = node;
+                    minIndex = Math.min(minIndex, node.minIndex);
+                }
+            }
+
+            final Node parameter;
+            if (this.parameter != null) {
+                parameter = this.parameter.build();
+                minIndex = Math.min(minIndex, parameter.minIndex);
+            }
+            else {
+                parameter = null;
+            }
+
+            final var terminals = toArray(this.terminals);
+            if (terminals.length > 0) {
+                minIndex = Math.min(minIndex, terminals[0]);
+            }
+            final var prefixes = toArray(this.prefixes);
+            if (prefixes.length > 0) {
+                minIndex = Math.min(minIndex, prefixes[0]);
+            }
+
+            return new Node(literalKeys, literalNodes, parameter, terminals, prefixes, minIndex);
+        }
+    }
+}
@@ -2,10 +2,14 @@ package se.arkalix.internal.net.http.service;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
-import io.netty.handler.logging.LoggingHandler;
-import io.netty.handler.ssl.ClientAuth;
-import io.netty.handler.ssl.SslContext;
-import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.handler.ssl.*;
+import io.netty.handler.ssl.ApplicationProtocolConfig.Protocol;
+import io.netty.handler.ssl.ApplicationProtocolConfig.SelectedListenerFailureBehavior;
+import io.netty.handler.ssl.ApplicationProtocolConfig.SelectorFailureBehavior;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.arkalix.ArService;
@@ -14,16 +18,19 @@ import se.arkalix.ArSystem;
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.descriptor.SecurityDescriptor;
 import se.arkalix.internal.ArServer;
+import se.arkalix.internal.net.NettyTlsSettings;
 import se.arkalix.internal.plugin.PluginNotifier;
+import se.arkalix.internal.util.concurrent.NettyFutures;
 import se.arkalix.internal.util.concurrent.NettyScheduler;
 import se.arkalix.net.http.service.HttpService;
 import se.arkalix.util.Result;
 import se.arkalix.util.annotation.Internal;
 import se.arkalix.util.concurrent.Future;
+import se.arkalix.util.concurrent.Futures;
 import se.arkalix.util.concurrent.Schedulers;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static se.arkalix.internal.util.concurrent.NettyFutures.adapt;
@@ -35,12 +42,14 @@ public class HttpServer implements ArServer {
     private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
 
     private final Set<ArServiceHandle> handles = new HashSet<>();
-    private final Map<String, HttpServerService> services = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Map<String, HttpServerService> services = new ConcurrentHashMap<>();
+
+    private volatile HttpBasePathTree<HttpServerService> serviceTree = HttpBasePathTree.empty();
 
     private final PluginNotifier pluginNotifier;
     private final ArSystem system;
 
-    private Channel channel;
+    private List<Channel> channels;
 
     private HttpServer(final ArSystem system, final PluginNotifier pluginNotifier) {
         this.pluginNotifier = Objects.requireNonNull(pluginNotifier, "Expected pluginNotifier");
@@ -53,24 +62,101 @@ public class HttpServer implements ArServer {
             SslContext sslContext = null;
             if (system.isSecure()) {
                 final var identity = system.identity();
-                sslContext = SslContextBuilder
-                    .forServer(identity.privateKey(), identity.chain())
+                final var tlsSettings = system.tlsSettings();
+                final var sslContextBuilder = NettyTlsSettings.apply(SslContextBuilder
+                    .forServer(identity.privateKey(), identity.chain()), tlsSettings)
                     .trustManager(system.trustStore().certificates())
                     .clientAuth(ClientAuth.REQUIRE)
-                    .startTls(false)
-                    .build();
+                    .startTls(false);
+
+                if (system.httpServerSettings().isHttp2Enabled()) {
+                    sslContextBuilder.applicationProtocolConfig(new ApplicationProtocolConfig(
+                        Protocol.ALPN,
+                        SelectorFailureBehavior.NO_ADVERTISE,
+                        SelectedListenerFailureBehavior.ACCEPT,
+                        ApplicationProtocolNames.HTTP_2,
+                        ApplicationProtocolNames.HTTP_1_1));
+                }
+
+                sslContext = sslContextBuilder.build();
+                NettyTlsSettings.applySessionTickets(sslContext, tlsSettings);
             }
 
             final var scheduler = (NettyScheduler) Schedulers.fixed();
+            final var settings = system.httpServerSettings();
             final var bootstrap = new ServerBootstrap()
-                .group(scheduler.eventLoopGroup())
                 .channel(scheduler.serverSocketChannelClass())
-                .handler(new LoggingHandler())
+                .childOption(ChannelOption.TCP_NODELAY, settings.isTcpNoDelay())
                 .childHandler(new NettyHttpServiceConnectionInitializer(system, server::getServiceByPath, sslContext));
 
-            return adapt(bootstrap.bind(system.address(), system.port()))
+            if (settings.backlog() > 0) {
+                bootstrap.option(ChannelOption.SO_BACKLOG, settings.backlog());
+            }
+
+            final var eventLoopGroup = scheduler.eventLoopGroup();
+            final var eventLoops = new ArrayList<EventLoop>();
+            for (final var executor : eventLoopGroup) {
+                eventLoops.add((EventLoop) executor);
+            }
+            final var acceptorCount = settings.acceptorCount() == 0
+                ? eventLoops.size()
+                : Math.min(settings.acceptorCount(), eventLoops.size());
+
+            if (scheduler.isEpoll()) {
+                if (settings.tcpFastOpenQueueLength() > 0) {
+                    bootstrap.option(EpollChannelOption.TCP_FASTOPEN, settings.tcpFastOpenQueueLength());
+                }
+                if (acceptorCount > 1) {
+                    // Each server socket and the connections it accepts are
+                    // handled by a single event loop, while the kernel
+                    // distributes new connections among the sockets.
+                    bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+                    final var eventLoop0 = eventLoops.get(0);
+                    return adapt(bootstrap.clone()
+                        .group(eventLoop0, eventLoop0)
+                        .bind(system.address(), system.port()))
+                        .flatMap(channel0 -> {
+                            // The port of the first socket is used by all
+                            // other sockets, in case an ephemeral port was
+                            // requested.
+                            final var localAddress = channel0.localAddress();
+                            final var channelFutures = new ArrayList<ChannelFuture>(acceptorCount);
+                            channelFutures.add(channel0.newSucceededFuture());
+                            for (var i = 1; i < acceptorCount; ++i) {
+                                final var eventLoop = eventLoops.get(i);
+                                channelFutures.add(bootstrap.clone()
+                                    .group(eventLoop, eventLoop)
+                                    .bind(localAddress));
+                            }
+                            return Futures.serialize(channelFutures.stream().map(NettyFutures::adapt))
+                                .mapResult(result -> {
+                                    if (result.isFailure()) {
+                                        // Any sockets that were or will be
+                                        // bound are closed.
+                                        for (final var channelFuture : channelFutures) {
+                                            channelFuture.addListener(future -> {
+                                                if (future.isSuccess()) {
+                                                    channelFuture.channel().close();
+                                                }
+                                            });
+                                        }
+                                        return Result.failure(result.fault());
+                                    }
+                                    server.channels = result.value();
+                                    return Result.success(server);
+                                });
+                        });
+                }
+            }
+            else if (acceptorCount > 1) {
+                logger.warn("HTTP server acceptor count set to {}, but " +
+                    "only one socket can be bound when the epoll transport " +
+                    "is not available", acceptorCount);
+            }
+
+            return adapt(bootstrap.group(eventLoopGroup).bind(system.address(), system.port()))
                 .map(channel -> {
-                    server.channel = channel;
+                    server.channels = List.of(channel);
                     return server;
                 });
         }
@@ -125,9 +211,11 @@ public class HttpServer implements ArServer {
                     existingService.name() + "\"; cannot provide service \"" +
                     httpService.name() + "\""));
             }
+            updateServiceTree();
 
             if (isShuttingDown.get()) {
                 services.remove(key);
+                updateServiceTree();
                 return Future.failure(cannotProvideServiceShuttingDownException(null));
             }
 
@@ -159,21 +247,20 @@ public class HttpServer implements ArServer {
     }
 
     private Optional<HttpServerService> getServiceByPath(final String path) {
-        for (final var entry : services.entrySet()) {
-            final var service = entry.getValue();
-            if (logger.isTraceEnabled()) {
-                logger.trace("Matching " + service.basePath() + " against " + path);
-            }
-            if (service.basePath().map(path::startsWith).orElse(true)) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Matched " + service.basePath() + " of " + service);
-                }
-                return Optional.of(service);
-            } else if (logger.isTraceEnabled()) {
-                logger.trace("Failed to match " + service.basePath() + " against " + path);
-            }
+        final var service = serviceTree.getByPath(path);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Matched path " + path + " to " + service);
+        }
+        return service;
+    }
+
+    private void updateServiceTree() {
+        // Trees are rebuilt while holding the lock to ensure that the last
+        // tree to be published is never older than the last change to the
+        // services map.
+        synchronized (services) {
+            serviceTree = HttpBasePathTree.of(services);
         }
-        return Optional.empty();
     }
 
     @Override
@@ -181,11 +268,17 @@ public class HttpServer implements ArServer {
         if (isShuttingDown.getAndSet(true)) {
             return Future.done();
         }
-        for (final var handle : handles) {
-            handle.dismiss();
+        final var futures = new ArrayList<Future<?>>();
+        synchronized (handles) {
+            for (final var handle : handles) {
+                futures.add(handle.dismissGracefully());
+            }
+            handles.clear();
+        }
+        for (final var channel : channels) {
+            futures.add(adapt(channel.close()));
         }
-        handles.clear();
-        return adapt(channel.close());
+        return Futures.serialize(futures);
     }
 
     private class ServiceHandle implements ArServiceHandle {
@@ -205,15 +298,25 @@ public class HttpServer implements ArServer {
 
         @Override
         public void dismiss() {
+            dismissGracefully();
+        }
+
+        @Override
+        public Future<?> dismissGracefully() {
             if (!isDismissed.getAndSet(true)) {
                 pluginNotifier.onServiceDismissed(description());
                 services.remove(key);
+                updateServiceTree();
                 if (!isShuttingDown.get()) {
                     synchronized (handles) {
                         handles.remove(this);
                     }
                 }
             }
+            // Requests received before the service was removed may still
+            // be handled, which is why their connections are asked to close
+            // after their responses have been sent.
+            return httpService.drain(system.httpServerSettings().drainTimeout());
         }
 
         @Override
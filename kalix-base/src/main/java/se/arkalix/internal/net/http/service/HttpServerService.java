@@ -6,28 +6,56 @@ import se.arkalix.ArService;
 import se.arkalix.ArSystem;
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.dto.DtoReadException;
+import se.arkalix.internal.net.http.HttpMediaTypes;
 import se.arkalix.internal.net.http.HttpPaths;
 import se.arkalix.net.http.HttpStatus;
 import se.arkalix.net.http.service.*;
 import se.arkalix.security.access.AccessPolicy;
+import se.arkalix.internal.util.concurrent.FutureCompletion;
+import se.arkalix.util.Result;
 import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
 import se.arkalix.util.concurrent.Future;
+import se.arkalix.util.concurrent.Schedulers;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Internal
 public class HttpServerService {
     private static final Logger logger = LoggerFactory.getLogger(HttpServerService.class);
 
+    private static final int MAX_CACHED_NEGOTIATIONS = 256;
+
     private final AccessPolicy accessPolicy;
     private final String basePath;
     private final ArService service;
     private final List<EncodingDescriptor> encodings;
-    private final ArSystem provider;
-    private final HttpRouteSequence[] routeSequences;
+    private final HttpRouteTrie routeTrie;
+    private final HttpRouteMetrics[] routeMetrics;
+    private final int maxUriLength;
+    private final int maxHeaderSize;
+    private final long maxBodySize;
+    private final boolean isResponseCompressionEnabled;
+    private final int responseCompressionMinSize;
+    private final List<String> responseCompressionMediaTypes;
+    private final HttpMediaTypes.NegotiationCache negotiationCache;
+    private final HttpConcurrencyLimiter concurrencyLimiter;
+    private final Set<String> reservedConsumers;
+    private final String overloadRetryAfter;
+    private final long idleTimeoutMillis;
+    private final int maxRequestsPerConnection;
+    private final ServiceDescription description;
+
+    private final AtomicInteger inFlightCount = new AtomicInteger(0);
+    private final Object drainLock = new Object();
+    private List<FutureCompletion<Object>> drainCompletions = null;
+    private volatile boolean isDraining = false;
 
     public HttpServerService(final ArSystem provider, final HttpService service) {
-        this.provider = Objects.requireNonNull(provider, "Expected provider");
+        Objects.requireNonNull(provider, "Expected provider");
         this.service = Objects.requireNonNull(service, "Expected service");
         accessPolicy = service.accessPolicy();
 
@@ -49,12 +77,61 @@ public class HttpServerService {
         if (encodings.size() == 0) {
             throw new IllegalArgumentException("Expected HttpService encodings.size() > 0");
         }
+        negotiationCache = new HttpMediaTypes.NegotiationCache(encodings, MAX_CACHED_NEGOTIATIONS);
+
+        maxUriLength = service.maxUriLength();
+        maxHeaderSize = service.maxHeaderSize();
+        maxBodySize = service.maxBodySize() != 0
+            ? service.maxBodySize()
+            : Long.MAX_VALUE;
+
+        isResponseCompressionEnabled = service.isResponseCompressionEnabled();
+        responseCompressionMinSize = service.responseCompressionMinSize();
+        responseCompressionMediaTypes = service.responseCompressionMediaTypes();
+
+        final var maxConcurrentRequests = service.maxConcurrentRequests();
+        if (maxConcurrentRequests == Integer.MAX_VALUE && !service.isConcurrencyLimitAdaptive()) {
+            concurrencyLimiter = null;
+        }
+        else {
+            concurrencyLimiter = new HttpConcurrencyLimiter(
+                maxConcurrentRequests,
+                Math.min(service.reservedConcurrentRequests(), maxConcurrentRequests - 1),
+                service.isConcurrencyLimitAdaptive());
+        }
+        reservedConsumers = service.reservedConsumers();
+        final var retryAfter = service.overloadRetryAfter();
+        overloadRetryAfter = Long.toString(retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0));
+
+        final var serverSettings = provider.httpServerSettings();
+        idleTimeoutMillis = service.idleTimeout()
+            .orElse(serverSettings.idleTimeout())
+            .toMillis();
+        final var serviceMaxRequests = service.maxRequestsPerConnection();
+        final var serverMaxRequests = serverSettings.maxRequestsPerConnection();
+        maxRequestsPerConnection = serviceMaxRequests == 0 || serverMaxRequests == 0
+            ? Math.max(serviceMaxRequests, serverMaxRequests)
+            : Math.min(serviceMaxRequests, serverMaxRequests);
 
         final var routeSequenceFactory = new HttpRouteSequenceFactory(service.catchers(), service.filters());
-        routeSequences = service.routes().stream()
+        final var routeSequences = service.routes().stream()
             .sorted(HttpRoutables::compare)
             .map(routeSequenceFactory::createRouteSequenceFor)
             .toArray(HttpRouteSequence[]::new);
+        routeTrie = new HttpRouteTrie(routeSequences);
+
+        final var metrics = service.metrics().orElse(null);
+        if (metrics != null) {
+            routeMetrics = new HttpRouteMetrics[routeSequences.length];
+            for (var i = 0; i < routeSequences.length; ++i) {
+                routeMetrics[i] = metrics.unwrap().register(service.name(), routeSequences[i].route());
+            }
+        }
+        else {
+            routeMetrics = null;
+        }
+
+        description = service.describeAsIfProvidedBy(provider);
     }
 
     /**
@@ -92,6 +169,99 @@ public class HttpServerService {
         return encodings;
     }
 
+    /**
+     * @return Cache of media type negotiations performed with the encodings
+     * of this service as candidates.
+     */
+    public HttpMediaTypes.NegotiationCache negotiationCache() {
+        return negotiationCache;
+    }
+
+    /**
+     * @return Maximum length of request URIs, in characters.
+     */
+    public int maxUriLength() {
+        return maxUriLength;
+    }
+
+    /**
+     * @return Maximum size of request headers, in bytes.
+     */
+    public int maxHeaderSize() {
+        return maxHeaderSize;
+    }
+
+    /**
+     * @return Maximum size of request bodies, in bytes, or {@link
+     * Long#MAX_VALUE} if unlimited.
+     */
+    public long maxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * @return {@code true} only if response compression is enabled.
+     */
+    public boolean isResponseCompressionEnabled() {
+        return isResponseCompressionEnabled;
+    }
+
+    /**
+     * @return Minimum size of compressed response bodies, in bytes.
+     */
+    public int responseCompressionMinSize() {
+        return responseCompressionMinSize;
+    }
+
+    /**
+     * @return Media types of response bodies allowed to be compressed.
+     */
+    public List<String> responseCompressionMediaTypes() {
+        return responseCompressionMediaTypes;
+    }
+
+    /**
+     * @return Concurrency limiter of this service, if its number of
+     * concurrent requests is limited.
+     */
+    public Optional<HttpConcurrencyLimiter> concurrencyLimiter() {
+        return Optional.ofNullable(concurrencyLimiter);
+    }
+
+    /**
+     * @param consumer Name of consumer system.
+     * @return {@code true} only if named consumer may use the reserved
+     * capacity of this service.
+     */
+    public boolean isReservedConsumer(final String consumer) {
+        return reservedConsumers.contains(consumer);
+    }
+
+    /**
+     * @return "retry-after" header value to send in responses to requests
+     * rejected due to the concurrency limit of this service being reached.
+     */
+    public String overloadRetryAfter() {
+        return overloadRetryAfter;
+    }
+
+    /**
+     * @return Maximum duration, in milliseconds, an HTTP/1.1 connection may
+     * remain idle after having sent a response from this service, or 0 if
+     * unlimited.
+     */
+    public long idleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * @return Maximum number of requests an HTTP/1.1 connection may receive
+     * if receiving a request for this service, or 0 if unlimited.
+     */
+    public int maxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
     /**
      * Delegates handling of an {@link HttpServiceRequest} to this service.
      *
@@ -102,6 +272,23 @@ public class HttpServerService {
      * finished.
      */
     public Future<?> handle(final HttpServiceRequest request, final HttpServiceResponse response) {
+        inFlightCount.incrementAndGet();
+        final Future<?> future;
+        try {
+            future = handle0(request, response);
+        }
+        catch (final Throwable throwable) {
+            onHandled();
+            throw throwable;
+        }
+        if (future.resultIfCompleted() != null) {
+            onHandled();
+            return future;
+        }
+        return future.always(ignored -> onHandled());
+    }
+
+    private Future<?> handle0(final HttpServiceRequest request, final HttpServiceResponse response) {
         if (logger.isTraceEnabled()) {
             logger.trace("About to handle (basePath: {}) {}", basePath, request);
         }
@@ -112,45 +299,137 @@ public class HttpServerService {
             .response(response)
             .build();
 
-        return trySequences(task, 0)
-            .map(isHandled -> {
-                if (!isHandled) {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("No route sequence of service {} matched (basePath: {}) {}", name(), basePath, request);
-                    }
-                    response
-                        .status(HttpStatus.NOT_FOUND)
-                        .clearHeaders()
-                        .clearBody();
-                }
-                return null;
-            });
+        final var match = routeTrie
+            .match(request.method(), request.path(), task.basePathLengthOrZero())
+            .orElse(null);
+        if (match == null) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("No route sequence of service {} matched (basePath: {}) {}", name(), basePath, request);
+            }
+            response
+                .status(HttpStatus.NOT_FOUND)
+                .clearHeaders()
+                .clearBody();
+            return Future.done();
+        }
+        final var routeSequence = match.sequence();
+        if (logger.isTraceEnabled()) {
+            logger.trace("Matched {}", routeSequence);
+        }
+        if (routeMetrics == null) {
+            return routeSequence.handle(task, match.pathParameters());
+        }
+        final var metrics = routeMetrics[match.index()];
+        final var start = System.nanoTime();
+        final var future = routeSequence.handle(task, match.pathParameters());
+        final var result = future.resultIfCompleted();
+        if (result != null) {
+            record(metrics, response, result.isSuccess() ? null : result.fault(), start);
+            return future;
+        }
+        return future.always(result0 -> record(metrics, response, result0.isSuccess() ? null : result0.fault(), start));
     }
 
-    private Future<Boolean> trySequences(final HttpRouteTask task, final int index) {
-        if (index >= routeSequences.length) {
-            return Future.success(false);
+    private static void record(
+        final HttpRouteMetrics metrics,
+        final HttpServiceResponse response,
+        final Throwable fault,
+        final long start)
+    {
+        final int status;
+        if (fault == null) {
+            status = response.status().map(HttpStatus::code).orElse(500);
         }
-        final var routeSequence = routeSequences[index];
-        if (logger.isTraceEnabled()) {
-            logger.trace("Attempting sequence {}", routeSequence);
-        }
-        return routeSequence.tryHandle(task)
-            .flatMap(isHandled -> {
-                if (isHandled) {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("Matched {}", routeSequence);
-                    }
-                    return Future.success(true);
+        else if (fault instanceof HttpServiceRequestException) {
+            status = ((HttpServiceRequestException) fault).status().code();
+        }
+        else if (fault instanceof DtoReadException) {
+            status = 400;
+        }
+        else {
+            status = 500;
+        }
+        metrics.record(status, fault != null, System.nanoTime() - start);
+    }
+
+    private void onHandled() {
+        if (inFlightCount.decrementAndGet() == 0 && isDraining) {
+            final List<FutureCompletion<Object>> completions;
+            synchronized (drainLock) {
+                completions = drainCompletions;
+                drainCompletions = null;
+            }
+            if (completions != null) {
+                for (final var completion : completions) {
+                    completion.complete(Result.done());
                 }
-                else if (logger.isTraceEnabled()) {
-                    logger.trace("Failed to match {}", routeSequence);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} only if this service is being, or has been,
+     * {@link #drain(Duration) drained}, in which case the connections of the
+     * requests it handles should be closed after their responses have been
+     * sent.
+     */
+    @ThreadSafe
+    public boolean isDraining() {
+        return isDraining;
+    }
+
+    /**
+     * Marks this service as draining and waits for all requests it is
+     * currently handling to complete.
+     * <p>
+     * This service should be made unreachable before this method is called,
+     * as requests received afterwards are waited for as well.
+     *
+     * @param timeout Maximum duration to wait for requests to complete.
+     * @return Future completed when no more requests are being handled, or
+     * when {@code timeout} expires, whichever happens first.
+     */
+    @ThreadSafe
+    public Future<?> drain(final Duration timeout) {
+        Objects.requireNonNull(timeout, "Expected timeout");
+        final var completion = new FutureCompletion<Object>();
+        synchronized (drainLock) {
+            isDraining = true;
+            if (inFlightCount.get() == 0) {
+                completion.complete(Result.done());
+                return completion;
+            }
+            if (drainCompletions == null) {
+                drainCompletions = new ArrayList<>(1);
+            }
+            drainCompletions.add(completion);
+        }
+        Schedulers.fixed().schedule(timeout, () -> {
+            synchronized (drainLock) {
+                if (drainCompletions == null || !drainCompletions.remove(completion)) {
+                    return;
                 }
-                return trySequences(task, index + 1);
-            });
+            }
+            logger.warn("Service \"{}\" still handling {} request(s) after " +
+                "drain timeout of {} expired; no longer waiting for them " +
+                "to complete", name(), inFlightCount.get(), timeout);
+            completion.complete(Result.done());
+        });
+        return completion;
     }
 
+    /**
+     * Gets description of this service, as provided by its owning system.
+     * <p>
+     * The description is created once when this object is constructed, which
+     * is when its service is provided. As neither the service nor the
+     * identity of its provider may change without the service being provided
+     * anew, the same immutable description can be used for authorizing every
+     * incoming request.
+     *
+     * @return Service description.
+     */
     public ServiceDescription description() {
-        return service.describeAsIfProvidedBy(provider);
+        return description;
     }
 }
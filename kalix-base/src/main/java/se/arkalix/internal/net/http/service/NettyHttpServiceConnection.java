@@ -1,23 +1,36 @@
 package se.arkalix.internal.net.http.service;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.DefaultHttp2ResetFrame;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedInput;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.arkalix.ArSystem;
 import se.arkalix.description.SystemIdentityDescription;
-import se.arkalix.descriptor.EncodingDescriptor;
 import se.arkalix.dto.DtoReadException;
 import se.arkalix.dto.DtoWriteException;
 import se.arkalix.internal.net.NettyBodyOutgoing;
 import se.arkalix.internal.net.NettySimpleChannelInboundHandler;
+import se.arkalix.internal.net.NettyWireLogging;
+import se.arkalix.internal.net.http.HttpByteRange;
+import se.arkalix.internal.net.http.HttpContentCodings;
+import se.arkalix.internal.net.http.HttpEntityTags;
 import se.arkalix.internal.net.http.HttpMediaTypes;
+import se.arkalix.internal.net.http.HttpPaths;
 import se.arkalix.internal.net.http.NettyHttpConverters;
 import se.arkalix.net.http.HttpStatus;
 import se.arkalix.net.http.service.HttpServiceConnection;
@@ -25,6 +38,7 @@ import se.arkalix.net.http.service.HttpServiceRequestException;
 import se.arkalix.query.ServiceNotFoundException;
 import se.arkalix.security.access.AccessTokenException;
 import se.arkalix.security.identity.SystemIdentity;
+import se.arkalix.util.Result;
 import se.arkalix.util.annotation.Internal;
 import se.arkalix.util.concurrent.Future;
 
@@ -32,12 +46,17 @@ import javax.net.ssl.SSLHandshakeException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.ClosedChannelException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
-import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
-import static io.netty.handler.codec.http.HttpHeaderValues.TEXT_PLAIN;
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static se.arkalix.internal.net.http.NettyHttpConverters.convert;
 import static se.arkalix.internal.util.concurrent.NettyFutures.adapt;
@@ -49,9 +68,16 @@ public class NettyHttpServiceConnection
 {
     private static final Logger logger = LoggerFactory.getLogger(NettyHttpServiceConnection.class);
 
+    /**
+     * URI of the requests created by Netty when the initial lines of
+     * requests cannot be decoded.
+     */
+    private static final String BAD_REQUEST_PLACEHOLDER_URI = "/bad-request";
+
     private final ArSystem system;
     private final HttpServiceLookup serviceLookup;
     private final SslHandler sslHandler;
+    private final HttpAuthorizationCache authorizationCache;
 
     private SystemIdentityDescription consumer = null;
     private Channel channel = null;
@@ -59,22 +85,69 @@ public class NettyHttpServiceConnection
     private HttpRequest nettyRequest = null;
     private NettyHttpServiceRequest kalixRequest = null;
     private HttpServerService service = null;
+    private long bodyLength = 0;
 
     private boolean isClosing = false;
+    private boolean isHttp2 = false;
+    private boolean isSendingEventStream = false;
+    private boolean isWireLogging = false;
+
+    private int readPauseCount = 0;
+    private int requestCount = 0;
+    private int pendingResponseCount = 0;
+    private boolean isMaxAgeReached = false;
+    private ScheduledFuture<?> idleTimeoutTask = null;
+    private ScheduledFuture<?> maxAgeTask = null;
 
     public NettyHttpServiceConnection(
         final ArSystem system,
         final HttpServiceLookup serviceLookup,
-        final SslHandler sslHandler
+        final SslHandler sslHandler,
+        final HttpAuthorizationCache authorizationCache
     ) {
         this.system = Objects.requireNonNull(system, "Expected system");
         this.serviceLookup = Objects.requireNonNull(serviceLookup, "Expected serviceLookup");
         this.sslHandler = sslHandler;
+        this.authorizationCache = Objects.requireNonNull(authorizationCache, "Expected authorizationCache");
+    }
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+        // Handlers added after protocol negotiation are never notified about
+        // their channels becoming active.
+        if (ctx.channel().isActive()) {
+            channelActive(ctx);
+        }
+        super.handlerAdded(ctx);
     }
 
     @Override
     public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+        if (channel != null) {
+            super.channelActive(ctx);
+            return;
+        }
         channel = ctx.channel();
+        isHttp2 = channel instanceof Http2StreamChannel;
+        isWireLogging = system.wireLogging().isEnabledFor((InetSocketAddress) channel.remoteAddress());
+        if (!isHttp2) {
+            // The lifetimes of HTTP/2 connections are managed by the
+            // connection pipeline rather than by stream handlers.
+            final var settings = system.httpServerSettings();
+            scheduleIdleTimeout(ctx, settings.idleTimeout().toMillis());
+            final var maxAgeMillis = NettyHttpServiceConnectionInitializer.nextMaxConnectionAgeMillis(settings);
+            if (maxAgeMillis > 0) {
+                maxAgeTask = ctx.executor().schedule(() -> {
+                    isMaxAgeReached = true;
+                    if (nettyRequest == null && pendingResponseCount == 0) {
+                        ctx.close();
+                    }
+                    else {
+                        isClosing = true;
+                    }
+                }, maxAgeMillis, TimeUnit.MILLISECONDS);
+            }
+        }
         if (sslHandler != null) {
             sslHandler.handshakeFuture().addListener(future -> {
                 Throwable cause;
@@ -116,6 +189,44 @@ public class NettyHttpServiceConnection
         super.channelActive(ctx);
     }
 
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+        cancelIdleTimeout();
+        if (kalixRequest != null) {
+            // Handlers waiting for the rest of the body would otherwise wait
+            // forever, holding on to any concurrency permits they acquired.
+            kalixRequest.reject(new ClosedChannelException());
+            kalixRequest = null;
+        }
+        if (maxAgeTask != null) {
+            maxAgeTask.cancel(false);
+            maxAgeTask = null;
+        }
+        super.channelInactive(ctx);
+    }
+
+    private void scheduleIdleTimeout(final ChannelHandlerContext ctx, final long timeoutMillis) {
+        cancelIdleTimeout();
+        if (timeoutMillis > 0) {
+            idleTimeoutTask = ctx.executor().schedule(() -> {
+                idleTimeoutTask = null;
+                if (nettyRequest == null && pendingResponseCount == 0) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Closing idle connection to " + channel.remoteAddress());
+                    }
+                    ctx.close();
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelIdleTimeout() {
+        if (idleTimeoutTask != null) {
+            idleTimeoutTask.cancel(false);
+            idleTimeoutTask = null;
+        }
+    }
+
     @Override
     protected void channelRead0(final ChannelHandlerContext ctx, final HttpObject msg) {
         if (msg instanceof HttpRequest) {
@@ -129,15 +240,46 @@ public class NettyHttpServiceConnection
     private void readRequest(final ChannelHandlerContext ctx, final HttpRequest nettyRequest) {
         this.nettyRequest = nettyRequest;
 
-        // TODO: Enable and check size restrictions.
+        final var decoderResult = nettyRequest.decoderResult();
+        if (decoderResult.isFailure()) {
+            isClosing = true;
+            final var cause = decoderResult.cause();
+            if (cause instanceof TooLongFrameException) {
+                // Netty uses the same exception class for both too long
+                // initial lines and too large headers. If the initial line
+                // could not be decoded, the request is a placeholder.
+                sendEmptyResponseAndCleanup(ctx, BAD_REQUEST_PLACEHOLDER_URI.equals(nettyRequest.uri())
+                    ? REQUEST_URI_TOO_LONG
+                    : REQUEST_HEADER_FIELDS_TOO_LARGE);
+            }
+            else {
+                sendEmptyResponseAndCleanup(ctx, BAD_REQUEST);
+            }
+            return;
+        }
 
         isClosing = !HttpUtil.isKeepAlive(nettyRequest);
 
-        final var queryStringDecoder = new QueryStringDecoder(nettyRequest.uri());
+        if (!isHttp2) {
+            cancelIdleTimeout();
+            requestCount += 1;
+            final var maxRequests = system.httpServerSettings().maxRequestsPerConnection();
+            if (isMaxAgeReached || (maxRequests > 0 && requestCount >= maxRequests)) {
+                isClosing = true;
+            }
+        }
+
+        final String path;
+        try {
+            path = HttpPaths.decodePathOf(nettyRequest.uri());
+        }
+        catch (final IllegalArgumentException exception) {
+            sendEmptyResponseAndCleanup(ctx, BAD_REQUEST);
+            return;
+        }
 
         // Resolve HTTP service.
         {
-            final var path = queryStringDecoder.path();
             if (logger.isTraceEnabled()) {
                 logger.trace("Attempting to resolve service by path " + path);
             }
@@ -151,22 +293,66 @@ public class NettyHttpServiceConnection
             }
         }
 
+        if (!isHttp2) {
+            final var maxRequests = service.maxRequestsPerConnection();
+            if (maxRequests > 0 && requestCount >= maxRequests) {
+                isClosing = true;
+            }
+        }
+
+        if (system.wireLogging().isEnabledFor(remoteSocketAddress(), service.name()) != isWireLogging) {
+            isWireLogging = !isWireLogging;
+            if (isHttp2) {
+                // Frames of all streams pass through the parent channel, which
+                // is the only one with access to the raw traffic.
+                NettyWireLogging.update(channel.parent().pipeline(), Http2FrameCodec.class, isWireLogging);
+            }
+            else {
+                NettyWireLogging.update(ctx.pipeline(), HttpServerCodec.class, isWireLogging);
+            }
+        }
+
+        // Ensure request does not exceed the size limits of the service.
+        {
+            if (nettyRequest.uri().length() > service.maxUriLength()) {
+                sendEmptyResponseAndCleanup(ctx, REQUEST_URI_TOO_LONG);
+                return;
+            }
+            var headerSize = 0;
+            final var headers = nettyRequest.headers().iteratorCharSequence();
+            while (headers.hasNext()) {
+                final var header = headers.next();
+                headerSize += header.getKey().length() + header.getValue().length();
+            }
+            if (headerSize > service.maxHeaderSize()) {
+                sendEmptyResponseAndCleanup(ctx, REQUEST_HEADER_FIELDS_TOO_LARGE);
+                return;
+            }
+            if (HttpUtil.getContentLength(nettyRequest, 0L) > service.maxBodySize()) {
+                // The body is never read, which is why the connection is
+                // closed rather than being left with unread bytes in it.
+                isClosing = true;
+                sendEmptyResponseAndCleanup(ctx, REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+        }
+
         // Resolve default response encoding.
-        final EncodingDescriptor defaultEncoding;
+        final HttpMediaTypes.Negotiation defaultNegotiation;
         {
             final var headers = nettyRequest.headers();
-            final var encodings = service.encodings();
+            final var negotiationCache = service.negotiationCache();
 
-            final var acceptHeaders = headers.getAll("accept");
+            final var acceptHeaders = headers.getAll(ACCEPT);
             if (acceptHeaders != null && acceptHeaders.size() > 0) {
-                defaultEncoding = HttpMediaTypes.findEncodingCompatibleWithAcceptHeaders(encodings, acceptHeaders)
-                    .orElse(service.defaultEncoding());
+                defaultNegotiation = negotiationCache.findCompatibleWithAcceptHeaders(acceptHeaders)
+                    .orElse(negotiationCache.defaultNegotiation());
             }
             else {
-                final var contentType = headers.get("content-type");
+                final var contentType = headers.get(CONTENT_TYPE);
                 if (contentType != null) {
-                    defaultEncoding = HttpMediaTypes.findEncodingCompatibleWithContentType(encodings, contentType)
-                        .orElse(service.defaultEncoding());
+                    defaultNegotiation = negotiationCache.findCompatibleWithContentType(contentType)
+                        .orElse(negotiationCache.defaultNegotiation());
                 }
                 else {
                     sendEmptyResponseAndCleanup(ctx, UNSUPPORTED_MEDIA_TYPE);
@@ -175,46 +361,167 @@ public class NettyHttpServiceConnection
             }
         }
 
-        // Ensure consumer is authenticated and authorized.
+        // Content received while the consumer is being authorized is held
+        // by the request until it is either handled or discarded.
+        final var kalixRequest = new NettyHttpServiceRequest.Builder()
+            .alloc(ctx.alloc())
+            .executor(ctx.executor())
+            .connection(this)
+            .path(path)
+            .request(nettyRequest)
+            .consumer(consumer)
+            .build();
+        this.kalixRequest = kalixRequest;
+
+        // Ensure consumer is authenticated and authorized. Verifying access
+        // tokens may take long enough for it to be done by another thread,
+        // in which case handling resumes via the event loop of this
+        // connection when verification completes. Decisions that depend only
+        // on the identity of the consumer are made once per service.
         {
-            boolean isAuthorized;
+            final var isAuthorized = consumer != null ? authorizationCache.get(service) : null;
+            if (isAuthorized != null) {
+                readAuthorizedRequest(ctx, nettyRequest, kalixRequest, defaultNegotiation, null,
+                    Result.success(isAuthorized));
+                return;
+            }
+
             var token = nettyRequest.headers().get("authorization");
             if (token != null && token.regionMatches(true, 0, "Bearer ", 0, 7)) {
                 token = token.substring(7).stripLeading();
             }
-            try {
-                isAuthorized = service.accessPolicy()
-                    .isAuthorized(consumer, system, service.description(), token);
+            final var token0 = token;
+            final var future = service.accessPolicy()
+                .isAuthorizedAsync(consumer, system, service.description(), token);
+
+            final var result = future.resultIfCompleted();
+            if (result != null) {
+                rememberAuthorization(result);
+                readAuthorizedRequest(ctx, nettyRequest, kalixRequest, defaultNegotiation, token0, result);
+            }
+            else {
+                // Any requests pipelined after this one are left unread
+                // until this one has been authorized, as they would
+                // otherwise replace it before it could be handled.
+                pauseReading();
+                future.onResult(result0 -> ctx.executor().execute(() -> {
+                    try {
+                        if (this.nettyRequest != nettyRequest || !channel.isActive()) {
+                            kalixRequest.discard();
+                            return;
+                        }
+                        rememberAuthorization(result0);
+                        readAuthorizedRequest(ctx, nettyRequest, kalixRequest, defaultNegotiation, token0, result0);
+                    }
+                    catch (final Throwable throwable) {
+                        sendInternalServerErrorLogAndCleanup(ctx, throwable);
+                    }
+                    finally {
+                        resumeReading();
+                    }
+                }));
             }
-            catch (final AccessTokenException exception) {
+        }
+    }
+
+    /**
+     * Stops reading from the channel of this connection until {@link
+     * #resumeReading()} has been called as many times as this method.
+     */
+    void pauseReading() {
+        if (readPauseCount++ == 0) {
+            channel.config().setAutoRead(false);
+        }
+    }
+
+    /**
+     * Resumes reading from the channel of this connection, unless reading
+     * remains paused for other reasons.
+     *
+     * @see #pauseReading()
+     */
+    void resumeReading() {
+        if (readPauseCount > 0 && --readPauseCount == 0) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    private void rememberAuthorization(final Result<Boolean> authorization) {
+        if (consumer != null && authorization.isSuccess()) {
+            authorizationCache.put(service, authorization.value());
+        }
+    }
+
+    private void readAuthorizedRequest(
+        final ChannelHandlerContext ctx,
+        final HttpRequest nettyRequest,
+        final NettyHttpServiceRequest kalixRequest,
+        final HttpMediaTypes.Negotiation defaultNegotiation,
+        final String token,
+        final Result<Boolean> authorization
+    ) {
+        if (authorization.isFailure()) {
+            kalixRequest.discard();
+            final var fault = authorization.fault();
+            if (fault instanceof AccessTokenException) {
                 if (logger.isDebugEnabled()) {
-                    logger.debug("Bad access token \"" + token + "\"", exception);
+                    logger.debug("Bad access token \"" + token + "\"", fault);
                 }
-                isAuthorized = false;
-            }
-            if (!isAuthorized) {
                 sendEmptyResponseAndCleanup(ctx, FORBIDDEN);
+            }
+            else if (fault instanceof RejectedExecutionException) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Too many access tokens waiting to be verified; rejecting {} {}",
+                        nettyRequest.method(), nettyRequest.uri());
+                }
+                sendEmptyResponseAndCleanup(ctx, SERVICE_UNAVAILABLE);
+            }
+            else {
+                sendInternalServerErrorLogAndCleanup(ctx, fault);
+            }
+            return;
+        }
+        if (!authorization.value()) {
+            kalixRequest.discard();
+            sendEmptyResponseAndCleanup(ctx, FORBIDDEN);
+            return;
+        }
+
+        // Ensure service is not handling too many requests already.
+        final var concurrencyLimiter = service.concurrencyLimiter().orElse(null);
+        if (concurrencyLimiter != null) {
+            final var isReserved = consumer != null && service.isReservedConsumer(consumer.name());
+            if (!concurrencyLimiter.tryAcquire(isReserved)) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Concurrency limit of service {} reached; rejecting {} {}",
+                        service.name(), nettyRequest.method(), nettyRequest.uri());
+                }
+                kalixRequest.discard();
+                sendEmptyResponseAndCleanup(ctx, SERVICE_UNAVAILABLE, new DefaultHttpHeaders(false)
+                    .add(RETRY_AFTER, service.overloadRetryAfter()));
                 return;
             }
         }
+        final var admittedAt = concurrencyLimiter != null ? System.nanoTime() : 0L;
 
         if (HttpUtil.is100ContinueExpected(nettyRequest)) {
             ctx.writeAndFlush(new DefaultFullHttpResponse(nettyRequest.protocolVersion(), CONTINUE, Unpooled.EMPTY_BUFFER));
         }
 
-        this.kalixRequest = new NettyHttpServiceRequest.Builder()
-            .alloc(ctx.alloc())
-            .connection(this)
-            .queryStringDecoder(queryStringDecoder)
-            .request(nettyRequest)
-            .consumer(consumer)
-            .build();
-
-        final var kalixResponse = new DefaultHttpServiceResponse();
+        final var kalixResponse = new DefaultHttpServiceResponse(defaultNegotiation.encoding());
 
-        service
-            .handle(this.kalixRequest, kalixResponse)
-            .ifSuccess(ignored -> sendKalixResponseAndCleanup(ctx, kalixResponse, defaultEncoding))
+        Future<?> future;
+        try {
+            future = service.handle(kalixRequest, kalixResponse);
+        }
+        catch (final Throwable throwable) {
+            future = Future.failure(throwable);
+        }
+        if (concurrencyLimiter != null) {
+            future = future.always(ignored -> concurrencyLimiter.release(System.nanoTime() - admittedAt));
+        }
+        future
+            .ifSuccess(ignored -> sendKalixResponseAndCleanup(ctx, kalixResponse, defaultNegotiation))
             .onFailure(fault -> {
                 if (fault instanceof HttpServiceRequestException) {
                     final var exception = (HttpServiceRequestException) fault;
@@ -229,6 +536,13 @@ public class NettyHttpServiceConnection
                 else if (fault instanceof ServiceNotFoundException) {
                     sendEmptyResponseAndCleanup(ctx, NOT_FOUND);
                 }
+                else if (fault instanceof ClosedChannelException && !channel.isActive()) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Connection closed by " + channel.remoteAddress() +
+                            " before request body could be received", fault);
+                    }
+                    cleanup();
+                }
                 else {
                     sendInternalServerErrorLogAndCleanup(ctx, fault);
                 }
@@ -239,6 +553,13 @@ public class NettyHttpServiceConnection
         if (kalixRequest == null) {
             return;
         }
+        bodyLength += content.content().readableBytes();
+        if (bodyLength > service.maxBodySize()) {
+            isClosing = true;
+            kalixRequest.reject(new HttpServiceRequestException(HttpStatus.PAYLOAD_TOO_LARGE));
+            kalixRequest = null;
+            return;
+        }
         kalixRequest.append(content);
         if (content instanceof LastHttpContent) {
             kalixRequest.headers().unwrap().add(((LastHttpContent) content).trailingHeaders());
@@ -250,49 +571,250 @@ public class NettyHttpServiceConnection
     private void sendKalixResponseAndCleanup(
         final ChannelHandlerContext ctx,
         final DefaultHttpServiceResponse response,
-        final EncodingDescriptor defaultEncoding
+        final HttpMediaTypes.Negotiation defaultNegotiation
     ) throws DtoWriteException, IOException {
+        final var defaultEncoding = defaultNegotiation.encoding();
         final var status = response.status()
             .orElseThrow(() -> new IllegalStateException("No HTTP status specified in service response"));
 
-        final var nettyStatus = convert(status);
         final var nettyVersion = response.version()
             .map(NettyHttpConverters::convert)
             .orElse(nettyRequest.protocolVersion());
         final var nettyHeaders = response.headers().unwrap();
 
+        closeIfServiceIsDraining();
         HttpUtil.setKeepAlive(nettyHeaders, nettyVersion, !isClosing);
 
         if (!nettyHeaders.contains(CONTENT_TYPE)) {
             final var encoding = response.encoding().orElse(defaultEncoding);
-            if (encoding == null) {
-                nettyHeaders.set(CONTENT_TYPE, TEXT_PLAIN + ";charset=" + response.charset()
-                    .orElse(StandardCharsets.UTF_8)
-                    .name()
-                    .toLowerCase());
-            }
-            else {
-                nettyHeaders.set(CONTENT_TYPE, HttpMediaTypes.toMediaType(encoding));
-            }
+            nettyHeaders.set(CONTENT_TYPE, encoding == defaultEncoding
+                ? defaultNegotiation.contentType()
+                : HttpMediaTypes.toMediaTypeAsciiString(encoding));
         }
 
-        final var body = NettyBodyOutgoing.from(response, ctx.alloc(), defaultEncoding);
+        // Files can only be sent without being copied into user space if the
+        // channel neither encrypts nor frames them.
+        final var isFileRegionSupported = !isHttp2 && sslHandler == null;
+        final var unencodedBody = response.body().orElse(null);
+        final NettyBodyOutgoing body;
+        if (unencodedBody instanceof Path && status.equals(HttpStatus.OK) && isGetOrHead(nettyRequest.method())) {
+            body = prepareFileBody(response, (Path) unencodedBody, isFileRegionSupported,
+                nettyRequest.method().equals(HttpMethod.HEAD));
+        }
+        else {
+            body = NettyBodyOutgoing.from(response, channel, defaultEncoding, isFileRegionSupported);
+            if (body.content() instanceof ByteBuf) {
+                response.notifyEncodedBody((ByteBuf) body.content());
+            }
+        }
+        final var nettyStatus = convert(response.status().orElse(status));
 
-        if (!nettyHeaders.contains(CONTENT_LENGTH)) {
-            nettyHeaders.set(CONTENT_LENGTH, Long.toString(body.length()));
+        var content = body.content();
+        if (body.length() < 0) {
+            // Streamed bodies are of unknown length, which means that they
+            // have to be sent using chunked transfer encoding, unless HTTP/2
+            // is used. HTTP/1.0 does not support chunked transfer encoding,
+            // which is why the end of such a body is signalled by closing the
+            // connection.
+            nettyHeaders.remove(CONTENT_LENGTH);
+            if (!isHttp2) {
+                if (nettyVersion.isKeepAliveDefault()) {
+                    nettyHeaders.set(TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                }
+                else {
+                    isClosing = true;
+                    HttpUtil.setKeepAlive(nettyHeaders, nettyVersion, false);
+                }
+            }
+        }
+        else if (status.equals(HttpStatus.NOT_MODIFIED) && nettyHeaders.contains(CONTENT_LENGTH)) {
+            // The "content-length" of a 304 response is that of the body it
+            // stands in for, which is unknown if that body would have been
+            // compressed. Its entity tag must also be the one that body would
+            // have been sent with.
+            final long contentLength = nettyHeaders.getInt(CONTENT_LENGTH, 0);
+            if (negotiateResponseCompression(nettyHeaders, content, contentLength) != null) {
+                nettyHeaders.remove(CONTENT_LENGTH);
+                weakenEntityTag(nettyHeaders);
+            }
+        }
+        else if (!nettyHeaders.contains(CONTENT_LENGTH)) {
+            var contentLength = body.length();
+            final var coding = negotiateResponseCompression(nettyHeaders, content, contentLength);
+            if (coding != null) {
+                content = HttpContentCodings.encode((ByteBuf) content, coding, ctx.alloc());
+                contentLength = ((ByteBuf) content).readableBytes();
+                nettyHeaders.set(CONTENT_ENCODING, coding);
+                weakenEntityTag(nettyHeaders);
+            }
+            nettyHeaders.set(CONTENT_LENGTH, Long.toString(contentLength));
         }
 
         channel.write(new DefaultHttpResponse(nettyVersion, nettyStatus, nettyHeaders));
-        channel.write(body.content());
-        final var future = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
 
-        if (isClosing) {
-            future.addListener(ChannelFutureListener.CLOSE);
+        // HTTP/2 stream channels only accept HTTP objects, which is why
+        // buffers are wrapped and chunked files converted into HTTP content.
+        final ChannelFuture future;
+        if (content instanceof ByteBuf) {
+            future = channel.writeAndFlush(new DefaultLastHttpContent((ByteBuf) content));
+        }
+        else if (content instanceof ChunkedInput) {
+            @SuppressWarnings("unchecked") final var input = (ChunkedInput<ByteBuf>) content;
+            future = channel.writeAndFlush(new HttpChunkedInput(input));
+        }
+        else {
+            channel.write(content);
+            future = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        }
+
+        if (unencodedBody instanceof HttpEventStreamPublisher) {
+            isSendingEventStream = true;
+            future.addListener(ignored -> isSendingEventStream = false);
         }
 
+        onResponseSent(ctx, future);
         cleanup();
     }
 
+    private static boolean isGetOrHead(final HttpMethod method) {
+        return method.equals(HttpMethod.GET) || method.equals(HttpMethod.HEAD);
+    }
+
+    /**
+     * Creates outgoing file body, taking conditional and range request
+     * headers into account.
+     * <p>
+     * A weak entity tag and a modification date are derived from the size
+     * and modification time of the file. If the request is conditional on
+     * them, {@code 304 Not Modified} is sent without a body. Otherwise, if
+     * the request asks for a single satisfiable byte range, and any "if-range"
+     * header matches the modification date of the file, only that range is
+     * sent with a {@code 206 Partial Content} status. As the entity tags
+     * created here are weak, they are never matched by "if-range" headers.
+     * HEAD requests are given the same headers as GET requests, but the file
+     * is never read.
+     */
+    private NettyBodyOutgoing prepareFileBody(
+        final DefaultHttpServiceResponse response,
+        final Path path,
+        final boolean isFileRegionSupported,
+        final boolean isHead
+    ) throws IOException {
+        final var nettyHeaders = response.headers().unwrap();
+        final var requestHeaders = nettyRequest.headers();
+
+        final var file = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final var size = file.size();
+            final var lastModified = Files.getLastModifiedTime(path).toMillis();
+            final var lastModifiedSeconds = lastModified / 1000L * 1000L;
+
+            final String tag;
+            if (nettyHeaders.contains(ETAG)) {
+                tag = nettyHeaders.get(ETAG);
+            }
+            else {
+                tag = HttpEntityTags.weakOf(size, lastModified);
+                nettyHeaders.set(ETAG, tag);
+            }
+            if (!nettyHeaders.contains(LAST_MODIFIED)) {
+                nettyHeaders.set(LAST_MODIFIED, DateFormatter.format(new Date(lastModified)));
+            }
+            nettyHeaders.set(ACCEPT_RANGES, HttpHeaderValues.BYTES);
+
+            final boolean isNotModified;
+            final var ifNoneMatch = requestHeaders.get(IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                isNotModified = HttpEntityTags.isWeaklyMatchingAny(ifNoneMatch, tag);
+            }
+            else {
+                final var ifModifiedSince = requestHeaders.get(IF_MODIFIED_SINCE);
+                final var date = ifModifiedSince != null ? DateFormatter.parseHttpDate(ifModifiedSince) : null;
+                isNotModified = date != null && lastModifiedSeconds <= date.getTime();
+            }
+            if (isNotModified) {
+                file.close();
+                response.status(HttpStatus.NOT_MODIFIED);
+                nettyHeaders.set(CONTENT_LENGTH, Long.toString(size));
+                return new NettyBodyOutgoing(Unpooled.EMPTY_BUFFER, 0);
+            }
+
+            final var range = HttpByteRange.parse(requestHeaders.get(RANGE), size).orElse(null);
+            if (range != null && isRangeApplicable(requestHeaders.get(IF_RANGE), tag, lastModifiedSeconds)) {
+                nettyHeaders.set(CONTENT_RANGE, range.toContentRange(size));
+                if (!range.isSatisfiable()) {
+                    file.close();
+                    response.status(HttpStatus.RANGE_NOT_SATISFIABLE);
+                    nettyHeaders.set(CONTENT_LENGTH, "0");
+                    return new NettyBodyOutgoing(Unpooled.EMPTY_BUFFER, 0);
+                }
+                response.status(HttpStatus.PARTIAL_CONTENT);
+                nettyHeaders.set(CONTENT_LENGTH, Long.toString(range.length()));
+                if (isHead) {
+                    file.close();
+                    return new NettyBodyOutgoing(Unpooled.EMPTY_BUFFER, 0);
+                }
+                return NettyBodyOutgoing.fromFile(file, range.offset(), range.length(), isFileRegionSupported);
+            }
+
+            nettyHeaders.set(CONTENT_LENGTH, Long.toString(size));
+            if (isHead) {
+                file.close();
+                return new NettyBodyOutgoing(Unpooled.EMPTY_BUFFER, 0);
+            }
+            return NettyBodyOutgoing.fromFile(file, 0, size, isFileRegionSupported);
+        }
+        catch (final Throwable throwable) {
+            file.close();
+            throw throwable;
+        }
+    }
+
+    private static boolean isRangeApplicable(final String ifRange, final String tag, final long lastModifiedSeconds) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (HttpEntityTags.isTag(ifRange)) {
+            return HttpEntityTags.isStronglyMatching(ifRange, tag);
+        }
+        final var date = DateFormatter.parseHttpDate(ifRange);
+        return date != null && date.getTime() == lastModifiedSeconds;
+    }
+
+    private String negotiateResponseCompression(
+        final HttpHeaders headers,
+        final Object content,
+        final long contentLength
+    ) {
+        if (service == null || nettyRequest == null || !service.isResponseCompressionEnabled()) {
+            return null;
+        }
+        if (!(content instanceof ByteBuf) || headers.contains(CONTENT_ENCODING)) {
+            return null;
+        }
+        if (contentLength < service.responseCompressionMinSize()) {
+            return null;
+        }
+        if (!HttpContentCodings.isMatchingAny(headers.get(CONTENT_TYPE), service.responseCompressionMediaTypes())) {
+            return null;
+        }
+        // Whether or not the response is compressed now depends on the
+        // "accept-encoding" header, which caches must be made aware of.
+        headers.set(VARY, HttpContentCodings.varyByAcceptEncoding(String.join(", ", headers.getAll(VARY))));
+        return HttpContentCodings.negotiate(nettyRequest.headers().get(ACCEPT_ENCODING)).orElse(null);
+    }
+
+    /**
+     * Makes any strong entity tag in given headers weak, as the body it
+     * identifies is about to be compressed.
+     */
+    private static void weakenEntityTag(final HttpHeaders headers) {
+        final var tag = headers.get(ETAG);
+        if (tag != null) {
+            headers.set(ETAG, HttpEntityTags.weakOf(tag));
+        }
+    }
+
     @Override
     public void exceptionCaught(final ChannelHandlerContext ctx, Throwable cause) {
         if (cause instanceof SSLHandshakeException) {
@@ -325,20 +847,29 @@ public class NettyHttpServiceConnection
             ctx.fireUserEventTriggered(evt);
             return;
         }
-        isClosing = true;
-        try {
-            final var idleStateEvent = (IdleStateEvent) evt;
-            if (idleStateEvent.state() == IdleState.READER_IDLE) {
-                if (kalixRequest != null) {
-                    final var exception = new HttpServiceRequestException(HttpStatus.REQUEST_TIMEOUT);
-                    if (kalixRequest.tryAbort(exception)) {
-                        sendEmptyResponseAndCleanup(ctx, REQUEST_TIMEOUT);
-                    }
+        // Connections without requests being received or responses being
+        // sent are closed by their idle timeouts rather than in response to
+        // these events, which makes it possible for request handlers to take
+        // longer than the read and write idle timeouts to complete.
+        final var idleStateEvent = (IdleStateEvent) evt;
+        if (idleStateEvent.state() == IdleState.READER_IDLE) {
+            if (kalixRequest != null) {
+                isClosing = true;
+                final var exception = new HttpServiceRequestException(HttpStatus.REQUEST_TIMEOUT);
+                if (kalixRequest.tryAbort(exception)) {
+                    sendEmptyResponseAndCleanup(ctx, REQUEST_TIMEOUT);
+                }
+                else {
+                    ctx.close();
                 }
             }
         }
-        finally {
-            ctx.close();
+        else if (idleStateEvent.state() == IdleState.WRITER_IDLE) {
+            // Event streams may legitimately be silent for any duration, but
+            // receivers not accepting any more data are disconnected.
+            if (pendingResponseCount > 0 && !(isSendingEventStream && channel.isWritable())) {
+                ctx.close();
+            }
         }
     }
 
@@ -393,28 +924,103 @@ public class NettyHttpServiceConnection
         final ChannelHandlerContext ctx,
         final HttpResponseStatus status
     ) {
-        final HttpHeaders headers = new DefaultHttpHeaders(false)
-            .add("content-length", "0");
+        sendEmptyResponseAndCleanup(ctx, status, new DefaultHttpHeaders(false));
+    }
+
+    private void sendEmptyResponseAndCleanup(
+        final ChannelHandlerContext ctx,
+        final HttpResponseStatus status,
+        final HttpHeaders headers
+    ) {
+        headers.add("content-length", "0");
 
         final var version = nettyRequest != null
             ? nettyRequest.protocolVersion()
             : HttpVersion.HTTP_1_1;
 
+        closeIfServiceIsDraining();
         HttpUtil.setKeepAlive(headers, version, !isClosing);
 
         final var future = ctx.writeAndFlush(new DefaultFullHttpResponse(
             version, status, Unpooled.EMPTY_BUFFER, headers, EmptyHttpHeaders.INSTANCE));
 
+        onResponseSent(ctx, future);
+        cleanup();
+    }
+
+    private void onResponseSent(final ChannelHandlerContext ctx, final ChannelFuture future) {
+        final var isClosing = this.isClosing;
+        final var idleTimeoutMillis = service != null
+            ? service.idleTimeoutMillis()
+            : system.httpServerSettings().idleTimeout().toMillis();
+
+        // The future may complete before this handler is cleaned up, which is
+        // why the request count is used to determine if any new request has
+        // been received when it does.
+        final var requestCount = this.requestCount;
+
+        pendingResponseCount += 1;
+        future.addListener(ignored -> {
+            pendingResponseCount -= 1;
+            if (!future.isSuccess()) {
+                // A response that could not be sent in full, such as one with
+                // a failing streamed body, leaves the receiver unable to tell
+                // where it ends. Closing the channel resets the stream of an
+                // HTTP/2 response and closes the connection of any other.
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Failed to send response to " + channel.remoteAddress(), future.cause());
+                }
+                channel.close();
+                return;
+            }
+            if (!isClosing && !isHttp2 && requestCount == this.requestCount && pendingResponseCount == 0) {
+                scheduleIdleTimeout(ctx, idleTimeoutMillis);
+            }
+        });
+
         if (isClosing) {
-            future.addListener(ChannelFutureListener.CLOSE);
+            closeAfter(future);
         }
+        else if (isHttp2 && service != null && service.isDraining()) {
+            // Closing the parent channel makes it send GOAWAY and then wait
+            // for any other streams still being handled to complete.
+            future.addListener(ignored -> channel.parent().close());
+        }
+    }
 
-        cleanup();
+    private void closeIfServiceIsDraining() {
+        // HTTP/2 connections are closed by onResponseSent() instead, as
+        // closing a stream would not close its connection.
+        if (!isHttp2 && service != null && service.isDraining()) {
+            isClosing = true;
+        }
+    }
+
+    private void closeAfter(final ChannelFuture future) {
+        if (isHttp2) {
+            // Closing a stream channel resets its stream with error code
+            // CANCEL, which makes clients discard the response just sent.
+            // NO_ERROR is used instead to tell them that the rest of the
+            // request body is not needed, as suggested by RFC 7540, Section
+            // 8.1. The reset is only sent if the stream is still open.
+            future.addListener(ignored -> {
+                if (channel.isActive()) {
+                    channel.writeAndFlush(new DefaultHttp2ResetFrame(Http2Error.NO_ERROR));
+                }
+            });
+        }
+        else {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
     }
 
     private void cleanup() {
+        if (kalixRequest != null) {
+            kalixRequest.discard();
+        }
         nettyRequest = null;
         kalixRequest = null;
+        bodyLength = 0;
         service = null;
         isClosing = false;
     }
@@ -1,23 +1,50 @@
 package se.arkalix.internal.net.http.service;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.http.*;
-import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.flow.FlowControlHandler;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateEvent;
 import se.arkalix.ArSystem;
+import se.arkalix.internal.net.NettyWireLogging;
+import se.arkalix.net.http.service.HttpServerSettings;
 import se.arkalix.util.annotation.Internal;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleStateHandler;
 
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
  * {@link ChannelInitializer} useful for managing incoming HTTP connections.
+ * <p>
+ * If HTTP/2 is enabled via the {@link se.arkalix.net.http.service.HttpServerSettings
+ * HTTP server settings} of the {@link ArSystem} owning the server, HTTP/2 is
+ * negotiated via ALPN in secure mode and detected by looking for the HTTP/2
+ * connection preface in insecure mode. Each HTTP/2 stream is given its own
+ * {@link NettyHttpServiceConnection}, which sees the stream as if it was an
+ * HTTP/1.1 connection only ever used for a single request.
  */
 @Internal
-public class NettyHttpServiceConnectionInitializer extends ChannelInitializer<SocketChannel> {
+public class NettyHttpServiceConnectionInitializer extends ChannelInitializer<Channel> {
+    private static final byte[] HTTP2_PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
     private final ArSystem system;
     private final HttpServiceLookup serviceLookup;
     private final SslContext sslContext;
@@ -33,21 +60,277 @@ public class NettyHttpServiceConnectionInitializer extends ChannelInitializer<So
     }
 
     @Override
-    protected void initChannel(final SocketChannel ch) {
+    protected void initChannel(final Channel ch) {
         final var pipeline = ch.pipeline();
+        final var isHttp2Enabled = system.httpServerSettings().isHttp2Enabled();
 
-        SslHandler sslHandler = null;
         if (sslContext != null) {
-            sslHandler = sslContext.newHandler(ch.alloc());
+            final var sslHandler = sslContext.newHandler(ch.alloc());
             pipeline.addLast(sslHandler);
+            if (isHttp2Enabled) {
+                pipeline
+                    .addLast(new ProtocolSelectionTimeout(system.httpServerSettings()))
+                    .addLast(new ProtocolNegotiator(sslHandler));
+            }
+            else {
+                initHttp1(ch, sslHandler);
+            }
+        }
+        else if (isHttp2Enabled) {
+            pipeline
+                .addLast(new ProtocolSelectionTimeout(system.httpServerSettings()))
+                .addLast(new PriorKnowledgeDetector());
+        }
+        else {
+            initHttp1(ch, null);
+        }
+    }
+
+    private void initHttp1(final Channel ch, final SslHandler sslHandler) {
+        final var pipeline = ch.pipeline();
+        removeProtocolSelectionTimeout(pipeline);
+        final var settings = system.httpServerSettings();
+
+        pipeline
+            .addLast(newIdleStateHandler(settings))
+
+            .addLast(new HttpServerCodec(settings.maxInitialLineLength(), settings.maxHeaderSize(), 8192))
+
+            // Holds on to messages decoded while reading is paused, which
+            // would otherwise be passed on regardless.
+            .addLast(new FlowControlHandler())
+
+            .addLast(new ChunkedWriteHandler())
+
+            .addLast(new NettyHttpServiceConnection(system, serviceLookup, sslHandler,
+                new HttpAuthorizationCache()));
+
+        if (system.wireLogging().isEnabledFor((InetSocketAddress) ch.remoteAddress())) {
+            NettyWireLogging.update(pipeline, HttpServerCodec.class, true);
         }
+    }
+
+    private void initHttp2(final Channel ch, final SslHandler sslHandler) {
+        final var pipeline = ch.pipeline();
+        removeProtocolSelectionTimeout(pipeline);
+        final var settings = system.httpServerSettings();
+
+        final var frameCodec = Http2FrameCodecBuilder.forServer()
+            .initialSettings(Http2Settings.defaultSettings()
+                .initialWindowSize(settings.http2InitialWindowSize())
+                .maxConcurrentStreams(settings.http2MaxConcurrentStreams())
+                .maxHeaderListSize(settings.maxHeaderSize()))
+            .build();
+
+        final var connectionCloser = new Http2ConnectionCloser(frameCodec, settings);
+        final var authorizationCache = new HttpAuthorizationCache();
 
         pipeline
-            .addLast(new LoggingHandler())
-            .addLast(new IdleStateHandler(30, 90, 0, TimeUnit.SECONDS))
+            .addLast(new IdleStateHandler(0, 0, settings.idleTimeout().toMillis(), TimeUnit.MILLISECONDS))
+
+            .addLast(frameCodec)
+
+            .addLast(new Http2MultiplexHandler(new ChannelInitializer<Http2StreamChannel>() {
+                @Override
+                protected void initChannel(final Http2StreamChannel stream) {
+                    stream.pipeline()
+                        .addLast(newIdleStateHandler(settings))
+                        .addLast(new Http2StreamFrameToHttpObjectCodec(true))
+                        .addLast(new ChunkedWriteHandler())
+                        .addLast(new NettyHttpServiceConnection(system, serviceLookup, sslHandler,
+                            authorizationCache));
+
+                    connectionCloser.onStreamInitialized(stream);
+                }
+            }))
+
+            .addLast(connectionCloser);
+
+        if (system.wireLogging().isEnabledFor((InetSocketAddress) ch.remoteAddress())) {
+            NettyWireLogging.update(pipeline, Http2FrameCodec.class, true);
+        }
+    }
+
+    private static void removeProtocolSelectionTimeout(final ChannelPipeline pipeline) {
+        final var timeout = pipeline.get(ProtocolSelectionTimeout.class);
+        if (timeout != null) {
+            pipeline.remove(timeout);
+        }
+    }
 
-            .addLast(new HttpServerCodec())
+    /**
+     * Creates handler producing the idle events used to time out requests
+     * being received and responses being sent via HTTP/1.1 connections or
+     * HTTP/2 streams.
+     */
+    private static IdleStateHandler newIdleStateHandler(final HttpServerSettings settings) {
+        return new IdleStateHandler(
+            settings.readIdleTimeout().toMillis(),
+            settings.writeIdleTimeout().toMillis(),
+            0,
+            TimeUnit.MILLISECONDS);
+    }
 
-            .addLast(new NettyHttpServiceConnection(system, serviceLookup, sslHandler));
+    /**
+     * Determines maximum age of a new connection, in milliseconds, or 0 if
+     * unlimited. Any configured jitter is subtracted from the maximum age.
+     */
+    static long nextMaxConnectionAgeMillis(final HttpServerSettings settings) {
+        final var maxAgeMillis = settings.maxConnectionAge().toMillis();
+        if (maxAgeMillis == 0) {
+            return 0;
+        }
+        final var jitterMillis = settings.maxConnectionAgeJitter().toMillis();
+        if (jitterMillis == 0) {
+            return maxAgeMillis;
+        }
+        return Math.max(1, maxAgeMillis - ThreadLocalRandom.current().nextLong(jitterMillis + 1));
+    }
+
+    /**
+     * Selects HTTP/1.1 or HTTP/2 pipeline depending on what application
+     * protocol was negotiated during the TLS handshake.
+     */
+    private class ProtocolNegotiator extends ApplicationProtocolNegotiationHandler {
+        private final SslHandler sslHandler;
+
+        private ProtocolNegotiator(final SslHandler sslHandler) {
+            super(ApplicationProtocolNames.HTTP_1_1);
+            this.sslHandler = sslHandler;
+        }
+
+        @Override
+        protected void configurePipeline(final ChannelHandlerContext ctx, final String protocol) {
+            final var ch = ctx.channel();
+            if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+                initHttp2(ch, sslHandler);
+            }
+            else if (ApplicationProtocolNames.HTTP_1_1.equals(protocol)) {
+                initHttp1(ch, sslHandler);
+            }
+            else {
+                throw new IllegalStateException("Unsupported application protocol: " + protocol);
+            }
+        }
+    }
+
+    /**
+     * Selects HTTP/2 pipeline only if the first bytes received via a new
+     * connection are those of the HTTP/2 connection preface, and the HTTP/1.1
+     * pipeline otherwise. Once a selection has been made, the detector
+     * removes itself from its pipeline and passes on any bytes it received.
+     */
+    private class PriorKnowledgeDetector extends ByteToMessageDecoder {
+        @Override
+        protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+            final var offset = in.readerIndex();
+            final var length = Math.min(in.readableBytes(), HTTP2_PREFACE.length);
+            for (var i = 0; i < length; ++i) {
+                if (in.getByte(offset + i) != HTTP2_PREFACE[i]) {
+                    initHttp1(ctx.channel(), null);
+                    ctx.pipeline().remove(this);
+                    return;
+                }
+            }
+            if (length == HTTP2_PREFACE.length) {
+                initHttp2(ctx.channel(), null);
+                ctx.pipeline().remove(this);
+            }
+        }
+    }
+
+    /**
+     * Closes connections for which no HTTP version has been selected within
+     * the idle timeout of the server, which could otherwise remain open
+     * indefinitely without any data being received via them. Removed from
+     * its pipeline when a version is selected.
+     */
+    private static class ProtocolSelectionTimeout extends ChannelHandlerAdapter {
+        private final long timeoutMillis;
+
+        private ScheduledFuture<?> timeoutTask = null;
+
+        private ProtocolSelectionTimeout(final HttpServerSettings settings) {
+            timeoutMillis = settings.idleTimeout().toMillis();
+        }
+
+        @Override
+        public void handlerAdded(final ChannelHandlerContext ctx) {
+            if (timeoutMillis > 0) {
+                timeoutTask = ctx.executor().schedule(() -> {
+                    ctx.close();
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void handlerRemoved(final ChannelHandlerContext ctx) {
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+                timeoutTask = null;
+            }
+        }
+    }
+
+    /**
+     * Shuts down HTTP/2 connections that have been idle for too long, have
+     * received too many requests or have become too old. Idle events are not
+     * forwarded to stream channels, which is why they are handled at the end
+     * of the connection pipeline.
+     * <p>
+     * Closing a channel owned by an {@link Http2FrameCodec} makes it send a
+     * GOAWAY frame and then wait for all active streams to complete before
+     * the channel is actually closed.
+     */
+    private static class Http2ConnectionCloser extends ChannelInboundHandlerAdapter {
+        private final Http2FrameCodec frameCodec;
+        private final HttpServerSettings settings;
+
+        private int streamCount = 0;
+        private ScheduledFuture<?> maxAgeTask = null;
+
+        private Http2ConnectionCloser(final Http2FrameCodec frameCodec, final HttpServerSettings settings) {
+            this.frameCodec = frameCodec;
+            this.settings = settings;
+        }
+
+        void onStreamInitialized(final Http2StreamChannel stream) {
+            final var maxRequests = settings.maxRequestsPerConnection();
+            if (maxRequests > 0 && ++streamCount == maxRequests) {
+                final var parent = stream.parent();
+                parent.eventLoop().execute(parent::close);
+            }
+        }
+
+        @Override
+        public void handlerAdded(final ChannelHandlerContext ctx) {
+            final var maxAgeMillis = nextMaxConnectionAgeMillis(settings);
+            if (maxAgeMillis > 0) {
+                maxAgeTask = ctx.executor().schedule(() -> {
+                    ctx.channel().close();
+                }, maxAgeMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+            if (maxAgeTask != null) {
+                maxAgeTask.cancel(false);
+                maxAgeTask = null;
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent) {
+                if (frameCodec.connection().numActiveStreams() == 0) {
+                    ctx.close();
+                }
+            }
+            else {
+                super.userEventTriggered(ctx, evt);
+            }
+        }
     }
 }
@@ -18,13 +18,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 
 @Internal
 public class NettyHttpServiceRequest extends NettyMessageIncoming implements HttpServiceRequest {
-    private final HttpServiceConnection connection;
-    private final QueryStringDecoder queryStringDecoder;
+    private final NettyHttpServiceConnection connection;
+    private final String path;
     private final HttpRequest request;
     private final SystemIdentityDescription consumer;
 
@@ -36,14 +37,25 @@ public class NettyHttpServiceRequest extends NettyMessageIncoming implements Htt
     private NettyHttpServiceRequest(final Builder builder) {
         super(
             builder.alloc,
+            builder.executor,
             Objects.requireNonNull(builder.request, "Expected request")
                 .headers().getInt(CONTENT_LENGTH, 0));
         connection = Objects.requireNonNull(builder.connection, "Expected connection");
-        queryStringDecoder = Objects.requireNonNull(builder.queryStringDecoder, "Expected queryStringDecoder");
+        path = Objects.requireNonNull(builder.path, "Expected path");
         request = builder.request;
         consumer = builder.consumer;
     }
 
+    @Override
+    protected void pauseReading() {
+        connection.pauseReading();
+    }
+
+    @Override
+    protected void resumeReading() {
+        connection.resumeReading();
+    }
+
     @Override
     public HttpHeaders headers() {
         if (headers == null) {
@@ -68,7 +80,7 @@ public class NettyHttpServiceRequest extends NettyMessageIncoming implements Htt
 
     @Override
     public String path() {
-        return queryStringDecoder.path();
+        return path;
     }
 
     @Override
@@ -79,7 +91,13 @@ public class NettyHttpServiceRequest extends NettyMessageIncoming implements Htt
     @Override
     public Map<String, List<String>> queryParameters() {
         if (queryParameters == null) {
-            queryParameters = Collections.unmodifiableMap(queryStringDecoder.parameters());
+            // Most requests have no query parameters, or are handled without
+            // them being looked at, which is why they are only decoded when
+            // first asked for.
+            final var uri = request.uri();
+            queryParameters = uri.indexOf('?') < 0
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new QueryStringDecoder(uri).parameters());
         }
         return queryParameters;
     }
@@ -108,23 +126,29 @@ public class NettyHttpServiceRequest extends NettyMessageIncoming implements Htt
 
     public static class Builder {
         private ByteBufAllocator alloc;
+        private Executor executor;
         private HttpRequest request;
         private SystemIdentityDescription consumer;
-        private HttpServiceConnection connection;
-        private QueryStringDecoder queryStringDecoder;
+        private NettyHttpServiceConnection connection;
+        private String path;
 
         public Builder alloc(final ByteBufAllocator alloc) {
             this.alloc = alloc;
             return this;
         }
 
-        public Builder connection(final HttpServiceConnection connection) {
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder connection(final NettyHttpServiceConnection connection) {
             this.connection = connection;
             return this;
         }
 
-        public Builder queryStringDecoder(final QueryStringDecoder queryStringDecoder) {
-            this.queryStringDecoder = queryStringDecoder;
+        public Builder path(final String path) {
+            this.path = path;
             return this;
         }
 
@@ -0,0 +1,207 @@
+package se.arkalix.internal.security.access;
+
+import se.arkalix.security.access.AccessTokenException;
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded collection of verified {@link AccessToken access tokens}.
+ * <p>
+ * Verifying an access token requires it to be decrypted and its signature
+ * to be checked, both of which are expensive operations. As consumers tend to
+ * present the same token with every request until it expires, the outcomes
+ * of successful verifications are remembered, each associated with the
+ * SHA-256 digest of the token it was read from. Tokens that cannot be
+ * verified are never remembered.
+ * <p>
+ * Remembered tokens are only returned if requested with the same receiver
+ * and sender keys as they were verified with, and only until they expire.
+ * If storing another token would make the number of remembered tokens
+ * exceed the maximum, expired tokens are removed. If no tokens have
+ * expired, arbitrary tokens are removed instead.
+ */
+@Internal
+public class AccessTokenCache {
+    private final int maxEntries;
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates new access token cache.
+     *
+     * @param maxEntries Maximum number of verified tokens to remember.
+     */
+    public AccessTokenCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Expected maxEntries > 0");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets access token read from given {@code token}, either by
+     * {@link AccessToken#read(String, PrivateKey, PublicKey) reading} it or
+     * by finding it among the tokens remembered by this cache.
+     *
+     * @param token       Encrypted and signed token.
+     * @param receiverKey Private key of token receiver.
+     * @param senderKey   Public key of token sender.
+     * @return Verified access token.
+     * @throws AccessTokenException If {@code token} is not remembered and
+     *                              cannot be verified.
+     */
+    @ThreadSafe
+    public AccessToken read(final String token, final PrivateKey receiverKey, final PublicKey senderKey)
+        throws AccessTokenException
+    {
+        final var accessToken = getIfPresent(token, receiverKey, senderKey);
+        if (accessToken != null) {
+            return accessToken;
+        }
+        return verify(token, receiverKey, senderKey);
+    }
+
+    /**
+     * Gets access token previously read from given {@code token}, if it is
+     * remembered by this cache and has not expired.
+     *
+     * @param token       Encrypted and signed token.
+     * @param receiverKey Private key of token receiver.
+     * @param senderKey   Public key of token sender.
+     * @return Verified access token, or {@code null}.
+     */
+    @ThreadSafe
+    public AccessToken getIfPresent(final String token, final PrivateKey receiverKey, final PublicKey senderKey) {
+        Objects.requireNonNull(token, "Expected token");
+        return get(digestOf(token), receiverKey, senderKey, System.currentTimeMillis());
+    }
+
+    /**
+     * {@link AccessToken#read(String, PrivateKey, PublicKey) Reads} access
+     * token from given {@code token} and remembers it, without first
+     * determining if it already is remembered.
+     *
+     * @param token       Encrypted and signed token.
+     * @param receiverKey Private key of token receiver.
+     * @param senderKey   Public key of token sender.
+     * @return Verified access token.
+     * @throws AccessTokenException If {@code token} cannot be verified.
+     */
+    @ThreadSafe
+    public AccessToken verify(final String token, final PrivateKey receiverKey, final PublicKey senderKey)
+        throws AccessTokenException
+    {
+        Objects.requireNonNull(token, "Expected token");
+        final var accessToken = AccessToken.read(token, receiverKey, senderKey);
+        put(digestOf(token), receiverKey, senderKey, accessToken, System.currentTimeMillis());
+        return accessToken;
+    }
+
+    AccessToken get(
+        final ByteBuffer key,
+        final PrivateKey receiverKey,
+        final PublicKey senderKey,
+        final long now)
+    {
+        final var entry = entries.get(key);
+        if (entry == null || entry.receiverKey != receiverKey || entry.senderKey != senderKey) {
+            misses.increment();
+            return null;
+        }
+        if (entry.accessToken.expiresAt() <= now) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.accessToken;
+    }
+
+    void put(
+        final ByteBuffer key,
+        final PrivateKey receiverKey,
+        final PublicKey senderKey,
+        final AccessToken accessToken,
+        final long now)
+    {
+        if (accessToken.expiresAt() <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.accessToken.expiresAt() <= now);
+            final var iterator = entries.keySet().iterator();
+            while (entries.size() >= maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        entries.put(key, new Entry(receiverKey, senderKey, accessToken));
+    }
+
+    /**
+     * Forgets all remembered tokens.
+     */
+    @ThreadSafe
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return Number of remembered tokens, some of which may have expired.
+     */
+    @ThreadSafe
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of times a remembered token was returned.
+     */
+    @ThreadSafe
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of times a token had to be verified.
+     */
+    @ThreadSafe
+    public long misses() {
+        return misses.sum();
+    }
+
+    static ByteBuffer digestOf(final String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (final NoSuchAlgorithmException exception) {
+            // Every Java platform implementation is required to support
+            // SHA-256.
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static class Entry {
+        private final PrivateKey receiverKey;
+        private final PublicKey senderKey;
+        private final AccessToken accessToken;
+
+        private Entry(final PrivateKey receiverKey, final PublicKey senderKey, final AccessToken accessToken) {
+            this.receiverKey = receiverKey;
+            this.senderKey = senderKey;
+            this.accessToken = accessToken;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package se.arkalix.internal.security.identity;
+
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded collection of values derived from x.509 certificate chains.
+ * <p>
+ * Deriving values such as identities from certificate chains requires names
+ * to be extracted and parsed, which is wasteful when the same chains are
+ * presented over and over by reconnecting peers. Derived values are
+ * remembered, each associated with the first certificate of the chain it was
+ * derived from. Certificates are hashed and compared by their encodings, the
+ * hash codes of which are computed only once per certificate object by the
+ * certificate implementations of the Java platform. A remembered value is
+ * only returned if the chain it is requested for is equal to the one it was
+ * derived from, which means that chains sharing their first certificates but
+ * not their issuers never share derived values.
+ * <p>
+ * If remembering another value would make the number of remembered values
+ * exceed the maximum, arbitrary values are removed.
+ *
+ * @param <V> Type of derived value.
+ */
+@Internal
+public class X509ChainCache<V> {
+    private final int maxEntries;
+    private final ConcurrentHashMap<X509Certificate, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates new x.509 certificate chain cache.
+     *
+     * @param maxEntries Maximum number of derived values to remember.
+     */
+    public X509ChainCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Expected maxEntries > 0");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets value previously derived from given {@code chain}, or derives and
+     * remembers a new value using given {@code factory}. Values derived as
+     * {@code null} are never remembered.
+     *
+     * @param chain   Certificate chain, with at least one certificate.
+     * @param factory Function deriving value from {@code chain}.
+     * @return Remembered or derived value, or {@code null}.
+     */
+    @ThreadSafe
+    public V getOrDerive(final X509Certificate[] chain, final Function<X509Certificate[], V> factory) {
+        Objects.requireNonNull(chain, "Expected chain");
+        Objects.requireNonNull(factory, "Expected factory");
+        if (chain.length == 0) {
+            throw new IllegalArgumentException("Expected chain.length > 0");
+        }
+
+        final var key = chain[0];
+        final var entry = entries.get(key);
+        if (entry != null && Arrays.equals(entry.chain, chain)) {
+            return entry.value;
+        }
+
+        final var value = factory.apply(chain);
+        if (value != null) {
+            if (entries.size() >= maxEntries) {
+                final var iterator = entries.keySet().iterator();
+                while (entries.size() >= maxEntries && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            entries.put(key, new Entry<>(chain.clone(), value));
+        }
+        return value;
+    }
+
+    /**
+     * @return Number of remembered values.
+     */
+    @ThreadSafe
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+        private final X509Certificate[] chain;
+        private final V value;
+
+        private Entry(final X509Certificate[] chain, final V value) {
+            this.chain = chain;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package se.arkalix.internal.util.concurrent;
+
+import se.arkalix.util.Result;
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
+import se.arkalix.util.function.ThrowingSupplier;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of threads dedicated to executing CPU-intensive
+ * cryptographic operations, such as decrypting and verifying access tokens.
+ * <p>
+ * Such operations take too long to be executed by the threads of the
+ * {@link se.arkalix.util.concurrent.Schedulers#fixed() fixed scheduler},
+ * which are also responsible for all network I/O, while executing them via
+ * the {@link se.arkalix.util.concurrent.Schedulers#dynamic() dynamic
+ * scheduler} would allow a flood of them to create an unbounded number of
+ * threads. This pool has half as many threads as there are available
+ * processors, but at least one, and queues at most {@link #QUEUE_CAPACITY}
+ * operations waiting to be executed. Threads are stopped after a minute of
+ * not being used.
+ */
+@Internal
+public final class CryptoExecutor {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        final var threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        final var threadIndex = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            final var thread = new Thread(runnable, "kalix-crypto-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private CryptoExecutor() {}
+
+    /**
+     * Executes given {@code supplier} via a crypto pool thread.
+     * <p>
+     * The returned {@code Future} is completed by the crypto pool thread
+     * that executed the supplier. It is up to the caller to move any further
+     * processing of its result to a more appropriate thread.
+     *
+     * @param supplier Operation to execute.
+     * @param <V>      Type of value returned by {@code supplier}.
+     * @return Future completed with the result of {@code supplier}, or with
+     * a {@link RejectedExecutionException} if too many operations are already
+     * waiting to be executed.
+     */
+    @ThreadSafe
+    public static <V> Future<V> submit(final ThrowingSupplier<V> supplier) {
+        Objects.requireNonNull(supplier, "Expected supplier");
+        final var completion = new FutureCompletion<V>();
+        try {
+            executor.execute(() -> {
+                if (completion.isCancelled()) {
+                    return;
+                }
+                Result<V> result;
+                try {
+                    result = Result.success(supplier.get());
+                }
+                catch (final Throwable throwable) {
+                    result = Result.failure(throwable);
+                }
+                completion.complete(result);
+            });
+        }
+        catch (final RejectedExecutionException exception) {
+            return Future.failure(exception);
+        }
+        return completion;
+    }
+}
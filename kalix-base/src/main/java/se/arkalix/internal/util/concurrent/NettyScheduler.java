@@ -72,6 +72,14 @@ public final class NettyScheduler extends AbstractScheduler {
         return serverSocketChannelClass;
     }
 
+    /**
+     * @return {@code true} only if the Linux epoll transport is used, which
+     * means that epoll-specific channel options are available.
+     */
+    public boolean isEpoll() {
+        return eventLoopGroup instanceof EpollEventLoopGroup;
+    }
+
     @Override
     protected ScheduledExecutorService executor() {
         return NettyThread.currentThreadEventLoop()
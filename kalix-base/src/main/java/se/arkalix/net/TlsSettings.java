@@ -0,0 +1,226 @@
+package se.arkalix.net;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Settings used to configure the Transport Layer Security (TLS)
+ * implementation used by the servers and clients of secure {@link
+ * se.arkalix.ArSystem systems}.
+ *
+ * @see se.arkalix.ArSystem.Builder#tlsSettings(TlsSettings)
+ * @see se.arkalix.net.http.client.HttpClient.Builder#tlsSettings(TlsSettings)
+ */
+@SuppressWarnings("unused")
+public final class TlsSettings {
+    private static final TlsSettings DEFAULT = new Builder().build();
+
+    private final Provider provider;
+    private final List<String> cipherSuites;
+    private final long sessionCacheSize;
+    private final Duration sessionTimeout;
+    private final boolean isSessionTicketsEnabled;
+
+    private TlsSettings(final Builder builder) {
+        provider = Objects.requireNonNull(builder.provider, "Expected provider");
+
+        cipherSuites = builder.cipherSuites != null
+            ? List.copyOf(builder.cipherSuites)
+            : Collections.emptyList();
+
+        if (builder.sessionCacheSize < 0) {
+            throw new IllegalArgumentException("Expected sessionCacheSize >= 0");
+        }
+        sessionCacheSize = builder.sessionCacheSize;
+
+        Objects.requireNonNull(builder.sessionTimeout, "Expected sessionTimeout");
+        if (builder.sessionTimeout.isNegative()) {
+            throw new IllegalArgumentException("Expected sessionTimeout >= 0");
+        }
+        sessionTimeout = builder.sessionTimeout;
+
+        isSessionTicketsEnabled = builder.isSessionTicketsEnabled;
+    }
+
+    /**
+     * @return Default TLS settings.
+     */
+    public static TlsSettings defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return Desired TLS implementation.
+     * @see Builder#provider(Provider)
+     */
+    public Provider provider() {
+        return provider;
+    }
+
+    /**
+     * @return Names of enabled cipher suites, in order of preference, or an
+     * empty list if the defaults of the TLS implementation are to be used.
+     * @see Builder#cipherSuites(List)
+     */
+    public List<String> cipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * @return Maximum number of TLS sessions to remember for resumption, or
+     * 0 if the default of the TLS implementation is to be used.
+     * @see Builder#sessionCacheSize(long)
+     */
+    public long sessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * @return Duration for which remembered TLS sessions may be resumed, or
+     * {@link Duration#ZERO} if the default of the TLS implementation is to be
+     * used.
+     * @see Builder#sessionTimeout(Duration)
+     */
+    public Duration sessionTimeout() {
+        return sessionTimeout;
+    }
+
+    /**
+     * @return {@code true} only if servers are to issue session tickets when
+     * using the {@link Provider#OPENSSL OpenSSL} implementation.
+     * @see Builder#sessionTicketsEnabled(boolean)
+     */
+    public boolean isSessionTicketsEnabled() {
+        return isSessionTicketsEnabled;
+    }
+
+    /**
+     * TLS implementations.
+     */
+    public enum Provider {
+        /**
+         * The TLS implementation of the Java platform.
+         */
+        JDK,
+
+        /**
+         * OpenSSL, or a compatible library such as BoringSSL, as provided by
+         * the Netty "netty-tcnative" family of libraries. Which library is
+         * used depends on which one is available on the class path, such as
+         * "io.netty:netty-tcnative-boringssl-static". If none is, the {@link
+         * #JDK} implementation is used instead.
+         */
+        OPENSSL,
+    }
+
+    /**
+     * Builder useful for creating {@link TlsSettings} instances.
+     */
+    public static class Builder {
+        private Provider provider = Provider.JDK;
+        private List<String> cipherSuites;
+        private long sessionCacheSize = 0;
+        private Duration sessionTimeout = Duration.ZERO;
+        private boolean isSessionTicketsEnabled = true;
+
+        /**
+         * Sets desired TLS implementation. If {@link Provider#OPENSSL} is
+         * given but is not available at runtime, {@link Provider#JDK} is used
+         * instead. Defaults to {@link Provider#JDK}.
+         * <p>
+         * Native implementations tend to complete handshakes faster than
+         * the one of the Java platform, which matters most when many short
+         * lived connections are established.
+         *
+         * @param provider Desired TLS implementation.
+         * @return This builder.
+         */
+        public Builder provider(final Provider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets names of cipher suites to enable, in order of preference.
+         * Names not supported by the used TLS implementation are ignored.
+         * Defaults to the cipher suites enabled by the used TLS
+         * implementation.
+         *
+         * @param cipherSuites Names of desired cipher suites.
+         * @return This builder.
+         */
+        public Builder cipherSuites(final List<String> cipherSuites) {
+            this.cipherSuites = cipherSuites;
+            return this;
+        }
+
+        /**
+         * Sets names of cipher suites to enable, in order of preference.
+         * Names not supported by the used TLS implementation are ignored.
+         * Defaults to the cipher suites enabled by the used TLS
+         * implementation.
+         *
+         * @param cipherSuites Names of desired cipher suites.
+         * @return This builder.
+         */
+        public Builder cipherSuites(final String... cipherSuites) {
+            return cipherSuites(List.of(cipherSuites));
+        }
+
+        /**
+         * Sets maximum number of TLS sessions to remember, making it possible
+         * for them to be resumed by abbreviated handshakes. Servers remember
+         * the sessions of their clients, while clients remember one session
+         * per remote socket address. Defaults to 0, which means that the
+         * default of the used TLS implementation is used.
+         *
+         * @param sessionCacheSize Maximum number of remembered sessions.
+         * @return This builder.
+         */
+        public Builder sessionCacheSize(final long sessionCacheSize) {
+            this.sessionCacheSize = sessionCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets duration for which remembered TLS sessions may be resumed.
+         * The duration is rounded down to whole seconds. Defaults to 0, which
+         * means that the default of the used TLS implementation is used.
+         *
+         * @param sessionTimeout Maximum session age.
+         * @return This builder.
+         */
+        public Builder sessionTimeout(final Duration sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+            return this;
+        }
+
+        /**
+         * Sets whether or not servers are to issue session tickets, which
+         * allow clients to resume sessions without the server having to
+         * remember them, when using the {@link Provider#OPENSSL OpenSSL}
+         * implementation. The ticket keys are generated randomly when a
+         * server is created. Session tickets issued by the {@link
+         * Provider#JDK JDK} implementation are configured via the system
+         * properties of the Java platform. Defaults to {@code true}.
+         *
+         * @param isSessionTicketsEnabled Whether or not to issue session
+         *                                tickets.
+         * @return This builder.
+         * @see <a href="https://tools.ietf.org/html/rfc5077">RFC 5077</a>
+         */
+        public Builder sessionTicketsEnabled(final boolean isSessionTicketsEnabled) {
+            this.isSessionTicketsEnabled = isSessionTicketsEnabled;
+            return this;
+        }
+
+        /**
+         * @return New {@link TlsSettings}.
+         */
+        public TlsSettings build() {
+            return new TlsSettings(this);
+        }
+    }
+}
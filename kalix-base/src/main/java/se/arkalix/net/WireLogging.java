@@ -0,0 +1,174 @@
+package se.arkalix.net;
+
+import se.arkalix.util.annotation.ThreadSafe;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Determines what network connections are to have their raw traffic logged.
+ * <p>
+ * Wire logging is a diagnostic facility. When enabled for a connection, every
+ * read, write and flush performed on it is logged with level INFO via a
+ * logger named after this class. As this has a significant performance
+ * impact, wire logging is disabled for all connections by default. It may be
+ * enabled for all connections, for connections with particular remote hosts
+ * or for connections that are used to consume particular services. As all
+ * methods of this class are thread-safe, any changes made to an instance
+ * takes effect for new connections and for new requests sent or received via
+ * existing connections, even after the instance has been provided to an
+ * {@link se.arkalix.ArSystem ArSystem} or {@link
+ * se.arkalix.net.http.client.HttpClient HttpClient}.
+ */
+public final class WireLogging {
+    private final Set<InetAddress> addresses = ConcurrentHashMap.newKeySet();
+    private final Set<String> serviceNames = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean isEnabledForAll = false;
+    private volatile boolean isEnabledForAny = false;
+
+    /**
+     * Enables wire logging for all connections.
+     *
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging enableAll() {
+        isEnabledForAll = true;
+        isEnabledForAny = true;
+        return this;
+    }
+
+    /**
+     * Disables wire logging for all connections, including those associated
+     * with specific remote addresses or services.
+     *
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging disableAll() {
+        isEnabledForAll = false;
+        addresses.clear();
+        serviceNames.clear();
+        isEnabledForAny = false;
+        return this;
+    }
+
+    /**
+     * Enables wire logging for all connections with the host at the given
+     * remote address.
+     *
+     * @param remoteAddress Address of remote host.
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging enable(final InetAddress remoteAddress) {
+        addresses.add(Objects.requireNonNull(remoteAddress, "Expected remoteAddress"));
+        isEnabledForAny = true;
+        return this;
+    }
+
+    /**
+     * Disables wire logging for connections with the host at the given remote
+     * address, unless wire logging is enabled for all connections or for a
+     * service consumed via such a connection.
+     *
+     * @param remoteAddress Address of remote host.
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging disable(final InetAddress remoteAddress) {
+        addresses.remove(Objects.requireNonNull(remoteAddress, "Expected remoteAddress"));
+        updateIsEnabledForAny();
+        return this;
+    }
+
+    /**
+     * Enables wire logging for connections via which requests are sent to the
+     * provided service with the given name.
+     * <p>
+     * Wire logging is enabled as soon as a request to the service is
+     * received, which means that the head of that first request is not
+     * logged.
+     *
+     * @param serviceName Name of provided service.
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging enableForService(final String serviceName) {
+        serviceNames.add(Objects.requireNonNull(serviceName, "Expected serviceName"));
+        isEnabledForAny = true;
+        return this;
+    }
+
+    /**
+     * Disables wire logging for connections via which requests are sent to
+     * the provided service with the given name, unless wire logging is
+     * enabled for all connections or for the remote hosts of such
+     * connections.
+     *
+     * @param serviceName Name of provided service.
+     * @return This object.
+     */
+    @ThreadSafe
+    public synchronized WireLogging disableForService(final String serviceName) {
+        serviceNames.remove(Objects.requireNonNull(serviceName, "Expected serviceName"));
+        updateIsEnabledForAny();
+        return this;
+    }
+
+    private void updateIsEnabledForAny() {
+        isEnabledForAny = isEnabledForAll || !addresses.isEmpty() || !serviceNames.isEmpty();
+    }
+
+    /**
+     * Determines whether wire logging is enabled for a connection with the
+     * given remote socket address.
+     *
+     * @param remoteSocketAddress Socket address of remote host.
+     * @return {@code true} only if wire logging is enabled.
+     */
+    @ThreadSafe
+    public boolean isEnabledFor(final InetSocketAddress remoteSocketAddress) {
+        return isEnabledFor(remoteSocketAddress, null);
+    }
+
+    /**
+     * Determines whether wire logging is enabled for a connection with the
+     * given remote socket address, via which the identified service is being
+     * consumed.
+     *
+     * @param remoteSocketAddress Socket address of remote host.
+     * @param serviceName         Name of consumed service, or {@code null}
+     *                            if not known.
+     * @return {@code true} only if wire logging is enabled.
+     */
+    @ThreadSafe
+    public boolean isEnabledFor(final InetSocketAddress remoteSocketAddress, final String serviceName) {
+        if (!isEnabledForAny) {
+            return false;
+        }
+        if (isEnabledForAll) {
+            return true;
+        }
+        if (remoteSocketAddress != null) {
+            final var address = remoteSocketAddress.getAddress();
+            if (address != null && addresses.contains(address)) {
+                return true;
+            }
+        }
+        return serviceName != null && serviceNames.contains(serviceName);
+    }
+
+    @Override
+    public String toString() {
+        return "WireLogging{" +
+            "isEnabledForAll=" + isEnabledForAll +
+            ", addresses=" + addresses +
+            ", serviceNames=" + serviceNames +
+            '}';
+    }
+}
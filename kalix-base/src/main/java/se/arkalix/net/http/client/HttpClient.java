@@ -3,6 +3,8 @@ package se.arkalix.net.http.client;
 import se.arkalix.ArSystem;
 import se.arkalix.internal.net.http.client.NettyHttpClient;
 import se.arkalix.internal.net.http.consumer.DefaultHttpConsumer;
+import se.arkalix.net.TlsSettings;
+import se.arkalix.net.WireLogging;
 import se.arkalix.security.identity.OwnedIdentity;
 import se.arkalix.security.identity.TrustStore;
 import se.arkalix.util.annotation.ThreadSafe;
@@ -98,6 +100,17 @@ public interface HttpClient {
      */
     Optional<InetSocketAddress> localSocketAddress();
 
+    /**
+     * Gets the {@link WireLogging wire logging} configuration used by this
+     * client.
+     * <p>
+     * The returned object may be modified at runtime to enable or disable
+     * logging of the raw traffic of the connections of this client.
+     *
+     * @return Wire logging configuration.
+     */
+    WireLogging wireLogging();
+
     /**
      * Creates new {@code HttpClientConnection} for communicating with remote
      * host reachable via provided Internet socket address.
@@ -267,8 +280,60 @@ public interface HttpClient {
             return this;
         }
 
+        /**
+         * Sets {@link WireLogging wire logging} configuration to be used by
+         * created HTTP clients. If not provided, a configuration with wire
+         * logging disabled for all connections will be used.
+         *
+         * @param wireLogging Desired wire logging configuration.
+         * @return This builder.
+         */
+        public final Builder wireLogging(final WireLogging wireLogging) {
+            inner.wireLogging(wireLogging);
+            return this;
+        }
+
+        /**
+         * Sets maximum size of response bodies decompressed by created HTTP
+         * clients, in bytes. Defaults to 16 MiB.
+         * <p>
+         * Created clients ask for compressed response bodies, which are
+         * decompressed as they are received. If a decompressed body exceeds
+         * this size, receiving it fails and the connection via which it was
+         * received is closed. Response bodies that are not compressed are not
+         * limited by this size.
+         *
+         * @param maxDecompressedBodySize Maximum decompressed body size, in
+         *                                bytes.
+         * @return This builder.
+         */
+        public final Builder maxDecompressedBodySize(final int maxDecompressedBodySize) {
+            inner.maxDecompressedBodySize(maxDecompressedBodySize);
+            return this;
+        }
+
+        /**
+         * Sets {@link TlsSettings TLS settings} to be used by created HTTP
+         * clients, unless in {@link #insecure() insecure mode}. If not
+         * provided, {@link TlsSettings#defaults() default settings} will be
+         * used.
+         * <p>
+         * Created clients remember the TLS sessions they establish, one per
+         * remote socket address, and attempt to resume them when connecting
+         * to the same socket addresses again.
+         *
+         * @param tlsSettings Desired TLS settings.
+         * @return This builder.
+         */
+        public final Builder tlsSettings(final TlsSettings tlsSettings) {
+            inner.tlsSettings(tlsSettings);
+            return this;
+        }
+
         /**
          * @return New {@link HttpClient}.
+         * @throws IllegalArgumentException If {@code maxDecompressedBodySize
+         *                                  < 0}.
          */
         public HttpClient build() {
             return new NettyHttpClient(inner);
@@ -10,6 +10,9 @@ import java.util.*;
  * occurring while receiving or responding to HTTP requests.
  */
 public class HttpCatcher<T extends Throwable> implements HttpRoutable {
+    private static final Future<Boolean> HANDLED = Future.success(true);
+    private static final Future<Boolean> NOT_HANDLED = Future.success(false);
+
     private final int ordinal;
     private final HttpMethod method;
     private final HttpPattern pattern;
@@ -102,8 +105,8 @@ public class HttpCatcher<T extends Throwable> implements HttpRoutable {
             }
             final List<String> pathParameters;
             if (pattern != null) {
-                pathParameters = new ArrayList<>(pattern.nParameters());
-                if (!pattern.match(task.request().path(), task.basePathLengthOrZero(), pathParameters)) {
+                pathParameters = pattern.match(task.request().path(), task.basePathLengthOrZero()).orElse(null);
+                if (pathParameters == null) {
                     break mismatch;
                 }
             }
@@ -112,15 +115,19 @@ public class HttpCatcher<T extends Throwable> implements HttpRoutable {
             }
             final var response = task.response();
             try {
-                return handler.handle(exceptionClass.cast(throwable),
-                    task.request().cloneAndSet(pathParameters), response)
-                    .map(ignored -> response.status().isPresent());
+                final var future = handler.handle(exceptionClass.cast(throwable),
+                    task.request().cloneAndSet(pathParameters), response);
+                final var result = future.resultIfCompleted();
+                if (result != null && result.isSuccess()) {
+                    return response.status().isPresent() ? HANDLED : NOT_HANDLED;
+                }
+                return future.map(ignored -> response.status().isPresent());
             }
             catch (final Throwable throwable1) {
                 throwable1.addSuppressed(throwable);
                 return Future.failure(throwable);
             }
         }
-        return Future.success(false);
+        return NOT_HANDLED;
     }
 }
@@ -0,0 +1,47 @@
+package se.arkalix.net.http.service;
+
+import se.arkalix.util.concurrent.Future;
+
+import java.util.concurrent.Flow;
+
+/**
+ * An event stream handler, meant to process incoming HTTP requests matching
+ * an {@link HttpService#eventStream(String, HttpEventStreamHandler) event
+ * stream route}.
+ */
+@FunctionalInterface
+public interface HttpEventStreamHandler {
+    /**
+     * Called with an incoming HTTP request and a response handler.
+     * <p>
+     * If the returned future completes with a publisher, the response is
+     * given the status 200 OK and a "text/event-stream" body, which is kept
+     * open until the publisher completes or fails, or until the receiver of
+     * the stream disconnects. Events are only requested from the publisher
+     * while the connection of the receiver can accept more data. The
+     * publisher may be shared by any number of event streams, as long as it
+     * supports multiple subscribers.
+     * <p>
+     * If the returned future completes with {@code null}, the response is
+     * sent as specified via {@code response}, which means that its status
+     * must have been set.
+     *
+     * @param request  Information about the incoming HTTP request, including
+     *                 its header and body.
+     * @param response An object useful for indicating how the request is to be
+     *                 responded to, if not with an event stream. Any headers
+     *                 set are sent with the event stream.
+     * @return Future completed with a publisher of the events to send, or
+     * with {@code null}.
+     * @throws Exception Whatever exception the handle may want to throw. If
+     *                   the HTTP service owning this handle knows how to
+     *                   translate the exception into a certain kind of HTTP
+     *                   response, it should. Otherwise the requester should
+     *                   receive a 500 Internal Server Error response without
+     *                   any details and the exception be logged (if logging is
+     *                   enabled).
+     */
+    Future<? extends Flow.Publisher<? extends HttpServerSentEvent>> handle(
+        HttpServiceRequest request,
+        HttpServiceResponse response) throws Exception;
+}
@@ -3,7 +3,6 @@ package se.arkalix.net.http.service;
 import se.arkalix.net.http.HttpMethod;
 import se.arkalix.util.concurrent.Future;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +13,9 @@ import java.util.Optional;
  * to their designated {@link HttpRoute}s.
  */
 public class HttpFilter implements HttpRoutable {
+    private static final Future<Boolean> HANDLED = Future.success(true);
+    private static final Future<Boolean> NOT_HANDLED = Future.success(false);
+
     private final int ordinal;
     private final HttpMethod method;
     private final HttpPattern pattern;
@@ -88,8 +90,8 @@ public class HttpFilter implements HttpRoutable {
             }
             final List<String> pathParameters;
             if (pattern != null) {
-                pathParameters = new ArrayList<>(pattern.nParameters());
-                if (!pattern.match(task.request().path(), task.basePathLengthOrZero(), pathParameters)) {
+                pathParameters = pattern.match(task.request().path(), task.basePathLengthOrZero()).orElse(null);
+                if (pathParameters == null) {
                     break mismatch;
                 }
             }
@@ -98,13 +100,17 @@ public class HttpFilter implements HttpRoutable {
             }
             final var response = task.response();
             try {
-                return handler.handle(task.request().cloneAndSet(pathParameters), response)
-                    .map(ignored -> response.status().isPresent());
+                final var future = handler.handle(task.request().cloneAndSet(pathParameters), response);
+                final var result = future.resultIfCompleted();
+                if (result != null && result.isSuccess()) {
+                    return response.status().isPresent() ? HANDLED : NOT_HANDLED;
+                }
+                return future.map(ignored -> response.status().isPresent());
             }
             catch (final Throwable throwable) {
                 return Future.failure(throwable);
             }
         }
-        return Future.success(false);
+        return NOT_HANDLED;
     }
 }
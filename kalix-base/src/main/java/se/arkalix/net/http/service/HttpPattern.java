@@ -1,6 +1,7 @@
 package se.arkalix.net.http.service;
 
 import se.arkalix.internal.net.http.HttpPaths;
+import se.arkalix.internal.net.http.service.HttpPathParameters;
 
 import java.util.*;
 
@@ -58,10 +59,8 @@ public class HttpPattern implements Comparable<HttpPattern> {
      * Matches this pattern against given path, and collects any path
      * parameters into the provided list.
      * <p>
-     * Note that {@link List#clear()} will be called on the list if any
-     * parameter is identified by the pattern in {@code path}. Furthermore,
-     * even if this method returns {@code false}, it may have collected
-     * parameters into the provided list before returning.
+     * Parameters are only added to the provided list if this method returns
+     * {@code true}.
      * <p>
      * If this pattern contains path parameters or is a prefix, any segments
      * matching a path parameter or occurs after the prefix are <b>not</b>
@@ -77,6 +76,52 @@ public class HttpPattern implements Comparable<HttpPattern> {
      * @see <a href="https://tools.ietf.org/html/rfc3986#section-3.3">RFC 3986, Section 3.3</a>
      */
     public boolean match(final String path, final int offset, final List<String> parameters) {
+        final var parameters0 = match(path, offset).orElse(null);
+        if (parameters0 == null) {
+            return false;
+        }
+        parameters.addAll(parameters0);
+        return true;
+    }
+
+    /**
+     * Matches this pattern against given path, and returns a list of any path
+     * parameters collected from it if the match is successful.
+     * <p>
+     * No objects are allocated unless the match is successful and this
+     * pattern has path parameters or is a prefix. The returned list refers to
+     * its parameters by their offsets into {@code path}, and creates a string
+     * for a given parameter only when that parameter is first accessed.
+     * <p>
+     * If this pattern contains path parameters or is a prefix, any segments
+     * matching a path parameter or occurs after the prefix are <b>not</b>
+     * validated, and may, therefore, contain invalid path characters, as
+     * dictated by RFC 3986.
+     *
+     * @param path   Path to match against.
+     * @param offset Offset, from beginning of path, from which to start
+     *               matching.
+     * @return Unmodifiable list of path parameters, if {@code path} matches
+     * this pattern.
+     * @see HttpPattern
+     * @see <a href="https://tools.ietf.org/html/rfc3986#section-3.3">RFC 3986, Section 3.3</a>
+     */
+    public Optional<List<String>> match(final String path, final int offset) {
+        if (!match(path, offset, (int[]) null)) {
+            return Optional.empty();
+        }
+        final var size = isPrefix ? nParameters + 1 : nParameters;
+        if (size == 0) {
+            return Optional.of(Collections.emptyList());
+        }
+        final var boundaries = new int[size * 2];
+        match(path, offset, boundaries);
+        return Optional.of(HttpPathParameters.of(path, boundaries, size));
+    }
+
+    // Stores the start and end offsets of each found path parameter into
+    // `boundaries`, unless it is `null`.
+    private boolean match(final String path, final int offset, final int[] boundaries) {
         // p0 = start of path;    p1 = end of path.
         // q0 = start of pattern; q1 = end of pattern.
 
@@ -95,7 +140,10 @@ public class HttpPattern implements Comparable<HttpPattern> {
             }
 
             if (isPrefix && px > q1 && pattern.regionMatches(0, path, offset, q1)) {
-                parameters.add(path.substring(q1 - 1));
+                if (boundaries != null) {
+                    boundaries[0] = offset + q1 - 1;
+                    boundaries[1] = path.length();
+                }
                 return true;
             }
             return px == q1 && pattern.regionMatches(0, path, offset, q1);
@@ -117,7 +165,10 @@ public class HttpPattern implements Comparable<HttpPattern> {
                     return np == nParameters;
                 }
                 if (isPrefix) {
-                    parameters.add(path.substring(p0 - 1));
+                    if (boundaries != null) {
+                        boundaries[np * 2] = p0 - 1;
+                        boundaries[np * 2 + 1] = path.length();
+                    }
                     return np == nParameters;
                 }
                 return false;
@@ -132,11 +183,14 @@ public class HttpPattern implements Comparable<HttpPattern> {
                 px += 1;
             }
 
-            if (np == 0) {
-                parameters.clear();
+            if (np == nParameters) {
+                return false;
+            }
+            if (boundaries != null) {
+                boundaries[np * 2] = p0;
+                boundaries[np * 2 + 1] = px;
             }
             np += 1;
-            parameters.add(path.substring(p0, px));
 
             p0 = px;
             q0 += 1; // Skip '#'.
@@ -0,0 +1,261 @@
+package se.arkalix.net.http.service;
+
+import se.arkalix.internal.net.http.HttpEntityTags;
+import se.arkalix.internal.net.http.service.DefaultHttpServiceResponse;
+import se.arkalix.internal.net.http.service.HttpResponseCacheStore;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * A {@link HttpFilterHandler} that caches the encoded bodies of successful
+ * responses to GET and HEAD requests, and responds to matching requests
+ * without invoking the {@link HttpRoute routes} that would otherwise have
+ * handled them.
+ * <p>
+ * Cached responses are identified by the methods, paths, query parameters
+ * and negotiated {@link se.arkalix.descriptor.EncodingDescriptor encodings}
+ * of the requests that caused them to be created. Each cached response is
+ * given a strong entity tag, unless its route already provided one, which
+ * means that clients providing that tag in an "if-none-match" header are
+ * sent a {@code 304 Not Modified} response without a body. If the {@link
+ * HttpService#responseCompression(boolean) response compression} of the
+ * service compresses a cached response when sent, its tag is made weak.
+ * <p>
+ * The identities of the consumers sending requests are not part of what
+ * identifies cached responses, which means that cached responses are shared
+ * by all consumers. Requests are authorized before they are handled by any
+ * filters, which is why only consumers permitted to consume a service are
+ * ever sent its cached responses. Responses whose contents depend on which
+ * consumer requested them must, however, either not be matched by the
+ * filter of a cache or be given "cache-control" headers with the
+ * "no-store" directive.
+ * <p>
+ * A cache is added to a service as any other filter, as in the following
+ * example, in which the handler of a PUT route invalidates the response
+ * cached for the GET route with the same path:
+ * <pre>
+ *     final var cache = new HttpResponseCache.Builder()
+ *         .maxSize(4 * 1024 * 1024)
+ *         .build();
+ *
+ *     system.provide(new HttpService()
+ *         .name("configuration")
+ *         .encodings(EncodingDescriptor.JSON)
+ *         .accessPolicy(AccessPolicy.cloud())
+ *         .basePath("/configuration")
+ *
+ *         .filter(HttpMethod.GET, "/current", cache)
+ *
+ *         .get("/current", (request, response) -&gt; {
+ *             response.status(HttpStatus.OK).body(configuration.current());
+ *             return Future.done();
+ *         })
+ *
+ *         .put("/current", (request, response) -&gt;
+ *             request.bodyAs(ConfigurationDto.class)
+ *                 .ifSuccess(dto -&gt; {
+ *                     configuration.update(dto);
+ *                     cache.invalidate("/configuration/current");
+ *                     response.status(HttpStatus.NO_CONTENT);
+ *                 })));
+ * </pre>
+ * Only responses with status code {@code 200 OK} and complete bodies are
+ * cached, which excludes file and streamed bodies. Responses with
+ * "cache-control" headers containing the "no-store" directive are never
+ * cached. As a cache only sees requests matched by its filter, it should be
+ * the first filter of those requests, unless other filters are to be
+ * executed even when cached responses are sent.
+ */
+public final class HttpResponseCache implements HttpFilterHandler {
+    private final HttpResponseCacheStore store;
+
+    private HttpResponseCache(final Builder builder) {
+        if (builder.maxSize <= 0) {
+            throw new IllegalArgumentException("Expected maxSize > 0");
+        }
+        Objects.requireNonNull(builder.maxAge, "Expected maxAge");
+        if (builder.maxAge.isNegative()) {
+            throw new IllegalArgumentException("Expected maxAge >= 0");
+        }
+        store = new HttpResponseCacheStore(builder.maxSize, builder.maxAge.toNanos());
+    }
+
+    /**
+     * @return Sum of the sizes of all cached response bodies, in bytes.
+     */
+    @ThreadSafe
+    public long size() {
+        return store.size();
+    }
+
+    /**
+     * @return Number of cached responses.
+     */
+    @ThreadSafe
+    public int count() {
+        return store.count();
+    }
+
+    /**
+     * Removes all cached responses to requests with given path, regardless
+     * of their methods, query parameters or encodings.
+     * <p>
+     * Responses being created while this method is called are not cached.
+     *
+     * @param path Full path, including the base path of its service, of
+     *             the requests whose cached responses are to be removed.
+     */
+    @ThreadSafe
+    public void invalidate(final String path) {
+        store.invalidate(path);
+    }
+
+    /**
+     * Removes all cached responses.
+     * <p>
+     * Responses being created while this method is called are not cached.
+     */
+    @ThreadSafe
+    public void invalidateAll() {
+        store.invalidateAll();
+    }
+
+    @Override
+    @ThreadSafe
+    public Future<?> handle(final HttpServiceRequest request, final HttpServiceResponse response) {
+        final var method = request.method();
+        if (!(response instanceof DefaultHttpServiceResponse) || !isGetOrHead(method)) {
+            return Future.done();
+        }
+        final var response0 = (DefaultHttpServiceResponse) response;
+        final var path = request.path();
+        final var key = keyOf(request, response0);
+
+        final var entry = store.get(key, System.nanoTime());
+        if (entry != null) {
+            response.headers().unwrap().set(entry.headers());
+            final var ifNoneMatch = request.headers().get("if-none-match").orElse(null);
+            if (HttpEntityTags.isWeaklyMatchingAny(ifNoneMatch, entry.tag())) {
+                // Tells the client what length it would have received had
+                // the response not been conditional.
+                response
+                    .status(HttpStatus.NOT_MODIFIED)
+                    .header("content-length", Integer.toString(entry.body().readableBytes()))
+                    .clearBody();
+            }
+            else {
+                response0.status(HttpStatus.OK);
+                response0.body(entry.body());
+            }
+            return Future.done();
+        }
+
+        final var generation = store.generation();
+        response0.onEncodedBody(body -> {
+            if (!HttpStatus.OK.equals(response.status().orElse(null)) || isNoStore(response)) {
+                return;
+            }
+            final var headers = response.headers().unwrap();
+            final var tag = store.put(key, path, body, headers, generation, System.nanoTime());
+            headers.set("etag", tag);
+        });
+
+        return Future.done();
+    }
+
+    private static boolean isGetOrHead(final HttpMethod method) {
+        return method.equals(HttpMethod.GET) || method.equals(HttpMethod.HEAD);
+    }
+
+    private static boolean isNoStore(final HttpServiceResponse response) {
+        for (final var cacheControl : response.headers().getAll("cache-control")) {
+            if (cacheControl.toLowerCase().contains("no-store")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String keyOf(final HttpServiceRequest request, final DefaultHttpServiceResponse response) {
+        final var builder = new StringBuilder()
+            .append(request.method())
+            .append(' ')
+            .append(response.negotiatedEncoding().map(Object::toString).orElse(""))
+            .append(' ')
+            .append(request.path());
+
+        // Parameters are sorted to make the key independent of their order.
+        final var queryParameters = request.queryParameters();
+        if (!queryParameters.isEmpty()) {
+            var separator = '?';
+            for (final var entry : new TreeMap<>(queryParameters).entrySet()) {
+                for (final var value : entry.getValue()) {
+                    builder.append(separator)
+                        .append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                    separator = '&';
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Builder useful for creating {@link HttpResponseCache} instances.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static class Builder {
+        private long maxSize = 16 * 1024 * 1024;
+        private Duration maxAge = Duration.ZERO;
+
+        /**
+         * Sets maximum sum of the sizes of all response bodies held by the
+         * created cache, in bytes. Defaults to 16 MiB.
+         * <p>
+         * If caching a new response would make the cache exceed this size,
+         * the least recently used responses are removed until it fits.
+         * Response bodies larger than this size are never cached.
+         *
+         * @param maxSize Maximum cache size, in bytes.
+         * @return This builder.
+         */
+        public Builder maxSize(final long maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration for which responses are cached, or {@link
+         * Duration#ZERO} if responses are only to be removed when they are
+         * invalidated or must make room for other responses. Defaults to
+         * {@link Duration#ZERO}.
+         *
+         * @param maxAge Maximum age of cached responses.
+         * @return This builder.
+         */
+        public Builder maxAge(final Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        /**
+         * @return New HTTP response cache.
+         * @throws IllegalArgumentException If {@code maxSize <= 0} or {@code
+         *                                  maxAge} is negative.
+         * @throws NullPointerException     If {@code maxAge} is {@code null}.
+         */
+        public HttpResponseCache build() {
+            return new HttpResponseCache(this);
+        }
+    }
+}
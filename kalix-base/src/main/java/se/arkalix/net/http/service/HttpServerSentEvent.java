@@ -0,0 +1,189 @@
+package se.arkalix.net.http.service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An event sent to the receiver of an {@link
+ * HttpService#eventStream(String, HttpEventStreamHandler) event stream}.
+ * <p>
+ * Each event may have a {@link Builder#data(String) data} string, which is
+ * delivered to the receiver, as well as a {@link Builder#name(String) name},
+ * an {@link Builder#id(String) identifier} and a {@link
+ * Builder#retry(Duration) reconnection delay}. Events consisting only of a
+ * {@link Builder#comment(String) comment} are ignored by their receivers,
+ * which makes them useful for keeping otherwise idle event streams alive.
+ *
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">HTML Living Standard, Server-Sent Events</a>
+ */
+public class HttpServerSentEvent {
+    private final String comment;
+    private final String data;
+    private final String id;
+    private final String name;
+    private final Duration retry;
+
+    private HttpServerSentEvent(final Builder builder) {
+        comment = builder.comment;
+        data = builder.data;
+        id = requireSingleLine(builder.id, "id");
+        name = requireSingleLine(builder.name, "name");
+        retry = builder.retry;
+        if (retry != null && retry.isNegative()) {
+            throw new IllegalArgumentException("Expected retry >= 0");
+        }
+        if (comment == null && data == null && id == null && name == null && retry == null) {
+            throw new IllegalArgumentException("Expected comment, data, id, name or retry");
+        }
+    }
+
+    private static String requireSingleLine(final String string, final String name) {
+        if (string != null && (string.indexOf('\n') >= 0 || string.indexOf('\r') >= 0)) {
+            throw new IllegalArgumentException("Expected " + name + " not to contain line breaks");
+        }
+        return string;
+    }
+
+    /**
+     * Creates new event containing only given data.
+     *
+     * @param data Event data.
+     * @return New event.
+     */
+    public static HttpServerSentEvent of(final String data) {
+        return new Builder()
+            .data(Objects.requireNonNull(data, "Expected data"))
+            .build();
+    }
+
+    /**
+     * @return Comment ignored by event receiver, if any.
+     */
+    public Optional<String> comment() {
+        return Optional.ofNullable(comment);
+    }
+
+    /**
+     * @return Event data, if any.
+     */
+    public Optional<String> data() {
+        return Optional.ofNullable(data);
+    }
+
+    /**
+     * @return Event identifier, if any.
+     */
+    public Optional<String> id() {
+        return Optional.ofNullable(id);
+    }
+
+    /**
+     * @return Event name, if any.
+     */
+    public Optional<String> name() {
+        return Optional.ofNullable(name);
+    }
+
+    /**
+     * @return Reconnection delay, if any.
+     */
+    public Optional<Duration> retry() {
+        return Optional.ofNullable(retry);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpServerSentEvent{" +
+            "comment='" + comment + '\'' +
+            ", data='" + data + '\'' +
+            ", id='" + id + '\'' +
+            ", name='" + name + '\'' +
+            ", retry=" + retry +
+            '}';
+    }
+
+    /**
+     * Builder useful for creating {@link HttpServerSentEvent} instances.
+     */
+    public static class Builder {
+        private String comment;
+        private String data;
+        private String id;
+        private String name;
+        private Duration retry;
+
+        /**
+         * Sets comment, which is ignored by the receiver of the event. May
+         * contain line breaks.
+         *
+         * @param comment Event comment.
+         * @return This builder.
+         */
+        public Builder comment(final String comment) {
+            this.comment = comment;
+            return this;
+        }
+
+        /**
+         * Sets event data, which is delivered to the receiver of the event.
+         * May contain line breaks.
+         *
+         * @param data Event data.
+         * @return This builder.
+         */
+        public Builder data(final String data) {
+            this.data = data;
+            return this;
+        }
+
+        /**
+         * Sets event identifier, which the receiver of the event will
+         * provide in the "last-event-id" header if reconnecting to the same
+         * event stream. May not contain line breaks.
+         *
+         * @param id Event identifier.
+         * @return This builder.
+         */
+        public Builder id(final String id) {
+            this.id = id;
+            return this;
+        }
+
+        /**
+         * Sets event name, which the receiver of the event may use to
+         * determine how to handle it. May not contain line breaks. If not
+         * set, the event is named "message" by its receiver.
+         *
+         * @param name Event name.
+         * @return This builder.
+         */
+        public Builder name(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Sets how long the receiver of the event should wait before
+         * reconnecting to its event stream if its connection is lost.
+         *
+         * @param retry Reconnection delay.
+         * @return This builder.
+         */
+        public Builder retry(final Duration retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        /**
+         * @return New {@link HttpServerSentEvent}.
+         * @throws IllegalArgumentException If no field is set, if the
+         *                                  identifier or name contains line
+         *                                  breaks, or if the reconnection
+         *                                  delay is negative.
+         */
+        public HttpServerSentEvent build() {
+            return new HttpServerSentEvent(this);
+        }
+    }
+}
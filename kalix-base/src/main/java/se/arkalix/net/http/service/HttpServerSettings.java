@@ -0,0 +1,544 @@
+package se.arkalix.net.http.service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings used to configure the HTTP server that an {@link
+ * se.arkalix.ArSystem ArSystem} creates when its first {@link HttpService} is
+ * provided.
+ *
+ * @see se.arkalix.ArSystem.Builder#httpServerSettings(HttpServerSettings)
+ */
+@SuppressWarnings("unused")
+public final class HttpServerSettings {
+    private static final HttpServerSettings DEFAULT = new Builder().build();
+
+    private final boolean isHttp2Enabled;
+    private final int http2InitialWindowSize;
+    private final long http2MaxConcurrentStreams;
+    private final int maxInitialLineLength;
+    private final int maxHeaderSize;
+    private final int acceptorCount;
+    private final int backlog;
+    private final boolean isTcpNoDelay;
+    private final int tcpFastOpenQueueLength;
+    private final Duration readIdleTimeout;
+    private final Duration writeIdleTimeout;
+    private final Duration idleTimeout;
+    private final int maxRequestsPerConnection;
+    private final Duration maxConnectionAge;
+    private final Duration maxConnectionAgeJitter;
+    private final Duration drainTimeout;
+
+    private HttpServerSettings(final Builder builder) {
+        isHttp2Enabled = builder.isHttp2Enabled;
+
+        if (builder.http2InitialWindowSize < 0) {
+            throw new IllegalArgumentException("Expected http2InitialWindowSize >= 0");
+        }
+        http2InitialWindowSize = builder.http2InitialWindowSize;
+
+        if (builder.http2MaxConcurrentStreams < 1) {
+            throw new IllegalArgumentException("Expected http2MaxConcurrentStreams > 0");
+        }
+        http2MaxConcurrentStreams = builder.http2MaxConcurrentStreams;
+
+        if (builder.maxInitialLineLength < 1) {
+            throw new IllegalArgumentException("Expected maxInitialLineLength > 0");
+        }
+        maxInitialLineLength = builder.maxInitialLineLength;
+
+        if (builder.maxHeaderSize < 1) {
+            throw new IllegalArgumentException("Expected maxHeaderSize > 0");
+        }
+        maxHeaderSize = builder.maxHeaderSize;
+
+        if (builder.acceptorCount < 0) {
+            throw new IllegalArgumentException("Expected acceptorCount >= 0");
+        }
+        acceptorCount = builder.acceptorCount;
+
+        if (builder.backlog < 0) {
+            throw new IllegalArgumentException("Expected backlog >= 0");
+        }
+        backlog = builder.backlog;
+
+        isTcpNoDelay = builder.isTcpNoDelay;
+
+        if (builder.tcpFastOpenQueueLength < 0) {
+            throw new IllegalArgumentException("Expected tcpFastOpenQueueLength >= 0");
+        }
+        tcpFastOpenQueueLength = builder.tcpFastOpenQueueLength;
+
+        readIdleTimeout = requireNonNegative(builder.readIdleTimeout, "readIdleTimeout");
+        writeIdleTimeout = requireNonNegative(builder.writeIdleTimeout, "writeIdleTimeout");
+        idleTimeout = requireNonNegative(builder.idleTimeout, "idleTimeout");
+
+        if (builder.maxRequestsPerConnection < 0) {
+            throw new IllegalArgumentException("Expected maxRequestsPerConnection >= 0");
+        }
+        maxRequestsPerConnection = builder.maxRequestsPerConnection;
+
+        maxConnectionAge = requireNonNegative(builder.maxConnectionAge, "maxConnectionAge");
+        maxConnectionAgeJitter = requireNonNegative(builder.maxConnectionAgeJitter, "maxConnectionAgeJitter");
+        if (maxConnectionAgeJitter.compareTo(maxConnectionAge) > 0) {
+            throw new IllegalArgumentException("Expected maxConnectionAgeJitter <= maxConnectionAge");
+        }
+
+        drainTimeout = requireNonNegative(builder.drainTimeout, "drainTimeout");
+    }
+
+    private static Duration requireNonNegative(final Duration duration, final String name) {
+        Objects.requireNonNull(duration, "Expected " + name);
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Expected " + name + " >= 0");
+        }
+        return duration;
+    }
+
+    /**
+     * @return Default HTTP server settings.
+     */
+    public static HttpServerSettings defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return {@code true} only if HTTP/2 is to be negotiated via ALPN in
+     * secure mode and accepted with prior knowledge in insecure mode.
+     * @see Builder#http2Enabled(boolean)
+     */
+    public boolean isHttp2Enabled() {
+        return isHttp2Enabled;
+    }
+
+    /**
+     * @return Initial HTTP/2 flow-control window size, in bytes.
+     * @see Builder#http2InitialWindowSize(int)
+     */
+    public int http2InitialWindowSize() {
+        return http2InitialWindowSize;
+    }
+
+    /**
+     * @return Maximum number of concurrent HTTP/2 streams per connection.
+     * @see Builder#http2MaxConcurrentStreams(long)
+     */
+    public long http2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    /**
+     * @return Maximum length of the initial line of any received HTTP/1.1
+     * request, in bytes.
+     * @see Builder#maxInitialLineLength(int)
+     */
+    public int maxInitialLineLength() {
+        return maxInitialLineLength;
+    }
+
+    /**
+     * @return Maximum size of the headers of any received HTTP request, in
+     * bytes.
+     * @see Builder#maxHeaderSize(int)
+     */
+    public int maxHeaderSize() {
+        return maxHeaderSize;
+    }
+
+    /**
+     * @return Number of server sockets to accept incoming connections with,
+     * or 0 if one socket is to be used per event loop thread.
+     * @see Builder#acceptorCount(int)
+     */
+    public int acceptorCount() {
+        return acceptorCount;
+    }
+
+    /**
+     * @return Maximum number of pending connections per server socket, or 0
+     * if the platform default is to be used.
+     * @see Builder#backlog(int)
+     */
+    public int backlog() {
+        return backlog;
+    }
+
+    /**
+     * @return {@code true} only if Nagle's algorithm is to be disabled for
+     * accepted connections.
+     * @see Builder#tcpNoDelay(boolean)
+     */
+    public boolean isTcpNoDelay() {
+        return isTcpNoDelay;
+    }
+
+    /**
+     * @return Maximum number of pending TCP Fast Open requests per server
+     * socket, or 0 if TCP Fast Open is disabled.
+     * @see Builder#tcpFastOpenQueueLength(int)
+     */
+    public int tcpFastOpenQueueLength() {
+        return tcpFastOpenQueueLength;
+    }
+
+    /**
+     * @return Maximum duration without any data being received while a
+     * request is being received, or {@link Duration#ZERO} if unlimited.
+     * @see Builder#readIdleTimeout(Duration)
+     */
+    public Duration readIdleTimeout() {
+        return readIdleTimeout;
+    }
+
+    /**
+     * @return Maximum duration without any data being sent while a response
+     * is being sent, or {@link Duration#ZERO} if unlimited.
+     * @see Builder#writeIdleTimeout(Duration)
+     */
+    public Duration writeIdleTimeout() {
+        return writeIdleTimeout;
+    }
+
+    /**
+     * @return Maximum duration a connection may remain open without any
+     * request being handled, or {@link Duration#ZERO} if unlimited.
+     * @see Builder#idleTimeout(Duration)
+     */
+    public Duration idleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return Maximum number of requests that may be received via each
+     * connection, or 0 if unlimited.
+     * @see Builder#maxRequestsPerConnection(int)
+     */
+    public int maxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    /**
+     * @return Maximum duration a connection may remain open, or {@link
+     * Duration#ZERO} if unlimited.
+     * @see Builder#maxConnectionAge(Duration)
+     */
+    public Duration maxConnectionAge() {
+        return maxConnectionAge;
+    }
+
+    /**
+     * @return Maximum duration by which the maximum age of each connection is
+     * randomly shortened.
+     * @see Builder#maxConnectionAgeJitter(Duration)
+     */
+    public Duration maxConnectionAgeJitter() {
+        return maxConnectionAgeJitter;
+    }
+
+    /**
+     * @return Maximum duration to wait for requests being handled by a
+     * service to complete when it is dismissed.
+     * @see Builder#drainTimeout(Duration)
+     */
+    public Duration drainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Builder useful for creating {@link HttpServerSettings} instances.
+     */
+    public static class Builder {
+        private boolean isHttp2Enabled = true;
+        private int http2InitialWindowSize = 65535;
+        private long http2MaxConcurrentStreams = 100;
+        private int maxInitialLineLength = 4096;
+        private int maxHeaderSize = 8192;
+        private int acceptorCount = 1;
+        private int backlog = 0;
+        private boolean isTcpNoDelay = true;
+        private int tcpFastOpenQueueLength = 0;
+        private Duration readIdleTimeout = Duration.ofSeconds(30);
+        private Duration writeIdleTimeout = Duration.ofSeconds(90);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private int maxRequestsPerConnection = 0;
+        private Duration maxConnectionAge = Duration.ZERO;
+        private Duration maxConnectionAgeJitter = Duration.ZERO;
+        private Duration drainTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Sets whether or not HTTP/2 is to be supported, in addition to
+         * HTTP/1.1. Defaults to {@code true}.
+         * <p>
+         * If the server is running in secure mode, HTTP/2 is negotiated via
+         * the TLS Application-Layer Protocol Negotiation (ALPN) extension. If
+         * running in insecure mode, clients are expected to have <i>prior
+         * knowledge</i> of HTTP/2 support, which means that they must send
+         * the HTTP/2 connection preface immediately after connecting.
+         * Connections not doing so are handled as HTTP/1.1 connections.
+         *
+         * @param isHttp2Enabled Whether or not HTTP/2 is to be supported.
+         * @return This builder.
+         * @see <a href="https://tools.ietf.org/html/rfc7540#section-3">RFC 7540, Section 3</a>
+         */
+        public Builder http2Enabled(final boolean isHttp2Enabled) {
+            this.isHttp2Enabled = isHttp2Enabled;
+            return this;
+        }
+
+        /**
+         * Sets initial HTTP/2 flow-control window size, in bytes, of each
+         * stream of each HTTP/2 connection. If larger than the HTTP/2 default
+         * of 65535 bytes, the window of each connection as a whole is
+         * enlarged to the same size. Defaults to 65535.
+         *
+         * @param http2InitialWindowSize Initial window size, in bytes.
+         * @return This builder.
+         * @see <a href="https://tools.ietf.org/html/rfc7540#section-6.9.2">RFC 7540, Section 6.9.2</a>
+         */
+        public Builder http2InitialWindowSize(final int http2InitialWindowSize) {
+            this.http2InitialWindowSize = http2InitialWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of concurrent streams, and, by extension,
+         * requests, that may be open within each HTTP/2 connection. Defaults
+         * to 100.
+         *
+         * @param http2MaxConcurrentStreams Maximum number of streams.
+         * @return This builder.
+         * @see <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">RFC 7540, Section 6.5.2</a>
+         */
+        public Builder http2MaxConcurrentStreams(final long http2MaxConcurrentStreams) {
+            this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * Sets maximum length of the initial line of any received HTTP/1.1
+         * request, which contains its method, URI and version, in bytes.
+         * Requests with longer initial lines are rejected with status code
+         * 414 before they are routed to any service. Defaults to 4096.
+         * <p>
+         * This is a hard limit for all services provided via the server.
+         * Individual services may impose stricter limits via {@link
+         * HttpService#maxUriLength(int)}.
+         *
+         * @param maxInitialLineLength Maximum initial line length, in bytes.
+         * @return This builder.
+         */
+        public Builder maxInitialLineLength(final int maxInitialLineLength) {
+            this.maxInitialLineLength = maxInitialLineLength;
+            return this;
+        }
+
+        /**
+         * Sets maximum size of the headers of any received HTTP request, in
+         * bytes. HTTP/1.1 requests with larger headers are rejected with
+         * status code 431 before they are routed to any service, while
+         * HTTP/2 streams with larger headers are reset. Defaults to 8192.
+         * <p>
+         * This is a hard limit for all services provided via the server.
+         * Individual services may impose stricter limits via {@link
+         * HttpService#maxHeaderSize(int)}.
+         *
+         * @param maxHeaderSize Maximum header size, in bytes.
+         * @return This builder.
+         */
+        public Builder maxHeaderSize(final int maxHeaderSize) {
+            this.maxHeaderSize = maxHeaderSize;
+            return this;
+        }
+
+        /**
+         * Sets number of server sockets to bind to the address and port of
+         * the server, each of which is served by its own event loop thread.
+         * If 0, one socket is bound per event loop thread. Defaults to 1.
+         * <p>
+         * Multiple sockets can only be bound if the Linux epoll transport is
+         * available, in which case the {@code SO_REUSEPORT} socket option is
+         * used to make the kernel distribute new connections among them. Each
+         * accepted connection is then handled by the same thread that
+         * accepted it, which means that using less acceptors than event loop
+         * threads leaves some threads without connections. If epoll is not
+         * available, only one socket is bound.
+         *
+         * @param acceptorCount Number of server sockets.
+         * @return This builder.
+         */
+        public Builder acceptorCount(final int acceptorCount) {
+            this.acceptorCount = acceptorCount;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of connections that may be waiting to be
+         * accepted by each server socket, or 0 if the platform default is to
+         * be used. Defaults to 0.
+         *
+         * @param backlog Maximum number of pending connections.
+         * @return This builder.
+         */
+        public Builder backlog(final int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Sets whether or not Nagle's algorithm is to be disabled for all
+         * accepted connections, which means that small responses are sent
+         * without being delayed. Defaults to {@code true}.
+         *
+         * @param isTcpNoDelay Whether or not to set {@code TCP_NODELAY}.
+         * @return This builder.
+         */
+        public Builder tcpNoDelay(final boolean isTcpNoDelay) {
+            this.isTcpNoDelay = isTcpNoDelay;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of TCP Fast Open requests that may be pending
+         * on each server socket, or 0 if TCP Fast Open is to be disabled.
+         * Fast Open lets clients that have connected before send request
+         * data already in their connection handshakes. It is only supported
+         * if the Linux epoll transport is available, and is otherwise
+         * ignored. Defaults to 0.
+         *
+         * @param tcpFastOpenQueueLength Maximum number of pending Fast Open
+         *                               requests.
+         * @return This builder.
+         * @see <a href="https://tools.ietf.org/html/rfc7413">RFC 7413</a>
+         */
+        public Builder tcpFastOpenQueueLength(final int tcpFastOpenQueueLength) {
+            this.tcpFastOpenQueueLength = tcpFastOpenQueueLength;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration a connection may remain without any data
+         * being received while a request is only partially received, or
+         * {@link Duration#ZERO} if unlimited. Requests timing out are rejected
+         * with status code 408, after which their connections are closed.
+         * Defaults to 30 seconds.
+         *
+         * @param readIdleTimeout Maximum read idle duration.
+         * @return This builder.
+         */
+        public Builder readIdleTimeout(final Duration readIdleTimeout) {
+            this.readIdleTimeout = readIdleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration a connection may remain without any data
+         * being sent while a response is only partially sent, or {@link
+         * Duration#ZERO} if unlimited. Connections whose receivers stop
+         * reading responses for longer are closed. Defaults to 90 seconds.
+         *
+         * @param writeIdleTimeout Maximum write idle duration.
+         * @return This builder.
+         */
+        public Builder writeIdleTimeout(final Duration writeIdleTimeout) {
+            this.writeIdleTimeout = writeIdleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration a connection may remain open without any
+         * request being received or handled, or {@link Duration#ZERO} if
+         * unlimited. Connections are never closed due to being idle while
+         * any request received via them is still being handled. Defaults to
+         * 30 seconds.
+         * <p>
+         * Individual services may use other timeouts for HTTP/1.1
+         * connections that last received requests for them via {@link
+         * HttpService#idleTimeout(Duration)}.
+         *
+         * @param idleTimeout Maximum idle duration.
+         * @return This builder.
+         */
+        public Builder idleTimeout(final Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of requests that may be received via each
+         * connection, or 0 if unlimited. HTTP/1.1 connections are closed
+         * after the response to their last permitted request has been sent,
+         * which is indicated to their clients via the "connection: close"
+         * header. HTTP/2 connections are shut down gracefully, which lets
+         * the requests already received via them complete. Defaults to 0.
+         * <p>
+         * Individual services may impose stricter limits on HTTP/1.1
+         * connections via {@link HttpService#maxRequestsPerConnection(int)}.
+         *
+         * @param maxRequestsPerConnection Maximum number of requests.
+         * @return This builder.
+         */
+        public Builder maxRequestsPerConnection(final int maxRequestsPerConnection) {
+            this.maxRequestsPerConnection = maxRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration a connection may remain open, or {@link
+         * Duration#ZERO} if unlimited. Connections reaching their maximum
+         * ages are closed in the same way as when reaching their {@link
+         * #maxRequestsPerConnection(int) maximum number of requests}, which
+         * forces their clients to reconnect, possibly to other instances of
+         * the same service. Defaults to 0.
+         *
+         * @param maxConnectionAge Maximum connection age.
+         * @return This builder.
+         * @see #maxConnectionAgeJitter(Duration)
+         */
+        public Builder maxConnectionAge(final Duration maxConnectionAge) {
+            this.maxConnectionAge = maxConnectionAge;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration by which the {@link
+         * #maxConnectionAge(Duration) maximum age} of each connection is
+         * randomly shortened, which prevents connections established at the
+         * same time from also being closed at the same time. Must not be
+         * larger than the maximum connection age. Defaults to 0.
+         *
+         * @param maxConnectionAgeJitter Maximum connection age jitter.
+         * @return This builder.
+         */
+        public Builder maxConnectionAgeJitter(final Duration maxConnectionAgeJitter) {
+            this.maxConnectionAgeJitter = maxConnectionAgeJitter;
+            return this;
+        }
+
+        /**
+         * Sets maximum duration to wait for requests being handled by a
+         * service to complete when it is {@link
+         * se.arkalix.ArServiceHandle#dismissGracefully() dismissed
+         * gracefully}, or when the server is closed. Responses sent while a
+         * service is being drained ask their clients to close their
+         * connections. Requests still being handled when the timeout expires
+         * are allowed to complete, but are no longer waited for. Defaults to
+         * 10 seconds.
+         *
+         * @param drainTimeout Maximum drain duration.
+         * @return This builder.
+         */
+        public Builder drainTimeout(final Duration drainTimeout) {
+            this.drainTimeout = drainTimeout;
+            return this;
+        }
+
+        /**
+         * @return New {@link HttpServerSettings}.
+         */
+        public HttpServerSettings build() {
+            return new HttpServerSettings(this);
+        }
+    }
+}
@@ -5,10 +5,13 @@ import se.arkalix.ArSystem;
 import se.arkalix.descriptor.EncodingDescriptor;
 import se.arkalix.descriptor.TransportDescriptor;
 import se.arkalix.internal.ArServerRegistry;
+import se.arkalix.internal.net.http.service.HttpEventStreamPublisher;
 import se.arkalix.internal.net.http.service.HttpServer;
 import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.HttpStatus;
 import se.arkalix.security.access.AccessPolicy;
 
+import java.time.Duration;
 import java.util.*;
 
 import static se.arkalix.descriptor.TransportDescriptor.HTTP;
@@ -35,6 +38,21 @@ public final class HttpService implements ArService {
     private AccessPolicy accessPolicy;
     private Map<String, String> metadata;
     private int version = 0;
+    private int maxUriLength = 4096;
+    private int maxHeaderSize = 8192;
+    private long maxBodySize = 16 * 1024 * 1024;
+    private boolean isResponseCompressionEnabled = false;
+    private int responseCompressionMinSize = 1024;
+    private List<String> responseCompressionMediaTypes = List.of("application/json", "application/xml", "text/*");
+    private int maxConcurrentRequests = Integer.MAX_VALUE;
+    private boolean isConcurrencyLimitAdaptive = false;
+    private Integer reservedConcurrentRequests = null;
+    private Set<String> reservedConsumers = Set.of(
+        "service_registry", "orchestrator", "authorization", "event_handler", "gatekeeper", "gateway");
+    private Duration overloadRetryAfter = Duration.ofSeconds(1);
+    private Duration idleTimeout = null;
+    private int maxRequestsPerConnection = 0;
+    private HttpServiceMetrics metrics = null;
 
     private int catcherOrdinal = 0;
     private int filterOrdinal = 0;
@@ -169,6 +187,328 @@ public final class HttpService implements ArService {
         return this;
     }
 
+    /**
+     * Sets maximum length of the URI of any request received by this service,
+     * including its path and query string, in characters. Requests with
+     * longer URIs are rejected with status code 414 before reaching any
+     * filters or routes.
+     * <p>
+     * If no limit is explicitly set, 4096 will be used by default. Note that
+     * the {@link HttpServerSettings#maxInitialLineLength() initial line limit}
+     * of the HTTP server providing this service may be stricter.
+     *
+     * @param maxUriLength Maximum URI length.
+     * @return This service.
+     */
+    public HttpService maxUriLength(final int maxUriLength) {
+        if (maxUriLength < 1) {
+            throw new IllegalArgumentException("Expected maxUriLength > 0");
+        }
+        this.maxUriLength = maxUriLength;
+        return this;
+    }
+
+    /**
+     * Sets maximum size of the headers of any request received by this
+     * service, in bytes, counting only the names and values of those headers.
+     * Requests with larger headers are rejected with status code 431 before
+     * reaching any filters or routes.
+     * <p>
+     * If no limit is explicitly set, 8192 will be used by default. Note that
+     * the {@link HttpServerSettings#maxHeaderSize() header size limit} of the
+     * HTTP server providing this service may be stricter.
+     *
+     * @param maxHeaderSize Maximum header size, in bytes.
+     * @return This service.
+     */
+    public HttpService maxHeaderSize(final int maxHeaderSize) {
+        if (maxHeaderSize < 1) {
+            throw new IllegalArgumentException("Expected maxHeaderSize > 0");
+        }
+        this.maxHeaderSize = maxHeaderSize;
+        return this;
+    }
+
+    /**
+     * Sets maximum size of the body of any request received by this service,
+     * in bytes, or 0 if unlimited.
+     * <p>
+     * Requests with {@code Content-Length} headers stating larger sizes are
+     * rejected with status code 413 before reaching any filters or routes, and
+     * before any part of their bodies is read. If the body of a request
+     * without such a header turns out to be too large while being received,
+     * receiving it fails with an {@link HttpServiceRequestException} with
+     * status code 413. In both cases, the connection via which the request
+     * was received is closed after the response has been sent.
+     * <p>
+     * If no limit is explicitly set, 16 MiB will be used by default. Services
+     * receiving larger files, such as via {@link
+     * HttpServiceRequest#bodyTo(java.nio.file.Path, boolean)}, must set a
+     * larger limit, or 0.
+     *
+     * @param maxBodySize Maximum body size, in bytes.
+     * @return This service.
+     */
+    public HttpService maxBodySize(final long maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Expected maxBodySize >= 0");
+        }
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    /**
+     * Enables or disables compression of the bodies of responses sent by
+     * this service. Compression is disabled by default.
+     * <p>
+     * If enabled, a response body is compressed only if (1) the request being
+     * responded to has an "accept-encoding" header accepting either the
+     * {@code gzip} or the {@code deflate} content coding, (2) the body is at
+     * least {@link #responseCompressionMinSize(int) as large as a given
+     * threshold}, (3) the body has a "content-type" {@link
+     * #responseCompressionMediaTypes(String...) allowed to be compressed},
+     * and (4) the response does not already have a "content-encoding" or a
+     * "content-length" header. Bodies consisting of files are never
+     * compressed. Any strong "etag" of a compressed response is made weak,
+     * as it no longer identifies the exact bytes sent.
+     *
+     * @param isEnabled Whether or not response compression is to be enabled.
+     * @return This service.
+     * @see <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.2">RFC 7231, Section 3.1.2.2</a>
+     */
+    public HttpService responseCompression(final boolean isEnabled) {
+        this.isResponseCompressionEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the minimum size, in bytes, a response body must have for it to be
+     * compressed, if {@link #responseCompression(boolean) response
+     * compression} is enabled. Compressing small bodies is seldom worth the
+     * effort, as the overhead of compression is likely to outweigh its
+     * benefits.
+     * <p>
+     * If no size is explicitly set, 1024 will be used by default.
+     *
+     * @param minSize Minimum body size, in bytes.
+     * @return This service.
+     */
+    public HttpService responseCompressionMinSize(final int minSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Expected minSize >= 0");
+        }
+        this.responseCompressionMinSize = minSize;
+        return this;
+    }
+
+    /**
+     * Sets the media types of response bodies that may be compressed, if
+     * {@link #responseCompression(boolean) response compression} is enabled.
+     * <p>
+     * Media types must be given without parameters, such as {@code
+     * application/json}. A media type with the subtype {@code *}, such as
+     * {@code text/*}, allows all media types with the same type to be
+     * compressed. If no media types are explicitly set, {@code
+     * application/json}, {@code application/xml} and {@code text/*} are
+     * used by default. Media types of already compressed formats, such as
+     * most image and video formats, should not be specified.
+     *
+     * @param mediaTypes Media types allowed to be compressed.
+     * @return This service.
+     */
+    public HttpService responseCompressionMediaTypes(final String... mediaTypes) {
+        final var list = new ArrayList<String>(mediaTypes.length);
+        for (final var mediaType : mediaTypes) {
+            list.add(Objects.requireNonNull(mediaType, "Expected mediaType").toLowerCase());
+        }
+        this.responseCompressionMediaTypes = Collections.unmodifiableList(list);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests this service may handle at the
+     * same time.
+     * <p>
+     * A request is counted from when it has been authorized until the future
+     * returned by its route, filter or catcher completes. Requests received
+     * while the limit is reached are rejected with status code 503 and a
+     * "retry-after" header {@link #overloadRetryAfter(Duration) of a given
+     * duration}, before reaching any filters or routes and before any part of
+     * their bodies is read. Some of the capacity of the service is {@link
+     * #reservedConcurrentRequests(int) reserved} for requests sent by {@link
+     * #reservedConsumers(String...) certain consumers}, such as the core
+     * systems of the local cloud.
+     * <p>
+     * If {@link #adaptiveConcurrencyLimit(boolean) adaptive concurrency
+     * limiting} is enabled, the limit given here becomes the upper bound of
+     * the adaptive limit. If no limit is explicitly set, the number of
+     * concurrent requests is not limited.
+     *
+     * @param maxConcurrentRequests Maximum number of concurrent requests.
+     * @return This service.
+     */
+    public HttpService maxConcurrentRequests(final int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Expected maxConcurrentRequests > 0");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    /**
+     * Enables or disables adaptive limiting of the number of requests this
+     * service may handle at the same time. Adaptive limiting is disabled by
+     * default.
+     * <p>
+     * If enabled, the concurrency limit is continuously adjusted in a manner
+     * similar to the TCP Vegas congestion avoidance algorithm. The time it
+     * takes to handle each request is compared to the shortest such time
+     * observed recently. If the comparison indicates that requests are being
+     * queued up, such as by a slow service used to handle them, the limit is
+     * decreased multiplicatively. If not, and the service is being used near
+     * its current limit, the limit is increased additively. The limit is never
+     * allowed to exceed the {@link #maxConcurrentRequests(int) maximum
+     * concurrency limit}.
+     *
+     * @param isEnabled Whether or not adaptive concurrency limiting is to be
+     *                  enabled.
+     * @return This service.
+     */
+    public HttpService adaptiveConcurrencyLimit(final boolean isEnabled) {
+        this.isConcurrencyLimitAdaptive = isEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the number of concurrently handled requests reserved for requests
+     * sent by {@link #reservedConsumers(String...) reserved consumers}.
+     * Other consumers are rejected if the number of requests being handled
+     * would come within this number of the current concurrency limit.
+     * <p>
+     * If no number is explicitly set, one tenth of the {@link
+     * #maxConcurrentRequests(int) maximum concurrency limit} is reserved,
+     * rounded down, but never less than 1. Nothing is reserved if no limit
+     * is set.
+     *
+     * @param reservedConcurrentRequests Number of reserved requests.
+     * @return This service.
+     */
+    public HttpService reservedConcurrentRequests(final int reservedConcurrentRequests) {
+        if (reservedConcurrentRequests < 0) {
+            throw new IllegalArgumentException("Expected reservedConcurrentRequests >= 0");
+        }
+        this.reservedConcurrentRequests = reservedConcurrentRequests;
+        return this;
+    }
+
+    /**
+     * Sets the names of the consumer systems that may use the {@link
+     * #reservedConcurrentRequests(int) reserved} capacity of this service.
+     * <p>
+     * If no names are explicitly set, the names of the Arrowhead Framework
+     * core systems are used by default, which are {@code service_registry},
+     * {@code orchestrator}, {@code authorization}, {@code event_handler},
+     * {@code gatekeeper} and {@code gateway}. As consumers can only be
+     * identified if this service is running in secure mode, no consumers are
+     * considered reserved in insecure mode.
+     *
+     * @param systemNames Names of systems allowed to use reserved capacity.
+     * @return This service.
+     */
+    public HttpService reservedConsumers(final String... systemNames) {
+        this.reservedConsumers = Set.of(systemNames);
+        return this;
+    }
+
+    /**
+     * Sets the duration after which consumers are asked to retry requests
+     * rejected due to the {@link #maxConcurrentRequests(int) concurrency
+     * limit} of this service being reached. The duration is rounded up to
+     * whole seconds when sent in "retry-after" headers.
+     * <p>
+     * If no duration is explicitly set, 1 second will be used by default.
+     *
+     * @param retryAfter Duration after which to retry rejected requests.
+     * @return This service.
+     * @see <a href="https://tools.ietf.org/html/rfc7231#section-7.1.3">RFC 7231, Section 7.1.3</a>
+     */
+    public HttpService overloadRetryAfter(final Duration retryAfter) {
+        Objects.requireNonNull(retryAfter, "Expected retryAfter");
+        if (retryAfter.isNegative()) {
+            throw new IllegalArgumentException("Expected retryAfter >= 0");
+        }
+        this.overloadRetryAfter = retryAfter;
+        return this;
+    }
+
+    /**
+     * Sets maximum duration an HTTP/1.1 connection may remain open without
+     * receiving any new request after having sent a response from this
+     * service, or {@link Duration#ZERO} if unlimited. Connections are never
+     * closed due to being idle while a request is being handled.
+     * <p>
+     * A long timeout is useful for services whose consumers send requests
+     * rarely, as it allows them to avoid reconnecting, and potentially also
+     * performing new TLS handshakes, before each request. A short timeout
+     * allows connections of consumers that are unlikely to send more
+     * requests to be released early.
+     * <p>
+     * If no timeout is explicitly set, the {@link
+     * HttpServerSettings#idleTimeout() idle timeout of the server} will be
+     * used. HTTP/2 connections, which may be used to send requests to
+     * multiple services at the same time, always use that of the server.
+     *
+     * @param idleTimeout Maximum idle duration.
+     * @return This service.
+     */
+    public HttpService idleTimeout(final Duration idleTimeout) {
+        Objects.requireNonNull(idleTimeout, "Expected idleTimeout");
+        if (idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Expected idleTimeout >= 0");
+        }
+        this.idleTimeout = idleTimeout;
+        return this;
+    }
+
+    /**
+     * Sets maximum number of requests that may be received via an HTTP/1.1
+     * connection, or 0 if unlimited. If a request to this service causes the
+     * limit to be reached, the connection it was received via is closed
+     * after its response has been sent.
+     * <p>
+     * This limit is used in addition to the {@link
+     * HttpServerSettings#maxRequestsPerConnection() limit of the server},
+     * which means that it can only be used to make the effective limit
+     * stricter. If no limit is explicitly set, 0 will be used by default.
+     *
+     * @param maxRequestsPerConnection Maximum number of requests.
+     * @return This service.
+     */
+    public HttpService maxRequestsPerConnection(final int maxRequestsPerConnection) {
+        if (maxRequestsPerConnection < 0) {
+            throw new IllegalArgumentException("Expected maxRequestsPerConnection >= 0");
+        }
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        return this;
+    }
+
+    /**
+     * Sets object to record request counters and latencies of the routes of
+     * this service with. Metrics are only recorded if such an object is set,
+     * which it is not by default.
+     * <p>
+     * The same object may be used by multiple services, which makes it
+     * possible to expose the metrics of all of them via the same {@link
+     * HttpServiceMetrics#service() metrics service}.
+     *
+     * @param metrics Route metrics collector, or {@code null}.
+     * @return This service.
+     */
+    public HttpService metrics(final HttpServiceMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * Adds incoming HTTP request route to this service, handling GET requests
      * matching given pattern.
@@ -286,6 +626,42 @@ public final class HttpService implements ArService {
         return route(HttpMethod.TRACE, path, handler);
     }
 
+    /**
+     * Adds incoming HTTP request route to this service, handling GET requests
+     * matching given pattern by responding with streams of server-sent
+     * events.
+     * <p>
+     * Event streams are kept open until their publishers complete or fail,
+     * or until their receivers disconnect. Events published while a
+     * connection is being written to are sent together when the event loop
+     * of that connection becomes available, and no more events are
+     * requested while the connection cannot accept more data. Connections
+     * are not closed due to idling while sending event streams, unless
+     * their receivers stop accepting data. Receivers are expected to
+     * reconnect if their connections are closed, such as when this service
+     * is dismissed.
+     *
+     * @param path    Path pattern to match.
+     * @param handler Handler to invoke with matching requests.
+     * @return This service.
+     * @see #route(HttpRoute)
+     * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">HTML Living Standard, Server-Sent Events</a>
+     */
+    public HttpService eventStream(final String path, final HttpEventStreamHandler handler) {
+        Objects.requireNonNull(handler, "Expected handler");
+        return route(HttpMethod.GET, path, (request, response) -> handler.handle(request, response)
+            .map(publisher -> {
+                if (publisher != null) {
+                    response
+                        .status(HttpStatus.OK)
+                        .header("content-type", "text/event-stream; charset=utf-8")
+                        .header("cache-control", "no-cache")
+                        .body(new HttpEventStreamPublisher(publisher));
+                }
+                return null;
+            }));
+    }
+
     /**
      * Adds incoming HTTP request route to this service.
      * <p>
@@ -309,6 +685,7 @@ public final class HttpService implements ArService {
      * @see #connect(String, HttpRouteHandler) CONNECT
      * @see #patch(String, HttpRouteHandler) PATCH
      * @see #trace(String, HttpRouteHandler) TRACE
+     * @see #eventStream(String, HttpEventStreamHandler) Event stream
      */
     public HttpService route(final HttpRoute route) {
         routes.add(route);
@@ -827,6 +1204,130 @@ public final class HttpService implements ArService {
         return version;
     }
 
+    /**
+     * @return Currently set maximum request URI length.
+     * @see #maxUriLength(int)
+     */
+    public int maxUriLength() {
+        return maxUriLength;
+    }
+
+    /**
+     * @return Currently set maximum request header size, in bytes.
+     * @see #maxHeaderSize(int)
+     */
+    public int maxHeaderSize() {
+        return maxHeaderSize;
+    }
+
+    /**
+     * @return Currently set maximum request body size, in bytes, or 0 if
+     * unlimited.
+     * @see #maxBodySize(long)
+     */
+    public long maxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * @return {@code true} only if response compression is enabled.
+     * @see #responseCompression(boolean)
+     */
+    public boolean isResponseCompressionEnabled() {
+        return isResponseCompressionEnabled;
+    }
+
+    /**
+     * @return Currently set minimum size of compressed response bodies, in
+     * bytes.
+     * @see #responseCompressionMinSize(int)
+     */
+    public int responseCompressionMinSize() {
+        return responseCompressionMinSize;
+    }
+
+    /**
+     * @return Unmodifiable list of media types of response bodies allowed to
+     * be compressed.
+     * @see #responseCompressionMediaTypes(String...)
+     */
+    public List<String> responseCompressionMediaTypes() {
+        return responseCompressionMediaTypes;
+    }
+
+    /**
+     * @return Currently set maximum number of concurrent requests.
+     * @see #maxConcurrentRequests(int)
+     */
+    public int maxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * @return {@code true} only if adaptive concurrency limiting is enabled.
+     * @see #adaptiveConcurrencyLimit(boolean)
+     */
+    public boolean isConcurrencyLimitAdaptive() {
+        return isConcurrencyLimitAdaptive;
+    }
+
+    /**
+     * @return Currently set or default number of concurrent requests reserved
+     * for reserved consumers.
+     * @see #reservedConcurrentRequests(int)
+     */
+    public int reservedConcurrentRequests() {
+        if (reservedConcurrentRequests != null) {
+            return reservedConcurrentRequests;
+        }
+        return maxConcurrentRequests == Integer.MAX_VALUE
+            ? 0
+            : Math.max(1, maxConcurrentRequests / 10);
+    }
+
+    /**
+     * @return Unmodifiable set of names of consumer systems allowed to use
+     * reserved capacity.
+     * @see #reservedConsumers(String...)
+     */
+    public Set<String> reservedConsumers() {
+        return reservedConsumers;
+    }
+
+    /**
+     * @return Currently set duration after which to retry requests rejected
+     * due to the concurrency limit being reached.
+     * @see #overloadRetryAfter(Duration)
+     */
+    public Duration overloadRetryAfter() {
+        return overloadRetryAfter;
+    }
+
+    /**
+     * @return Currently set idle timeout of HTTP/1.1 connections, if any.
+     * @see #idleTimeout(Duration)
+     */
+    public Optional<Duration> idleTimeout() {
+        return Optional.ofNullable(idleTimeout);
+    }
+
+    /**
+     * @return Currently set maximum number of requests per HTTP/1.1
+     * connection.
+     * @see #maxRequestsPerConnection(int)
+     */
+    public int maxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    /**
+     * @return Currently set route metrics collector, if any.
+     * @see #metrics(HttpServiceMetrics)
+     */
+    public Optional<HttpServiceMetrics> metrics() {
+        return Optional.ofNullable(metrics);
+    }
+
     /**
      * @return Unmodifiable list of all currently set {@link HttpRoute routes}.
      * @see #route(HttpRoute)
@@ -0,0 +1,206 @@
+package se.arkalix.net.http.service;
+
+import se.arkalix.dto.json.value.*;
+import se.arkalix.internal.net.http.service.HttpRouteMetrics;
+import se.arkalix.internal.net.http.service.HttpRouteMetricsRegistry;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.util.annotation.Internal;
+import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
+
+import java.util.ArrayList;
+
+import static se.arkalix.descriptor.EncodingDescriptor.JSON;
+
+/**
+ * Collects request counters and latency histograms for the {@link HttpRoute
+ * routes} of the {@link HttpService services} it is {@link
+ * HttpService#metrics(HttpServiceMetrics) assigned} to.
+ * <p>
+ * For every route, the number of handled requests, the number of responses
+ * of each status class, the number of requests causing exceptions not
+ * handled by any {@link HttpCatcher catcher}, as well as the latencies of
+ * all handled requests are recorded. Latencies are measured from when a
+ * matching route is found for a request to when its filters, route and
+ * catchers have finished handling it, with a resolution of one microsecond.
+ * Recording is lock-free and does not make the event loop threads handling
+ * requests contend with each other.
+ * <p>
+ * Collected metrics can be read as JSON or in the <a
+ * href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus
+ * text format</a>, either directly via this class or via a {@link
+ * #service() metrics service}, as in the following example:
+ * <pre>
+ *     final var metrics = new HttpServiceMetrics();
+ *
+ *     system.provide(new HttpService()
+ *         .name("kalix-example-service")
+ *         .metrics(metrics)
+ *         ...);
+ *
+ *     system.provide(metrics.service()
+ *         .accessPolicy(AccessPolicy.whitelist("monitor")));
+ * </pre>
+ */
+public final class HttpServiceMetrics {
+    private static final double[] PERCENTILES = new double[]{50.0, 90.0, 99.0, 99.9};
+    private static final String[] PERCENTILE_NAMES = new String[]{"p50", "p90", "p99", "p999"};
+    private static final String[] QUANTILE_NAMES = new String[]{"0.5", "0.9", "0.99", "0.999"};
+
+    private final HttpRouteMetricsRegistry registry = new HttpRouteMetricsRegistry();
+
+    /**
+     * <i>Internal API</i>. Might change in breaking ways between patch
+     * versions of the Kalix library. Use is not advised.
+     */
+    @Internal
+    public HttpRouteMetricsRegistry unwrap() {
+        return registry;
+    }
+
+    /**
+     * Creates new service that responds to GET requests with the metrics
+     * collected by this object.
+     * <p>
+     * The service is named "http-metrics", has the base path "/metrics" and
+     * uses the JSON encoding. Metrics are sent in the Prometheus text format
+     * if the "format" query parameter is "prometheus" or the request accepts
+     * "text/plain" but not "application/json", and as JSON otherwise. An
+     * {@link HttpService#accessPolicy(se.arkalix.security.access.AccessPolicy)
+     * access policy} must be set before the service can be provided. The
+     * name and base path of the service may also be changed.
+     *
+     * @return New metrics service.
+     */
+    public HttpService service() {
+        return new HttpService()
+            .name("http-metrics")
+            .basePath("/metrics")
+            .encodings(JSON)
+            .get("/", (request, response) -> {
+                final var format = request.queryParameter("format").orElse(null);
+                final var accept = String.join(",", request.headers().getAll("accept"));
+                if ("prometheus".equalsIgnoreCase(format) || format == null &&
+                    accept.contains("text/plain") && !accept.contains("application/json"))
+                {
+                    response
+                        .status(HttpStatus.OK)
+                        .header("content-type", "text/plain; version=0.0.4; charset=utf-8")
+                        .body(toPrometheusText());
+                }
+                else {
+                    response
+                        .status(HttpStatus.OK)
+                        .body(toJson());
+                }
+                return Future.done();
+            });
+    }
+
+    /**
+     * Creates JSON representation of all metrics currently collected by this
+     * object. All latencies are in microseconds.
+     *
+     * @return JSON object.
+     */
+    @ThreadSafe
+    public JsonObject toJson() {
+        final var routes = registry.routes();
+        final var routesJson = new ArrayList<JsonValue>(routes.size());
+        for (final var route : routes) {
+            final var snapshot = route.snapshot();
+
+            final var latency = new ArrayList<JsonPair>(PERCENTILES.length + 3);
+            latency.add(new JsonPair("mean", new JsonNumber(snapshot.count() > 0
+                ? snapshot.sumMicros() / snapshot.count()
+                : 0L)));
+            for (var i = 0; i < PERCENTILES.length; ++i) {
+                latency.add(new JsonPair(PERCENTILE_NAMES[i], new JsonNumber(snapshot.percentileMicros(PERCENTILES[i]))));
+            }
+            latency.add(new JsonPair("max", new JsonNumber(snapshot.maxMicros())));
+            latency.add(new JsonPair("sum", new JsonNumber(snapshot.sumMicros())));
+
+            final var statuses = new ArrayList<JsonPair>(5);
+            for (var statusClass = 1; statusClass <= 5; ++statusClass) {
+                statuses.add(new JsonPair(statusClass + "xx", new JsonNumber(snapshot.countOf(statusClass))));
+            }
+
+            routesJson.add(new JsonObject(
+                new JsonPair("service", new JsonString(route.service())),
+                new JsonPair("method", route.method() != null ? new JsonString(route.method()) : JsonNull.instance),
+                new JsonPair("pattern", route.pattern() != null ? new JsonString(route.pattern()) : JsonNull.instance),
+                new JsonPair("requests", new JsonNumber(snapshot.count())),
+                new JsonPair("errors", new JsonNumber(snapshot.errors())),
+                new JsonPair("statuses", new JsonObject(statuses)),
+                new JsonPair("latency", new JsonObject(latency))));
+        }
+        return new JsonObject(new JsonPair("routes", new JsonArray(routesJson)));
+    }
+
+    /**
+     * Creates Prometheus text representation of all metrics currently
+     * collected by this object. Each route is identified by the labels
+     * "service", "method" and "route", the latter two of which are "*" if
+     * any method or path is matched. Latencies are reported in seconds as
+     * summaries.
+     *
+     * @return Prometheus text.
+     * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus Exposition Formats</a>
+     */
+    @ThreadSafe
+    public String toPrometheusText() {
+        final var routes = registry.routes();
+        final var snapshots = new ArrayList<HttpRouteMetrics.Snapshot>(routes.size());
+        final var labels = new ArrayList<String>(routes.size());
+        for (final var route : routes) {
+            snapshots.add(route.snapshot());
+            labels.add("service=\"" + escape(route.service()) +
+                "\",method=\"" + escape(route.method() != null ? route.method() : "*") +
+                "\",route=\"" + escape(route.pattern() != null ? route.pattern() : "*") + "\"");
+        }
+
+        final var builder = new StringBuilder();
+
+        builder.append("# HELP kalix_http_requests_total Number of handled HTTP requests.\n")
+            .append("# TYPE kalix_http_requests_total counter\n");
+        for (var i = 0; i < snapshots.size(); ++i) {
+            for (var statusClass = 1; statusClass <= 5; ++statusClass) {
+                builder.append("kalix_http_requests_total{").append(labels.get(i))
+                    .append(",status_class=\"").append(statusClass).append("xx\"} ")
+                    .append(snapshots.get(i).countOf(statusClass)).append('\n');
+            }
+        }
+
+        builder.append("# HELP kalix_http_request_errors_total Number of HTTP requests causing unhandled exceptions.\n")
+            .append("# TYPE kalix_http_request_errors_total counter\n");
+        for (var i = 0; i < snapshots.size(); ++i) {
+            builder.append("kalix_http_request_errors_total{").append(labels.get(i)).append("} ")
+                .append(snapshots.get(i).errors()).append('\n');
+        }
+
+        builder.append("# HELP kalix_http_request_duration_seconds Time taken to handle HTTP requests.\n")
+            .append("# TYPE kalix_http_request_duration_seconds summary\n");
+        for (var i = 0; i < snapshots.size(); ++i) {
+            final var snapshot = snapshots.get(i);
+            final var label = labels.get(i);
+            for (var j = 0; j < PERCENTILES.length; ++j) {
+                builder.append("kalix_http_request_duration_seconds{").append(label)
+                    .append(",quantile=\"").append(QUANTILE_NAMES[j]).append("\"} ")
+                    .append(snapshot.percentileMicros(PERCENTILES[j]) / 1e6).append('\n');
+            }
+            builder.append("kalix_http_request_duration_seconds_sum{").append(label).append("} ")
+                .append(snapshot.sumMicros() / 1e6).append('\n')
+                .append("kalix_http_request_duration_seconds_count{").append(label).append("} ")
+                .append(snapshot.count()).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String escape(final String value) {
+        return value
+            .replace("\\", "\\\\")
+            .replace("\"", "\\\"")
+            .replace("\n", "\\n");
+    }
+}
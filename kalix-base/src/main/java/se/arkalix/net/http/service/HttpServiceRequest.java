@@ -38,6 +38,9 @@ public interface HttpServiceRequest extends HttpIncomingRequest<HttpServiceReque
     }
 
     default HttpServiceRequest cloneAndSet(final List<String> pathParameters) {
+        if (pathParameters.isEmpty() && pathParameters().isEmpty()) {
+            return this;
+        }
         final var self = this;
         return new HttpServiceRequest() {
             @Override
@@ -1,11 +1,80 @@
 package se.arkalix.net.http.service;
 
+import se.arkalix.dto.DtoEncoding;
+import se.arkalix.dto.DtoWritable;
 import se.arkalix.net.MessageOutgoingWithImplicitEncoding;
 import se.arkalix.net.http.HttpOutgoingResponse;
 
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+
 /**
  * An outgoing HTTP response, to be sent by an {@link HttpService}.
  */
 public interface HttpServiceResponse
     extends HttpOutgoingResponse<HttpServiceResponse>, MessageOutgoingWithImplicitEncoding<HttpServiceResponse>
-{}
+{
+    /**
+     * Sets outgoing response body, replacing any previously set such.
+     * <p>
+     * The provided publisher is subscribed to when the response is about to
+     * be sent, after which its buffers are sent to the response receiver as
+     * they are published. Buffers are only requested from the publisher while
+     * the connection of the response is able to accept more data, which means
+     * that slow receivers cause less buffers to be requested. As the length
+     * of the body is not known in advance, it is sent using chunked transfer
+     * encoding, or as a sequence of data frames if HTTP/2 is used. If the
+     * publisher fails, the connection of the response is closed.
+     * <p>
+     * Published buffers must not be modified after being published. It
+     * becomes the responsibility of the caller to ensure that the response
+     * receiver knows how to interpret the body.
+     *
+     * @param publisher Publisher of buffers to send to response receiver.
+     * @return This response.
+     * @throws NullPointerException If {@code publisher} is {@code null}.
+     */
+    HttpServiceResponse body(final Flow.Publisher<ByteBuffer> publisher);
+
+    /**
+     * Sets outgoing response body, replacing any previously set such.
+     * <p>
+     * The elements of the provided iterator are encoded and sent to the
+     * response receiver as a list, one chunk of elements at a time, which
+     * means that a list of any size can be sent without all of its elements
+     * being in memory at once. As the length of the body is not known in
+     * advance, it is sent using chunked transfer encoding, or as a sequence
+     * of data frames if HTTP/2 is used.
+     * <p>
+     * The iterator is consumed by the thread sending the response, which
+     * means that it must never block.
+     *
+     * @param encoding Encoding to use when encoding the elements of {@code
+     *                 iterator}, or {@code null} if an attempt is to be made
+     *                 to resolve the encoding automatically.
+     * @param iterator Iterator of data transfer objects to send to response
+     *                 receiver.
+     * @return This response.
+     * @throws NullPointerException If {@code iterator} is {@code null}.
+     * @see se.arkalix.dto.DtoWritableAs @DtoWritableAs
+     */
+    HttpServiceResponse body(final DtoEncoding encoding, final Iterator<? extends DtoWritable> iterator);
+
+    /**
+     * Sets outgoing response body, replacing any previously set such.
+     * <p>
+     * The elements of the provided iterator are encoded and sent to the
+     * response receiver as a list, one chunk of elements at a time, using the
+     * encoding automatically resolved for the response.
+     *
+     * @param iterator Iterator of data transfer objects to send to response
+     *                 receiver.
+     * @return This response.
+     * @throws NullPointerException If {@code iterator} is {@code null}.
+     * @see #body(DtoEncoding, Iterator)
+     */
+    default HttpServiceResponse body(final Iterator<? extends DtoWritable> iterator) {
+        return body(null, iterator);
+    }
+}
@@ -38,4 +38,9 @@ public class AccessByCloudCertificate implements AccessPolicy {
 
         return Objects.equals(consumer.identity().cloud(), provider.identity().cloud());
     }
+
+    @Override
+    public boolean isIdentityCacheable() {
+        return true;
+    }
 }
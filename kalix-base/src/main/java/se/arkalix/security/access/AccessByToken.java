@@ -5,7 +5,10 @@ import se.arkalix.description.SystemIdentityDescription;
 import se.arkalix.description.ServiceDescription;
 import se.arkalix.descriptor.SecurityDescriptor;
 import se.arkalix.internal.security.access.AccessToken;
+import se.arkalix.internal.security.access.AccessTokenCache;
+import se.arkalix.internal.util.concurrent.CryptoExecutor;
 import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
 
 import java.security.PublicKey;
 import java.util.Objects;
@@ -27,11 +30,25 @@ import java.util.concurrent.atomic.AtomicReference;
  * system key is set or replaced using the {@link #authorizationKey(PublicKey)}
  * method.
  * <p>
+ * Verified tokens are cached until they expire, which means that consumers
+ * presenting the same token with every request only have it decrypted and
+ * its signature checked once. At most 1024 tokens are cached at any one
+ * time, and all of them are forgotten whenever the authorization system key
+ * is {@link #authorizationKey(PublicKey) replaced}. When {@link
+ * #isAuthorizedAsync(SystemIdentityDescription, ArSystem, ServiceDescription,
+ * String) authorizing asynchronously}, tokens not already cached are
+ * verified by a small pool of threads dedicated to cryptographic operations,
+ * which means that the thread requesting authorization is not blocked while
+ * they are being verified.
+ * <p>
  * Note that access policy instances of this type can be shared by multiple
  * services.
  */
 public class AccessByToken implements AccessPolicy {
+    private static final int MAX_CACHED_TOKENS = 1024;
+
     private final AtomicReference<PublicKey> authorizationKey;
+    private final AccessTokenCache tokenCache = new AccessTokenCache(MAX_CACHED_TOKENS);
 
     /**
      * Creates new certificate and token access policy without an authorization
@@ -71,6 +88,25 @@ public class AccessByToken implements AccessPolicy {
     @ThreadSafe
     public void authorizationKey(final PublicKey authorizationKey) {
         this.authorizationKey.set(authorizationKey);
+        tokenCache.clear();
+    }
+
+    /**
+     * @return Number of times a presented token was found among the verified
+     * tokens cached by this access policy.
+     */
+    @ThreadSafe
+    public long tokenCacheHits() {
+        return tokenCache.hits();
+    }
+
+    /**
+     * @return Number of times a presented token was not cached by this access
+     * policy, and therefore had to be verified.
+     */
+    @ThreadSafe
+    public long tokenCacheMisses() {
+        return tokenCache.misses();
     }
 
     @Override
@@ -99,12 +135,46 @@ public class AccessByToken implements AccessPolicy {
         }
 
         final var receiverKey = provider.identity().privateKey();
-        final var token0 = AccessToken.read(token, receiverKey, senderKey);
+        return isPermitted(consumer, service, tokenCache.read(token, receiverKey, senderKey));
+    }
+
+    @Override
+    public Future<Boolean> isAuthorizedAsync(
+        final SystemIdentityDescription consumer,
+        final ArSystem provider,
+        final ServiceDescription service,
+        final String token)
+    {
+        Objects.requireNonNull(consumer, "Expected consumer");
+        Objects.requireNonNull(service, "Expected service");
+
+        if (token == null) {
+            return Future.success(false);
+        }
+
+        final var senderKey = authorizationKey.get();
+        if (senderKey == null) {
+            return Future.failure(new IllegalStateException("Cannot verify token; no authorization key is available"));
+        }
+
+        final var receiverKey = provider.identity().privateKey();
+        final var token0 = tokenCache.getIfPresent(token, receiverKey, senderKey);
+        if (token0 != null) {
+            return Future.success(isPermitted(consumer, service, token0));
+        }
+        return CryptoExecutor.submit(() ->
+            isPermitted(consumer, service, tokenCache.verify(token, receiverKey, senderKey)));
+    }
 
-        final var cid = token0.cid();
+    private static boolean isPermitted(
+        final SystemIdentityDescription consumer,
+        final ServiceDescription service,
+        final AccessToken token)
+    {
+        final var cid = token.cid();
         final var cn = consumer.identity().commonName();
         return cn.startsWith(cid) && cn.charAt(cid.length()) == '.' &&
-            Objects.equals(token0.sid(), service.name()) &&
-            service.interfaces().contains(token0.iid());
+            Objects.equals(token.sid(), service.name()) &&
+            service.interfaces().contains(token.iid());
     }
 }
@@ -6,6 +6,7 @@ import se.arkalix.description.SystemIdentityDescription;
 import se.arkalix.descriptor.SecurityDescriptor;
 import se.arkalix.security.identity.SystemIdentity;
 import se.arkalix.util.annotation.ThreadSafe;
+import se.arkalix.util.concurrent.Future;
 
 import java.security.PublicKey;
 import java.util.Collection;
@@ -51,6 +52,67 @@ public interface AccessPolicy {
     )
         throws AccessTokenException;
 
+    /**
+     * Determines whether or not the described {@code system} may consume the
+     * described {@code service} using the given access {@code token}, if any,
+     * without blocking the calling thread for any significant amount of time.
+     * <p>
+     * Policies whose decisions require expensive computations, such as the
+     * decryption and verification of access tokens, should perform them via
+     * some other thread than the one calling this method, as that thread may
+     * be responsible for handling the network I/O of many other consumers.
+     * The returned {@code Future} may be completed by any thread. Policies
+     * able to make their decisions right away should return already
+     * completed {@code Future}s, which is what this default implementation
+     * does by calling {@link #isAuthorized(SystemIdentityDescription,
+     * ArSystem, ServiceDescription, String)}.
+     *
+     * @param consumer Description of system attempting to consume the
+     *                 {@code service} in question.
+     * @param provider The system providing the consumed {@code service}.
+     * @param service  Description of service that the {@code consumer}
+     *                 attempts to consume.
+     * @param token    Access token presented by the {@code consumer}, if any.
+     * @return Future completed with {@code true} only if {@code consumer} is
+     * permitted to consume {@code service}, or with an {@link
+     * AccessTokenException} if {@code token} is invalid.
+     */
+    @ThreadSafe
+    default Future<Boolean> isAuthorizedAsync(
+        final SystemIdentityDescription consumer,
+        final ArSystem provider,
+        final ServiceDescription service,
+        final String token)
+    {
+        try {
+            return Future.success(isAuthorized(consumer, provider, service, token));
+        }
+        catch (final Throwable throwable) {
+            return Future.failure(throwable);
+        }
+    }
+
+    /**
+     * Determines whether or not the decisions of this policy depend only on
+     * the identities of consumers and the services they attempt to consume.
+     * <p>
+     * The identity of a consumer cannot change during the lifetime of its
+     * connection. The decisions of identity-cacheable policies may therefore
+     * be remembered and reused for every request of the same connection and
+     * service, rather than being made anew for each request. Policies whose
+     * decisions depend on access tokens, on any other request data or on
+     * modifiable state, such as white-lists, must not claim to be
+     * identity-cacheable.
+     *
+     * @return {@code true} only if the decisions of this policy may be
+     * remembered for the lifetimes of consumer connections. Defaults to
+     * {@code false}.
+     */
+    @ThreadSafe
+    default boolean isIdentityCacheable() {
+        return false;
+    }
+
     /**
      * @return Access policy granting access to all consumers belong to the
      * same local cloud as the provider of the service being consumed.
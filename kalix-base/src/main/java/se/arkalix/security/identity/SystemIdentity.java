@@ -1,6 +1,7 @@
 package se.arkalix.security.identity;
 
 import se.arkalix.internal.net.dns.DnsNames;
+import se.arkalix.internal.security.identity.X509ChainCache;
 import se.arkalix.internal.security.identity.X509Names;
 
 import java.security.cert.Certificate;
@@ -20,6 +21,8 @@ import java.util.Optional;
  */
 @SuppressWarnings("unused")
 public class SystemIdentity extends TrustedIdentity {
+    private static final X509ChainCache<SystemIdentity> cache = new X509ChainCache<>(4096);
+
     private final String systemName;
     private final String cloudName;
     private final String companyName;
@@ -162,6 +165,12 @@ public class SystemIdentity extends TrustedIdentity {
      * constructor completes successfully, the system certificate has been
      * verified to contain a correct Arrowhead system name. The cloud
      * certificate is ensured to be present, but not valid.
+     * <p>
+     * The identities created by this method are remembered, each associated
+     * with the chain it was created from. When given a chain equal to one
+     * already remembered, the same identity instance is returned again,
+     * rather than the chain being parsed anew. At most 4096 identities are
+     * remembered at any given time.
      *
      * @param chain x.509 certificate chain belonging to an Arrowhead system.
      * @return System identity only if given {@code chain} satisfies all
@@ -186,10 +195,14 @@ public class SystemIdentity extends TrustedIdentity {
             return Optional.empty();
         }
 
-        final var dn = x509Chain[0].getSubjectX500Principal().getName();
+        return Optional.ofNullable(cache.getOrDerive(x509Chain, SystemIdentity::parse));
+    }
+
+    private static SystemIdentity parse(final X509Certificate[] chain) {
+        final var dn = chain[0].getSubjectX500Principal().getName();
         final var cn = X509Names.commonNameOf(dn);
         if (cn.isEmpty()) {
-            return Optional.empty();
+            return null;
         }
 
         final List<String> names;
@@ -197,14 +210,14 @@ public class SystemIdentity extends TrustedIdentity {
             names = DnsNames.splitName(cn.get(), 4);
         }
         catch (final IllegalArgumentException ignored) {
-            return Optional.empty();
+            return null;
         }
 
         if (names.size() != 4) {
-            return Optional.empty();
+            return null;
         }
 
-        return Optional.of(new SystemIdentity(x509Chain, names.toArray(new String[0])));
+        return new SystemIdentity(chain, names.toArray(new String[0]));
     }
 
     private SystemIdentity(final X509Certificate[] chain, final String[] names) {
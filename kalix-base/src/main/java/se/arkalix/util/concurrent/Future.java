@@ -204,6 +204,24 @@ public interface Future<V> {
         cancel(false);
     }
 
+    /**
+     * Gets result of this {@code Future} right away, if it is known to be
+     * available already, or returns {@code null} otherwise.
+     * <p>
+     * This method never blocks and has no effect on any function set via
+     * {@link #onResult(Consumer)}. It is useful for avoiding the cost of
+     * registering continuations on {@code Future}s that were completed when
+     * created, such as those returned by {@link #done()}, {@link
+     * #success(Object)}, {@link #failure(Throwable)} and {@link #of(Result)}.
+     * Implementations are free to always return {@code null}, which is what
+     * the default implementation does.
+     *
+     * @return Result of this {@code Future}, or {@code null}.
+     */
+    default Result<V> resultIfCompleted() {
+        return null;
+    }
+
     /**
      * Sets function to receive result of this {@code Future} only if its
      * operation fails. Successful results are ignored.
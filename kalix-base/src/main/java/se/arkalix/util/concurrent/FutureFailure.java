@@ -27,6 +27,11 @@ class FutureFailure<V> implements FutureProgress<V> {
         this.fault = Objects.requireNonNull(fault);
     }
 
+    @Override
+    public Result<V> resultIfCompleted() {
+        return Result.failure(fault);
+    }
+
     @Override
     public void onResult(final Consumer<Result<V>> consumer) {
         Objects.requireNonNull(consumer, "Expected consumer");
@@ -27,6 +27,11 @@ class FutureResult<V> implements FutureProgress<V> {
         this.result = result;
     }
 
+    @Override
+    public Result<V> resultIfCompleted() {
+        return result;
+    }
+
     @Override
     public void onResult(final Consumer<Result<V>> consumer) {
         Objects.requireNonNull(consumer, "Expected consumer");
@@ -19,6 +19,10 @@ class FutureSuccess<V> implements FutureProgress<V> {
 
     private final V value;
 
+    // Results are immutable, which is why concurrent threads creating and
+    // assigning a result each is harmless.
+    private Result<V> result = null;
+
     /**
      * Creates new successful {@link Future}.
      *
@@ -28,10 +32,20 @@ class FutureSuccess<V> implements FutureProgress<V> {
         this.value = value;
     }
 
+    @Override
+    public Result<V> resultIfCompleted() {
+        var result = this.result;
+        if (result == null) {
+            result = Result.success(value);
+            this.result = result;
+        }
+        return result;
+    }
+
     @Override
     public void onResult(final Consumer<Result<V>> consumer) {
         Objects.requireNonNull(consumer, "Expected consumer");
-        consumer.accept(Result.success(value));
+        consumer.accept(resultIfCompleted());
     }
 
     @Override
@@ -74,7 +88,7 @@ class FutureSuccess<V> implements FutureProgress<V> {
     public Future<V> always(final ThrowingConsumer<Result<V>> consumer) {
         Objects.requireNonNull(consumer, "Expected consumer");
         try {
-            consumer.accept(Result.success(value));
+            consumer.accept(resultIfCompleted());
         }
         catch (final Throwable throwable) {
             return Future.failure(throwable);
@@ -117,7 +131,7 @@ class FutureSuccess<V> implements FutureProgress<V> {
     public <U> Future<U> mapResult(final ThrowingFunction<Result<V>, Result<U>> mapper) {
         Objects.requireNonNull(mapper, "Expected mapper");
         try {
-            return new FutureResult<>(mapper.apply(Result.success(value)));
+            return new FutureResult<>(mapper.apply(resultIfCompleted()));
         }
         catch (final Throwable throwable) {
             return Future.failure(throwable);
@@ -171,7 +185,7 @@ class FutureSuccess<V> implements FutureProgress<V> {
     public <U> Future<U> flatMapResult(final ThrowingFunction<Result<V>, ? extends Future<U>> mapper) {
         Objects.requireNonNull(mapper, "Expected mapper");
         try {
-            return mapper.apply(Result.success(value));
+            return mapper.apply(resultIfCompleted());
         }
         catch (final Throwable throwable) {
             return Future.failure(throwable);
@@ -235,7 +249,7 @@ class FutureSuccess<V> implements FutureProgress<V> {
             @Override
             public void onResult(final Consumer<Result<V>> consumer) {
                 cancelTarget = Schedulers.fixed()
-                    .schedule(duration, () -> consumer.accept(Result.success(value)));
+                    .schedule(duration, () -> consumer.accept(resultIfCompleted()));
             }
 
             @Override
@@ -257,7 +271,7 @@ class FutureSuccess<V> implements FutureProgress<V> {
             @Override
             public void onResult(final Consumer<Result<V>> consumer) {
                 final var duration = Duration.between(baseline, Instant.now());
-                final var result = Result.success(value);
+                final var result = resultIfCompleted();
                 if (duration.isNegative() || duration.isZero()) {
                     consumer.accept(result);
                 }
@@ -53,4 +53,20 @@ public class TestJsonWriter {
                 new JsonArray(JsonBoolean.TRUE)))
         );
     }
+
+    @ParameterizedTest
+    @MethodSource("manyObjectsToWrite")
+    void shouldWriteManyIncrementally(final String expected, final List<? extends JsonWritable> input)
+        throws DtoWriteException
+    {
+        final var writer = new ByteArrayWriter(new byte[expected.getBytes(StandardCharsets.UTF_8).length]);
+        final var jsonWriter = JSON.writer();
+        jsonWriter.writeManyBegin(writer);
+        for (var i = 0; i < input.size(); ++i) {
+            jsonWriter.writeManyElement(i, input.get(i), writer);
+        }
+        jsonWriter.writeManyEnd(writer);
+
+        assertEquals(expected, new String(writer.asByteArray(), StandardCharsets.UTF_8));
+    }
 }
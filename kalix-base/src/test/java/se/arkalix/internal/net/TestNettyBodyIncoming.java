@@ -0,0 +1,127 @@
+package se.arkalix.internal.net;
+
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import se.arkalix.util.Result;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNettyBodyIncoming {
+    @Test
+    void shouldWriteBodyToFile() throws Exception {
+        final var path = Files.createTempFile("kalix-", ".txt");
+        try {
+            final var tasks = new LinkedBlockingQueue<Runnable>();
+            final var body = new NettyBodyIncoming.To(path, false, 0, tasks::add);
+            final var result = new AtomicReference<Result<Path>>();
+            body.onResult(result::set);
+
+            body.append(Unpooled.copiedBuffer("Hello, ", StandardCharsets.UTF_8));
+            body.append(Unpooled.copiedBuffer("World!", StandardCharsets.UTF_8));
+            body.finish();
+            runUntilCompleted(tasks, result);
+
+            assertTrue(result.get().isSuccess());
+            assertEquals(path, result.get().value());
+            assertEquals("Hello, World!", Files.readString(path));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void shouldAppendBodyToFileIfRequested() throws Exception {
+        final var path = Files.createTempFile("kalix-", ".txt");
+        try {
+            Files.writeString(path, "Hello, ");
+            final var tasks = new LinkedBlockingQueue<Runnable>();
+            final var body = new NettyBodyIncoming.To(path, true, 0, tasks::add);
+            final var result = new AtomicReference<Result<Path>>();
+            body.onResult(result::set);
+
+            body.append(Unpooled.copiedBuffer("World!", StandardCharsets.UTF_8));
+            body.finish();
+            runUntilCompleted(tasks, result);
+
+            assertTrue(result.get().isSuccess());
+            assertEquals("Hello, World!", Files.readString(path));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void shouldReportBacklogUntilWritesCatchUp() throws Exception {
+        final var path = Files.createTempFile("kalix-", ".bin");
+        try {
+            final var tasks = new LinkedBlockingQueue<Runnable>();
+            final var body = new NettyBodyIncoming.To(path, false, 0, tasks::add);
+            final var backlogChanges = new ArrayList<Boolean>();
+            body.onBacklogChanged(backlogChanges::add);
+            final var result = new AtomicReference<Result<Path>>();
+            body.onResult(result::set);
+
+            // Completed writes are only reported when the tasks are run, which
+            // means that all appended content remains backlogged until then.
+            final var chunk = new byte[64 * 1024];
+            for (var i = 0; i < 16; ++i) {
+                chunk[0] = (byte) i;
+                body.append(Unpooled.copiedBuffer(chunk));
+            }
+            assertEquals(List.of(true), backlogChanges);
+
+            body.finish();
+            runUntilCompleted(tasks, result);
+
+            assertEquals(List.of(true, false), backlogChanges);
+            assertTrue(result.get().isSuccess());
+            final var bytes = Files.readAllBytes(path);
+            assertEquals(16 * chunk.length, bytes.length);
+            for (var i = 0; i < 16; ++i) {
+                assertEquals((byte) i, bytes[i * chunk.length]);
+            }
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void shouldFailIfFileCannotBeOpened() throws Exception {
+        final var directory = Files.createTempDirectory("kalix-");
+        try {
+            final var body = new NettyBodyIncoming.To(directory, false, 0, Runnable::run);
+            final var result = new AtomicReference<Result<Path>>();
+            body.onResult(result::set);
+
+            assertNotNull(result.get());
+            assertFalse(result.get().isSuccess());
+        }
+        finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void runUntilCompleted(
+        final BlockingQueue<Runnable> tasks,
+        final AtomicReference<Result<Path>> result
+    ) throws InterruptedException {
+        while (result.get() == null) {
+            final var task = tasks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(task, "Timed out waiting for write to complete");
+            task.run();
+        }
+    }
+}
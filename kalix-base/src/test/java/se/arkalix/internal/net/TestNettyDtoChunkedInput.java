@@ -0,0 +1,163 @@
+package se.arkalix.internal.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import se.arkalix.dto.DtoEncoding;
+import se.arkalix.dto.DtoWritable;
+import se.arkalix.dto.DtoWriteException;
+import se.arkalix.dto.DtoWriter;
+import se.arkalix.dto.binary.BinaryWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNettyDtoChunkedInput {
+    private static final ByteBufAllocator alloc = UnpooledByteBufAllocator.DEFAULT;
+
+    @Test
+    void shouldEncodeEmptyIterator() throws Exception {
+        final var input = new NettyDtoChunkedInput(new TestWriter(), Collections.<Item>emptyIterator());
+
+        assertFalse(input.isEndOfInput());
+        assertEquals("[]", readAndRelease(input.readChunk(alloc)));
+        assertTrue(input.isEndOfInput());
+        assertNull(input.readChunk(alloc));
+        assertEquals(2, input.progress());
+    }
+
+    @Test
+    void shouldEncodeElementsInChunks() throws Exception {
+        final var items = IntStream.range(0, 40)
+            .mapToObj(i -> new Item("x".repeat(999)))
+            .collect(Collectors.toList());
+        final var input = new NettyDtoChunkedInput(new TestWriter(), items.iterator());
+
+        final var builder = new StringBuilder();
+        var chunkCount = 0;
+        while (!input.isEndOfInput()) {
+            builder.append(readAndRelease(input.readChunk(alloc)));
+            chunkCount += 1;
+        }
+        assertEquals(encode(items), builder.toString());
+        assertEquals(builder.length(), input.progress());
+        assertTrue(chunkCount > 1);
+    }
+
+    @Test
+    void shouldOnlyTakeElementsWhenChunksAreRead() throws Exception {
+        final var iterator = new CountingIterator(List.of(new Item("a"), new Item("b")).iterator());
+        final var input = new NettyDtoChunkedInput(new TestWriter(), iterator);
+
+        assertEquals(0, iterator.count);
+        assertEquals("[a,b]", readAndRelease(input.readChunk(alloc)));
+        assertEquals(2, iterator.count);
+    }
+
+    @Test
+    void shouldThrowIfWriterFails() {
+        final var items = List.of(new Item("a"), new Item("fail"), new Item("c"));
+        final var input = new NettyDtoChunkedInput(new TestWriter(), items.iterator());
+
+        assertThrows(DtoWriteException.class, () -> input.readChunk(alloc));
+    }
+
+    @Test
+    void shouldEndInputWhenClosed() throws Exception {
+        final var iterator = new CountingIterator(List.of(new Item("a")).iterator());
+        final var input = new NettyDtoChunkedInput(new TestWriter(), iterator);
+
+        input.close();
+        assertTrue(input.isEndOfInput());
+        assertNull(input.readChunk(alloc));
+        assertEquals(0, iterator.count);
+    }
+
+    private static String readAndRelease(final ByteBuf buffer) {
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+        finally {
+            buffer.release();
+        }
+    }
+
+    private static String encode(final List<Item> items) {
+        return items.stream()
+            .map(item -> item.value)
+            .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static class Item implements DtoWritable {
+        private final String value;
+
+        private Item(final String value) {
+            this.value = value;
+        }
+    }
+
+    private static class TestWriter implements DtoWriter {
+        @Override
+        public <T extends DtoWritable> void writeOne(final T value, final BinaryWriter target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends DtoWritable> void writeMany(final List<T> values, final BinaryWriter target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void writeManyBegin(final BinaryWriter target) {
+            target.write((byte) '[');
+        }
+
+        @Override
+        public <T extends DtoWritable> void writeManyElement(
+            final int index,
+            final T value,
+            final BinaryWriter target
+        ) throws DtoWriteException {
+            final var item = (Item) value;
+            if (item.value.equals("fail")) {
+                throw new DtoWriteException(DtoEncoding.JSON, "Failed to write item");
+            }
+            if (index > 0) {
+                target.write((byte) ',');
+            }
+            target.write(item.value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeManyEnd(final BinaryWriter target) {
+            target.write((byte) ']');
+        }
+    }
+
+    private static class CountingIterator implements Iterator<Item> {
+        private final Iterator<Item> iterator;
+        private int count = 0;
+
+        private CountingIterator(final Iterator<Item> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Item next() {
+            count += 1;
+            return iterator.next();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package se.arkalix.internal.net;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNettyPublisherChunkedInput {
+    private static final ByteBufAllocator alloc = UnpooledByteBufAllocator.DEFAULT;
+
+    @Test
+    void shouldRequestPrefetchWhenFirstReadAndThenOnePerBufferRead() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        assertEquals(4, publisher.requested);
+
+        publisher.subscriber.onNext(bufferOf("ab"));
+        publisher.subscriber.onNext(bufferOf("cde"));
+        final var chunk = input.readChunk(alloc);
+        assertEquals("abcde", chunk.toString(StandardCharsets.UTF_8));
+        chunk.release();
+        assertEquals(6, publisher.requested);
+        assertEquals(5, input.progress());
+        assertFalse(input.isEndOfInput());
+
+        assertNull(input.readChunk(alloc));
+        assertEquals(6, publisher.requested);
+    }
+
+    @Test
+    void shouldEndInputIfCompletedWithoutBuffers() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        publisher.subscriber.onComplete();
+        assertTrue(input.isEndOfInput());
+        assertNull(input.readChunk(alloc));
+        assertEquals(0, input.progress());
+    }
+
+    @Test
+    void shouldEndInputOnlyWhenAllBuffersAreRead() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        publisher.subscriber.onNext(bufferOf("abc"));
+        publisher.subscriber.onComplete();
+        assertFalse(input.isEndOfInput());
+
+        final var chunk = input.readChunk(alloc);
+        assertEquals("abc", chunk.toString(StandardCharsets.UTF_8));
+        chunk.release();
+        assertTrue(input.isEndOfInput());
+        assertEquals(4, publisher.requested);
+    }
+
+    @Test
+    void shouldThrowIfPublisherFails() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        final var exception = new IOException();
+        publisher.subscriber.onNext(bufferOf("abc"));
+        publisher.subscriber.onError(exception);
+        assertSame(exception, assertThrows(IOException.class, () -> input.readChunk(alloc)));
+    }
+
+    @Test
+    void shouldWrapErrorsOfFailingPublisher() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        final var error = new StackOverflowError();
+        publisher.subscriber.onError(error);
+        assertSame(error, assertThrows(IOException.class, () -> input.readChunk(alloc)).getCause());
+    }
+
+    @Test
+    void shouldCancelSubscriptionWhenClosed() throws Exception {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        assertNull(input.readChunk(alloc));
+        publisher.subscriber.onNext(bufferOf("abc"));
+        input.close();
+        assertTrue(publisher.isCancelled);
+
+        publisher.subscriber.onNext(bufferOf("def"));
+        assertNull(input.readChunk(alloc));
+    }
+
+    @Test
+    void shouldCancelSubscriptionReceivedAfterBeingClosed() {
+        final var publisher = new TestPublisher();
+        final var input = new NettyPublisherChunkedInput(publisher, new EmbeddedChannel());
+
+        input.close();
+        publisher.subscribe(input);
+        assertTrue(publisher.isCancelled);
+        assertEquals(0, publisher.requested);
+    }
+
+    private static ByteBuffer bufferOf(final String string) {
+        return ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class TestPublisher implements Flow.Publisher<ByteBuffer> {
+        private Flow.Subscriber<? super ByteBuffer> subscriber = null;
+        private long requested = 0;
+        private boolean isCancelled = false;
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                    isCancelled = true;
+                }
+            });
+        }
+    }
+}
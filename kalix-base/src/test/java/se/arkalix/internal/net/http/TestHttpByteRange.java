@@ -0,0 +1,61 @@
+package se.arkalix.internal.net.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpByteRange {
+    @ParameterizedTest
+    @MethodSource("rangeContentRangePairs")
+    void shouldParseSingleRanges(final String range, final long size, final String expected) {
+        final var result = HttpByteRange.parse(range, size);
+        assertEquals(expected, result.map(range0 -> range0.toContentRange(size)).orElse(null));
+    }
+
+    static Stream<Arguments> rangeContentRangePairs() {
+        return Stream.of(
+            arguments(null, 100, null),
+            arguments("", 100, null),
+            arguments("bytes=0-0", 100, "bytes 0-0/100"),
+            arguments("bytes=0-99", 100, "bytes 0-99/100"),
+            arguments("bytes=10-", 100, "bytes 10-99/100"),
+            arguments("bytes=10-1000", 100, "bytes 10-99/100"),
+            arguments("bytes=-10", 100, "bytes 90-99/100"),
+            arguments("bytes=-1000", 100, "bytes 0-99/100"),
+            arguments("Bytes= 5-9 ", 100, "bytes 5-9/100"),
+            arguments("bytes=5-9,", 100, "bytes 5-9/100"),
+            arguments("bytes=100-", 100, "bytes */100"),
+            arguments("bytes=-0", 100, "bytes */100"),
+            arguments("bytes=0-", 0, "bytes */0"),
+            arguments("bytes=9-5", 100, null),
+            arguments("bytes=0-1,5-9", 100, null),
+            arguments("bytes=-", 100, null),
+            arguments("bytes=+1-5", 100, null),
+            arguments("bytes=a-5", 100, null),
+            arguments("items=0-5", 100, null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("rangeOffsetLengthTriples")
+    void shouldResolveOffsetAndLength(final String range, final long offset, final long length) {
+        final var result = HttpByteRange.parse(range, 100).orElseThrow();
+        assertTrue(result.isSatisfiable());
+        assertEquals(offset, result.offset());
+        assertEquals(length, result.length());
+    }
+
+    static Stream<Arguments> rangeOffsetLengthTriples() {
+        return Stream.of(
+            arguments("bytes=0-0", 0, 1),
+            arguments("bytes=20-29", 20, 10),
+            arguments("bytes=50-", 50, 50),
+            arguments("bytes=-25", 75, 25)
+        );
+    }
+}
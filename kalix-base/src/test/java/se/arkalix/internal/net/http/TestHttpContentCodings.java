@@ -0,0 +1,110 @@
+package se.arkalix.internal.net.http;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpContentCodings {
+    @ParameterizedTest
+    @MethodSource("acceptEncodingCodingPairs")
+    void shouldNegotiateMostPreferredCoding(final String acceptEncoding, final String expected) {
+        assertEquals(expected, HttpContentCodings.negotiate(acceptEncoding).orElse(null));
+    }
+
+    static Stream<Arguments> acceptEncodingCodingPairs() {
+        return Stream.of(
+            arguments(null, null),
+            arguments("", null),
+            arguments("identity", null),
+            arguments("gzip", "gzip"),
+            arguments("deflate", "deflate"),
+            arguments("gzip, deflate", "gzip"),
+            arguments("deflate, gzip", "gzip"),
+            arguments("gzip;q=0.5, deflate", "deflate"),
+            arguments("gzip;q=0, deflate;q=0", null),
+            arguments("br, deflate;q=0.1", "deflate"),
+            arguments("*", "gzip"),
+            arguments("*;q=0.3, gzip;q=0", "deflate"),
+            arguments("x-gzip", "gzip"),
+            arguments("GZIP; Q=0.8", "gzip")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("contentTypeMatchPairs")
+    void shouldMatchAllowedMediaTypes(final String contentType, final boolean expected) {
+        final var mediaTypes = List.of("application/json", "text/*");
+        assertEquals(expected, HttpContentCodings.isMatchingAny(contentType, mediaTypes));
+    }
+
+    static Stream<Arguments> contentTypeMatchPairs() {
+        return Stream.of(
+            arguments(null, false),
+            arguments("application/json", true),
+            arguments("Application/JSON;charset=utf-8", true),
+            arguments("application/json ; charset=utf-8", true),
+            arguments("application/jsonx", false),
+            arguments("text/plain;charset=utf-8", true),
+            arguments("text/html", true),
+            arguments("texts/html", false),
+            arguments("image/png", false),
+            arguments("text", false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("varyPairs")
+    void shouldAddAcceptEncodingToVaryOnlyIfMissing(final String vary, final String expected) {
+        assertEquals(expected, HttpContentCodings.varyByAcceptEncoding(vary));
+    }
+
+    static Stream<Arguments> varyPairs() {
+        return Stream.of(
+            arguments(null, "accept-encoding"),
+            arguments("", "accept-encoding"),
+            arguments("origin", "origin, accept-encoding"),
+            arguments("origin, accept", "origin, accept, accept-encoding"),
+            arguments("accept-encoding", "accept-encoding"),
+            arguments("Origin,Accept-Encoding", "Origin,Accept-Encoding"),
+            arguments("*", "*"),
+            arguments("accept-encodings", "accept-encodings, accept-encoding")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip", "deflate"})
+    void shouldEncodeDecodableBodies(final String coding) throws IOException {
+        final var text = "{\"value\":\"" + "0123456789".repeat(500) + "\"}";
+        final var buffer = Unpooled.copiedBuffer(text, StandardCharsets.UTF_8);
+        final var encoded = HttpContentCodings.encode(buffer, coding, ByteBufAllocator.DEFAULT);
+        try {
+            assertEquals(0, buffer.refCnt());
+            assertTrue(encoded.readableBytes() < text.length());
+
+            final var bytes = ByteBufUtil.getBytes(encoded);
+            final InputStream stream = coding.equals("gzip")
+                ? new GZIPInputStream(new ByteArrayInputStream(bytes))
+                : new InflaterInputStream(new ByteArrayInputStream(bytes));
+            assertEquals(text, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        finally {
+            encoded.release();
+        }
+    }
+}
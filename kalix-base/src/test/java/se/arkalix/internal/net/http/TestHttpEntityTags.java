@@ -0,0 +1,51 @@
+package se.arkalix.internal.net.http;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpEntityTags {
+    private static final String TAG = HttpEntityTags.weakOf(0x1234, 0x5678);
+
+    @ParameterizedTest
+    @MethodSource("ifNoneMatchPairs")
+    void shouldMatchWeaklyEqualTags(final String ifNoneMatch, final boolean expected) {
+        assertEquals("W/\"1234-5678\"", TAG);
+        assertEquals(expected, HttpEntityTags.isWeaklyMatchingAny(ifNoneMatch, TAG));
+    }
+
+    static Stream<Arguments> ifNoneMatchPairs() {
+        return Stream.of(
+            arguments(null, false),
+            arguments("", false),
+            arguments("*", true),
+            arguments("W/\"1234-5678\"", true),
+            arguments("\"1234-5678\"", true),
+            arguments("\"x\", W/\"1234-5678\"", true),
+            arguments("\"x\",\"y\"", false),
+            arguments("W/\"1234-5679\"", false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("strongPairs")
+    void shouldMatchOnlyStronglyEqualTags(final String a, final String b, final boolean expected) {
+        assertEquals(expected, HttpEntityTags.isStronglyMatching(a, b));
+    }
+
+    static Stream<Arguments> strongPairs() {
+        return Stream.of(
+            arguments(HttpEntityTags.strongOf(0x12, 0x34), "\"12-34\"", true),
+            arguments(null, "\"x\"", false),
+            arguments("\"x\"", "\"x\"", true),
+            arguments("\"x\"", "\"y\"", false),
+            arguments("W/\"x\"", "W/\"x\"", false),
+            arguments("W/\"x\"", "\"x\"", false)
+        );
+    }
+}
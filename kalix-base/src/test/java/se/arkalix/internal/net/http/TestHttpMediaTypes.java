@@ -209,4 +209,30 @@ public class TestHttpMediaTypes {
             })
         );
     }
+
+    @ParameterizedTest
+    @MethodSource("compatibleAcceptFieldsEncodingArguments")
+    void shouldCacheCompatibleEncodingAmongAcceptFields(
+        final List<String> headers,
+        final EncodingDescriptor[] encodings,
+        final EncodingDescriptor expected)
+    {
+        final var cache = new HttpMediaTypes.NegotiationCache(Arrays.asList(encodings), 8);
+        final var first = cache.findCompatibleWithAcceptHeaders(headers);
+        assertTrue(first.isPresent());
+        assertEquals(expected, first.get().encoding());
+        assertEquals(HttpMediaTypes.toMediaType(expected), first.get().contentType().toString());
+        assertSame(first.get(), cache.findCompatibleWithAcceptHeaders(headers).orElseThrow());
+    }
+
+    @ParameterizedTest
+    @MethodSource("incompatibleAcceptFieldsEncodingArguments")
+    void shouldCacheIncompatibleAcceptFields(
+        final List<String> headers,
+        final EncodingDescriptor[] encodings)
+    {
+        final var cache = new HttpMediaTypes.NegotiationCache(Arrays.asList(encodings), 8);
+        assertFalse(cache.findCompatibleWithAcceptHeaders(headers).isPresent());
+        assertFalse(cache.findCompatibleWithAcceptHeaders(headers).isPresent());
+    }
 }
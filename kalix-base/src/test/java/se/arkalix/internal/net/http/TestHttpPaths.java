@@ -0,0 +1,37 @@
+package se.arkalix.internal.net.http;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpPaths {
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/",
+        "/a/b",
+        "/a/b?c=d",
+        "/a/b#c",
+        "/a+b?c+d",
+        "/a%20b/%C3%A5%C3%A4%C3%B6?x=%20",
+        "/%2F%3f",
+        "/a%e2%82%ac",
+        "?c=d",
+    })
+    void shouldDecodePathsLikeNetty(final String target) {
+        assertEquals(new QueryStringDecoder(target).path(), HttpPaths.decodePathOf(target));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/a/b", "/", ""})
+    void shouldNotCopyPathsWithoutQueriesOrPercentEncodings(final String target) {
+        assertSame(target, HttpPaths.decodePathOf(target));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/%", "/%2", "/%2?x=1", "/%zz", "/a%2g"})
+    void shouldRejectInvalidPercentEncodings(final String target) {
+        assertThrows(IllegalArgumentException.class, () -> HttpPaths.decodePathOf(target));
+    }
+}
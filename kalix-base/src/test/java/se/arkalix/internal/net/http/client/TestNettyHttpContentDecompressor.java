@@ -0,0 +1,85 @@
+package se.arkalix.internal.net.http.client;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNettyHttpContentDecompressor {
+    @Test
+    void shouldDecompressBodiesWithinLimit() throws IOException {
+        final var channel = new EmbeddedChannel(new NettyHttpContentDecompressor(1024));
+
+        channel.writeInbound(newResponse("gzip"), new DefaultLastHttpContent(Unpooled.wrappedBuffer(gzip(1024))));
+
+        assertEquals(1024, readBodyLength(channel));
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    void shouldRejectDecompressedBodiesBeyondLimit() throws IOException {
+        final var channel = new EmbeddedChannel(new NettyHttpContentDecompressor(1024));
+
+        channel.writeInbound(newResponse("gzip"));
+        assertThrows(TooLongFrameException.class, () ->
+            channel.writeInbound(new DefaultLastHttpContent(Unpooled.wrappedBuffer(gzip(1025)))));
+        assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void shouldNotLimitBodiesNotCompressed() {
+        final var channel = new EmbeddedChannel(new NettyHttpContentDecompressor(1024));
+
+        channel.writeInbound(newResponse(null), new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[2048])));
+
+        assertEquals(2048, readBodyLength(channel));
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    void shouldMeasureEachResponseSeparately() throws IOException {
+        final var channel = new EmbeddedChannel(new NettyHttpContentDecompressor(1024));
+
+        channel.writeInbound(newResponse("gzip"), new DefaultLastHttpContent(Unpooled.wrappedBuffer(gzip(768))));
+        assertEquals(768, readBodyLength(channel));
+
+        channel.writeInbound(newResponse("gzip"), new DefaultLastHttpContent(Unpooled.wrappedBuffer(gzip(768))));
+        assertEquals(768, readBodyLength(channel));
+    }
+
+    private static HttpResponse newResponse(final String contentEncoding) {
+        final var response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        if (contentEncoding != null) {
+            response.headers().set(HttpHeaderNames.CONTENT_ENCODING, contentEncoding);
+        }
+        return response;
+    }
+
+    private static byte[] gzip(final int length) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        try (final var gzip = new GZIPOutputStream(output)) {
+            gzip.write(new byte[length]);
+        }
+        return output.toByteArray();
+    }
+
+    private static int readBodyLength(final EmbeddedChannel channel) {
+        assertTrue(channel.readInbound() instanceof HttpResponse);
+        var length = 0;
+        Object object;
+        while ((object = channel.readInbound()) != null) {
+            final var content = (HttpContent) object;
+            length += content.content().readableBytes();
+            content.release();
+        }
+        return length;
+    }
+}
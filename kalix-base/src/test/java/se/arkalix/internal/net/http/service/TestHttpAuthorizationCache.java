@@ -0,0 +1,93 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import se.arkalix.ArSystem;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.net.http.service.HttpService;
+import se.arkalix.security.access.AccessPolicy;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpAuthorizationCache {
+    private static ArSystem system;
+
+    @BeforeAll
+    static void beforeAll() {
+        system = new ArSystem.Builder()
+            .name("test-system")
+            .insecure()
+            .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        system.shutdown();
+    }
+
+    @Test
+    void shouldRememberDecisionsOfIdentityCacheablePolicies() {
+        final var cache = new HttpAuthorizationCache();
+        final var serviceA = newService(AccessPolicy.cloud());
+        final var serviceB = newService(AccessPolicy.cloud());
+
+        assertNull(cache.get(serviceA));
+        cache.put(serviceA, true);
+        cache.put(serviceB, false);
+        assertEquals(true, cache.get(serviceA));
+        assertEquals(false, cache.get(serviceB));
+    }
+
+    @Test
+    void shouldNotRememberDecisionsOfOtherPolicies() {
+        final var cache = new HttpAuthorizationCache();
+        final var whitelisted = newService(AccessPolicy.whitelist("consumer"));
+        final var tokened = newService(AccessPolicy.token());
+        final var unrestricted = newService(AccessPolicy.unrestricted());
+
+        cache.put(whitelisted, true);
+        cache.put(tokened, true);
+        cache.put(unrestricted, true);
+        assertNull(cache.get(whitelisted));
+        assertNull(cache.get(tokened));
+        assertNull(cache.get(unrestricted));
+    }
+
+    @Test
+    void shouldTellServicesApartByIdentity() {
+        final var cache = new HttpAuthorizationCache();
+        final var policy = AccessPolicy.cloud();
+        final var service = newService(policy);
+        final var serviceProvidedAnew = newService(policy);
+
+        cache.put(service, true);
+        assertNull(cache.get(serviceProvidedAnew));
+    }
+
+    @Test
+    void shouldIgnoreAndForgetDecisionsOfDrainingServices() throws InterruptedException {
+        final var cache = new HttpAuthorizationCache();
+        final var draining = newService(AccessPolicy.cloud());
+        final var other = newService(AccessPolicy.cloud());
+
+        cache.put(draining, true);
+        draining.drain(Duration.ZERO).await();
+        assertNull(cache.get(draining));
+
+        cache.put(other, true);
+        cache.put(draining, true);
+        assertNull(cache.get(draining));
+        assertEquals(true, cache.get(other));
+    }
+
+    private static HttpServerService newService(final AccessPolicy accessPolicy) {
+        return new HttpServerService(system, new HttpService()
+            .name("test-service")
+            .basePath("/test")
+            .encodings(EncodingDescriptor.JSON)
+            .accessPolicy(accessPolicy));
+    }
+}
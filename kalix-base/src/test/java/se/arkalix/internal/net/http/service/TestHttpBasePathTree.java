@@ -0,0 +1,58 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpBasePathTree {
+    private static final HttpBasePathTree<String> TREE = HttpBasePathTree.of(Map.of(
+        "/", "root",
+        "/foo", "foo",
+        "/foo/bar", "foo-bar",
+        "/foobar", "foobar",
+        "/fob", "fob",
+        "/x/y/z", "xyz"
+    ));
+
+    @ParameterizedTest
+    @MethodSource("pathValuePairs")
+    void shouldResolveLongestMatchingBasePath(final String path, final String expected) {
+        assertEquals(expected, TREE.getByPath(path).orElse(null), "Path `" + path + "`");
+    }
+
+    static Stream<Arguments> pathValuePairs() {
+        return Stream.of(
+            arguments("/", "root"),
+            arguments("", "root"),
+            arguments("/foo", "foo"),
+            arguments("/foo/", "foo"),
+            arguments("/foo/baz", "foo"),
+            arguments("/foo/bar", "foo-bar"),
+            arguments("/foo/bar/baz", "foo-bar"),
+            arguments("/foo/barn", "foo"),
+            arguments("/foobar", "foobar"),
+            arguments("/foobar/1", "foobar"),
+            arguments("/foob", "root"),
+            arguments("/fo", "root"),
+            arguments("/fob/1", "fob"),
+            arguments("/x/y", "root"),
+            arguments("/x/y/z/w", "xyz")
+        );
+    }
+
+    @Test
+    void shouldNotMatchWithoutRootPath() {
+        final var tree = HttpBasePathTree.of(Map.of("/foo", "foo"));
+        assertTrue(tree.getByPath("/foobar").isEmpty());
+        assertTrue(tree.getByPath("/").isEmpty());
+        assertEquals("foo", tree.getByPath("/foo/bar").orElse(null));
+        assertTrue(HttpBasePathTree.empty().getByPath("/foo").isEmpty());
+    }
+}
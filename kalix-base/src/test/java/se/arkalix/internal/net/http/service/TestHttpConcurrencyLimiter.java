@@ -0,0 +1,110 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpConcurrencyLimiter {
+    @ParameterizedTest
+    @MethodSource("fixedLimitArguments")
+    void shouldAdmitUpToFixedLimit(
+        final int maxLimit,
+        final int reserved,
+        final int expectedOrdinary,
+        final int expectedReserved)
+    {
+        final var limiter = new HttpConcurrencyLimiter(maxLimit, reserved, false);
+        var ordinary = 0;
+        while (limiter.tryAcquire(false)) {
+            ordinary += 1;
+        }
+        var reserved0 = 0;
+        while (limiter.tryAcquire(true)) {
+            reserved0 += 1;
+        }
+        assertEquals(expectedOrdinary, ordinary);
+        assertEquals(expectedReserved, reserved0);
+        assertEquals(maxLimit, limiter.inFlight());
+
+        limiter.release(1);
+        assertEquals(reserved == 0, limiter.tryAcquire(false));
+        assertEquals(reserved != 0, limiter.tryAcquire(true));
+    }
+
+    static Stream<Arguments> fixedLimitArguments() {
+        return Stream.of(
+            arguments(1, 0, 1, 0),
+            arguments(10, 1, 9, 1),
+            arguments(10, 9, 1, 9),
+            arguments(100, 10, 90, 10)
+        );
+    }
+
+    @Test
+    void shouldDecreaseAdaptiveLimitAtMostOncePerWindow() {
+        final var limiter = new HttpConcurrencyLimiter(100, 0, true);
+        final var initialLimit = limiter.limit();
+
+        // Starts first window, which ends after 1 ms.
+        limiter.update(1_000, 1, 0);
+        limiter.update(1_000, 1, 1_000_000);
+        assertEquals(initialLimit, limiter.limit());
+
+        limiter.update(10_000_000, initialLimit, 1_500_000);
+        assertEquals(initialLimit, limiter.limit());
+
+        // Ends second window, which makes the third last 10 ms.
+        limiter.update(10_000_000, initialLimit, 2_000_000);
+        final var decreasedLimit = limiter.limit();
+        assertTrue(decreasedLimit < initialLimit);
+
+        limiter.update(10_000_000, initialLimit, 3_000_000);
+        assertEquals(decreasedLimit, limiter.limit());
+
+        limiter.update(10_000_000, initialLimit, 12_000_000);
+        assertTrue(limiter.limit() < decreasedLimit);
+    }
+
+    @Test
+    void shouldIncreaseAdaptiveLimitOnlyIfUsed() {
+        final var limiter = new HttpConcurrencyLimiter(21, 0, true);
+        final var initialLimit = limiter.limit();
+
+        limiter.update(1_000, 1, 0);
+        limiter.update(1_000, 1, 1_000_000);
+        assertEquals(initialLimit, limiter.limit());
+
+        limiter.update(1_000, initialLimit, 2_000_000);
+        assertEquals(initialLimit + 1, limiter.limit());
+
+        limiter.update(1_000, initialLimit + 1, 3_000_000);
+        assertEquals(21, limiter.limit());
+    }
+
+    @Test
+    void shouldKeepAdaptiveLimitWithinBoundsIfReleasedConcurrently() throws InterruptedException {
+        final var limiter = new HttpConcurrencyLimiter(40, 4, true);
+        final var threads = new Thread[8];
+        for (var i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(() -> {
+                for (var j = 0; j < 10_000; ++j) {
+                    if (limiter.tryAcquire(true)) {
+                        limiter.release(j % 2 == 0 ? 1_000 : 50_000_000);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, limiter.inFlight());
+        assertTrue(limiter.limit() >= 5 && limiter.limit() <= 40);
+    }
+}
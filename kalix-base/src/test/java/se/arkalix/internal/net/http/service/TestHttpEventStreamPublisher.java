@@ -0,0 +1,52 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import se.arkalix.net.http.service.HttpServerSentEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpEventStreamPublisher {
+    @ParameterizedTest
+    @MethodSource("eventPairs")
+    void shouldEncodeEvents(final HttpServerSentEvent event, final String expected) {
+        assertEquals(expected, StandardCharsets.UTF_8.decode(HttpEventStreamPublisher.encode(event)).toString());
+    }
+
+    static Stream<Arguments> eventPairs() {
+        return Stream.of(
+            arguments(HttpServerSentEvent.of("hello"), "data: hello\n\n"),
+            arguments(HttpServerSentEvent.of(""), "data: \n\n"),
+            arguments(HttpServerSentEvent.of("a\nb\r\nc\rd"), "data: a\ndata: b\ndata: c\ndata: d\n\n"),
+            arguments(HttpServerSentEvent.of("a\n"), "data: a\ndata: \n\n"),
+            arguments(HttpServerSentEvent.of("åäö"), "data: åäö\n\n"),
+            arguments(new HttpServerSentEvent.Builder()
+                .comment("keep-alive")
+                .build(), ": keep-alive\n\n"),
+            arguments(new HttpServerSentEvent.Builder()
+                .comment("x\ny")
+                .data("{\"state\":1}")
+                .id("42")
+                .name("update")
+                .retry(Duration.ofSeconds(3))
+                .build(), ": x\n: y\nretry: 3000\nid: 42\nevent: update\ndata: {\"state\":1}\n\n")
+        );
+    }
+
+    @Test
+    void shouldRejectInvalidEvents() {
+        assertThrows(IllegalArgumentException.class, () -> new HttpServerSentEvent.Builder().build());
+        assertThrows(IllegalArgumentException.class, () -> new HttpServerSentEvent.Builder().id("a\nb").build());
+        assertThrows(IllegalArgumentException.class, () -> new HttpServerSentEvent.Builder().name("a\rb").build());
+        assertThrows(IllegalArgumentException.class, () -> new HttpServerSentEvent.Builder()
+            .retry(Duration.ofSeconds(-1))
+            .build());
+    }
+}
@@ -0,0 +1,82 @@
+package se.arkalix.internal.net.http.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpResponseCacheStore {
+    @Test
+    void shouldEvictLeastRecentlyUsedEntries() {
+        final var store = new HttpResponseCacheStore(10, 0);
+        store.put("a", "/a", bufferOf("1234"), new DefaultHttpHeaders(), 0, 0);
+        store.put("b", "/b", bufferOf("1234"), new DefaultHttpHeaders(), 0, 0);
+        assertNotNull(store.get("a", 0));
+
+        store.put("c", "/c", bufferOf("1234"), new DefaultHttpHeaders(), 0, 0);
+        assertEquals(2, store.count());
+        assertEquals(8, store.size());
+        assertNotNull(store.get("a", 0));
+        assertNull(store.get("b", 0));
+        assertNotNull(store.get("c", 0));
+
+        store.put("d", "/d", bufferOf("12345678901"), new DefaultHttpHeaders(), 0, 0);
+        assertNull(store.get("d", 0));
+        assertEquals(2, store.count());
+    }
+
+    @Test
+    void shouldExpireEntries() {
+        final var store = new HttpResponseCacheStore(10, 100);
+        store.put("a", "/a", bufferOf("1234"), new DefaultHttpHeaders(), 0, 1000);
+        assertNotNull(store.get("a", 1099));
+        assertNull(store.get("a", 1100));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void shouldInvalidateByPathAndIgnoreStaleEntries() {
+        final var store = new HttpResponseCacheStore(100, 0);
+        final var generation = store.generation();
+        store.put("GET a", "/a", bufferOf("1234"), new DefaultHttpHeaders(), generation, 0);
+        store.put("HEAD a", "/a", bufferOf("1234"), new DefaultHttpHeaders(), generation, 0);
+        store.put("GET b", "/b", bufferOf("1234"), new DefaultHttpHeaders(), generation, 0);
+
+        store.invalidate("/a");
+        assertNull(store.get("GET a", 0));
+        assertNull(store.get("HEAD a", 0));
+        assertNotNull(store.get("GET b", 0));
+        assertEquals(4, store.size());
+
+        store.put("GET a", "/a", bufferOf("1234"), new DefaultHttpHeaders(), generation, 0);
+        assertNull(store.get("GET a", 0));
+    }
+
+    @Test
+    void shouldCopyBodiesAndHeaders() {
+        final var body = bufferOf("1234");
+        final var headers = new DefaultHttpHeaders()
+            .set("content-type", "application/json")
+            .set("connection", "close");
+        final var store = new HttpResponseCacheStore(100, 0);
+        final var tag = store.put("a", "/a", body, headers, 0, 0);
+        assertEquals(0, body.readerIndex());
+        body.setByte(0, '9');
+
+        final var entry = store.get("a", 0);
+        assertEquals("1234", entry.body().toString(StandardCharsets.UTF_8));
+        assertEquals("application/json", entry.headers().get("content-type"));
+        assertFalse(entry.headers().contains("connection"));
+        assertEquals(tag, entry.headers().get("etag"));
+        assertNotEquals(tag, store.put("b", "/b", body, headers, 0, 0));
+        assertEquals("\"x\"", store.put("c", "/c", body, headers.set("etag", "\"x\""), 0, 0));
+    }
+
+    private static ByteBuf bufferOf(final String string) {
+        return Unpooled.copiedBuffer(string, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpRouteMetrics {
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 7, 8, 15, 16, 17, 100, 1000, 12345, 999_999, 1L << 35, (1L << 36) - 1})
+    void shouldCountValuesInBucketsWithBoundedError(final long value) {
+        final var index = HttpRouteMetrics.indexOf(value);
+        assertTrue(index >= 0 && index < HttpRouteMetrics.BUCKET_COUNT);
+
+        final var highest = HttpRouteMetrics.highestValueOf(index);
+        assertTrue(highest >= value);
+        assertTrue(highest - value <= value / 8);
+        assertEquals(index, HttpRouteMetrics.indexOf(highest));
+        if (index > 0) {
+            assertEquals(index - 1, HttpRouteMetrics.indexOf(HttpRouteMetrics.highestValueOf(index - 1)));
+            assertTrue(HttpRouteMetrics.highestValueOf(index - 1) < value);
+        }
+    }
+
+    @Test
+    void shouldSummarizeRecordings() {
+        final var metrics = new HttpRouteMetrics("service", "GET", "/#");
+        for (var i = 1; i <= 100; ++i) {
+            metrics.record(i <= 90 ? 200 : 503, i == 100, i * 1000L);
+        }
+        metrics.record(404, false, 0);
+
+        final var snapshot = metrics.snapshot();
+        assertEquals(101, snapshot.count());
+        assertEquals(0, snapshot.countOf(1));
+        assertEquals(90, snapshot.countOf(2));
+        assertEquals(1, snapshot.countOf(4));
+        assertEquals(10, snapshot.countOf(5));
+        assertEquals(1, snapshot.errors());
+        assertEquals(5050, snapshot.sumMicros());
+        assertEquals(100, snapshot.maxMicros());
+        assertEquals(100, snapshot.percentileMicros(100.0));
+
+        final var median = snapshot.percentileMicros(50.0);
+        assertTrue(median >= 50 && median <= 50 + 50 / 8, "median " + median);
+        final var p99 = snapshot.percentileMicros(99.0);
+        assertTrue(p99 >= 99 && p99 <= 100, "p99 " + p99);
+    }
+
+    @Test
+    void shouldReportNothingIfNothingRecorded() {
+        final var snapshot = new HttpRouteMetrics("service", null, null).snapshot();
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.percentileMicros(99.9));
+    }
+}
@@ -0,0 +1,44 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.service.HttpPattern;
+import se.arkalix.net.http.service.HttpRoute;
+import se.arkalix.util.concurrent.Future;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpRouteMetricsRegistry {
+    @Test
+    void shouldReturnSameMetricsIfRouteIsRegisteredAgain() {
+        final var registry = new HttpRouteMetricsRegistry();
+
+        final var a = registry.register("service", newRoute(HttpMethod.GET, "/a"));
+        final var b = registry.register("service", newRoute(HttpMethod.GET, "/a"));
+
+        assertSame(a, b);
+        assertEquals(List.of(a), registry.routes());
+    }
+
+    @Test
+    void shouldTellRoutesApartByServiceMethodAndPattern() {
+        final var registry = new HttpRouteMetricsRegistry();
+
+        final var a = registry.register("service", newRoute(HttpMethod.GET, "/a"));
+        final var b = registry.register("other-service", newRoute(HttpMethod.GET, "/a"));
+        final var c = registry.register("service", newRoute(HttpMethod.POST, "/a"));
+        final var d = registry.register("service", newRoute(HttpMethod.GET, "/b"));
+        final var e = registry.register("service", newRoute(null, null));
+
+        assertEquals(List.of(a, b, c, d, e), registry.routes());
+        assertNull(e.method());
+        assertNull(e.pattern());
+    }
+
+    private static HttpRoute newRoute(final HttpMethod method, final String pattern) {
+        return new HttpRoute(method, pattern != null ? HttpPattern.valueOf(pattern) : null,
+            (request, response) -> Future.done());
+    }
+}
@@ -0,0 +1,157 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.Test;
+import se.arkalix.internal.util.concurrent.FutureCompletion;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.net.http.service.*;
+import se.arkalix.util.Result;
+import se.arkalix.util.concurrent.Future;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpRouteSequence {
+    @Test
+    void shouldCompleteSynchronousSequenceInline() {
+        final var sequence = new HttpRouteSequence(
+            new HttpFilter[]{new HttpFilter(0, null, null, (request, response) -> Future.done())},
+            new HttpRoute(HttpMethod.GET, null, (request, response) -> {
+                response.status(HttpStatus.OK);
+                return Future.done();
+            }),
+            new HttpCatcher<?>[0]);
+
+        final var task = newTask();
+        final var result = sequence.handle(task, Collections.emptyList()).resultIfCompleted();
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals(HttpStatus.OK, task.response().status().orElse(null));
+    }
+
+    @Test
+    void shouldCompleteSynchronousCatcherInline() {
+        final var sequence = new HttpRouteSequence(
+            new HttpFilter[0],
+            new HttpRoute(HttpMethod.GET, null, (request, response) -> {
+                throw new IllegalStateException();
+            }),
+            new HttpCatcher<?>[]{new HttpCatcher<>(0, null, null, IllegalStateException.class,
+                (exception, request, response) -> {
+                    response.status(HttpStatus.CONFLICT);
+                    return Future.done();
+                })});
+
+        final var task = newTask();
+        final var result = sequence.handle(task, Collections.emptyList()).resultIfCompleted();
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals(HttpStatus.CONFLICT, task.response().status().orElse(null));
+    }
+
+    @Test
+    void shouldCompleteSequenceHandledByFilterInline() {
+        final var sequence = new HttpRouteSequence(
+            new HttpFilter[]{new HttpFilter(0, null, null, (request, response) -> {
+                response.status(HttpStatus.FORBIDDEN);
+                return Future.done();
+            })},
+            new HttpRoute(HttpMethod.GET, null, (request, response) -> {
+                fail("Route invoked even though filter handled request");
+                return Future.done();
+            }),
+            new HttpCatcher<?>[0]);
+
+        final var task = newTask();
+        final var result = sequence.handle(task, Collections.emptyList()).resultIfCompleted();
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals(HttpStatus.FORBIDDEN, task.response().status().orElse(null));
+    }
+
+    @Test
+    void shouldTryCatchersOnceIfRouteAfterPendingFiltersFails() {
+        final var completion0 = new FutureCompletion<>();
+        final var completion1 = new FutureCompletion<>();
+        final var catcherCalls = new AtomicInteger(0);
+        final var sequence = new HttpRouteSequence(
+            new HttpFilter[]{
+                new HttpFilter(0, null, null, (request, response) -> completion0),
+                new HttpFilter(1, null, null, (request, response) -> completion1)},
+            new HttpRoute(HttpMethod.GET, null, (request, response) -> {
+                throw new IllegalStateException();
+            }),
+            new HttpCatcher<?>[]{new HttpCatcher<>(0, null, null, IllegalStateException.class,
+                (exception, request, response) -> {
+                    catcherCalls.incrementAndGet();
+                    return Future.done();
+                })});
+
+        final var task = newTask();
+        final var result = new AtomicReference<Result<?>>();
+        sequence.handle(task, Collections.emptyList()).onResult(result::set);
+        completion0.complete(Result.done());
+        completion1.complete(Result.done());
+
+        assertNotNull(result.get());
+        assertTrue(result.get().isFailure());
+        assertTrue(result.get().fault() instanceof IllegalStateException);
+        assertEquals(1, catcherCalls.get());
+    }
+
+    @Test
+    void shouldNotPassFailuresOfCatchersToCatchersAfterPendingFilter() {
+        final var completion = new FutureCompletion<>();
+        final var catcherCalls = new AtomicInteger(0);
+        final var sequence = new HttpRouteSequence(
+            new HttpFilter[]{new HttpFilter(0, null, null, (request, response) -> completion)},
+            new HttpRoute(HttpMethod.GET, null, (request, response) -> {
+                throw new IllegalStateException();
+            }),
+            new HttpCatcher<?>[]{
+                new HttpCatcher<>(0, null, null, IllegalStateException.class,
+                    (exception, request, response) -> Future.failure(new IllegalArgumentException())),
+                new HttpCatcher<>(1, null, null, IllegalArgumentException.class,
+                    (exception, request, response) -> {
+                        catcherCalls.incrementAndGet();
+                        response.status(HttpStatus.BAD_REQUEST);
+                        return Future.done();
+                    })});
+
+        final var result = new AtomicReference<Result<?>>();
+        sequence.handle(newTask(), Collections.emptyList()).onResult(result::set);
+        completion.complete(Result.done());
+
+        assertNotNull(result.get());
+        assertTrue(result.get().isFailure());
+        assertTrue(result.get().fault() instanceof IllegalArgumentException);
+        assertEquals(0, catcherCalls.get());
+    }
+
+    static HttpRouteTask newTask() {
+        return new HttpRouteTask.Builder()
+            .request(newRequest(HttpMethod.GET, "/"))
+            .response(new DefaultHttpServiceResponse())
+            .build();
+    }
+
+    static HttpServiceRequest newRequest(final HttpMethod method, final String path) {
+        return (HttpServiceRequest) Proxy.newProxyInstance(
+            HttpServiceRequest.class.getClassLoader(),
+            new Class<?>[]{HttpServiceRequest.class},
+            (proxy, invoked, arguments) -> {
+                switch (invoked.getName()) {
+                case "cloneAndSet": return proxy;
+                case "method": return method;
+                case "path": return path;
+                case "pathParameters": return Collections.emptyList();
+                case "queryParameters": return Collections.emptyMap();
+                default: throw new UnsupportedOperationException(invoked.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,115 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.service.HttpCatcher;
+import se.arkalix.net.http.service.HttpFilter;
+import se.arkalix.net.http.service.HttpPattern;
+import se.arkalix.net.http.service.HttpRoute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class TestHttpRouteTrie {
+    private static final HttpRouteSequence[] SEQUENCES = Stream.of(
+        route(HttpMethod.GET, "/"),
+        route(HttpMethod.GET, "/>"),
+        route(HttpMethod.GET, "/orders"),
+        route(HttpMethod.POST, "/orders"),
+        route(HttpMethod.GET, "/orders/#id"),
+        route(HttpMethod.GET, "/orders/summary"),
+        route(HttpMethod.DELETE, "/orders/#id"),
+        route(HttpMethod.GET, "/orders/#id/items/#item"),
+        route(null, "/orders/#id/>"),
+        route(HttpMethod.PUT, "/files/>"),
+        route(HttpMethod.GET, "/files/readme"),
+        route(HttpMethod.GET, "//#id/thing"),
+        route(HttpMethod.PATCH, null)
+    )
+        .sorted((a, b) -> HttpRoutables.compare(a.route(), b.route()))
+        .toArray(HttpRouteSequence[]::new);
+
+    private static HttpRouteSequence route(final HttpMethod method, final String pattern) {
+        final var route = new HttpRoute(method, pattern != null ? HttpPattern.valueOf(pattern) : null, null);
+        return new HttpRouteSequence(new HttpFilter[0], route, new HttpCatcher[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("methodPathOffsetSets")
+    void shouldResolveSameRouteAsLinearMatching(final HttpMethod method, final String path, final int offset) {
+        final var trie = new HttpRouteTrie(SEQUENCES);
+        final var actual = trie.match(method, path, offset);
+
+        HttpRouteSequence expected = null;
+        final var expectedParameters = new ArrayList<String>(0);
+        for (final var sequence : SEQUENCES) {
+            final var route = sequence.route();
+            if (route.method().isPresent() && !route.method().get().equals(method)) {
+                continue;
+            }
+            if (route.pattern().isEmpty() || route.pattern().get().match(path, offset, expectedParameters)) {
+                expected = sequence;
+                break;
+            }
+            expectedParameters.clear();
+        }
+
+        assertEquals(expected, actual.map(HttpRouteTrie.Match::sequence).orElse(null),
+            "Method `" + method + "` and path `" + path + "`");
+        assertEquals(expectedParameters, actual.map(HttpRouteTrie.Match::pathParameters).orElse(List.of()));
+    }
+
+    static Stream<Arguments> methodPathOffsetSets() {
+        return Stream.of(
+            arguments(HttpMethod.GET, "/", 0),
+            arguments(HttpMethod.GET, "", 0),
+            arguments(HttpMethod.POST, "/", 0),
+            arguments(HttpMethod.GET, "/orders", 0),
+            arguments(HttpMethod.GET, "/orders/", 0),
+            arguments(HttpMethod.POST, "/orders", 0),
+            arguments(HttpMethod.PUT, "/orders", 0),
+            arguments(HttpMethod.GET, "/orders/summary", 0),
+            arguments(HttpMethod.GET, "/orders/123", 0),
+            arguments(HttpMethod.DELETE, "/orders/123", 0),
+            arguments(HttpMethod.DELETE, "/orders/summary", 0),
+            arguments(HttpMethod.GET, "/orders/123/items/4", 0),
+            arguments(HttpMethod.GET, "/orders/123/items/4/5", 0),
+            arguments(HttpMethod.HEAD, "/orders/123/items/4", 0),
+            arguments(HttpMethod.GET, "/orders//items/", 0),
+            arguments(HttpMethod.PUT, "/files/a/b/c", 0),
+            arguments(HttpMethod.PUT, "/files", 0),
+            arguments(HttpMethod.GET, "/files/readme", 0),
+            arguments(HttpMethod.GET, "///thing", 0),
+            arguments(HttpMethod.PATCH, "/anything/at/all", 0),
+            arguments(HttpMethod.GET, "/base", 5),
+            arguments(HttpMethod.GET, "/base/", 5),
+            arguments(HttpMethod.GET, "/base/orders/123", 5),
+            arguments(HttpMethod.GET, "/base/orders/123/items/4", 5)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("prefixPathParameterSets")
+    void shouldCollectPrefixParameters(final String pattern, final String path, final String[] expectedParameters) {
+        final var trie = new HttpRouteTrie(new HttpRouteSequence[]{route(null, pattern)});
+        final var match = trie.match(HttpMethod.GET, path, 0);
+        assertTrue(match.isPresent(), "Pattern `" + pattern + "` does not match path `" + path + "`");
+        assertEquals(Arrays.asList(expectedParameters), match.get().pathParameters());
+    }
+
+    static Stream<Arguments> prefixPathParameterSets() {
+        return Stream.of(
+            arguments("/>", "/x/y/z", new String[]{"/x/y/z"}),
+            arguments("/#A/>", "/x/y/z", new String[]{"x", "/y/z"}),
+            arguments("/a/#B/>", "/a/b/c/", new String[]{"b", "/c/"}),
+            arguments("///>", "///hello", new String[]{"/hello"})
+        );
+    }
+}
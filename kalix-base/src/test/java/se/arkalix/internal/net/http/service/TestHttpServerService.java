@@ -0,0 +1,100 @@
+package se.arkalix.internal.net.http.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import se.arkalix.ArSystem;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.internal.util.concurrent.FutureCompletion;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.net.http.service.HttpService;
+import se.arkalix.security.access.AccessPolicy;
+import se.arkalix.util.Result;
+import se.arkalix.util.concurrent.Future;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.arkalix.internal.net.http.service.TestHttpRouteSequence.newRequest;
+
+public class TestHttpServerService {
+    private static ArSystem system;
+
+    @BeforeAll
+    static void beforeAll() {
+        system = new ArSystem.Builder()
+            .name("test-system")
+            .insecure()
+            .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        system.shutdown();
+    }
+
+    @Test
+    void shouldCompleteDrainImmediatelyIfIdle() {
+        final var service = newService(new FutureCompletion<>());
+
+        assertFalse(service.isDraining());
+        final var isDrained = isCompleted(service.drain(Duration.ofMinutes(1)));
+        assertTrue(service.isDraining());
+        assertTrue(isDrained.get());
+    }
+
+    @Test
+    void shouldCompleteDrainWhenRequestsInFlightComplete() {
+        final var completion = new FutureCompletion<>();
+        final var service = newService(completion);
+
+        final var handled = isCompleted(service.handle(newRequest(HttpMethod.GET, "/test/pending"),
+            new DefaultHttpServiceResponse()));
+        final var isDrained = isCompleted(service.drain(Duration.ofMinutes(1)));
+        assertFalse(isDrained.get());
+
+        completion.complete(Result.done());
+        assertTrue(handled.get());
+        assertTrue(isDrained.get());
+    }
+
+    @Test
+    void shouldNotCountRequestsCompletedSynchronously() {
+        final var service = newService(new FutureCompletion<>());
+
+        service.handle(newRequest(HttpMethod.GET, "/test/done"), new DefaultHttpServiceResponse());
+        service.handle(newRequest(HttpMethod.GET, "/test/missing"), new DefaultHttpServiceResponse());
+        assertTrue(isCompleted(service.drain(Duration.ofMinutes(1))).get());
+    }
+
+    @Test
+    void shouldCompleteDrainWhenTimeoutExpires() throws InterruptedException, TimeoutException {
+        final var service = newService(new FutureCompletion<>());
+
+        service.handle(newRequest(HttpMethod.GET, "/test/pending"), new DefaultHttpServiceResponse());
+        service.drain(Duration.ofMillis(10)).await(Duration.ofSeconds(10));
+        assertTrue(service.isDraining());
+    }
+
+    private static HttpServerService newService(final FutureCompletion<Object> pending) {
+        return new HttpServerService(system, new HttpService()
+            .name("test-service")
+            .basePath("/test")
+            .encodings(EncodingDescriptor.JSON)
+            .accessPolicy(AccessPolicy.unrestricted())
+            .get("/done", (request, response) -> {
+                response.status(HttpStatus.OK);
+                return Future.done();
+            })
+            .get("/pending", (request, response) -> pending));
+    }
+
+    private static AtomicBoolean isCompleted(final Future<?> future) {
+        final var isCompleted = new AtomicBoolean(false);
+        future.onResult(ignored -> isCompleted.set(true));
+        return isCompleted;
+    }
+}
@@ -0,0 +1,644 @@
+package se.arkalix.internal.net.http.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.flow.FlowControlHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import se.arkalix.ArSystem;
+import se.arkalix.description.ServiceDescription;
+import se.arkalix.description.SystemIdentityDescription;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.descriptor.SecurityDescriptor;
+import se.arkalix.internal.util.concurrent.FutureCompletion;
+import se.arkalix.internal.util.concurrent.NettyThread;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.net.http.service.HttpResponseCache;
+import se.arkalix.net.http.service.HttpService;
+import se.arkalix.net.http.service.HttpServiceRequest;
+import se.arkalix.net.http.service.HttpServiceResponse;
+import se.arkalix.security.access.AccessPolicy;
+import se.arkalix.util.Result;
+import se.arkalix.util.concurrent.Future;
+import se.arkalix.util.concurrent.FutureAnnouncement;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNettyHttpServiceConnection {
+    private static ArSystem system;
+
+    @BeforeAll
+    static void beforeAll() {
+        system = new ArSystem.Builder()
+            .name("test-system")
+            .insecure()
+            .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        system.shutdown();
+    }
+
+    @Test
+    void shouldResumeInlineIfPolicyIsSynchronous() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted()));
+            final var channel = newChannel(service);
+
+            // Unlike writeInbound(), firing reads directly does not run tasks
+            // scheduled via the event loop of the channel.
+            channel.pipeline().fireChannelRead(newRequest(HttpMethod.GET, "/test/ok"));
+
+            final var response = (HttpResponse) channel.readOutbound();
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.OK, response.status());
+        });
+    }
+
+    @Test
+    void shouldResumeViaEventLoopIfPolicyIsAsynchronous() throws Throwable {
+        runInNettyThread(() -> {
+            final var completion = new FutureCompletion<Boolean>();
+            final var service = newService(newHttpService(new AsyncAccessPolicy(completion)));
+            final var channel = newChannel(service);
+
+            channel.pipeline().fireChannelRead(newRequest(HttpMethod.GET, "/test/ok"));
+            assertNull(channel.readOutbound());
+
+            completion.complete(Result.success(true));
+            assertNull(channel.readOutbound());
+
+            channel.runPendingTasks();
+            final var response = (HttpResponse) channel.readOutbound();
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.OK, response.status());
+        });
+    }
+
+    @Test
+    void shouldRespondToPipelinedRequestsInOrderIfPolicyIsAsynchronous() throws Throwable {
+        runInNettyThread(() -> {
+            final var completion = new FutureCompletion<Boolean>();
+            final var service = newService(newHttpService(new AsyncAccessPolicy(completion)));
+            final var channel = new InetEmbeddedChannel(
+                new HttpServerCodec(),
+                new FlowControlHandler(),
+                new ChunkedWriteHandler(),
+                new NettyHttpServiceConnection(system, path -> Optional.of(service), null,
+                    new HttpAuthorizationCache()));
+
+            channel.writeInbound(Unpooled.copiedBuffer("" +
+                "GET /test/ok HTTP/1.1\r\naccept: application/json\r\n\r\n" +
+                "GET /test/missing HTTP/1.1\r\naccept: application/json\r\n\r\n",
+                StandardCharsets.US_ASCII));
+            assertNull(channel.readOutbound());
+            assertFalse(channel.config().isAutoRead());
+
+            completion.complete(Result.success(true));
+            channel.runPendingTasks();
+
+            final var responses = new StringBuilder();
+            ByteBuf buffer;
+            while ((buffer = channel.readOutbound()) != null) {
+                responses.append(buffer.toString(StandardCharsets.US_ASCII));
+                buffer.release();
+            }
+            final var ok = responses.indexOf("HTTP/1.1 200 OK");
+            final var notFound = responses.indexOf("HTTP/1.1 404 Not Found");
+            assertNotEquals(-1, ok);
+            assertTrue(notFound > ok);
+            assertTrue(channel.config().isAutoRead());
+        });
+    }
+
+    @Test
+    void shouldReleasePermitIfConsumerDisconnectsBeforeSendingBody() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .maxConcurrentRequests(1)
+                .post("/echo", (request, response) -> request.bodyAsString()
+                    .ifSuccess(body -> response.status(HttpStatus.OK).body(body))));
+            final var limiter = service.concurrencyLimiter().orElseThrow();
+            final var channel = newChannel(service);
+
+            final var request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/test/echo");
+            request.headers()
+                .set(HttpHeaderNames.ACCEPT, "application/json")
+                .set(HttpHeaderNames.CONTENT_LENGTH, 16);
+            channel.writeInbound(request);
+            channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("{\"partial\"", StandardCharsets.UTF_8)));
+            assertEquals(1, limiter.inFlight());
+
+            channel.close();
+            channel.runPendingTasks();
+            assertEquals(0, limiter.inFlight());
+        });
+    }
+
+    @Test
+    void shouldReleasePermitIfServiceThrowsSynchronously() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = new HttpServerService(system, newHttpService(AccessPolicy.unrestricted())
+                .maxConcurrentRequests(1))
+            {
+                @Override
+                public Future<?> handle(final HttpServiceRequest request, final HttpServiceResponse response) {
+                    throw new IllegalStateException();
+                }
+            };
+            final var limiter = service.concurrencyLimiter().orElseThrow();
+            final var channel = newChannel(service);
+
+            channel.writeInbound(newRequest(HttpMethod.GET, "/test/ok"));
+            final var response = (HttpResponse) channel.readOutbound();
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.INTERNAL_SERVER_ERROR, response.status());
+            assertEquals(0, limiter.inFlight());
+        });
+    }
+
+    @Test
+    void shouldCloseConnectionIfStreamedBodyFails() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .get("/stream", (request, response) -> {
+                    final Flow.Publisher<ByteBuffer> body = subscriber -> {
+                        subscriber.onSubscribe(new Flow.Subscription() {
+                            @Override
+                            public void request(final long n) {}
+
+                            @Override
+                            public void cancel() {}
+                        });
+                        subscriber.onError(new IOException());
+                    };
+                    response.status(HttpStatus.OK).body(body);
+                    return Future.done();
+                }));
+            final var channel = newChannel(service);
+
+            channel.writeInbound(newRequest(HttpMethod.GET, "/test/stream"));
+            channel.runPendingTasks();
+
+            final var response = (HttpResponse) channel.readOutbound();
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.OK, response.status());
+            assertFalse(channel.isOpen());
+        });
+    }
+
+    @Test
+    void shouldCloseConnectionAfterRespondingIfServiceIsDrained() throws Throwable {
+        runInNettyThread(() -> {
+            final var completion = new FutureCompletion<Object>();
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .get("/pending", (request, response) -> {
+                    response.status(HttpStatus.OK);
+                    return completion;
+                }));
+            final var channel = newChannel(service);
+
+            channel.writeInbound(newRequest(HttpMethod.GET, "/test/pending"));
+            final var isDrained = isCompleted(service.drain(Duration.ofMinutes(1)));
+            assertFalse(isDrained.get());
+
+            completion.complete(Result.done());
+            channel.runPendingTasks();
+            assertTrue(isDrained.get());
+
+            final var response = (HttpResponse) channel.readOutbound();
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.OK, response.status());
+            assertEquals("close", response.headers().get(HttpHeaderNames.CONNECTION));
+            assertFalse(channel.isOpen());
+        });
+    }
+
+    @Test
+    void shouldNotKeepRequestInFlightIfConsumerDisconnectsBeforeSendingBody() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .post("/echo", (request, response) -> request.bodyAsString()
+                    .ifSuccess(body -> response.status(HttpStatus.OK).body(body))));
+            final var channel = newChannel(service);
+
+            final var request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/test/echo");
+            request.headers()
+                .set(HttpHeaderNames.ACCEPT, "application/json")
+                .set(HttpHeaderNames.CONTENT_LENGTH, 16);
+            channel.writeInbound(request);
+            channel.close();
+            channel.runPendingTasks();
+
+            assertTrue(isCompleted(service.drain(Duration.ofMinutes(1))).get());
+        });
+    }
+
+    @Test
+    void shouldSendGoAwayAfterRespondingIfServiceIsDrainedViaHttp2() throws Throwable {
+        runInNettyThread(() -> {
+            final var completion = new FutureCompletion<Object>();
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .get("/pending", (request, response) -> {
+                    response.status(HttpStatus.OK);
+                    return completion;
+                }));
+            final var server = new InetEmbeddedChannel(
+                Http2FrameCodecBuilder.forServer().build(),
+                new Http2MultiplexHandler(new ChannelInitializer<Http2StreamChannel>() {
+                    @Override
+                    protected void initChannel(final Http2StreamChannel stream) {
+                        stream.pipeline()
+                            .addLast(new Http2StreamFrameToHttpObjectCodec(true))
+                            .addLast(new ChunkedWriteHandler())
+                            .addLast(new NettyHttpServiceConnection(system, path -> Optional.of(service), null,
+                                new HttpAuthorizationCache()));
+                    }
+                }));
+            final var recorder = new Http2FrameRecorder();
+            final var client = new EmbeddedChannel(Http2FrameCodecBuilder.forClient().build(), recorder);
+            exchange(client, server);
+
+            final var headers = new DefaultHttp2Headers()
+                .method("GET")
+                .path("/test/pending")
+                .scheme("http")
+                .authority("localhost");
+            headers.set(HttpHeaderNames.ACCEPT, "application/json");
+            client.writeAndFlush(new DefaultHttp2HeadersFrame(headers, true).stream(recorder.newStream()));
+            exchange(client, server);
+
+            final var isDrained = isCompleted(service.drain(Duration.ofMinutes(1)));
+            assertFalse(isDrained.get());
+            assertFalse(recorder.isGoAwayReceived);
+
+            completion.complete(Result.done());
+            exchange(client, server);
+            assertTrue(isDrained.get());
+            assertEquals("200", recorder.status);
+            assertTrue(recorder.isGoAwayReceived);
+        });
+    }
+
+    @Test
+    void shouldSendFileHeadersWithoutBodyInResponseToHead() throws Throwable {
+        final var file = Files.createTempFile("kalix-", ".txt");
+        try {
+            Files.writeString(file, "0123456789");
+            runInNettyThread(() -> {
+                final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                    .route("/file", (request, response) -> {
+                        response.status(HttpStatus.OK).body(file);
+                        return Future.done();
+                    }));
+                final var channel = newChannel(service);
+
+                channel.writeInbound(newRequest(HttpMethod.GET, "/test/file"));
+                final var getResponse = (HttpResponse) channel.readOutbound();
+                assertEquals("10", getResponse.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+                final var getBody = channel.readOutbound();
+                assertTrue(getBody instanceof FileRegion);
+                ReferenceCountUtil.release(getBody);
+                ReferenceCountUtil.release(channel.readOutbound());
+
+                channel.writeInbound(newRequest(HttpMethod.HEAD, "/test/file"));
+                final var headResponse = (HttpResponse) channel.readOutbound();
+                assertEquals(HttpResponseStatus.OK, headResponse.status());
+                assertEquals("10", headResponse.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+                assertEquals(getResponse.headers().get(HttpHeaderNames.ETAG),
+                    headResponse.headers().get(HttpHeaderNames.ETAG));
+                final var headBody = channel.readOutbound();
+                assertTrue(headBody instanceof LastHttpContent);
+                assertEquals(0, ((LastHttpContent) headBody).content().readableBytes());
+                assertNull(channel.readOutbound());
+            });
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void shouldTellTooLongUrisFromTooLargeHeaders() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted()));
+
+            assertEquals("414", respondToRawRequest(service, "GET /test/" + "u".repeat(64) +
+                " HTTP/1.1\r\n\r\n"));
+            assertEquals("431", respondToRawRequest(service, "GET /test/ok HTTP/1.1\r\n" +
+                "x-header: " + "h".repeat(64) + "\r\n\r\n"));
+        });
+    }
+
+    @Test
+    void shouldRejectBodiesLargerThan16MiBUnlessUnlimited() throws Throwable {
+        runInNettyThread(() -> {
+            final var request = "GET /test/ok HTTP/1.1\r\n" +
+                "content-type: application/json\r\n" +
+                "content-length: " + (16 * 1024 * 1024 + 1) + "\r\n\r\n";
+
+            final var limited = newService(newHttpService(AccessPolicy.unrestricted()));
+            assertEquals("413", respondToRawRequest(limited, request));
+
+            final var unlimited = newService(newHttpService(AccessPolicy.unrestricted()).maxBodySize(0));
+            assertEquals("200", respondToRawRequest(unlimited, request));
+        });
+    }
+
+    @Test
+    void shouldWeakenTagsOfCachedResponsesIfCompressed() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .responseCompression(true)
+                .filter("/data", new HttpResponseCache.Builder().build())
+                .get("/data", (request, response) -> {
+                    response.status(HttpStatus.OK).body("x".repeat(2048));
+                    return Future.done();
+                }));
+            final var channel = newChannel(service);
+
+            final var identity = exchange(channel, newRequest(HttpMethod.GET, "/test/data"));
+            assertEquals(HttpResponseStatus.OK, identity.status());
+            final var tag = identity.headers().get(HttpHeaderNames.ETAG);
+            assertTrue(tag.startsWith("\""));
+
+            final var gzipRequest = newRequest(HttpMethod.GET, "/test/data");
+            gzipRequest.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+            final var gzip = exchange(channel, gzipRequest);
+            assertEquals(HttpResponseStatus.OK, gzip.status());
+            assertEquals("gzip", gzip.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            assertEquals("W/" + tag, gzip.headers().get(HttpHeaderNames.ETAG));
+
+            final var gzipConditionalRequest = newRequest(HttpMethod.GET, "/test/data");
+            gzipConditionalRequest.headers()
+                .set(HttpHeaderNames.ACCEPT_ENCODING, "gzip")
+                .set(HttpHeaderNames.IF_NONE_MATCH, "W/" + tag);
+            final var gzipNotModified = exchange(channel, gzipConditionalRequest);
+            assertEquals(HttpResponseStatus.NOT_MODIFIED, gzipNotModified.status());
+            assertEquals("W/" + tag, gzipNotModified.headers().get(HttpHeaderNames.ETAG));
+            assertFalse(gzipNotModified.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+
+            final var identityConditionalRequest = newRequest(HttpMethod.GET, "/test/data");
+            identityConditionalRequest.headers().set(HttpHeaderNames.IF_NONE_MATCH, tag);
+            final var identityNotModified = exchange(channel, identityConditionalRequest);
+            assertEquals(HttpResponseStatus.NOT_MODIFIED, identityNotModified.status());
+            assertEquals(tag, identityNotModified.headers().get(HttpHeaderNames.ETAG));
+            assertEquals("2048", identityNotModified.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        });
+    }
+
+    @Test
+    void shouldMergeAcceptEncodingIntoExistingVaryHeader() throws Throwable {
+        runInNettyThread(() -> {
+            final var service = newService(newHttpService(AccessPolicy.unrestricted())
+                .responseCompression(true)
+                .get("/data", (request, response) -> {
+                    response.status(HttpStatus.OK)
+                        .header("vary", "origin")
+                        .body("x".repeat(2048));
+                    return Future.done();
+                })
+                .get("/data-varying", (request, response) -> {
+                    response.status(HttpStatus.OK)
+                        .header("vary", "Origin, Accept-Encoding")
+                        .body("x".repeat(2048));
+                    return Future.done();
+                }));
+            final var channel = newChannel(service);
+
+            final var request = newRequest(HttpMethod.GET, "/test/data");
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+            final var response = exchange(channel, request);
+            assertEquals("gzip", response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            assertEquals(List.of("origin, accept-encoding"), response.headers().getAll(HttpHeaderNames.VARY));
+
+            final var request1 = newRequest(HttpMethod.GET, "/test/data-varying");
+            request1.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+            final var response1 = exchange(channel, request1);
+            assertEquals("gzip", response1.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            assertEquals(List.of("Origin, Accept-Encoding"), response1.headers().getAll(HttpHeaderNames.VARY));
+        });
+    }
+
+    /**
+     * Decodes given {@code request} with initial line and header size limits
+     * of 64 bytes, and returns the status code of the response sent.
+     */
+    private static String respondToRawRequest(final HttpServerService service, final String request) {
+        final var channel = new InetEmbeddedChannel(
+            new HttpServerCodec(64, 64, 8192),
+            new ChunkedWriteHandler(),
+            new NettyHttpServiceConnection(system, path -> Optional.of(service), null,
+                new HttpAuthorizationCache()));
+        channel.writeInbound(Unpooled.copiedBuffer(request, StandardCharsets.US_ASCII));
+        final ByteBuf response = channel.readOutbound();
+        assertNotNull(response);
+        try {
+            return response.toString(StandardCharsets.US_ASCII).substring(9, 12);
+        }
+        finally {
+            response.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    /**
+     * Passes given {@code request} to {@code channel}, releases the content
+     * of the response sent in return and then returns that response.
+     */
+    private static HttpResponse exchange(final EmbeddedChannel channel, final HttpRequest request) {
+        channel.writeInbound(request);
+        final HttpResponse response = channel.readOutbound();
+        assertNotNull(response);
+        Object content;
+        while ((content = channel.readOutbound()) != null) {
+            ReferenceCountUtil.release(content);
+        }
+        return response;
+    }
+
+    /**
+     * Passes bytes written by each of the two given channels to the other,
+     * until neither writes anything more.
+     */
+    private static void exchange(final EmbeddedChannel a, final EmbeddedChannel b) {
+        boolean isExchanging;
+        do {
+            a.runPendingTasks();
+            b.runPendingTasks();
+            isExchanging = transfer(a, b) | transfer(b, a);
+        }
+        while (isExchanging);
+    }
+
+    private static boolean transfer(final EmbeddedChannel source, final EmbeddedChannel target) {
+        var isTransferring = false;
+        ByteBuf buffer;
+        while ((buffer = source.readOutbound()) != null) {
+            isTransferring = true;
+            if (target.isOpen()) {
+                target.writeInbound(buffer);
+            }
+            else {
+                buffer.release();
+            }
+        }
+        return isTransferring;
+    }
+
+    private static AtomicBoolean isCompleted(final Future<?> future) {
+        final var isCompleted = new AtomicBoolean(false);
+        future.onResult(ignored -> isCompleted.set(true));
+        return isCompleted;
+    }
+
+    /**
+     * Runs given {@code runnable} in a Netty thread, as connection handlers
+     * expect to be, and rethrows anything it throws.
+     */
+    static void runInNettyThread(final Runnable runnable) throws Throwable {
+        final var fault = new AtomicReference<Throwable>();
+        final var thread = new NettyThread(() -> {
+            try {
+                runnable.run();
+            }
+            catch (final Throwable throwable) {
+                fault.set(throwable);
+            }
+        });
+        thread.start();
+        thread.join();
+        if (fault.get() != null) {
+            throw fault.get();
+        }
+    }
+
+    static HttpService newHttpService(final AccessPolicy accessPolicy) {
+        return new HttpService()
+            .name("test-service")
+            .basePath("/test")
+            .encodings(EncodingDescriptor.JSON)
+            .accessPolicy(accessPolicy)
+            .get("/ok", (request, response) -> {
+                response.status(HttpStatus.OK);
+                return Future.done();
+            });
+    }
+
+    static HttpServerService newService(final HttpService service) {
+        return new HttpServerService(system, service);
+    }
+
+    static EmbeddedChannel newChannel(final HttpServerService service) {
+        return new InetEmbeddedChannel(
+            new ChunkedWriteHandler(),
+            new NettyHttpServiceConnection(system, path -> Optional.of(service), null,
+                new HttpAuthorizationCache()));
+    }
+
+    static HttpRequest newRequest(final HttpMethod method, final String uri) {
+        final var request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri);
+        request.headers().set(HttpHeaderNames.ACCEPT, "application/json");
+        return request;
+    }
+
+    /**
+     * Embedded channel with Internet socket addresses, which are expected by
+     * the connection handler.
+     */
+    static class InetEmbeddedChannel extends EmbeddedChannel {
+        private static final InetSocketAddress LOCAL_ADDRESS = new InetSocketAddress("127.0.0.1", 8443);
+        private static final InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("127.0.0.1", 50000);
+
+        InetEmbeddedChannel(final ChannelHandler... handlers) {
+            super(handlers);
+        }
+
+        @Override
+        protected SocketAddress localAddress0() {
+            return isActive() ? LOCAL_ADDRESS : null;
+        }
+
+        @Override
+        protected SocketAddress remoteAddress0() {
+            return isActive() ? REMOTE_ADDRESS : null;
+        }
+    }
+
+    private static class Http2FrameRecorder extends Http2ChannelDuplexHandler {
+        private String status = null;
+        private boolean isGoAwayReceived = false;
+
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            if (msg instanceof Http2HeadersFrame) {
+                status = String.valueOf(((Http2HeadersFrame) msg).headers().status());
+            }
+            else if (msg instanceof Http2GoAwayFrame) {
+                isGoAwayReceived = true;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    /**
+     * Access policy that makes every decision it is asked for as given
+     * {@code decision} completes.
+     */
+    private static class AsyncAccessPolicy implements AccessPolicy {
+        private final FutureAnnouncement<Boolean> decision;
+
+        private AsyncAccessPolicy(final Future<Boolean> decision) {
+            this.decision = decision.toAnnouncement();
+        }
+
+        @Override
+        public SecurityDescriptor descriptor() {
+            return SecurityDescriptor.NOT_SECURE;
+        }
+
+        @Override
+        public boolean isAuthorized(
+            final SystemIdentityDescription consumer,
+            final ArSystem provider,
+            final ServiceDescription service,
+            final String token)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Boolean> isAuthorizedAsync(
+            final SystemIdentityDescription consumer,
+            final ArSystem provider,
+            final ServiceDescription service,
+            final String token)
+        {
+            return decision.subscribe();
+        }
+    }
+}
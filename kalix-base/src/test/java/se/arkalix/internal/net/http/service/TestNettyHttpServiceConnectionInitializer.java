@@ -0,0 +1,153 @@
+package se.arkalix.internal.net.http.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import se.arkalix.ArSystem;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.internal.net.http.service.TestNettyHttpServiceConnection.InetEmbeddedChannel;
+import se.arkalix.net.http.HttpStatus;
+import se.arkalix.net.http.service.HttpServerSettings;
+import se.arkalix.net.http.service.HttpService;
+import se.arkalix.security.access.AccessPolicy;
+import se.arkalix.util.concurrent.Future;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.arkalix.internal.net.http.service.TestNettyHttpServiceConnection.runInNettyThread;
+
+public class TestNettyHttpServiceConnectionInitializer {
+    private static final String HTTP2_PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n";
+
+    private static ArSystem system;
+
+    @BeforeAll
+    static void beforeAll() {
+        system = new ArSystem.Builder()
+            .name("test-system")
+            .insecure()
+            .httpServerSettings(new HttpServerSettings.Builder()
+                .idleTimeout(Duration.ofMillis(20))
+                .build())
+            .build();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        system.shutdown();
+    }
+
+    @Test
+    void shouldSelectHttp2IfPrefaceIsReceived() throws Throwable {
+        runInNettyThread(() -> {
+            final var channel = newChannel();
+
+            channel.writeInbound(Unpooled.copiedBuffer(HTTP2_PREFACE, StandardCharsets.US_ASCII));
+
+            assertEquals(List.of(
+                "IdleStateHandler",
+                "Http2FrameCodec",
+                "Http2MultiplexHandler",
+                "Http2ConnectionCloser"), handlerNamesOf(channel));
+
+            // The server connection preface consists of a SETTINGS frame.
+            final ByteBuf frame = channel.readOutbound();
+            assertNotNull(frame);
+            assertEquals(0x4, frame.getByte(3));
+            frame.release();
+
+            assertTrue(channel.isOpen());
+            channel.finishAndReleaseAll();
+        });
+    }
+
+    @Test
+    void shouldSelectHttp1IfHttp1RequestIsReceived() throws Throwable {
+        runInNettyThread(() -> {
+            final var channel = newChannel();
+
+            channel.writeInbound(Unpooled.copiedBuffer("" +
+                "GET /test/ok HTTP/1.1\r\naccept: application/json\r\n\r\n", StandardCharsets.US_ASCII));
+
+            assertEquals(List.of(
+                "IdleStateHandler",
+                "HttpServerCodec",
+                "FlowControlHandler",
+                "ChunkedWriteHandler",
+                "NettyHttpServiceConnection"), handlerNamesOf(channel));
+
+            final ByteBuf response = channel.readOutbound();
+            assertNotNull(response);
+            assertTrue(response.toString(StandardCharsets.US_ASCII).startsWith("HTTP/1.1 200 OK"));
+            response.release();
+
+            assertTrue(channel.isOpen());
+            channel.finishAndReleaseAll();
+        });
+    }
+
+    @Test
+    void shouldAwaitSelectionWhilePartOfPrefaceIsReceived() throws Throwable {
+        runInNettyThread(() -> {
+            final var channel = newChannel();
+
+            channel.writeInbound(Unpooled.copiedBuffer(HTTP2_PREFACE.substring(0, 8), StandardCharsets.US_ASCII));
+
+            assertEquals(List.of(
+                "ProtocolSelectionTimeout",
+                "PriorKnowledgeDetector"), handlerNamesOf(channel));
+            assertNull(channel.readOutbound());
+            assertTrue(channel.isOpen());
+            channel.finishAndReleaseAll();
+        });
+    }
+
+    @Test
+    void shouldCloseConnectionIfNoSelectionIsMadeBeforeTimeout() throws Throwable {
+        runInNettyThread(() -> {
+            final var channel = newChannel();
+
+            channel.writeInbound(Unpooled.copiedBuffer(HTTP2_PREFACE.substring(0, 8), StandardCharsets.US_ASCII));
+            assertTrue(channel.isOpen());
+
+            try {
+                Thread.sleep(50);
+            }
+            catch (final InterruptedException exception) {
+                throw new RuntimeException(exception);
+            }
+            channel.runScheduledPendingTasks();
+
+            assertFalse(channel.isOpen());
+            channel.finishAndReleaseAll();
+        });
+    }
+
+    private static EmbeddedChannel newChannel() {
+        final var service = new HttpServerService(system, new HttpService()
+            .name("test-service")
+            .basePath("/test")
+            .encodings(EncodingDescriptor.JSON)
+            .accessPolicy(AccessPolicy.unrestricted())
+            .get("/ok", (request, response) -> {
+                response.status(HttpStatus.OK);
+                return Future.done();
+            }));
+        return new InetEmbeddedChannel(
+            new NettyHttpServiceConnectionInitializer(system, path -> Optional.of(service), null));
+    }
+
+    private static List<String> handlerNamesOf(final EmbeddedChannel channel) {
+        return channel.pipeline().toMap().values().stream()
+            .map(handler -> handler.getClass().getSimpleName())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package se.arkalix.internal.security.access;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import se.arkalix.descriptor.InterfaceDescriptor;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAccessTokenCache {
+    private static KeyPair keyPairA;
+    private static KeyPair keyPairB;
+
+    @BeforeAll
+    static void generateKeyPairs() throws NoSuchAlgorithmException {
+        final var generator = KeyPairGenerator.getInstance("EC");
+        keyPairA = generator.generateKeyPair();
+        keyPairB = generator.generateKeyPair();
+    }
+
+    @Test
+    void shouldReturnCachedTokensOnlyForSameKeys() {
+        final var cache = new AccessTokenCache(10);
+        final var key = AccessTokenCache.digestOf("token");
+        final var token = tokenExpiringAt(1000);
+
+        assertNull(cache.get(key, keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+        cache.put(key, keyPairA.getPrivate(), keyPairB.getPublic(), token, 0);
+        assertSame(token, cache.get(key, keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+        assertSame(token, cache.get(AccessTokenCache.digestOf("token"), keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+        assertNull(cache.get(AccessTokenCache.digestOf("tokem"), keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+        assertNull(cache.get(key, keyPairB.getPrivate(), keyPairB.getPublic(), 0));
+        assertNull(cache.get(key, keyPairA.getPrivate(), keyPairA.getPublic(), 0));
+
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+
+        cache.clear();
+        assertNull(cache.get(key, keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+    }
+
+    @Test
+    void shouldExpireTokens() {
+        final var cache = new AccessTokenCache(10);
+        final var key = AccessTokenCache.digestOf("token");
+        cache.put(key, keyPairA.getPrivate(), keyPairB.getPublic(), tokenExpiringAt(1000), 0);
+        assertNotNull(cache.get(key, keyPairA.getPrivate(), keyPairB.getPublic(), 999));
+        assertNull(cache.get(key, keyPairA.getPrivate(), keyPairB.getPublic(), 1000));
+        assertEquals(0, cache.size());
+
+        cache.put(key, keyPairA.getPrivate(), keyPairB.getPublic(), tokenExpiringAt(1000), 1000);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldNeverExceedMaxEntries() {
+        final var cache = new AccessTokenCache(4);
+        for (var i = 0; i < 4; ++i) {
+            cache.put(AccessTokenCache.digestOf("expiring" + i), keyPairA.getPrivate(), keyPairB.getPublic(),
+                tokenExpiringAt(i == 0 ? 100 : Long.MAX_VALUE), 0);
+        }
+        final var key = AccessTokenCache.digestOf("token");
+        cache.put(key, keyPairA.getPrivate(), keyPairB.getPublic(), tokenExpiringAt(Long.MAX_VALUE), 100);
+        assertEquals(4, cache.size());
+        assertNull(cache.get(AccessTokenCache.digestOf("expiring0"), keyPairA.getPrivate(), keyPairB.getPublic(), 0));
+
+        for (var i = 0; i < 10; ++i) {
+            cache.put(AccessTokenCache.digestOf("other" + i), keyPairA.getPrivate(), keyPairB.getPublic(),
+                tokenExpiringAt(Long.MAX_VALUE), 100);
+            assertTrue(cache.size() <= 4);
+        }
+    }
+
+    private static AccessToken tokenExpiringAt(final long expiresAt) {
+        return new AccessToken("consumer", InterfaceDescriptor.valueOf("HTTP-SECURE-JSON"), "service", expiresAt);
+    }
+}
@@ -0,0 +1,104 @@
+package se.arkalix.internal.security.identity;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestX509ChainCache {
+    private static final String SYSTEM = "" +
+        "-----BEGIN CERTIFICATE-----\n" +
+        "MIIBojCCAUigAwIBAgIIGg/VQ+FRKeYwCgYIKoZIzj0EAwIwJTEjMCEGA1UEAxMa\n" +
+        "Y2xvdWQuY29tcGFueS5hcnJvd2hlYWQuZXUwHhcNMjYxMDE3MDEyNzQ5WhcNMjcx\n" +
+        "MDE3MDEyNzQ5WjApMScwJQYDVQQDEx5zeXMuY2xvdWQuY29tcGFueS5hcnJvd2hl\n" +
+        "YWQuZXUwWTATBgcqhkjOPQIBBggqhkjOPQMBBwNCAAQbszZGTlWDxP0bQrDsJN7g\n" +
+        "0NUdT4PHB+vt1ikIvbCSBuy0i946UMYcEJLNACVz7gN2r8zjysNCMrB91VJX7zkg\n" +
+        "o14wXDAdBgNVHQ4EFgQU+3GsLy/amadui4iNziyCjepwT/MwGgYDVR0RBBMwEYIJ\n" +
+        "bG9jYWxob3N0hwR/AAABMB8GA1UdIwQYMBaAFMfPIEe8li3oekHTC0Vgt4WHHuvr\n" +
+        "MAoGCCqGSM49BAMCA0gAMEUCIQCFGsUx0pDahUxcZRgqJMuOylftRqQfdK95eiE4\n" +
+        "n/E6HwIgItVSfm+OsiemlQidCZ72dNGN4wex1T7hXNKHbNPIHlU=\n" +
+        "-----END CERTIFICATE-----\n";
+
+    private static final String CLOUD = "" +
+        "-----BEGIN CERTIFICATE-----\n" +
+        "MIIBjTCCATOgAwIBAgIIPupp/RZoa1swCgYIKoZIzj0EAwIwHzEdMBsGA1UEAxMU\n" +
+        "Y29tcGFueS5hcnJvd2hlYWQuZXUwHhcNMjYxMDE3MDEyNzQ1WhcNMjcxMDE3MDEy\n" +
+        "NzQ1WjAlMSMwIQYDVQQDExpjbG91ZC5jb21wYW55LmFycm93aGVhZC5ldTBZMBMG\n" +
+        "ByqGSM49AgEGCCqGSM49AwEHA0IABPJExbA5C3wvEBOt4n4hURpiKQqs84y2tLG4\n" +
+        "r53wAJtIPY+v8iy4hZCKouBD+lQSisxzjIMPE2mIjumo0y7aq72jUzBRMB0GA1Ud\n" +
+        "DgQWBBTHzyBHvJYt6HpB0wtFYLeFhx7r6zAPBgNVHRMBAf8EBTADAQH/MB8GA1Ud\n" +
+        "IwQYMBaAFHVIbttIADgL5Oe00NzFFmoZ1nIDMAoGCCqGSM49BAMCA0gAMEUCIB4z\n" +
+        "uuQI4SVQ8XXxwllnZ6nqUTKN+WDytNkiogcbBRHrAiEA6oCLxKVrCIn8sBMw7aBb\n" +
+        "sWQUZac3G5b0gZVgMPTFvdM=\n" +
+        "-----END CERTIFICATE-----\n";
+
+    private static final String COMPANY = "" +
+        "-----BEGIN CERTIFICATE-----\n" +
+        "MIIBfzCCASWgAwIBAgIIWfvrt9FxtEYwCgYIKoZIzj0EAwIwFzEVMBMGA1UEAxMM\n" +
+        "YXJyb3doZWFkLmV1MB4XDTI2MTAxNzAxMjc0MFoXDTI3MTAxNzAxMjc0MFowHzEd\n" +
+        "MBsGA1UEAxMUY29tcGFueS5hcnJvd2hlYWQuZXUwWTATBgcqhkjOPQIBBggqhkjO\n" +
+        "PQMBBwNCAASKYrVxKNBSZ485AgTi+HsqjA5Pvu/pJXKxEpPV5QuwWTyIEXzh8dfI\n" +
+        "4Pw/wRwfb0AyQx6yBjkUpL6FNZwgQB56o1MwUTAdBgNVHQ4EFgQUdUhu20gAOAvk\n" +
+        "57TQ3MUWahnWcgMwDwYDVR0TAQH/BAUwAwEB/zAfBgNVHSMEGDAWgBSooAYroxuD\n" +
+        "pdlNUeu52VqUVDs/VDAKBggqhkjOPQQDAgNIADBFAiAXOxPKS4xKv9M5dxHZ8QDj\n" +
+        "ZFYI1wS7tKD2yuagNHm2OgIhAJyjYYBj0/8Y9LXzZhn7AekCu/rBUUqlgiVbMqH9\n" +
+        "aaTt\n" +
+        "-----END CERTIFICATE-----\n";
+
+    private static X509Certificate system;
+    private static X509Certificate cloud;
+    private static X509Certificate company;
+
+    @BeforeAll
+    static void readCertificates() throws CertificateException {
+        final var factory = CertificateFactory.getInstance("X.509");
+        system = (X509Certificate) factory.generateCertificate(new ByteArrayInputStream(SYSTEM.getBytes(StandardCharsets.US_ASCII)));
+        cloud = (X509Certificate) factory.generateCertificate(new ByteArrayInputStream(CLOUD.getBytes(StandardCharsets.US_ASCII)));
+        company = (X509Certificate) factory.generateCertificate(new ByteArrayInputStream(COMPANY.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void shouldDeriveValuesOncePerChain() {
+        final var cache = new X509ChainCache<Object>(10);
+        final var counter = new AtomicInteger(0);
+
+        final var value0 = cache.getOrDerive(new X509Certificate[]{system, cloud}, chain -> counter.incrementAndGet());
+        final var value1 = cache.getOrDerive(new X509Certificate[]{system, cloud}, chain -> counter.incrementAndGet());
+        assertSame(value0, value1);
+        assertEquals(1, counter.get());
+
+        final var value2 = cache.getOrDerive(new X509Certificate[]{system, company}, chain -> counter.incrementAndGet());
+        assertNotEquals(value0, value2);
+        assertEquals(2, counter.get());
+
+        final var value3 = cache.getOrDerive(new X509Certificate[]{system}, chain -> counter.incrementAndGet());
+        assertNotEquals(value2, value3);
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    void shouldNotRememberNullValues() {
+        final var cache = new X509ChainCache<Object>(10);
+        assertNull(cache.getOrDerive(new X509Certificate[]{system, cloud}, chain -> null));
+        assertEquals(0, cache.size());
+        assertEquals("x", cache.getOrDerive(new X509Certificate[]{system, cloud}, chain -> "x"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void shouldNeverExceedMaxEntries() {
+        final var cache = new X509ChainCache<Object>(2);
+        cache.getOrDerive(new X509Certificate[]{system}, chain -> 0);
+        cache.getOrDerive(new X509Certificate[]{cloud}, chain -> 1);
+        cache.getOrDerive(new X509Certificate[]{company}, chain -> 2);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getOrDerive(new X509Certificate[]{company}, chain -> 3));
+    }
+}
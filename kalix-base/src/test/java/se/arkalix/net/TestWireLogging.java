@@ -0,0 +1,63 @@
+package se.arkalix.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestWireLogging {
+    private static final InetSocketAddress ADDRESS_A = new InetSocketAddress(InetAddress.getLoopbackAddress(), 8443);
+    private static final InetSocketAddress ADDRESS_B = new InetSocketAddress("192.0.2.1", 8443);
+
+    @Test
+    void shouldBeDisabledByDefault() {
+        final var wireLogging = new WireLogging();
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A));
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A, "service"));
+    }
+
+    @Test
+    void shouldEnableAndDisableAll() {
+        final var wireLogging = new WireLogging().enableAll();
+        assertTrue(wireLogging.isEnabledFor(ADDRESS_A));
+        assertTrue(wireLogging.isEnabledFor(null, null));
+
+        wireLogging.disableAll();
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A));
+    }
+
+    @Test
+    void shouldEnableAndDisableForRemoteAddress() {
+        final var wireLogging = new WireLogging().enable(ADDRESS_A.getAddress());
+        assertTrue(wireLogging.isEnabledFor(ADDRESS_A));
+        assertTrue(wireLogging.isEnabledFor(new InetSocketAddress(ADDRESS_A.getAddress(), 80)));
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_B));
+
+        wireLogging.disable(ADDRESS_A.getAddress());
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A));
+    }
+
+    @Test
+    void shouldEnableAndDisableForService() {
+        final var wireLogging = new WireLogging().enableForService("service");
+        assertTrue(wireLogging.isEnabledFor(ADDRESS_A, "service"));
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A, "other-service"));
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A));
+
+        wireLogging.disableForService("service");
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_A, "service"));
+    }
+
+    @Test
+    void shouldRemainEnabledForAddressWhenServiceIsDisabled() {
+        final var wireLogging = new WireLogging()
+            .enable(ADDRESS_A.getAddress())
+            .enableForService("service");
+
+        wireLogging.disableForService("service");
+        assertTrue(wireLogging.isEnabledFor(ADDRESS_A, "service"));
+        assertFalse(wireLogging.isEnabledFor(ADDRESS_B, "service"));
+    }
+}
@@ -50,6 +50,18 @@ public class TestHttpPattern {
         );
     }
 
+    @ParameterizedTest
+    @MethodSource("matchingPatternPathParameterSets")
+    void shouldMatchPatternAndCollectParametersLazily(
+        final String pattern,
+        final String path,
+        final String[] expectedParameters)
+    {
+        final var actualParameters = HttpPattern.valueOf(pattern).match("/base" + path, 5);
+        assertTrue(actualParameters.isPresent(), "Pattern `" + pattern + "` does not match path `" + path + "`");
+        assertEquals(Arrays.asList(expectedParameters), actualParameters.get());
+    }
+
     @ParameterizedTest
     @MethodSource("mismatchingPatternPathPairs")
     void shouldNotMatchPattern(final String pattern, final String path) {
@@ -60,6 +72,13 @@ public class TestHttpPattern {
         );
     }
 
+    @ParameterizedTest
+    @MethodSource("mismatchingPatternPathPairs")
+    void shouldNotMatchPatternOrCollectParameters(final String pattern, final String path) {
+        assertTrue(HttpPattern.valueOf(pattern).match(path, 0).isEmpty(),
+            "Pattern `" + pattern + "` does match path `" + path + "`");
+    }
+
     static Stream<Arguments> mismatchingPatternPathPairs() {
         return Stream.of(
             arguments("/", "/hello"),
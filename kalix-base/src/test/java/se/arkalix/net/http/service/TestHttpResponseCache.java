@@ -0,0 +1,190 @@
+package se.arkalix.net.http.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import se.arkalix.descriptor.EncodingDescriptor;
+import se.arkalix.internal.net.http.service.DefaultHttpServiceResponse;
+import se.arkalix.net.http.HttpHeaders;
+import se.arkalix.net.http.HttpMethod;
+import se.arkalix.net.http.HttpStatus;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpResponseCache {
+    @Test
+    void shouldStoreEncodedBodiesOfSuccessfulResponses() {
+        final var cache = new HttpResponseCache.Builder().build();
+
+        final var response = respond(cache, newRequest(HttpMethod.GET, "/a"), HttpStatus.OK, "1234");
+        assertEquals(1, cache.count());
+        assertEquals(4, cache.size());
+        assertTrue(response.headers().get("etag").isPresent());
+    }
+
+    @Test
+    void shouldRespondWithStoredBodyIfHit() {
+        final var cache = new HttpResponseCache.Builder().build();
+        final var tag = respond(cache, newRequest(HttpMethod.GET, "/a"), HttpStatus.OK, "1234")
+            .headers().get("etag").orElseThrow();
+
+        final var response = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        assertTrue(cache.handle(newRequest(HttpMethod.GET, "/a"), response).resultIfCompleted().isSuccess());
+        assertEquals(HttpStatus.OK, response.status().orElse(null));
+        assertEquals("1234", ((ByteBuf) response.body().orElseThrow()).toString(StandardCharsets.UTF_8));
+        assertEquals(tag, response.headers().get("etag").orElse(null));
+    }
+
+    @Test
+    void shouldRespondWithNotModifiedIfTagMatches() {
+        final var cache = new HttpResponseCache.Builder().build();
+        final var tag = respond(cache, newRequest(HttpMethod.GET, "/a"), HttpStatus.OK, "1234")
+            .headers().get("etag").orElseThrow();
+
+        final var response = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a", "if-none-match", tag), response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.status().orElse(null));
+        assertEquals("4", response.headers().get("content-length").orElse(null));
+        assertTrue(response.body().isEmpty());
+
+        final var response1 = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a", "if-none-match", "\"other\""), response1);
+        assertEquals(HttpStatus.OK, response1.status().orElse(null));
+    }
+
+    @Test
+    void shouldNotStoreResponsesWithNoStoreDirectives() {
+        final var cache = new HttpResponseCache.Builder().build();
+        final var response = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a"), response);
+
+        response.status(HttpStatus.OK).header("cache-control", "private, No-Store");
+        response.notifyEncodedBody(bufferOf("1234"));
+        assertEquals(0, cache.count());
+        assertTrue(response.headers().get("etag").isEmpty());
+    }
+
+    @Test
+    void shouldNotStoreUnsuccessfulResponses() {
+        final var cache = new HttpResponseCache.Builder().build();
+        respond(cache, newRequest(HttpMethod.GET, "/a"), HttpStatus.NOT_FOUND, "1234");
+        assertEquals(0, cache.count());
+    }
+
+    @Test
+    void shouldIgnoreRequestsOtherThanGetOrHead() {
+        final var cache = new HttpResponseCache.Builder().build();
+        respond(cache, newRequest(HttpMethod.POST, "/a"), HttpStatus.OK, "1234");
+        assertEquals(0, cache.count());
+    }
+
+    @Test
+    void shouldNotStoreResponsesCreatedWhileInvalidating() {
+        final var cache = new HttpResponseCache.Builder().build();
+        final var response = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a"), response);
+
+        cache.invalidate("/a");
+        response.status(HttpStatus.OK);
+        response.notifyEncodedBody(bufferOf("1234"));
+
+        final var response1 = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a"), response1);
+        assertTrue(response1.status().isEmpty());
+    }
+
+    @Test
+    void shouldTellResponsesApartByMethodEncodingAndQuery() {
+        final var cache = new HttpResponseCache.Builder().build();
+        respond(cache, newRequest(HttpMethod.GET, "/a", Map.of("x", List.of("1"), "y", List.of("2"))),
+            HttpStatus.OK, "1234");
+
+        final var hit = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a", new LinkedHashMap<>(Map.of(
+            "y", List.of("2"), "x", List.of("1")))), hit);
+        assertEquals(HttpStatus.OK, hit.status().orElse(null));
+
+        final var otherMethod = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.HEAD, "/a", Map.of("x", List.of("1"), "y", List.of("2"))), otherMethod);
+        assertTrue(otherMethod.status().isEmpty());
+
+        final var otherEncoding = new DefaultHttpServiceResponse(EncodingDescriptor.CBOR);
+        cache.handle(newRequest(HttpMethod.GET, "/a", Map.of("x", List.of("1"), "y", List.of("2"))), otherEncoding);
+        assertTrue(otherEncoding.status().isEmpty());
+
+        final var otherQuery = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(newRequest(HttpMethod.GET, "/a", Map.of("x", List.of("1"))), otherQuery);
+        assertTrue(otherQuery.status().isEmpty());
+    }
+
+    /**
+     * Lets given {@code cache} handle given {@code request}, and then
+     * completes the response as if a route had done so and its body had been
+     * encoded.
+     */
+    private static DefaultHttpServiceResponse respond(
+        final HttpResponseCache cache,
+        final HttpServiceRequest request,
+        final HttpStatus status,
+        final String body)
+    {
+        final var response = new DefaultHttpServiceResponse(EncodingDescriptor.JSON);
+        cache.handle(request, response);
+        assertTrue(response.status().isEmpty());
+        response.status(status);
+        response.notifyEncodedBody(bufferOf(body));
+        return response;
+    }
+
+    private static ByteBuf bufferOf(final String string) {
+        return Unpooled.copiedBuffer(string, StandardCharsets.UTF_8);
+    }
+
+    private static HttpServiceRequest newRequest(final HttpMethod method, final String path) {
+        return newRequest(method, path, Collections.emptyMap(), new HttpHeaders());
+    }
+
+    private static HttpServiceRequest newRequest(
+        final HttpMethod method,
+        final String path,
+        final String headerName,
+        final String headerValue)
+    {
+        return newRequest(method, path, Collections.emptyMap(), new HttpHeaders().set(headerName, headerValue));
+    }
+
+    private static HttpServiceRequest newRequest(
+        final HttpMethod method,
+        final String path,
+        final Map<String, List<String>> queryParameters)
+    {
+        return newRequest(method, path, queryParameters, new HttpHeaders());
+    }
+
+    private static HttpServiceRequest newRequest(
+        final HttpMethod method,
+        final String path,
+        final Map<String, List<String>> queryParameters,
+        final HttpHeaders headers)
+    {
+        return (HttpServiceRequest) Proxy.newProxyInstance(
+            HttpServiceRequest.class.getClassLoader(),
+            new Class<?>[]{HttpServiceRequest.class},
+            (proxy, invoked, arguments) -> {
+                switch (invoked.getName()) {
+                case "method": return method;
+                case "path": return path;
+                case "queryParameters": return queryParameters;
+                case "headers": return headers;
+                default: throw new UnsupportedOperationException(invoked.getName());
+                }
+            });
+    }
+}
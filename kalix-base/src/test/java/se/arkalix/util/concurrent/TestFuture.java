@@ -0,0 +1,42 @@
+package se.arkalix.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+import se.arkalix.util.Result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFuture {
+    @Test
+    void shouldProvideResultsOfFuturesCompletedWhenCreated() {
+        final var done = Future.done().resultIfCompleted();
+        assertNotNull(done);
+        assertTrue(done.isSuccess());
+        assertNull(done.value());
+
+        final var success = Future.success(42).resultIfCompleted();
+        assertNotNull(success);
+        assertEquals(42, success.value());
+
+        final var exception = new IllegalStateException();
+        final var failure = Future.failure(exception).resultIfCompleted();
+        assertNotNull(failure);
+        assertSame(exception, failure.fault());
+
+        final var result = Future.of(Result.success("x")).resultIfCompleted();
+        assertNotNull(result);
+        assertEquals("x", result.value());
+    }
+
+    @Test
+    void shouldProvideResultsOfFuturesMappedFromCompletedFutures() {
+        final var result = Future.success(1).map(value -> value + 1).resultIfCompleted();
+        assertNotNull(result);
+        assertEquals(2, result.value());
+    }
+
+    @Test
+    void shouldProvideSameResultOfSuccessfulFutureEachTime() {
+        final var future = Future.success(42);
+        assertSame(future.resultIfCompleted(), future.resultIfCompleted());
+    }
+}